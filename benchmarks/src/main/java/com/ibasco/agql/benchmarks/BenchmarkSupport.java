@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.benchmarks;
+
+import com.ibasco.agql.core.AbstractRequest;
+import com.ibasco.agql.core.NettyChannelContext;
+import com.ibasco.agql.core.transport.NettyChannelAttributes;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.ReferenceCountUtil;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Shared fixtures for the benchmarks. The payloads mirror the layout (and approximate sizes) of responses captured from live servers.
+ */
+final class BenchmarkSupport {
+
+    static final InetSocketAddress SERVER_ADDRESS = new InetSocketAddress("192.168.1.10", 27015);
+
+    private BenchmarkSupport() {}
+
+    /**
+     * Create a new {@link EmbeddedChannel} with a {@link NettyChannelContext} attached, similar to how the channel factories prepare a channel before it is handed to the messenger.
+     *
+     * @param contextFactory
+     *         Function that creates the {@link NettyChannelContext} for the channel
+     * @param request
+     *         The request to attach to the context
+     * @param handlers
+     *         The handlers to register to the pipeline
+     *
+     * @return The newly created {@link EmbeddedChannel}
+     */
+    static EmbeddedChannel newChannel(Function<EmbeddedChannel, NettyChannelContext> contextFactory, AbstractRequest request, ChannelHandler... handlers) {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        NettyChannelContext context = contextFactory.apply(channel);
+        context.disableAutoRelease();
+        context.properties().request(request);
+        context.properties().envelope().recipient(SERVER_ADDRESS);
+        channel.attr(NettyChannelAttributes.CHANNEL_CONTEXT).set(context);
+        channel.pipeline().addLast(handlers);
+        return channel;
+    }
+
+    /**
+     * Drain and release all inbound messages of the channel
+     *
+     * @param channel
+     *         The {@link EmbeddedChannel} to drain
+     *
+     * @return The last message read
+     */
+    static Object drainInbound(EmbeddedChannel channel) {
+        Object last = null;
+        Object msg;
+        while ((msg = channel.readInbound()) != null) {
+            last = msg;
+            ReferenceCountUtil.release(msg);
+        }
+        return last;
+    }
+
+    //<editor-fold desc="Source Query Payloads">
+
+    /**
+     * @return A typical A2S_INFO response body (without the packet type and header) with all extra data flags present
+     */
+    static ByteBuf infoPayload() {
+        ByteBuf buf = Unpooled.buffer();
+        buf.writeByte(17); //protocol
+        writeString(buf, "Valve CS:GO Asia Server (srcds1024-sgp1.146.74)");
+        writeString(buf, "de_mirage");
+        writeString(buf, "csgo");
+        writeString(buf, "Counter-Strike: Global Offensive");
+        buf.writeShortLE(730);
+        buf.writeByte(18); //players
+        buf.writeByte(24); //max players
+        buf.writeByte(0); //bots
+        buf.writeByte('d');
+        buf.writeByte('l');
+        buf.writeByte(0); //public
+        buf.writeByte(1); //vac
+        writeString(buf, "1.38.8.1");
+        buf.writeByte(0x80 | 0x10 | 0x20 | 0x01); //port, steam id, tags, game id
+        buf.writeShortLE(27015);
+        buf.writeLongLE(90154768573440001L);
+        writeString(buf, "valve_ds,empty,secure,competitive,casual");
+        buf.writeLongLE(730L);
+        return toDirect(buf);
+    }
+
+    /**
+     * @param count
+     *         The number of players
+     *
+     * @return A typical A2S_PLAYER response body (without the packet type and header)
+     */
+    static ByteBuf playersPayload(int count) {
+        ByteBuf buf = Unpooled.buffer();
+        buf.writeByte(count);
+        for (int i = 0; i < count; i++) {
+            buf.writeByte(0);
+            writeString(buf, "Player #" + i + " ★ [clan]");
+            buf.writeIntLE(i * 3);
+            buf.writeFloatLE(60.5f * (i + 1));
+        }
+        return toDirect(buf);
+    }
+
+    /**
+     * @param count
+     *         The number of rules
+     *
+     * @return A typical A2S_RULES response body (without the packet type and header)
+     */
+    static ByteBuf rulesPayload(int count) {
+        ByteBuf buf = Unpooled.buffer();
+        buf.writeShortLE(count);
+        for (int i = 0; i < count; i++) {
+            writeString(buf, "sv_rule_name_" + i);
+            writeString(buf, (i % 3 == 0) ? "1" : "value_" + i);
+        }
+        return toDirect(buf);
+    }
+
+    /**
+     * Split a complete single-packet response into split-packet datagrams (uncompressed)
+     *
+     * @param header
+     *         The response header
+     * @param body
+     *         The response body
+     * @param maxPacketSize
+     *         The maximum payload size of each split-packet
+     *
+     * @return The list of raw datagram contents
+     */
+    static List<ByteBuf> splitDatagrams(int header, ByteBuf body, int maxPacketSize) {
+        ByteBuf single = Unpooled.buffer();
+        single.writeIntLE(0xFFFFFFFF);
+        single.writeByte(header);
+        single.writeBytes(body, body.readerIndex(), body.readableBytes());
+        int count = (single.readableBytes() + maxPacketSize - 1) / maxPacketSize;
+        List<ByteBuf> datagrams = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int length = Math.min(maxPacketSize, single.readableBytes());
+            ByteBuf datagram = Unpooled.buffer();
+            datagram.writeIntLE(0xFFFFFFFE);
+            datagram.writeIntLE(0x1234);
+            datagram.writeByte(count);
+            datagram.writeByte(i);
+            datagram.writeShortLE(maxPacketSize);
+            datagram.writeBytes(single, length);
+            datagrams.add(toDirect(datagram));
+        }
+        single.release();
+        return datagrams;
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Master Server Payloads">
+
+    /**
+     * @param count
+     *         The number of addresses contained in the batch
+     * @param terminate
+     *         {@code true} if the batch should end with a terminating (0.0.0.0:0) address
+     *
+     * @return A master server response batch, including the header
+     */
+    static ByteBuf masterBatchPayload(int count, boolean terminate) {
+        ByteBuf buf = Unpooled.buffer();
+        buf.writeInt(0xFFFFFFFF);
+        buf.writeByte(0x66);
+        buf.writeByte(0x0A);
+        for (int i = 0; i < count; i++) {
+            buf.writeByte(10 + (i >> 16 & 0xFF));
+            buf.writeByte(i >> 8 & 0xFF);
+            buf.writeByte(i & 0xFF);
+            buf.writeByte(1);
+            buf.writeShort(27015 + (i % 10));
+        }
+        if (terminate) {
+            buf.writeInt(0);
+            buf.writeShort(0);
+        }
+        return toDirect(buf);
+    }
+    //</editor-fold>
+
+    /**
+     * @param length
+     *         The length of the response body
+     *
+     * @return A null-terminated rcon response body
+     */
+    static ByteBuf rconPayload(int length) {
+        ByteBuf buf = Unpooled.buffer(length + 1);
+        for (int i = 0; i < length; i++)
+            buf.writeByte((i % 64 == 63) ? '\n' : 'a' + (i % 26));
+        buf.writeByte(0);
+        return toDirect(buf);
+    }
+
+    private static void writeString(ByteBuf buf, String value) {
+        buf.writeCharSequence(value, StandardCharsets.UTF_8);
+        buf.writeByte(0);
+    }
+
+    private static ByteBuf toDirect(ByteBuf heap) {
+        ByteBuf direct = Unpooled.directBuffer(heap.readableBytes());
+        direct.writeBytes(heap);
+        heap.release();
+        return Unpooled.unreleasableBuffer(direct);
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.benchmarks;
+
+import com.ibasco.agql.protocols.valve.steam.master.MasterServerChannelContext;
+import com.ibasco.agql.protocols.valve.steam.master.MasterServerMessenger;
+import com.ibasco.agql.protocols.valve.steam.master.handlers.MasterServerAddressDecoder;
+import com.ibasco.agql.protocols.valve.steam.master.handlers.MasterServerPacketDecoder;
+import com.ibasco.agql.protocols.valve.steam.master.message.MasterServerRequest;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the cost of decoding a single master server response batch through {@link MasterServerPacketDecoder} and {@link MasterServerAddressDecoder}, including the per-address callback.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MasterServerAddressDecoderBenchmark {
+
+    /**
+     * A full batch is 1392 bytes (header + 231 addresses)
+     */
+    @Param({"231"})
+    private int addressCount;
+
+    private MasterServerMessenger messenger;
+
+    private EmbeddedChannel channel;
+
+    private ByteBuf payload;
+
+    private Blackhole blackhole;
+
+    @Setup(Level.Trial)
+    public void setup(Blackhole blackhole) {
+        this.blackhole = blackhole;
+        messenger = new MasterServerMessenger(null);
+        MasterServerRequest request = new MasterServerRequest((address, sender, error) -> this.blackhole.consume(address));
+        channel = BenchmarkSupport.newChannel(ch -> new MasterServerChannelContext(ch, messenger), request, new MasterServerPacketDecoder(), new MasterServerAddressDecoder());
+        payload = BenchmarkSupport.masterBatchPayload(addressCount, false);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        channel.finishAndReleaseAll();
+        messenger.close();
+    }
+
+    @Benchmark
+    public Object decodeBatch() {
+        //re-initializes the de-duplication sets of the address decoder, so every batch is processed as new
+        channel.pipeline().fireChannelActive();
+        channel.writeInbound(payload.duplicate());
+        return BenchmarkSupport.drainInbound(channel);
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.benchmarks;
+
+import com.ibasco.agql.core.util.FailsafeOptions;
+import com.ibasco.agql.emulator.EmulatorOptions;
+import com.ibasco.agql.emulator.MasterServerEmulator;
+import com.ibasco.agql.protocols.valve.steam.master.MasterServerFilter;
+import com.ibasco.agql.protocols.valve.steam.master.MasterServerOptions;
+import com.ibasco.agql.protocols.valve.steam.master.MasterServerQueryClient;
+import com.ibasco.agql.protocols.valve.steam.master.enums.MasterServerRegion;
+import com.ibasco.agql.protocols.valve.steam.master.enums.MasterServerType;
+import com.ibasco.agql.protocols.valve.steam.master.message.MasterServerResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the time it takes {@link MasterServerQueryClient} to retrieve the complete server list from a local {@link MasterServerEmulator}. Rate limiting is disabled so only the client and transport overhead is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class MasterServerQueryClientBenchmark {
+
+    @Param({"10000"})
+    private int serverCount;
+
+    @Param({"0"})
+    private long latency;
+
+    private MasterServerEmulator emulator;
+
+    private MasterServerQueryClient client;
+
+    @Setup(Level.Trial)
+    public void setup() throws InterruptedException {
+        emulator = new MasterServerEmulator(EmulatorOptions.builder()
+                                                           .option(EmulatorOptions.SERVER_COUNT, serverCount)
+                                                           .option(EmulatorOptions.LATENCY, latency)
+                                                           .build());
+        emulator.start();
+        client = new MasterServerQueryClient(MasterServerOptions.builder()
+                                                                .option(MasterServerOptions.MASTER_ADDRESS, emulator.getAddress())
+                                                                .option(FailsafeOptions.FAILSAFE_RATELIMIT_ENABLED, false)
+                                                                .build());
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() throws IOException {
+        client.close();
+        emulator.close();
+    }
+
+    @Benchmark
+    public MasterServerResponse getServers() {
+        MasterServerResponse response = client.getServers(MasterServerType.SOURCE, MasterServerRegion.REGION_ALL, MasterServerFilter.create()).join();
+        if (response.getServerList().size() != serverCount)
+            throw new IllegalStateException(String.format("Expected %d addresses but got %d", serverCount, response.getServerList().size()));
+        return response;
+    }
+}
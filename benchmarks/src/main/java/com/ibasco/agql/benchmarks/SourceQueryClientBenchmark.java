@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.benchmarks;
+
+import com.ibasco.agql.core.util.FailsafeOptions;
+import com.ibasco.agql.emulator.EmulatorOptions;
+import com.ibasco.agql.emulator.SourceQueryEmulator;
+import com.ibasco.agql.protocols.valve.source.query.SourceQueryClient;
+import com.ibasco.agql.protocols.valve.source.query.SourceQueryOptions;
+import com.ibasco.agql.protocols.valve.source.query.info.SourceQueryInfoResponse;
+import com.ibasco.agql.protocols.valve.source.query.players.SourceQueryPlayerResponse;
+import com.ibasco.agql.protocols.valve.source.query.rules.SourceQueryRulesResponse;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the end-to-end latency distribution (and throughput) of {@link SourceQueryClient} against a local {@link SourceQueryEmulator}. Requests are spread in a round-robin fashion across all emulated servers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(16)
+@Fork(1)
+public class SourceQueryClientBenchmark {
+
+    @Param({"100"})
+    private int serverCount;
+
+    @Param({"0"})
+    private long latency;
+
+    @Param({"0.0"})
+    private double packetLoss;
+
+    @Param({"150"})
+    private int ruleCount;
+
+    private SourceQueryEmulator emulator;
+
+    private SourceQueryClient client;
+
+    private List<InetSocketAddress> addresses;
+
+    private final AtomicInteger index = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setup() throws InterruptedException {
+        emulator = new SourceQueryEmulator(EmulatorOptions.builder()
+                                                          .option(EmulatorOptions.SERVER_COUNT, serverCount)
+                                                          .option(EmulatorOptions.LATENCY, latency)
+                                                          .option(EmulatorOptions.PACKET_LOSS, packetLoss)
+                                                          .option(EmulatorOptions.RULE_COUNT, ruleCount)
+                                                          .build());
+        emulator.start();
+        addresses = emulator.getAddresses();
+        client = new SourceQueryClient(SourceQueryOptions.builder()
+                                                         .option(FailsafeOptions.FAILSAFE_RATELIMIT_ENABLED, false)
+                                                         .build());
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() throws IOException {
+        client.close();
+        emulator.close();
+    }
+
+    @Benchmark
+    public SourceQueryInfoResponse getInfo() {
+        return client.getInfo(next()).join();
+    }
+
+    @Benchmark
+    public SourceQueryPlayerResponse getPlayers() {
+        return client.getPlayers(next()).join();
+    }
+
+    @Benchmark
+    public SourceQueryRulesResponse getRules() {
+        return client.getRules(next()).join();
+    }
+
+    private InetSocketAddress next() {
+        return addresses.get(Math.floorMod(index.getAndIncrement(), addresses.size()));
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.benchmarks;
+
+import com.ibasco.agql.core.NettyChannelContext;
+import com.ibasco.agql.protocols.valve.source.query.SourceQuery;
+import com.ibasco.agql.protocols.valve.source.query.SourceQueryMessenger;
+import com.ibasco.agql.protocols.valve.source.query.SourceQueryOptions;
+import com.ibasco.agql.protocols.valve.source.query.common.packets.SourceQuerySinglePacket;
+import com.ibasco.agql.protocols.valve.source.query.info.SourceQueryInfoDecoder;
+import com.ibasco.agql.protocols.valve.source.query.info.SourceQueryInfoRequest;
+import com.ibasco.agql.protocols.valve.source.query.info.SourceQueryInfoResponse;
+import com.ibasco.agql.protocols.valve.source.query.info.SourceServer;
+import com.ibasco.agql.protocols.valve.source.query.players.SourceQueryPlayerRequest;
+import com.ibasco.agql.protocols.valve.source.query.players.SourceQueryPlayersDecoder;
+import com.ibasco.agql.protocols.valve.source.query.rules.SourceQueryRulesDecoder;
+import com.ibasco.agql.protocols.valve.source.query.rules.SourceQueryRulesRequest;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the cost of decoding a single A2S_INFO, A2S_PLAYER and A2S_RULES response packet through the respective source query decoders, with and without lazy decoding.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SourceQueryDecoderBenchmark {
+
+    @Param({"24"})
+    private int playerCount;
+
+    @Param({"150"})
+    private int ruleCount;
+
+    @Param({"false", "true"})
+    private boolean lazyDecoding;
+
+    private SourceQueryMessenger messenger;
+
+    private EmbeddedChannel infoChannel;
+
+    private EmbeddedChannel playersChannel;
+
+    private EmbeddedChannel rulesChannel;
+
+    private ByteBuf infoPayload;
+
+    private ByteBuf playersPayload;
+
+    private ByteBuf rulesPayload;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        messenger = new SourceQueryMessenger(SourceQueryOptions.builder().option(SourceQueryOptions.LAZY_DECODING, lazyDecoding).build());
+        infoChannel = BenchmarkSupport.newChannel(ch -> new NettyChannelContext(ch, messenger), new SourceQueryInfoRequest(), new SourceQueryInfoDecoder());
+        playersChannel = BenchmarkSupport.newChannel(ch -> new NettyChannelContext(ch, messenger), new SourceQueryPlayerRequest(), new SourceQueryPlayersDecoder());
+        rulesChannel = BenchmarkSupport.newChannel(ch -> new NettyChannelContext(ch, messenger), new SourceQueryRulesRequest(), new SourceQueryRulesDecoder());
+        infoPayload = BenchmarkSupport.infoPayload();
+        playersPayload = BenchmarkSupport.playersPayload(playerCount);
+        rulesPayload = BenchmarkSupport.rulesPayload(ruleCount);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        infoChannel.finishAndReleaseAll();
+        playersChannel.finishAndReleaseAll();
+        rulesChannel.finishAndReleaseAll();
+        messenger.close();
+    }
+
+    @Benchmark
+    public Object decodeInfo() {
+        return decode(infoChannel, SourceQuery.SOURCE_QUERY_INFO_RES, infoPayload);
+    }
+
+    /**
+     * Decode an A2S_INFO response and read only a few of its fields, similar to what a dashboard poller would do
+     */
+    @Benchmark
+    public void decodeInfoSummary(Blackhole blackhole) {
+        SourceQueryInfoResponse response = (SourceQueryInfoResponse) decode(infoChannel, SourceQuery.SOURCE_QUERY_INFO_RES, infoPayload);
+        SourceServer server = response.getResult();
+        blackhole.consume(server.getName());
+        blackhole.consume(server.getMapName());
+        blackhole.consume(server.getNumOfPlayers());
+        blackhole.consume(server.getMaxPlayers());
+    }
+
+    @Benchmark
+    public Object decodePlayers() {
+        return decode(playersChannel, SourceQuery.SOURCE_QUERY_PLAYER_RES, playersPayload);
+    }
+
+    @Benchmark
+    public Object decodeRules() {
+        return decode(rulesChannel, SourceQuery.SOURCE_QUERY_RULES_RES, rulesPayload);
+    }
+
+    private static Object decode(EmbeddedChannel channel, int header, ByteBuf payload) {
+        SourceQuerySinglePacket packet = new SourceQuerySinglePacket(payload.duplicate());
+        packet.setHeader(header);
+        channel.writeInbound(packet);
+        return BenchmarkSupport.drainInbound(channel);
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.benchmarks;
+
+import com.ibasco.agql.emulator.EmulatorOptions;
+import com.ibasco.agql.emulator.SourceRconEmulator;
+import com.ibasco.agql.protocols.valve.source.query.rcon.SourceRconClient;
+import com.ibasco.agql.protocols.valve.source.query.rcon.message.SourceRconAuthResponse;
+import com.ibasco.agql.protocols.valve.source.query.rcon.message.SourceRconCmdResponse;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the end-to-end latency distribution (and throughput) of {@link SourceRconClient} command execution against a local {@link SourceRconEmulator}. All servers are authenticated during setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(16)
+@Fork(1)
+public class SourceRconClientBenchmark {
+
+    private static final String PASSWORD = "benchmark";
+
+    @Param({"10"})
+    private int serverCount;
+
+    @Param({"0"})
+    private long latency;
+
+    @Param({"1024", "65536"})
+    private int responseSize;
+
+    private SourceRconEmulator emulator;
+
+    private SourceRconClient client;
+
+    private List<InetSocketAddress> addresses;
+
+    private final AtomicInteger index = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setup() throws InterruptedException {
+        emulator = new SourceRconEmulator(EmulatorOptions.builder()
+                                                         .option(EmulatorOptions.SERVER_COUNT, serverCount)
+                                                         .option(EmulatorOptions.LATENCY, latency)
+                                                         .option(EmulatorOptions.RCON_PASSWORD, PASSWORD)
+                                                         .option(EmulatorOptions.RCON_RESPONSE_SIZE, responseSize)
+                                                         .build());
+        emulator.start();
+        addresses = emulator.getAddresses();
+        client = new SourceRconClient();
+        for (InetSocketAddress address : addresses) {
+            SourceRconAuthResponse response = client.authenticate(address, PASSWORD.getBytes(StandardCharsets.US_ASCII)).join();
+            if (!response.isAuthenticated())
+                throw new IllegalStateException("Failed to authenticate with emulated server: " + address);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() throws IOException {
+        client.close();
+        emulator.close();
+    }
+
+    @Benchmark
+    public SourceRconCmdResponse execute() {
+        return client.execute(addresses.get(Math.floorMod(index.getAndIncrement(), addresses.size())), "status").join();
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.benchmarks;
+
+import com.ibasco.agql.core.NettyChannelContext;
+import com.ibasco.agql.protocols.valve.source.query.rcon.SourceRcon;
+import com.ibasco.agql.protocols.valve.source.query.rcon.SourceRconMessenger;
+import com.ibasco.agql.protocols.valve.source.query.rcon.handlers.SourceRconPacketAssembler;
+import com.ibasco.agql.protocols.valve.source.query.rcon.message.SourceRconCmdRequest;
+import com.ibasco.agql.protocols.valve.source.query.rcon.packets.SourceRconPacket;
+import com.ibasco.agql.protocols.valve.source.query.rcon.packets.SourceRconPacketFactory;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the cost of consolidating a multi-packet rcon command response (e.g. the output of 'cvarlist') through {@link SourceRconPacketAssembler}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SourceRconPacketAssemblerBenchmark {
+
+    private static final int REQUEST_ID = 1234;
+
+    @Param({"1", "16"})
+    private int packetCount;
+
+    private SourceRconMessenger messenger;
+
+    private EmbeddedChannel channel;
+
+    private ByteBuf payload;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        messenger = new SourceRconMessenger(null);
+        channel = BenchmarkSupport.newChannel(ch -> new NettyChannelContext(ch, messenger), new SourceRconCmdRequest("cvarlist"), new SourceRconPacketAssembler());
+        //size of a full response value packet body sent by the server
+        payload = BenchmarkSupport.rconPayload(4085);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        channel.finishAndReleaseAll();
+        messenger.close();
+    }
+
+    @Benchmark
+    public Object assemble() {
+        for (int i = 0; i < packetCount; i++) {
+            SourceRconPacket packet = SourceRconPacketFactory.createPacket(REQUEST_ID, SourceRcon.RCON_TYPE_RESPONSE_VALUE, payload.duplicate());
+            channel.pipeline().fireChannelRead(packet);
+        }
+        SourceRconPacket terminator = SourceRconPacketFactory.createPacket(SourceRcon.RCON_TERMINATOR_RID, SourceRcon.RCON_TYPE_RESPONSE_VALUE, Unpooled.EMPTY_BUFFER);
+        channel.pipeline().fireChannelRead(terminator);
+        channel.pipeline().fireChannelReadComplete();
+        channel.runPendingTasks();
+        return BenchmarkSupport.drainInbound(channel);
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.benchmarks;
+
+import com.ibasco.agql.protocols.valve.source.query.SourceQuery;
+import com.ibasco.agql.protocols.valve.source.query.common.packets.SourceQueryPacket;
+import com.ibasco.agql.protocols.valve.source.query.common.packets.SourceQuerySplitPacket;
+import com.ibasco.agql.protocols.valve.source.query.common.packets.util.SourceCompositeSplitPacketAssembler;
+import com.ibasco.agql.protocols.valve.source.query.common.packets.util.SourceEagerSplitPacketAssembler;
+import com.ibasco.agql.protocols.valve.source.query.common.packets.util.SourceLazySplitPacketAssembler;
+import com.ibasco.agql.protocols.valve.source.query.common.packets.util.SourceQueryPacketDecoderProvider;
+import com.ibasco.agql.protocols.valve.source.query.common.packets.util.SourceSplitPacketAssembler;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.ReferenceCountUtil;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares {@link SourceCompositeSplitPacketAssembler}, {@link SourceLazySplitPacketAssembler} and {@link SourceEagerSplitPacketAssembler} when re-assembling an uncompressed, multi-packet A2S_RULES response.
+ * Each operation decodes the raw split-packet datagrams, re-assembles them and decodes the resulting single-packet.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SourceSplitPacketAssemblerBenchmark {
+
+    @Param({"composite", "lazy", "eager"})
+    private String assemblerType;
+
+    @Param({"400", "1200"})
+    private int ruleCount;
+
+    private EmbeddedChannel channel;
+
+    private SourceSplitPacketAssembler assembler;
+
+    private List<ByteBuf> datagrams;
+
+    private SourceQuerySplitPacket[] packets;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+        ChannelHandlerContext ctx = channel.pipeline().firstContext();
+        switch (assemblerType) {
+            case "eager":
+                assembler = new SourceEagerSplitPacketAssembler(ctx);
+                break;
+            case "lazy":
+                assembler = new SourceLazySplitPacketAssembler(ctx);
+                break;
+            default:
+                assembler = new SourceCompositeSplitPacketAssembler(ctx);
+                break;
+        }
+        ByteBuf body = BenchmarkSupport.rulesPayload(ruleCount);
+        datagrams = BenchmarkSupport.splitDatagrams(SourceQuery.SOURCE_QUERY_RULES_RES, body, 1248);
+        packets = new SourceQuerySplitPacket[datagrams.size()];
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        assembler.reset();
+        channel.finishAndReleaseAll();
+    }
+
+    @Benchmark
+    public Object assemble() throws Exception {
+        try {
+            for (int i = 0; i < datagrams.size(); i++) {
+                ByteBuf datagram = datagrams.get(i).duplicate();
+                int type = datagram.readIntLE();
+                SourceQuerySplitPacket packet = (SourceQuerySplitPacket) SourceQueryPacketDecoderProvider.getDecoder(type).decode(datagram);
+                packets[i] = packet;
+                if (assembler.add(packet))
+                    break;
+            }
+            ByteBuf assembled = assembler.getBuffer();
+            int type = assembled.readIntLE();
+            SourceQueryPacket single = SourceQueryPacketDecoderProvider.getDecoder(type).decode(assembled);
+            return single.content().readableBytes();
+        } finally {
+            assembler.reset();
+            for (int i = 0; i < packets.length; i++) {
+                if (packets[i] != null && ReferenceCountUtil.refCnt(packets[i]) > 0)
+                    ReferenceCountUtil.release(packets[i]);
+                packets[i] = null;
+            }
+        }
+    }
+}
@@ -17,11 +17,14 @@
 package com.ibasco.agql.core;
 
 import com.ibasco.agql.core.exceptions.MessengerException;
+import com.ibasco.agql.core.exceptions.TimeoutException;
+import com.ibasco.agql.core.metrics.MetricsCollector;
 import com.ibasco.agql.core.transport.DefaultNettyChannelFactoryProvider;
 import com.ibasco.agql.core.transport.NettyChannelFactory;
 import com.ibasco.agql.core.transport.NettyChannelFactoryProvider;
 import com.ibasco.agql.core.util.Errors;
 import com.ibasco.agql.core.util.Functions;
+import com.ibasco.agql.core.util.GeneralOptions;
 import com.ibasco.agql.core.util.MessengerProperties;
 import com.ibasco.agql.core.util.Option;
 import com.ibasco.agql.core.util.OptionBuilder;
@@ -32,6 +35,7 @@ import org.jetbrains.annotations.NotNull;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -54,6 +58,8 @@ abstract public class NettyMessenger<R extends AbstractRequest, S extends Abstra
     private final NettyChannelFactory channelFactory;
 
     private final NettyChannelFactoryProvider factoryProvider;
+
+    private final MetricsCollector metrics;
     //</editor-fold>
 
     //<editor-fold desc="Constructor">
@@ -78,6 +84,7 @@ abstract public class NettyMessenger<R extends AbstractRequest, S extends Abstra
         Option.consolidate(options, getClass());
 
         //Initialize members
+        this.metrics = options.getOrDefault(GeneralOptions.METRICS_COLLECTOR);
         this.factoryProvider = createFactoryProvider();
         this.channelFactory = createChannelFactory();
         this.transport = new NettyTransport(options);
@@ -115,6 +122,18 @@ abstract public class NettyMessenger<R extends AbstractRequest, S extends Abstra
      */
     abstract protected NettyChannelFactory createChannelFactory();
 
+    /**
+     * Checks if the transaction of the context should be reported to the {@link MetricsCollector}. Subclasses may override this to exclude internal requests (e.g. keep-alive requests) from the metrics.
+     *
+     * @param context
+     *         The {@link NettyChannelContext} of the transaction
+     *
+     * @return {@code true} if the transaction should be reported (Default: {@code true})
+     */
+    protected boolean isMetered(NettyChannelContext context) {
+        return true;
+    }
+
     /** {@inheritDoc} */
     @Override
     public Options getOptions() {
@@ -207,6 +226,8 @@ abstract public class NettyMessenger<R extends AbstractRequest, S extends Abstra
                             .thenComposeAsync(NettyChannelContext::composedFuture, context.eventLoop())
                             .thenApplyAsync(Functions::convert, context.eventLoop());
         }
+        if (metrics != MetricsCollector.NOOP && isMetered(context))
+            future = future.whenComplete(new RequestMetrics<>(context));
         //- use handle so we don't complete exceptionally yet as we need to wrap this into a MessageException
         return future.handle(Functions::selectSecond).thenCombine(CompletableFuture.completedFuture(context), this::wrapException);
     }
@@ -258,6 +279,17 @@ abstract public class NettyMessenger<R extends AbstractRequest, S extends Abstra
         return context;
     }
 
+    /**
+     * <p>The {@link MetricsCollector} configured for this messenger</p>
+     *
+     * @return The {@link MetricsCollector} instance (never {@code null})
+     *
+     * @see GeneralOptions#METRICS_COLLECTOR
+     */
+    public final MetricsCollector getMetrics() {
+        return metrics;
+    }
+
     /** {@inheritDoc} */
     @Override
     public final NettyTransport getTransport() {
@@ -386,4 +418,29 @@ abstract public class NettyMessenger<R extends AbstractRequest, S extends Abstra
         map.putIfAbsent(option, value);
     }
     //</editor-fold>
+
+    /**
+     * Reports the latency of a single request/response transaction to the {@link MetricsCollector}
+     */
+    private final class RequestMetrics<C extends NettyChannelContext> implements BiConsumer<C, Throwable> {
+
+        private final Class<? extends AbstractRequest> type;
+
+        private final InetSocketAddress address;
+
+        private final long start = System.nanoTime();
+
+        private RequestMetrics(C context) {
+            this.type = context.properties().request().getClass();
+            this.address = context.remoteAddress();
+        }
+
+        @Override
+        public void accept(C context, Throwable error) {
+            Throwable cause = error != null ? Errors.unwrap(error) : null;
+            metrics.requestCompleted(type, address, System.nanoTime() - start, cause);
+            if (cause instanceof TimeoutException)
+                metrics.requestTimedOut(type, address);
+        }
+    }
 }
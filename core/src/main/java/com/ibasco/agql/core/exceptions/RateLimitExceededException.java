@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.core.exceptions;
+
+/**
+ * Thrown when a permit could not be acquired from a {@link com.ibasco.agql.core.util.AsyncRateLimiter} within the maximum wait time.
+ */
+public class RateLimitExceededException extends RejectedRequestException {
+
+    /**
+     * <p>Constructor for RateLimitExceededException.</p>
+     *
+     * @param message
+     *         a {@link java.lang.String} object
+     */
+    public RateLimitExceededException(String message) {
+        super(message);
+    }
+}
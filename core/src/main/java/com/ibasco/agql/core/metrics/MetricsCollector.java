@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.core.metrics;
+
+import com.ibasco.agql.core.AbstractRequest;
+import com.ibasco.agql.core.util.GeneralOptions;
+import java.net.InetSocketAddress;
+
+/**
+ * Service provider interface for collecting runtime metrics of the library (request latencies, channel pool wait times, retries, rate limiting, authentication and network throughput).
+ *
+ * <p>
+ * Register an implementation through {@link GeneralOptions#METRICS_COLLECTOR}. All methods have an empty default implementation, so an implementation only needs to override the events it is interested in.
+ * Callbacks are invoked directly from the netty event loop and failsafe threads, so implementations must be thread-safe and must never block.
+ * </p>
+ *
+ * @see GeneralOptions#METRICS_COLLECTOR
+ */
+public interface MetricsCollector {
+
+    /**
+     * A collector that discards all events. This is the default.
+     */
+    MetricsCollector NOOP = new MetricsCollector() {
+        @Override
+        public String toString() {
+            return "NOOP";
+        }
+    };
+
+    /**
+     * Called once a response has been received for a request or the request has failed. This is invoked for every attempt, so retried requests are reported more than once.
+     *
+     * @param type
+     *         The type of request
+     * @param address
+     *         The address of the remote server
+     * @param durationNanos
+     *         The elapsed time (in nanoseconds) between sending the request and receiving the response
+     * @param error
+     *         The cause of the failure or {@code null} if the request was successful
+     */
+    default void requestCompleted(Class<? extends AbstractRequest> type, InetSocketAddress address, long durationNanos, Throwable error) {}
+
+    /**
+     * Called when no response has been received for a request within the configured read timeout. This is called in addition to {@link #requestCompleted(Class, InetSocketAddress, long, Throwable)}.
+     *
+     * @param type
+     *         The type of request
+     * @param address
+     *         The address of the remote server
+     */
+    default void requestTimedOut(Class<? extends AbstractRequest> type, InetSocketAddress address) {}
+
+    /**
+     * Called each time a failed request is sent again by the retry policy
+     *
+     * @param type
+     *         The type of request
+     * @param address
+     *         The address of the remote server
+     * @param attempt
+     *         The attempt number of the retry (starting from 2)
+     */
+    default void requestRetried(Class<? extends AbstractRequest> type, InetSocketAddress address, int attempt) {}
+
+    /**
+     * Called each time a failed connection attempt is retried by the retry policy of the channel factory
+     *
+     * @param address
+     *         The address of the remote server
+     * @param attempt
+     *         The attempt number of the retry (starting from 2)
+     */
+    default void connectRetried(InetSocketAddress address, int attempt) {}
+
+    /**
+     * Called once a request has been granted a permit by the rate limiter
+     *
+     * @param type
+     *         The type of request
+     * @param waitNanos
+     *         The time (in nanoseconds) spent waiting for a permit
+     */
+    default void rateLimited(Class<? extends AbstractRequest> type, long waitNanos) {}
+
+    /**
+     * Called once an authentication attempt with a remote server has completed (e.g. Source RCON)
+     *
+     * @param address
+     *         The address of the remote server
+     * @param success
+     *         {@code true} if the server has accepted the credentials
+     */
+    default void authenticated(InetSocketAddress address, boolean success) {}
+
+    /**
+     * Called once a channel acquisition from a channel pool has completed
+     *
+     * @param address
+     *         The address of the remote server
+     * @param waitNanos
+     *         The time (in nanoseconds) spent waiting for a channel to become available
+     * @param error
+     *         The cause of the failure or {@code null} if a channel was acquired successfully
+     */
+    default void channelAcquired(InetSocketAddress address, long waitNanos, Throwable error) {}
+
+    /**
+     * Called when a pooled channel is released back to its pool
+     *
+     * @param address
+     *         The address of the remote server
+     * @param heldNanos
+     *         The time (in nanoseconds) the channel was held since it was acquired
+     */
+    default void channelReleased(InetSocketAddress address, long heldNanos) {}
+
+    /**
+     * Called when raw data has been read from the network
+     *
+     * @param bytes
+     *         The number of bytes received
+     */
+    default void bytesRead(int bytes) {}
+
+    /**
+     * Called when raw data is written to the network
+     *
+     * @param bytes
+     *         The number of bytes sent
+     */
+    default void bytesWritten(int bytes) {}
+}
@@ -17,10 +17,12 @@
 package com.ibasco.agql.core.transport;
 
 import com.ibasco.agql.core.exceptions.RejectedRequestException;
+import com.ibasco.agql.core.metrics.MetricsCollector;
 import com.ibasco.agql.core.util.ConnectOptions;
 import com.ibasco.agql.core.util.Console;
 import com.ibasco.agql.core.util.Errors;
 import com.ibasco.agql.core.util.FailsafeBuilder;
+import com.ibasco.agql.core.util.GeneralOptions;
 import com.ibasco.agql.core.util.Netty;
 import com.ibasco.agql.core.util.Options;
 import com.ibasco.agql.core.util.Properties;
@@ -66,6 +68,8 @@ public class FailsafeChannelFactory extends NettyChannelFactoryDecorator {
 
     private final Fallback<Channel> fallbackPolicy;
 
+    private final MetricsCollector metrics;
+
     /**
      * <p>Constructor for FailsafeChannelFactory.</p>
      *
@@ -75,6 +79,7 @@ public class FailsafeChannelFactory extends NettyChannelFactoryDecorator {
     protected FailsafeChannelFactory(final NettyChannelFactory channelFactory) {
         super(channelFactory);
         Options options = channelFactory.getOptions();
+        this.metrics = options.getOrDefault(GeneralOptions.METRICS_COLLECTOR);
         this.fallbackPolicy = buildFallbackPolicy(options);
         this.retryPolicy = buildRetryPolicy(options);
         this.circuitBreaker = buildCircuitBreakerPolicy(options);
@@ -135,6 +140,8 @@ public class FailsafeChannelFactory extends NettyChannelFactoryDecorator {
         @Override
         public CompletableFuture<Channel> get(ExecutionContext<Channel> context) throws Throwable {
             log.debug("CHANNEL_FACTORY ({}) => Acquiring channel for address '{}' (Supplier: {}, Attempt: {}, Executions: {}, Last Result: {}, Last Failure: {})", FailsafeChannelFactory.class.getSimpleName(), address, this, context.getAttemptCount(), context.getExecutionCount(), context.getLastResult(), context.getLastException());
+            if (context.isRetry())
+                metrics.connectRetried(address, context.getAttemptCount() + 1);
             CompletableFuture<Channel> channelFuture = FailsafeChannelFactory.super.create(address);
             channelFuture.thenAccept(this::removeOnClose);
             return channelFuture;
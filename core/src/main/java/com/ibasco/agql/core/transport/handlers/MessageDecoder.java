@@ -17,6 +17,7 @@
 package com.ibasco.agql.core.transport.handlers;
 
 import com.ibasco.agql.core.NettyChannelContext;
+import com.ibasco.agql.core.metrics.MetricsCollector;
 import com.ibasco.agql.core.util.Netty;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufHolder;
@@ -46,6 +47,10 @@ public class MessageDecoder extends ChannelInboundHandlerAdapter {
     @Override
     public void channelRead(ChannelHandlerContext ctx, @NotNull Object msg) {
         final NettyChannelContext context = NettyChannelContext.getContext(ctx.channel());
+        final MetricsCollector metrics = context.messenger().getMetrics();
+        final int length = getResponseLength(msg);
+        if (metrics != MetricsCollector.NOOP && length > 0)
+            metrics.bytesRead(length);
         //Make sure we have a request associated, otherwise do not propagate
         if (hasInvalidRequest(context.channel())) {
             log.debug("{} INB => Received incoming data but No VALID request found. It has either been cleared or has been marked as completed. Not propagating (Msg: {}, Request: {})", context.id(), msg, context.properties().envelope());
@@ -58,7 +63,7 @@ public class MessageDecoder extends ChannelInboundHandlerAdapter {
         }
 
         try {
-            log.debug("{} INB => Received incoming data from server of type: {} (Length: {} bytes)", context.id(), String.format("%s (%d)", msg.getClass().getSimpleName(), msg.hashCode()), getResponseLength(msg));
+            log.debug("{} INB => Received incoming data from server of type: {} (Length: {} bytes)", context.id(), String.format("%s (%d)", msg.getClass().getSimpleName(), msg.hashCode()), length);
             Object decoded;
             //TODO: Should we process addressedenvelope instances so we can retrieve sender address information?
             if (msg instanceof ByteBufHolder) {
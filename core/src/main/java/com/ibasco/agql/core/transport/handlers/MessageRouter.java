@@ -23,11 +23,13 @@ import com.ibasco.agql.core.Envelope;
 import com.ibasco.agql.core.NettyChannelContext;
 import com.ibasco.agql.core.exceptions.InvalidPacketException;
 import com.ibasco.agql.core.exceptions.NoMessageHandlerException;
+import com.ibasco.agql.core.metrics.MetricsCollector;
 import com.ibasco.agql.core.transport.pool.NettyChannelPool;
 import com.ibasco.agql.core.util.GeneralOptions;
 import com.ibasco.agql.core.util.Netty;
 import com.ibasco.agql.core.util.Strings;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufHolder;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelDuplexHandler;
 import io.netty.channel.ChannelFutureListener;
@@ -80,6 +82,13 @@ public class MessageRouter extends ChannelDuplexHandler {
         } else {
             log.debug("{} ROUTER (OUTBOUND) => Writing message '{}' to transport (Request Id: N/A)", context.id(), msg);
         }
+        final MetricsCollector metrics = context.messenger().getMetrics();
+        if (metrics != MetricsCollector.NOOP) {
+            if (msg instanceof ByteBuf)
+                metrics.bytesWritten(((ByteBuf) msg).readableBytes());
+            else if (msg instanceof ByteBufHolder)
+                metrics.bytesWritten(((ByteBufHolder) msg).content().readableBytes());
+        }
         registerTimeoutOnWrite(promise, ctx.channel());
         super.write(ctx, msg, promise);
     }
@@ -15,11 +15,14 @@
  */
 package com.ibasco.agql.core.transport.pool;
 
+import com.ibasco.agql.core.metrics.MetricsCollector;
 import com.ibasco.agql.core.transport.NettyChannelFactory;
 import com.ibasco.agql.core.util.Errors;
+import com.ibasco.agql.core.util.GeneralOptions;
 import io.netty.channel.Channel;
 import io.netty.channel.EventLoop;
 import io.netty.channel.pool.ChannelPoolHandler;
+import io.netty.util.AttributeKey;
 import io.netty.util.concurrent.GlobalEventExecutor;
 import java.net.InetSocketAddress;
 import java.util.Deque;
@@ -40,6 +43,8 @@ public class SimpleNettyChannelPool implements NettyChannelPool {
 
     private static final Logger log = LoggerFactory.getLogger(SimpleNettyChannelPool.class);
 
+    private static final AttributeKey<Long> ACQUIRED_AT = AttributeKey.valueOf("channelAcquiredAt");
+
     private final Deque<Channel> deque = new ConcurrentLinkedDeque<>();
 
     private final ChannelPoolHandler handler;
@@ -54,6 +59,8 @@ public class SimpleNettyChannelPool implements NettyChannelPool {
 
     private final NettyChannelFactory channelFactory;
 
+    private final MetricsCollector metrics;
+
     /**
      * Creates a new instance using the {@link com.ibasco.agql.core.transport.pool.ChannelHealthChecker#ACTIVE}.
      *
@@ -127,6 +134,7 @@ public class SimpleNettyChannelPool implements NettyChannelPool {
         this.channelFactory = channelFactory;
         this.lastRecentUsed = lastRecentUsed;
         this.releaseStrategy = releaseStrategy == null ? NONE : releaseStrategy;
+        this.metrics = channelFactory.getOptions().getOrDefault(GeneralOptions.METRICS_COLLECTOR);
     }
 
     /**
@@ -297,13 +305,28 @@ public class SimpleNettyChannelPool implements NettyChannelPool {
     /** {@inheritDoc} */
     @Override
     public final CompletableFuture<Void> release(Channel channel) {
+        if (metrics != MetricsCollector.NOOP && channel != null) {
+            Long acquiredAt = channel.attr(ACQUIRED_AT).getAndSet(null);
+            if (acquiredAt != null)
+                metrics.channelReleased((InetSocketAddress) channel.remoteAddress(), System.nanoTime() - acquiredAt);
+        }
         return release(channel, new CompletableFuture<>());
     }
 
     /** {@inheritDoc} */
     @Override
     public final CompletableFuture<Channel> acquire(final InetSocketAddress remoteAddress) {
-        return acquire(remoteAddress, new CompletableFuture<>());
+        CompletableFuture<Channel> promise = new CompletableFuture<>();
+        if (metrics != MetricsCollector.NOOP) {
+            final long start = System.nanoTime();
+            promise.whenComplete((channel, error) -> {
+                long now = System.nanoTime();
+                if (channel != null)
+                    channel.attr(ACQUIRED_AT).set(now);
+                metrics.channelAcquired(remoteAddress, now - start, error != null ? Errors.unwrap(error) : null);
+            });
+        }
+        return acquire(remoteAddress, promise);
     }
 
     /** {@inheritDoc} */
@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.core.util;
+
+import com.ibasco.agql.core.enums.RateLimitType;
+import com.ibasco.agql.core.exceptions.RateLimitExceededException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A lock-free, non-blocking token-bucket rate limiter. Permits are handed out as {@link CompletableFuture}s, so callers never block a thread while waiting for a permit.
+ *
+ * <p>
+ * The bucket is tracked as a single theoretical arrival time (Generic Cell Rate Algorithm) which is updated with a compare-and-set, so reserving a permit is a constant time operation regardless of the number of waiters.
+ * A reserved permit becomes available at a fixed point in time, the returned future is completed by a task scheduled on the provided executor (e.g. the event loop of the channel) once that time has been reached.
+ * </p>
+ *
+ * @see KeyedAsyncRateLimiter
+ * @see FailsafeBuilder#buildAsyncRateLimiter(Class, Options)
+ */
+public final class AsyncRateLimiter {
+
+    /**
+     * The number of nanoseconds between two permits
+     */
+    private final long interval;
+
+    /**
+     * The number of nanoseconds the theoretical arrival time is allowed to be ahead of the current time (burst tolerance)
+     */
+    private final long tolerance;
+
+    private final long maxWaitTime;
+
+    private final AtomicLong arrivalTime;
+
+    /**
+     * Create a new rate limiter
+     *
+     * @param maxPermits
+     *         The maximum number of permits issued within the period
+     * @param period
+     *         The period of time
+     * @param burst
+     *         The maximum number of permits that can be issued at once after the limiter has been idle (1 spreads out the permits evenly over the period)
+     * @param maxWaitTime
+     *         The maximum amount of time a caller is allowed to wait for a permit, a {@link RateLimitExceededException} is raised if exceeded ({@code null} to wait indefinitely)
+     */
+    public AsyncRateLimiter(long maxPermits, Duration period, long burst, Duration maxWaitTime) {
+        if (maxPermits <= 0)
+            throw new IllegalArgumentException("Max permits must be greater than zero");
+        if (period == null || period.isNegative() || period.isZero())
+            throw new IllegalArgumentException("Period must be greater than zero");
+        if (burst < 1 || burst > maxPermits)
+            throw new IllegalArgumentException(String.format("Burst must be between 1 and %d", maxPermits));
+        this.interval = Math.max(1, period.toNanos() / maxPermits);
+        this.tolerance = (burst - 1) * interval;
+        this.maxWaitTime = maxWaitTime != null ? Math.max(0, maxWaitTime.toNanos()) : Long.MAX_VALUE;
+        this.arrivalTime = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * Create a new rate limiter
+     *
+     * @param type
+     *         The {@link RateLimitType}. {@link RateLimitType#BURST} allows all permits of a period to be issued at once, {@link RateLimitType#SMOOTH} spreads them out evenly over the period.
+     * @param maxPermits
+     *         The maximum number of permits issued within the period
+     * @param period
+     *         The period of time
+     * @param maxWaitTime
+     *         The maximum amount of time a caller is allowed to wait for a permit ({@code null} to wait indefinitely)
+     *
+     * @return A new {@link AsyncRateLimiter}
+     */
+    public static AsyncRateLimiter create(RateLimitType type, long maxPermits, Duration period, Duration maxWaitTime) {
+        return new AsyncRateLimiter(maxPermits, period, type == RateLimitType.BURST ? maxPermits : 1, maxWaitTime);
+    }
+
+    /**
+     * Reserve a permit
+     *
+     * @return The number of nanoseconds to wait before the permit may be used or -1 if the wait time would exceed the maximum wait time (no permit is reserved in this case)
+     */
+    public long reserve() {
+        while (true) {
+            final long now = System.nanoTime();
+            final long current = arrivalTime.get();
+            final long backlog = current - now;
+            final long wait = Math.max(0, backlog - tolerance);
+            if (wait > maxWaitTime)
+                return -1;
+            final long next = (backlog > 0 ? current : now) + interval;
+            if (arrivalTime.compareAndSet(current, next))
+                return wait;
+        }
+    }
+
+    /**
+     * Return a permit previously reserved by {@link #reserve()} which will not be used
+     */
+    private void refund() {
+        arrivalTime.addAndGet(-interval);
+    }
+
+    /**
+     * Acquire a permit
+     *
+     * @param executor
+     *         The {@link ScheduledExecutorService} used to complete the returned future once the permit is available
+     *
+     * @return A {@link CompletableFuture} notified with the number of nanoseconds waited once the permit is available
+     *
+     * @see #acquire(ScheduledExecutorService, AsyncRateLimiter...)
+     */
+    public CompletableFuture<Long> acquire(ScheduledExecutorService executor) {
+        return acquire(executor, this);
+    }
+
+    /**
+     * Acquire a permit from each of the provided limiters (e.g. a global and a per-destination limiter). The returned future completes once all permits are available.
+     * If one of the limiters rejects the request, the permits already reserved from the preceding limiters are returned.
+     *
+     * @param executor
+     *         The {@link ScheduledExecutorService} used to complete the returned future once the permits are available
+     * @param limiters
+     *         The limiters to acquire the permits from. {@code null} elements are ignored.
+     *
+     * @return A {@link CompletableFuture} notified with the number of nanoseconds waited once the permits are available or completed exceptionally with a {@link RateLimitExceededException} if the maximum wait time of a limiter would be exceeded
+     */
+    public static CompletableFuture<Long> acquire(ScheduledExecutorService executor, AsyncRateLimiter... limiters) {
+        long wait = 0;
+        for (int i = 0; i < limiters.length; i++) {
+            AsyncRateLimiter limiter = limiters[i];
+            if (limiter == null)
+                continue;
+            long reserved = limiter.reserve();
+            if (reserved < 0) {
+                refund(limiters, i);
+                return Concurrency.failedFuture(new RateLimitExceededException(String.format("Unable to acquire a permit within the maximum wait time of %d ms", TimeUnit.NANOSECONDS.toMillis(limiter.maxWaitTime))));
+            }
+            wait = Math.max(wait, reserved);
+        }
+        if (wait == 0)
+            return CompletableFuture.completedFuture(0L);
+        final long waitNanos = wait;
+        CompletableFuture<Long> permit = new CompletableFuture<>();
+        try {
+            executor.schedule(() -> permit.complete(waitNanos), waitNanos, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            refund(limiters, limiters.length);
+            permit.completeExceptionally(e);
+        }
+        return permit;
+    }
+
+    private static void refund(AsyncRateLimiter[] limiters, int count) {
+        for (int i = 0; i < count; i++) {
+            if (limiters[i] != null)
+                limiters[i].refund();
+        }
+    }
+
+    /**
+     * @return The maximum amount of time a caller is allowed to wait for a permit
+     */
+    public Duration getMaxWaitTime() {
+        return Duration.ofNanos(maxWaitTime);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("AsyncRateLimiter{interval=%d ns, tolerance=%d ns, maxWaitTime=%d ms}", interval, tolerance, TimeUnit.NANOSECONDS.toMillis(maxWaitTime));
+    }
+}
@@ -73,6 +73,94 @@ public class FailsafeBuilder {
         return builder;
     }
 
+    /**
+     * Build a non-blocking {@link AsyncRateLimiter} from the rate limit options
+     *
+     * @param context
+     *         The {@link Options} class the values are resolved from
+     * @param options
+     *         a {@link com.ibasco.agql.core.util.Options} object
+     *
+     * @return a {@link AsyncRateLimiter} object
+     */
+    public static AsyncRateLimiter buildAsyncRateLimiter(Class<? extends Options> context, Options options) {
+        return buildAsyncRateLimiter(context, options, getMaxWaitTime(context, options));
+    }
+
+    /**
+     * Build a non-blocking {@link AsyncRateLimiter} from the rate limit options, using the provided maximum wait time instead of {@link FailsafeOptions#FAILSAFE_RATELIMIT_MAX_WAIT_TIME}
+     *
+     * @param context
+     *         The {@link Options} class the values are resolved from
+     * @param options
+     *         a {@link com.ibasco.agql.core.util.Options} object
+     * @param maxWaitTime
+     *         The maximum time to wait for a permit or {@code null} to wait indefinitely
+     *
+     * @return a {@link AsyncRateLimiter} object
+     */
+    public static AsyncRateLimiter buildAsyncRateLimiter(Class<? extends Options> context, Options options, Duration maxWaitTime) {
+        Boolean failsafeEnabled = options.getOrDefault(FailsafeOptions.FAILSAFE_ENABLED, context);
+        if (failsafeEnabled != null && !failsafeEnabled)
+            throw new IllegalStateException("Failsafe is not enabled");
+
+        Long maxExecutions = options.getOrDefault(FailsafeOptions.FAILSAFE_RATELIMIT_MAX_EXEC, context);
+        Long periodMs = options.getOrDefault(FailsafeOptions.FAILSAFE_RATELIMIT_PERIOD, context);
+        RateLimitType rateLimitType = options.getOrDefault(FailsafeOptions.FAILSAFE_RATELIMIT_TYPE, context);
+        if (Properties.isVerbose()) {
+            Console.println("Building 'ASYNC RATE LIMITER' from '%s'", options.getClass().getSimpleName());
+            Console.println(">> Max Executions: %d", maxExecutions);
+            Console.println(">> Period: %d", periodMs);
+            Console.println(">> Max Wait Time: %s", maxWaitTime);
+            Console.println(">> Rate Limit Type: %s", rateLimitType);
+        }
+        return AsyncRateLimiter.create(rateLimitType, maxExecutions, Duration.ofMillis(periodMs), maxWaitTime);
+    }
+
+    /**
+     * Build a per-destination {@link KeyedAsyncRateLimiter} from the rate limit options
+     *
+     * @param context
+     *         The {@link Options} class the values are resolved from
+     * @param options
+     *         a {@link com.ibasco.agql.core.util.Options} object
+     * @param <K>
+     *         The type of the key
+     *
+     * @return a {@link KeyedAsyncRateLimiter} object or {@code null} if {@link FailsafeOptions#FAILSAFE_RATELIMIT_ADDRESS_MAX_EXEC} is not greater than zero
+     */
+    public static <K> KeyedAsyncRateLimiter<K> buildKeyedAsyncRateLimiter(Class<? extends Options> context, Options options) {
+        return buildKeyedAsyncRateLimiter(context, options, getMaxWaitTime(context, options));
+    }
+
+    /**
+     * Build a per-destination {@link KeyedAsyncRateLimiter} from the rate limit options, using the provided maximum wait time instead of {@link FailsafeOptions#FAILSAFE_RATELIMIT_MAX_WAIT_TIME}
+     *
+     * @param context
+     *         The {@link Options} class the values are resolved from
+     * @param options
+     *         a {@link com.ibasco.agql.core.util.Options} object
+     * @param maxWaitTime
+     *         The maximum time to wait for a permit or {@code null} to wait indefinitely
+     * @param <K>
+     *         The type of the key
+     *
+     * @return a {@link KeyedAsyncRateLimiter} object or {@code null} if {@link FailsafeOptions#FAILSAFE_RATELIMIT_ADDRESS_MAX_EXEC} is not greater than zero
+     */
+    public static <K> KeyedAsyncRateLimiter<K> buildKeyedAsyncRateLimiter(Class<? extends Options> context, Options options, Duration maxWaitTime) {
+        Long maxExecutions = options.getOrDefault(FailsafeOptions.FAILSAFE_RATELIMIT_ADDRESS_MAX_EXEC, context);
+        if (maxExecutions == null || maxExecutions <= 0)
+            return null;
+        Long periodMs = options.getOrDefault(FailsafeOptions.FAILSAFE_RATELIMIT_ADDRESS_PERIOD, context);
+        RateLimitType rateLimitType = options.getOrDefault(FailsafeOptions.FAILSAFE_RATELIMIT_TYPE, context);
+        return new KeyedAsyncRateLimiter<>(rateLimitType, maxExecutions, Duration.ofMillis(periodMs), maxWaitTime);
+    }
+
+    private static Duration getMaxWaitTime(Class<? extends Options> context, Options options) {
+        Long maxWaitTimeMs = options.getOrDefault(FailsafeOptions.FAILSAFE_RATELIMIT_MAX_WAIT_TIME, context);
+        return maxWaitTimeMs != null ? Duration.ofMillis(maxWaitTimeMs) : null;
+    }
+
     /**
      * <p>buildRetryPolicy.</p>
      *
@@ -81,6 +81,24 @@ public class FailsafeOptions extends AbstractOptions {
      */
     public static final Option<RateLimitType> FAILSAFE_RATELIMIT_TYPE = Option.create(FailsafeProperties.FAILSAFE_RATELIMIT_TYPE, RateLimitType.SMOOTH);
 
+    /**
+     * Maximum number of executions per destination address within {@link #FAILSAFE_RATELIMIT_ADDRESS_PERIOD}. Applied in addition to the global rate limit, set to 0 to disable (Default is 0)
+     *
+     * <p>
+     * Uses the same {@link #FAILSAFE_RATELIMIT_TYPE} and {@link #FAILSAFE_RATELIMIT_MAX_WAIT_TIME} as the global rate limiter, but is applied regardless of {@link #FAILSAFE_RATELIMIT_ENABLED}.
+     * </p>
+     *
+     * @see #FAILSAFE_RATELIMIT_ADDRESS_PERIOD
+     */
+    public static final Option<Long> FAILSAFE_RATELIMIT_ADDRESS_MAX_EXEC = Option.create(FailsafeProperties.FAILSAFE_RATELIMIT_ADDRESS_MAX_EXEC, 0L);
+
+    /**
+     * The period (in milliseconds) of the per-destination rate limit (Default is 1000 ms)
+     *
+     * @see #FAILSAFE_RATELIMIT_ADDRESS_MAX_EXEC
+     */
+    public static final Option<Long> FAILSAFE_RATELIMIT_ADDRESS_PERIOD = Option.create(FailsafeProperties.FAILSAFE_RATELIMIT_ADDRESS_PERIOD, 1000L);
+
     /**
      * Enable retry policy
      *
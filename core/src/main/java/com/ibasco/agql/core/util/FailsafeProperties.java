@@ -42,6 +42,12 @@ public interface FailsafeProperties {
 
     /** Constant <code>FAILSAFE_RATELIMIT_MAX_WAIT_TIME="failsafeRateLimitMaxWaitTime"</code> */
     String FAILSAFE_RATELIMIT_MAX_WAIT_TIME = "failsafeRateLimitMaxWaitTime";
+
+    /** Constant <code>FAILSAFE_RATELIMIT_ADDRESS_MAX_EXEC="failsafeRateLimitAddressMaxExec"</code> */
+    String FAILSAFE_RATELIMIT_ADDRESS_MAX_EXEC = "failsafeRateLimitAddressMaxExec";
+
+    /** Constant <code>FAILSAFE_RATELIMIT_ADDRESS_PERIOD="failsafeRateLimitAddressPeriod"</code> */
+    String FAILSAFE_RATELIMIT_ADDRESS_PERIOD = "failsafeRateLimitAddressPeriod";
     //</editor-fold>
 
     //<editor-fold desc="Retry Policy">
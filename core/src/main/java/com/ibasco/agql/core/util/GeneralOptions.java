@@ -17,6 +17,7 @@
 package com.ibasco.agql.core.util;
 
 import com.ibasco.agql.core.enums.BufferAllocatorType;
+import com.ibasco.agql.core.metrics.MetricsCollector;
 import com.ibasco.agql.core.transport.enums.ChannelPoolType;
 import com.ibasco.agql.core.transport.pool.ChannelHealthChecker;
 import com.ibasco.agql.core.transport.pool.FixedNettyChannelPool;
@@ -88,6 +89,13 @@ public final class GeneralOptions extends AbstractOptions {
      */
     @ApiStatus.Internal
     public static final Option<FixedNettyChannelPool.AcquireTimeoutAction> POOL_ACQUIRE_TIMEOUT_ACTION = Option.create("globalAcquireTimeoutAction", FixedNettyChannelPool.AcquireTimeoutAction.FAIL);
+
+    /**
+     * The {@link MetricsCollector} that will receive runtime metrics (request latencies, channel pool wait times, retries, rate limiting and network throughput). Metrics are not collected by default. (Default: {@link MetricsCollector#NOOP})
+     *
+     * @see MetricsCollector
+     */
+    public static final Option<MetricsCollector> METRICS_COLLECTOR = Option.create("globalMetricsCollector", MetricsCollector.NOOP);
     //</editor-fold>
 
     //<editor-fold desc="Connection Pooling">
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.core.util;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.ibasco.agql.core.enums.RateLimitType;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maintains a separate {@link AsyncRateLimiter} for each key (e.g. the address of a server), all sharing the same configuration.
+ *
+ * <p>
+ * Limiters are created on first use and evicted once they have not been used for the period plus the maximum wait time (or twice the period if waiting indefinitely),
+ * by then the bucket of the limiter is normally full again and an evicted limiter behaves like a newly created one.
+ * </p>
+ *
+ * @param <K>
+ *         The type of the key
+ *
+ * @see FailsafeBuilder#buildKeyedAsyncRateLimiter(Class, Options)
+ */
+public final class KeyedAsyncRateLimiter<K> {
+
+    private final Cache<K, AsyncRateLimiter> limiters;
+
+    private final RateLimitType type;
+
+    private final long maxPermits;
+
+    private final Duration period;
+
+    private final Duration maxWaitTime;
+
+    /**
+     * Create a new keyed rate limiter
+     *
+     * @param type
+     *         The {@link RateLimitType} of each limiter
+     * @param maxPermits
+     *         The maximum number of permits issued per key within the period
+     * @param period
+     *         The period of time
+     * @param maxWaitTime
+     *         The maximum amount of time a caller is allowed to wait for a permit ({@code null} to wait indefinitely)
+     */
+    public KeyedAsyncRateLimiter(RateLimitType type, long maxPermits, Duration period, Duration maxWaitTime) {
+        //validate the configuration up-front
+        AsyncRateLimiter.create(type, maxPermits, period, maxWaitTime);
+        this.type = type;
+        this.maxPermits = maxPermits;
+        this.period = period;
+        this.maxWaitTime = maxWaitTime;
+        long idleTime = period.toNanos() + (maxWaitTime != null ? maxWaitTime.toNanos() : period.toNanos());
+        this.limiters = CacheBuilder.newBuilder().expireAfterAccess(idleTime, TimeUnit.NANOSECONDS).build();
+    }
+
+    /**
+     * Get the limiter of the key
+     *
+     * @param key
+     *         The key (e.g. the address of a server)
+     *
+     * @return The {@link AsyncRateLimiter} of the key
+     */
+    public AsyncRateLimiter get(K key) {
+        return limiters.asMap().computeIfAbsent(key, k -> AsyncRateLimiter.create(type, maxPermits, period, maxWaitTime));
+    }
+}
@@ -633,6 +633,35 @@ public class Netty {
         return data;
     }
 
+    /**
+     * <p>Reads a null-terminated string from the provided {@link ByteBuf}, returning the canonical instance held by the {@link StringPool}</p>
+     *
+     * @param buffer
+     *         a {@link io.netty.buffer.ByteBuf} object
+     * @param charset
+     *         a {@link java.nio.charset.Charset} object
+     * @param pool
+     *         The {@link StringPool} to look up the string from. If {@code null}, a new string is always decoded.
+     *
+     * @return a {@link java.lang.String} object
+     */
+    public static String readString(ByteBuf buffer, Charset charset, StringPool pool) {
+        if (pool == null)
+            return readString(buffer, charset);
+        if (buffer.readableBytes() <= 0)
+            return null;
+        int length = buffer.bytesBefore((byte) 0);
+        if (length < 0)
+            return null;
+        if (charset == null)
+            charset = StandardCharsets.UTF_8;
+        String data = pool.get(buffer, buffer.readerIndex(), length, charset);
+        buffer.skipBytes(length);
+        if (buffer.isReadable())
+            buffer.skipBytes(1); //skip null-terminating byte
+        return data;
+    }
+
     /**
      * <p>Closes a {@link Channel}.</p>
      *
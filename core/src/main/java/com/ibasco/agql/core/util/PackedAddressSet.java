@@ -0,0 +1,452 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.core.util;
+
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * A compact {@link java.util.Set} of IPv4 socket addresses. Each address and port is packed into a single {@code long} and stored in an open-addressing hash table (linear probing),
+ * so an entry occupies 8 bytes instead of an {@link InetSocketAddress}, an {@link InetAddress} and a hash map node.
+ *
+ * <p>
+ * {@link InetSocketAddress} instances are only created when iterating over the set with {@link #iterator()}, use {@link #packedIterator()} together with {@link #unpack(long)} to avoid this altogether.
+ * Only IPv4 addresses are supported, adding any other type of address throws an {@link IllegalArgumentException}. This class is not thread-safe.
+ * </p>
+ */
+public final class PackedAddressSet extends AbstractSet<InetSocketAddress> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private static final float LOAD_FACTOR = 0.5f;
+
+    /**
+     * Marks an empty slot. The packed form of {@code 0.0.0.0:0} is tracked separately in {@link #containsZero}.
+     */
+    private static final long EMPTY = 0;
+
+    private long[] table;
+
+    private int size;
+
+    private int threshold;
+
+    private boolean containsZero;
+
+    private int modCount;
+
+    /**
+     * Create a new empty set
+     */
+    public PackedAddressSet() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create a new empty set able to hold the expected number of addresses without resizing
+     *
+     * @param expectedSize
+     *         The expected number of addresses
+     */
+    public PackedAddressSet(int expectedSize) {
+        allocate(tableSize(expectedSize));
+    }
+
+    /**
+     * Create a new set containing the addresses of the provided collection
+     *
+     * @param addresses
+     *         The addresses to add
+     */
+    public PackedAddressSet(Collection<InetSocketAddress> addresses) {
+        if (addresses instanceof PackedAddressSet) {
+            PackedAddressSet other = (PackedAddressSet) addresses;
+            this.table = other.table.clone();
+            this.size = other.size;
+            this.threshold = other.threshold;
+            this.containsZero = other.containsZero;
+        } else {
+            allocate(tableSize(addresses.size()));
+            addAll(addresses);
+        }
+    }
+
+    /**
+     * Check if a socket address can be stored in this set
+     *
+     * @param address
+     *         The {@link InetSocketAddress} to check
+     *
+     * @return {@code true} if the address is a resolved IPv4 address
+     */
+    public static boolean isSupported(InetSocketAddress address) {
+        return address != null && address.getAddress() instanceof Inet4Address;
+    }
+
+    /**
+     * Pack an IPv4 socket address into a {@code long}. The address occupies bits 16-47, the port bits 0-15.
+     *
+     * @param address
+     *         The {@link InetSocketAddress} to pack
+     *
+     * @return The packed address
+     *
+     * @throws IllegalArgumentException
+     *         If the address is unresolved or not an IPv4 address
+     */
+    public static long pack(InetSocketAddress address) {
+        if (!isSupported(address))
+            throw new IllegalArgumentException("Only resolved IPv4 addresses are supported: " + address);
+        byte[] ip = address.getAddress().getAddress();
+        return pack((ip[0] & 0xff) << 24 | (ip[1] & 0xff) << 16 | (ip[2] & 0xff) << 8 | (ip[3] & 0xff), address.getPort());
+    }
+
+    /**
+     * Pack an IPv4 address and port into a {@code long}
+     *
+     * @param ipv4
+     *         The IPv4 address in network byte order (e.g. {@code 0x7f000001} for 127.0.0.1)
+     * @param port
+     *         The port number (0-65535)
+     *
+     * @return The packed address
+     */
+    public static long pack(int ipv4, int port) {
+        return ((ipv4 & 0xffffffffL) << 16) | (port & 0xffff);
+    }
+
+    /**
+     * Create an {@link InetSocketAddress} from a packed address
+     *
+     * @param packed
+     *         The packed address
+     *
+     * @return The {@link InetSocketAddress}
+     */
+    public static InetSocketAddress unpack(long packed) {
+        byte[] ip = new byte[] {(byte) (packed >>> 40), (byte) (packed >>> 32), (byte) (packed >>> 24), (byte) (packed >>> 16)};
+        try {
+            return new InetSocketAddress(InetAddress.getByAddress(ip), (int) (packed & 0xffff));
+        } catch (UnknownHostException e) {
+            //should not happen, raw addresses of valid length are not resolved
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Add a packed address
+     *
+     * @param packed
+     *         The packed address
+     *
+     * @return {@code true} if the address was not yet present in the set
+     *
+     * @see #pack(int, int)
+     */
+    public boolean add(long packed) {
+        if (packed == EMPTY) {
+            if (containsZero)
+                return false;
+            containsZero = true;
+        } else {
+            int index = indexOf(packed);
+            if (table[index] == packed)
+                return false;
+            table[index] = packed;
+        }
+        modCount++;
+        if (++size > threshold)
+            allocate(table.length << 1);
+        return true;
+    }
+
+    /**
+     * Check if a packed address is present in the set
+     *
+     * @param packed
+     *         The packed address
+     *
+     * @return {@code true} if present
+     */
+    public boolean contains(long packed) {
+        if (packed == EMPTY)
+            return containsZero;
+        return table[indexOf(packed)] == packed;
+    }
+
+    /**
+     * Remove a packed address
+     *
+     * @param packed
+     *         The packed address
+     *
+     * @return {@code true} if the address was present in the set
+     */
+    public boolean remove(long packed) {
+        if (packed == EMPTY) {
+            if (!containsZero)
+                return false;
+            containsZero = false;
+        } else {
+            int index = indexOf(packed);
+            if (table[index] != packed)
+                return false;
+            delete(index, null);
+        }
+        size--;
+        modCount++;
+        return true;
+    }
+
+    /**
+     * @return An iterator over the packed addresses of this set
+     *
+     * @see #unpack(long)
+     */
+    public PrimitiveIterator.OfLong packedIterator() {
+        return new PackedIterator();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean add(InetSocketAddress address) {
+        return add(pack(address));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof InetSocketAddress) || !isSupported((InetSocketAddress) o))
+            return false;
+        return contains(pack((InetSocketAddress) o));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean remove(Object o) {
+        if (!(o instanceof InetSocketAddress) || !isSupported((InetSocketAddress) o))
+            return false;
+        return remove(pack((InetSocketAddress) o));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean addAll(Collection<? extends InetSocketAddress> c) {
+        if (!(c instanceof PackedAddressSet))
+            return super.addAll(c);
+        boolean modified = false;
+        PrimitiveIterator.OfLong it = ((PackedAddressSet) c).packedIterator();
+        while (it.hasNext())
+            modified |= add(it.nextLong());
+        return modified;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Iterator<InetSocketAddress> iterator() {
+        final PackedIterator it = new PackedIterator();
+        return new Iterator<InetSocketAddress>() {
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public InetSocketAddress next() {
+                return unpack(it.nextLong());
+            }
+
+            @Override
+            public void remove() {
+                it.remove();
+            }
+        };
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void clear() {
+        if (size == 0)
+            return;
+        Arrays.fill(table, EMPTY);
+        containsZero = false;
+        size = 0;
+        modCount++;
+    }
+
+    private static int tableSize(int expectedSize) {
+        long required = (long) Math.ceil(Math.max(expectedSize, 1) / (double) LOAD_FACTOR);
+        int capacity = DEFAULT_CAPACITY;
+        while (capacity < required && capacity < (1 << 30))
+            capacity <<= 1;
+        return capacity;
+    }
+
+    private static int hash(long packed) {
+        //murmur3 64-bit finalizer
+        packed ^= packed >>> 33;
+        packed *= 0xff51afd7ed558ccdL;
+        packed ^= packed >>> 33;
+        packed *= 0xc4ceb9fe1a85ec53L;
+        packed ^= packed >>> 33;
+        return (int) packed;
+    }
+
+    /**
+     * @return The index of the slot containing the packed address, or the index of the empty slot where it would be inserted
+     */
+    private int indexOf(long packed) {
+        final int mask = table.length - 1;
+        int index = hash(packed) & mask;
+        while (table[index] != EMPTY && table[index] != packed)
+            index = (index + 1) & mask;
+        return index;
+    }
+
+    /**
+     * Remove the entry at the provided slot and shift back the entries of the same probe sequence, so lookups do not stop early at the freed slot
+     *
+     * @param index
+     *         The slot to free
+     * @param iterator
+     *         The iterator performing the removal or {@code null}. Entries it has already visited that are moved into the part of the table it has not yet visited (wrap-around) are marked to be skipped.
+     */
+    private void delete(int index, PackedIterator iterator) {
+        final int mask = table.length - 1;
+        int gap = index;
+        int next = (gap + 1) & mask;
+        while (table[next] != EMPTY) {
+            int home = hash(table[next]) & mask;
+            //move the entry into the gap if its home slot is not located cyclically within (gap, next]
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                if (iterator != null && next < iterator.index && gap >= iterator.index)
+                    iterator.skip(table[next]);
+                table[gap] = table[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        table[gap] = EMPTY;
+    }
+
+    private void allocate(int capacity) {
+        long[] old = table;
+        this.table = new long[capacity];
+        this.threshold = (int) (capacity * LOAD_FACTOR);
+        if (old == null)
+            return;
+        for (long packed : old) {
+            if (packed != EMPTY)
+                table[indexOf(packed)] = packed;
+        }
+    }
+
+    private final class PackedIterator implements PrimitiveIterator.OfLong {
+
+        private int index = -1;
+
+        private int nextIndex;
+
+        private int expectedModCount = modCount;
+
+        private boolean zeroPending = containsZero;
+
+        private long last;
+
+        private boolean canRemove;
+
+        /**
+         * Visited entries which have been moved ahead of the iterator by a removal (created on demand). Entries are kept until the iteration ends,
+         * since a subsequent removal may shift an entry back in front of the look-ahead position of the iterator.
+         */
+        private PackedAddressSet skipped;
+
+        private PackedIterator() {
+            this.nextIndex = advance(0);
+        }
+
+        private int advance(int from) {
+            int i = from;
+            while (i < table.length && (table[i] == EMPTY || (skipped != null && skipped.contains(table[i]))))
+                i++;
+            return i;
+        }
+
+        private void skip(long packed) {
+            if (skipped == null)
+                skipped = new PackedAddressSet();
+            skipped.add(packed);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return zeroPending || nextIndex < table.length;
+        }
+
+        @Override
+        public long nextLong() {
+            if (modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+            if (zeroPending) {
+                zeroPending = false;
+                canRemove = true;
+                last = EMPTY;
+                return last;
+            }
+            if (nextIndex >= table.length)
+                throw new NoSuchElementException();
+            canRemove = true;
+            index = nextIndex;
+            last = table[index];
+            nextIndex = advance(index + 1);
+            return last;
+        }
+
+        @Override
+        public void remove() {
+            if (!canRemove)
+                throw new IllegalStateException();
+            if (modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+            canRemove = false;
+            if (last == EMPTY) {
+                containsZero = false;
+            } else {
+                delete(index, this);
+                //an entry not yet visited may have been shifted into the freed slot
+                nextIndex = advance(index);
+            }
+            size--;
+            expectedModCount = ++modCount;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.core.util;
+
+import io.netty.buffer.ByteBuf;
+import java.nio.charset.Charset;
+
+/**
+ * A bounded, thread-safe canonicalization cache for strings decoded from the network. Lookups are made against the raw bytes, so a hit returns the previously decoded {@link String} without allocating a new one.
+ *
+ * <p>
+ * The pool is a direct-mapped table: each entry is stored in the slot selected by the hash of its bytes and replaces whatever was stored there before. This keeps the memory usage fixed and the lookups lock-free,
+ * at the expense of occasional misses when two frequently used values share a slot. Intended for low cardinality values that repeat across many responses (e.g. map names, game directories and rule names).
+ * Strings longer than {@link #MAX_LENGTH} bytes are never pooled.
+ * </p>
+ */
+public final class StringPool {
+
+    /**
+     * The maximum number of bytes of a pooled string
+     */
+    public static final int MAX_LENGTH = 256;
+
+    private final Entry[] entries;
+
+    private final int mask;
+
+    /**
+     * Create a new pool
+     *
+     * @param capacity
+     *         The maximum number of strings to keep (rounded up to the next power of two)
+     */
+    public StringPool(int capacity) {
+        if (capacity <= 0 || capacity > (1 << 30))
+            throw new IllegalArgumentException("Capacity must be between 1 and " + (1 << 30));
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity)
+            size <<= 1;
+        this.entries = new Entry[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Get the canonical string of the given bytes. The reader index of the buffer is not modified.
+     *
+     * @param buffer
+     *         The {@link ByteBuf} containing the encoded string
+     * @param index
+     *         The index of the first byte
+     * @param length
+     *         The number of bytes to decode
+     * @param charset
+     *         The {@link Charset} to use for decoding
+     *
+     * @return The pooled {@link String}
+     */
+    public String get(ByteBuf buffer, int index, int length, Charset charset) {
+        if (buffer.hasArray())
+            return get(buffer.array(), buffer.arrayOffset() + index, length, charset);
+        if (length > MAX_LENGTH)
+            return buffer.toString(index, length, charset);
+        int hash = 1;
+        for (int i = 0; i < length; i++)
+            hash = 31 * hash + buffer.getByte(index + i);
+        int slot = slot(hash);
+        Entry entry = entries[slot];
+        if (entry != null && entry.hash == hash && entry.charset == charset && entry.bytes.length == length && matches(entry.bytes, buffer, index))
+            return entry.value;
+        byte[] bytes = new byte[length];
+        buffer.getBytes(index, bytes);
+        String value = new String(bytes, charset);
+        entries[slot] = new Entry(bytes, hash, charset, value);
+        return value;
+    }
+
+    /**
+     * Get the canonical string of the given bytes
+     *
+     * @param data
+     *         The array containing the encoded string
+     * @param offset
+     *         The index of the first byte
+     * @param length
+     *         The number of bytes to decode
+     * @param charset
+     *         The {@link Charset} to use for decoding
+     *
+     * @return The pooled {@link String}
+     */
+    public String get(byte[] data, int offset, int length, Charset charset) {
+        if (length > MAX_LENGTH)
+            return new String(data, offset, length, charset);
+        int hash = 1;
+        for (int i = 0; i < length; i++)
+            hash = 31 * hash + data[offset + i];
+        int slot = slot(hash);
+        Entry entry = entries[slot];
+        if (entry != null && entry.hash == hash && entry.charset == charset && entry.bytes.length == length && matches(entry.bytes, data, offset))
+            return entry.value;
+        byte[] bytes = new byte[length];
+        System.arraycopy(data, offset, bytes, 0, length);
+        String value = new String(bytes, charset);
+        entries[slot] = new Entry(bytes, hash, charset, value);
+        return value;
+    }
+
+    /**
+     * @return The maximum number of strings this pool can hold
+     */
+    public int capacity() {
+        return entries.length;
+    }
+
+    private int slot(int hash) {
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private static boolean matches(byte[] bytes, byte[] data, int offset) {
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] != data[offset + i])
+                return false;
+        }
+        return true;
+    }
+
+    private static boolean matches(byte[] bytes, ByteBuf buffer, int index) {
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] != buffer.getByte(index + i))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * An immutable pool entry. All fields are final, so entries are safely published to other threads without any additional synchronization.
+     */
+    private static final class Entry {
+
+        private final byte[] bytes;
+
+        private final int hash;
+
+        private final Charset charset;
+
+        private final String value;
+
+        private Entry(byte[] bytes, int hash, Charset charset, String value) {
+            this.bytes = bytes;
+            this.hash = hash;
+            this.charset = charset;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.core.util;
+
+import com.ibasco.agql.core.enums.RateLimitType;
+import com.ibasco.agql.core.exceptions.RateLimitExceededException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsyncRateLimiterTest {
+
+    private static final Duration PERIOD = Duration.ofHours(1);
+
+    private ScheduledExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Invalid configurations are rejected")
+    void testInvalidConfiguration() {
+        assertThrows(IllegalArgumentException.class, () -> new AsyncRateLimiter(0, PERIOD, 1, null));
+        assertThrows(IllegalArgumentException.class, () -> new AsyncRateLimiter(10, Duration.ZERO, 1, null));
+        assertThrows(IllegalArgumentException.class, () -> new AsyncRateLimiter(10, PERIOD, 0, null));
+        assertThrows(IllegalArgumentException.class, () -> new AsyncRateLimiter(10, PERIOD, 11, null));
+    }
+
+    @Test
+    @DisplayName("Burst limiters issue all permits of a period at once")
+    void testBurst() {
+        AsyncRateLimiter limiter = AsyncRateLimiter.create(RateLimitType.BURST, 5, PERIOD, null);
+        for (int i = 0; i < 5; i++)
+            assertEquals(0, limiter.reserve());
+        long wait = limiter.reserve();
+        assertTrue(wait > 0 && wait <= PERIOD.toNanos() / 5, "Unexpected wait time: " + wait);
+    }
+
+    @Test
+    @DisplayName("Smooth limiters spread out the permits evenly over the period")
+    void testSmooth() {
+        AsyncRateLimiter limiter = AsyncRateLimiter.create(RateLimitType.SMOOTH, 5, PERIOD, null);
+        assertEquals(0, limiter.reserve());
+        long first = limiter.reserve();
+        long second = limiter.reserve();
+        assertTrue(first > 0 && first <= PERIOD.toNanos() / 5, "Unexpected wait time: " + first);
+        assertTrue(second > first && second <= 2 * PERIOD.toNanos() / 5, "Unexpected wait time: " + second);
+    }
+
+    @Test
+    @DisplayName("Permits which exceed the maximum wait time are rejected without being reserved")
+    void testMaxWaitTime() {
+        AsyncRateLimiter limiter = new AsyncRateLimiter(2, PERIOD, 1, Duration.ofSeconds(1));
+        assertEquals(0, limiter.reserve());
+        assertEquals(-1, limiter.reserve());
+        assertEquals(-1, limiter.reserve());
+        CompletionException error = assertThrows(CompletionException.class, () -> limiter.acquire(executor).join());
+        assertInstanceOf(RateLimitExceededException.class, error.getCause());
+    }
+
+    @Test
+    @DisplayName("Acquired permits complete once the wait time has elapsed")
+    void testAcquireWait() {
+        AsyncRateLimiter limiter = new AsyncRateLimiter(1, Duration.ofMillis(100), 1, null);
+        assertEquals(0L, limiter.acquire(executor).join());
+        long start = System.nanoTime();
+        long waited = limiter.acquire(executor).join();
+        assertTrue(waited > 0);
+        assertTrue(System.nanoTime() - start >= waited - TimeUnit.MILLISECONDS.toNanos(10));
+    }
+
+    @Test
+    @DisplayName("Permits of the preceding limiters are returned if a later limiter rejects the request")
+    void testMultipleLimitersRefund() {
+        AsyncRateLimiter global = new AsyncRateLimiter(10, PERIOD, 10, Duration.ZERO);
+        AsyncRateLimiter address = new AsyncRateLimiter(1, PERIOD, 1, Duration.ZERO);
+        assertEquals(0L, AsyncRateLimiter.acquire(executor, global, null, address).join());
+        CompletableFuture<Long> rejected = AsyncRateLimiter.acquire(executor, global, null, address);
+        CompletionException error = assertThrows(CompletionException.class, rejected::join);
+        assertInstanceOf(RateLimitExceededException.class, error.getCause());
+        //only the first request consumed a permit of the global limiter
+        for (int i = 0; i < 9; i++)
+            assertEquals(0, global.reserve());
+        assertEquals(-1, global.reserve());
+    }
+
+    @Test
+    @DisplayName("The longest wait time of all limiters is used")
+    void testMultipleLimitersWait() {
+        AsyncRateLimiter global = new AsyncRateLimiter(10, PERIOD, 10, null);
+        AsyncRateLimiter address = new AsyncRateLimiter(1, Duration.ofMillis(50), 1, null);
+        assertEquals(0L, AsyncRateLimiter.acquire(executor, global, address).join());
+        long waited = AsyncRateLimiter.acquire(executor, global, address).join();
+        assertTrue(waited > 0 && waited <= TimeUnit.MILLISECONDS.toNanos(50), "Unexpected wait time: " + waited);
+    }
+
+    @Test
+    @DisplayName("Permits are returned if the executor rejects the scheduled task")
+    void testRejectedExecutionRefund() {
+        AsyncRateLimiter limiter = new AsyncRateLimiter(1, PERIOD, 1, null);
+        assertEquals(0, limiter.reserve());
+        executor.shutdownNow();
+        CompletionException error = assertThrows(CompletionException.class, () -> limiter.acquire(executor).join());
+        assertInstanceOf(RejectedExecutionException.class, error.getCause());
+        long wait = limiter.reserve();
+        assertTrue(wait > 0 && wait <= PERIOD.toNanos(), "Unexpected wait time: " + wait);
+    }
+}
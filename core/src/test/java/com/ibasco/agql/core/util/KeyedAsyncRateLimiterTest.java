@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.core.util;
+
+import com.ibasco.agql.core.enums.RateLimitType;
+import java.time.Duration;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class KeyedAsyncRateLimiterTest {
+
+    @Test
+    @DisplayName("Invalid configurations are rejected up-front")
+    void testInvalidConfiguration() {
+        assertThrows(IllegalArgumentException.class, () -> new KeyedAsyncRateLimiter<String>(RateLimitType.BURST, 0, Duration.ofSeconds(1), null));
+        assertThrows(IllegalArgumentException.class, () -> new KeyedAsyncRateLimiter<String>(RateLimitType.BURST, 1, Duration.ZERO, null));
+    }
+
+    @Test
+    @DisplayName("Each key has its own limiter")
+    void testPerKey() {
+        KeyedAsyncRateLimiter<String> limiters = new KeyedAsyncRateLimiter<>(RateLimitType.BURST, 1, Duration.ofHours(1), Duration.ZERO);
+        AsyncRateLimiter first = limiters.get("first");
+        assertSame(first, limiters.get("first"));
+        AsyncRateLimiter second = limiters.get("second");
+        assertNotSame(first, second);
+        assertEquals(0, first.reserve());
+        assertEquals(-1, first.reserve());
+        //the second key is not affected by the exhausted limiter of the first
+        assertEquals(0, second.reserve());
+        assertEquals(Duration.ZERO, second.getMaxWaitTime());
+    }
+}
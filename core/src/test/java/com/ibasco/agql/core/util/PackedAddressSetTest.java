@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.core.util;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PackedAddressSetTest {
+
+    @Test
+    @DisplayName("Addresses are packed and unpacked without loss")
+    void testPackUnpack() {
+        InetSocketAddress address = new InetSocketAddress("192.168.1.10", 27015);
+        long packed = PackedAddressSet.pack(address);
+        assertEquals(PackedAddressSet.pack(0xc0a8010a, 27015), packed);
+        assertEquals(address, PackedAddressSet.unpack(packed));
+        assertEquals(new InetSocketAddress("255.255.255.255", 65535), PackedAddressSet.unpack(PackedAddressSet.pack(0xffffffff, 65535)));
+    }
+
+    @Test
+    @DisplayName("Only resolved IPv4 addresses are supported")
+    void testUnsupportedAddresses() {
+        PackedAddressSet set = new PackedAddressSet();
+        InetSocketAddress ipv6 = new InetSocketAddress("::1", 27015);
+        InetSocketAddress unresolved = InetSocketAddress.createUnresolved("example.invalid", 27015);
+        assertFalse(PackedAddressSet.isSupported(ipv6));
+        assertFalse(PackedAddressSet.isSupported(unresolved));
+        assertFalse(PackedAddressSet.isSupported(null));
+        assertThrows(IllegalArgumentException.class, () -> set.add(ipv6));
+        assertThrows(IllegalArgumentException.class, () -> set.add(unresolved));
+        assertFalse(set.contains(ipv6));
+        assertFalse(set.remove(unresolved));
+        assertTrue(set.isEmpty());
+    }
+
+    @Test
+    @DisplayName("The all-zero address is stored outside of the table")
+    void testZeroKey() {
+        PackedAddressSet set = new PackedAddressSet();
+        InetSocketAddress zero = new InetSocketAddress("0.0.0.0", 0);
+        assertEquals(0, PackedAddressSet.pack(zero));
+        assertFalse(set.contains(zero));
+        assertTrue(set.add(zero));
+        assertFalse(set.add(zero));
+        assertTrue(set.add(new InetSocketAddress("10.0.0.1", 27015)));
+        assertEquals(2, set.size());
+        assertTrue(set.contains(zero));
+        Set<InetSocketAddress> visited = new HashSet<>(set);
+        assertEquals(2, visited.size());
+        assertTrue(visited.contains(zero));
+        assertTrue(set.remove(zero));
+        assertFalse(set.remove(zero));
+        assertFalse(set.contains(zero));
+        assertEquals(1, set.size());
+    }
+
+    @Test
+    @DisplayName("Removals shift back the entries of the probe sequence (randomized against HashSet)")
+    void testBackwardShiftDelete() {
+        Random random = new Random(0x5EED);
+        for (int round = 0; round < 20; round++) {
+            PackedAddressSet set = new PackedAddressSet();
+            Set<Long> expected = new HashSet<>();
+            //a small address space forces collisions and long probe sequences
+            for (int i = 0; i < 5000; i++) {
+                long packed = PackedAddressSet.pack(random.nextInt(64), random.nextInt(64));
+                if (random.nextInt(3) == 0)
+                    assertEquals(expected.remove(packed), set.remove(packed));
+                else
+                    assertEquals(expected.add(packed), set.add(packed));
+                assertEquals(expected.size(), set.size());
+            }
+            for (int ip = 0; ip < 64; ip++) {
+                for (int port = 0; port < 64; port++) {
+                    long packed = PackedAddressSet.pack(ip, port);
+                    assertEquals(expected.contains(packed), set.contains(packed));
+                }
+            }
+            assertEquals(expected, collect(set.packedIterator()));
+        }
+    }
+
+    @Test
+    @DisplayName("Iterator removals visit every remaining entry exactly once")
+    void testIteratorRemove() {
+        Random random = new Random(0xC0FFEE);
+        for (int round = 0; round < 50; round++) {
+            PackedAddressSet set = new PackedAddressSet();
+            Set<Long> expected = new HashSet<>();
+            int count = 1 + random.nextInt(500);
+            for (int i = 0; i < count; i++) {
+                long packed = PackedAddressSet.pack(random.nextInt(), random.nextInt(65536));
+                set.add(packed);
+                expected.add(packed);
+            }
+            if (random.nextBoolean()) {
+                set.add(0);
+                expected.add(0L);
+            }
+            List<Long> visited = new ArrayList<>();
+            Set<Long> remaining = new HashSet<>();
+            PrimitiveIterator.OfLong it = set.packedIterator();
+            while (it.hasNext()) {
+                long packed = it.nextLong();
+                visited.add(packed);
+                if (random.nextBoolean())
+                    it.remove();
+                else
+                    remaining.add(packed);
+            }
+            assertEquals(expected.size(), visited.size(), "An entry has been visited more than once or skipped");
+            assertEquals(expected, new HashSet<>(visited));
+            assertEquals(remaining.size(), set.size());
+            assertEquals(remaining, collect(set.packedIterator()));
+            for (long packed : remaining)
+                assertTrue(set.contains(packed));
+        }
+    }
+
+    @Test
+    @DisplayName("Iterator removal requires a preceding call to next")
+    void testIteratorRemoveState() {
+        PackedAddressSet set = new PackedAddressSet(Arrays.asList(new InetSocketAddress("10.0.0.1", 1), new InetSocketAddress("10.0.0.2", 2)));
+        Iterator<InetSocketAddress> it = set.iterator();
+        assertThrows(IllegalStateException.class, it::remove);
+        it.next();
+        it.remove();
+        assertThrows(IllegalStateException.class, it::remove);
+        assertEquals(1, set.size());
+    }
+
+    @Test
+    @DisplayName("Modifications outside of the iterator are detected")
+    void testConcurrentModification() {
+        PackedAddressSet set = new PackedAddressSet(Arrays.asList(new InetSocketAddress("10.0.0.1", 1), new InetSocketAddress("10.0.0.2", 2)));
+        Iterator<InetSocketAddress> it = set.iterator();
+        it.next();
+        set.add(new InetSocketAddress("10.0.0.3", 3));
+        assertThrows(ConcurrentModificationException.class, it::next);
+    }
+
+    @Test
+    @DisplayName("Copies are independent of the original set")
+    void testCopy() {
+        PackedAddressSet set = new PackedAddressSet(Arrays.asList(new InetSocketAddress("10.0.0.1", 1), new InetSocketAddress("0.0.0.0", 0)));
+        PackedAddressSet copy = new PackedAddressSet(set);
+        assertEquals(set, copy);
+        copy.add(new InetSocketAddress("10.0.0.2", 2));
+        copy.remove(new InetSocketAddress("0.0.0.0", 0));
+        assertEquals(2, set.size());
+        assertTrue(set.contains(new InetSocketAddress("0.0.0.0", 0)));
+        assertFalse(set.contains(new InetSocketAddress("10.0.0.2", 2)));
+        assertEquals(new HashSet<>(Arrays.asList(new InetSocketAddress("10.0.0.1", 1), new InetSocketAddress("10.0.0.2", 2))), copy);
+    }
+
+    private static Set<Long> collect(PrimitiveIterator.OfLong it) {
+        Set<Long> values = new HashSet<>();
+        while (it.hasNext())
+            assertTrue(values.add(it.nextLong()));
+        return values;
+    }
+}
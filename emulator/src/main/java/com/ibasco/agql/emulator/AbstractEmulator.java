@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.emulator;
+
+import com.ibasco.agql.core.util.Option;
+import com.ibasco.agql.core.util.Options;
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import java.io.Closeable;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Base class for the local server emulators. Takes care of binding the emulated servers to ephemeral ports on the configured bind address and applying the configured latency and packet loss.
+ *
+ * @see EmulatorOptions
+ */
+abstract public class AbstractEmulator implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(AbstractEmulator.class);
+
+    private final Options options;
+
+    private final Random random;
+
+    private final long latency;
+
+    private final long jitter;
+
+    private final double packetLoss;
+
+    private final List<Channel> channels = new ArrayList<>();
+
+    private final List<InetSocketAddress> addresses = new ArrayList<>();
+
+    private EventLoopGroup group;
+
+    /**
+     * <p>Constructor for AbstractEmulator.</p>
+     *
+     * @param options
+     *         The {@link Options} containing the emulator configuration. If {@code null}, the defaults will be used.
+     */
+    protected AbstractEmulator(Options options) {
+        this.options = options == null ? new EmulatorOptions() : options;
+        this.random = new Random(getOption(EmulatorOptions.SEED));
+        this.latency = getOption(EmulatorOptions.LATENCY);
+        this.jitter = getOption(EmulatorOptions.JITTER);
+        this.packetLoss = getOption(EmulatorOptions.PACKET_LOSS);
+        if (latency < 0 || jitter < 0)
+            throw new IllegalArgumentException("Latency and jitter must not be negative");
+        if (packetLoss < 0 || packetLoss > 1)
+            throw new IllegalArgumentException("Packet loss must be between 0.0 and 1.0");
+    }
+
+    /**
+     * Bind all emulated servers. This method blocks until all servers are bound.
+     *
+     * @throws InterruptedException
+     *         If the thread was interrupted while waiting for the servers to bind
+     * @throws IllegalStateException
+     *         If the emulator has already been started
+     */
+    public final synchronized void start() throws InterruptedException {
+        if (group != null)
+            throw new IllegalStateException("Emulator has already been started");
+        group = new NioEventLoopGroup(0, new DefaultThreadFactory("agql-emu", true));
+        String bindAddress = getOption(EmulatorOptions.BIND_ADDRESS);
+        try {
+            for (int i = 0; i < serverCount(); i++) {
+                Channel channel = bind(group, new InetSocketAddress(bindAddress, 0), i);
+                channels.add(channel);
+                addresses.add((InetSocketAddress) channel.localAddress());
+            }
+        } catch (InterruptedException | RuntimeException e) {
+            close();
+            throw e;
+        }
+        log.debug("EMULATOR => Started {} server(s) for '{}' (Latency: {}ms, Jitter: {}ms, Packet Loss: {})", addresses.size(), getClass().getSimpleName(), latency, jitter, packetLoss);
+    }
+
+    /**
+     * Bind a single emulated server
+     *
+     * @param group
+     *         The {@link EventLoopGroup} to be used by the server
+     * @param localAddress
+     *         The local address to bind to
+     * @param index
+     *         The zero-based index of the server
+     *
+     * @return The bound {@link Channel}
+     *
+     * @throws InterruptedException
+     *         If the thread was interrupted while binding
+     */
+    abstract protected Channel bind(EventLoopGroup group, InetSocketAddress localAddress, int index) throws InterruptedException;
+
+    /**
+     * @return The number of servers to bind. Defaults to {@link EmulatorOptions#SERVER_COUNT}
+     */
+    protected int serverCount() {
+        return getOption(EmulatorOptions.SERVER_COUNT);
+    }
+
+    /**
+     * @return An unmodifiable list of the addresses of the emulated servers (available after {@link #start()})
+     */
+    public synchronized List<InetSocketAddress> getAddresses() {
+        return Collections.unmodifiableList(new ArrayList<>(addresses));
+    }
+
+    /**
+     * @return The emulator options
+     */
+    public Options getOptions() {
+        return options;
+    }
+
+    /**
+     * Retrieve the value of an option or its default value if not set
+     *
+     * @param option
+     *         The {@link Option} to retrieve
+     * @param <X>
+     *         The type of the option value
+     *
+     * @return The configured value or the default value
+     */
+    protected <X> X getOption(Option<X> option) {
+        return options.getOrDefault(option);
+    }
+
+    /**
+     * @return The {@link Random} instance seeded with {@link EmulatorOptions#SEED}
+     */
+    protected Random random() {
+        return random;
+    }
+
+    /**
+     * @return {@code true} if the next outgoing datagram should be dropped
+     */
+    protected boolean drop() {
+        return packetLoss > 0 && random.nextDouble() < packetLoss;
+    }
+
+    /**
+     * @return The delay (in milliseconds) to be applied on the next response
+     */
+    protected long nextDelay() {
+        if (jitter == 0)
+            return latency;
+        return latency + (long) (random.nextDouble() * (jitter + 1));
+    }
+
+    /**
+     * Execute the task in the channel's event loop after the provided delay
+     *
+     * @param channel
+     *         The {@link Channel} of the emulated server
+     * @param delay
+     *         The delay in milliseconds
+     * @param task
+     *         The task that writes the response
+     */
+    protected void schedule(Channel channel, long delay, Runnable task) {
+        if (delay <= 0 && channel.eventLoop().inEventLoop())
+            task.run();
+        else
+            channel.eventLoop().schedule(task, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public synchronized void close() {
+        for (Channel channel : channels)
+            channel.close().syncUninterruptibly();
+        channels.clear();
+        addresses.clear();
+        if (group != null) {
+            group.shutdownGracefully(0, 1, TimeUnit.SECONDS).syncUninterruptibly();
+            group = null;
+        }
+    }
+}
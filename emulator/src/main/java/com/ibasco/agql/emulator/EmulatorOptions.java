@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.emulator;
+
+import com.ibasco.agql.core.util.AbstractOptions;
+import com.ibasco.agql.core.util.Option;
+import com.ibasco.agql.core.util.OptionBuilder;
+import com.ibasco.agql.core.util.Options;
+
+/**
+ * Configuration options container for the server emulators
+ *
+ * @see Options
+ * @see OptionBuilder
+ * @see SourceQueryEmulator
+ * @see SourceRconEmulator
+ * @see MasterServerEmulator
+ */
+public final class EmulatorOptions extends AbstractOptions {
+
+    /**
+     * The local address the emulated servers will bind to. (Default: 127.0.0.1)
+     */
+    public static final Option<String> BIND_ADDRESS = Option.create("emuBindAddress", "127.0.0.1");
+
+    /**
+     * The number of servers to emulate. Each server listens on its own ephemeral port. For the master server emulator, this is the number of addresses it will serve if no address list is provided. (Default: 1)
+     */
+    public static final Option<Integer> SERVER_COUNT = Option.create("emuServerCount", 1);
+
+    /**
+     * The base latency (in milliseconds) applied to every response. (Default: 0)
+     */
+    public static final Option<Long> LATENCY = Option.create("emuLatency", 0L);
+
+    /**
+     * The maximum random jitter (in milliseconds) added on top of {@link #LATENCY}. (Default: 0)
+     */
+    public static final Option<Long> JITTER = Option.create("emuJitter", 0L);
+
+    /**
+     * The probability (0.0 to 1.0) of an outgoing UDP datagram being dropped. Each datagram of a split-packet response is dropped independently. Not applicable to rcon. (Default: 0.0)
+     */
+    public static final Option<Double> PACKET_LOSS = Option.create("emuPacketLoss", 0.0d);
+
+    /**
+     * The seed used for challenge numbers, jitter and packet loss so runs can be reproduced. (Default: 0x5EED)
+     */
+    public static final Option<Long> SEED = Option.create("emuSeed", 0x5EEDL);
+
+    /**
+     * Require a challenge number for A2S_INFO, A2S_PLAYER and A2S_RULES requests. (Default: true)
+     */
+    public static final Option<Boolean> CHALLENGE = Option.create("emuChallenge", true);
+
+    /**
+     * The number of players reported in A2S_INFO and returned by A2S_PLAYER. (Default: 16)
+     */
+    public static final Option<Integer> PLAYER_COUNT = Option.create("emuPlayerCount", 16);
+
+    /**
+     * The number of rules returned by A2S_RULES. (Default: 100)
+     */
+    public static final Option<Integer> RULE_COUNT = Option.create("emuRuleCount", 100);
+
+    /**
+     * The maximum payload size of a single datagram. Responses exceeding this are sent as split-packets. (Default: 1248)
+     */
+    public static final Option<Integer> MAX_PACKET_SIZE = Option.create("emuMaxPacketSize", 1248);
+
+    /**
+     * Compress split-packet responses using bzip2 (as done by older Source engine games). (Default: false)
+     */
+    public static final Option<Boolean> COMPRESSED = Option.create("emuCompressed", false);
+
+    /**
+     * The rcon password accepted by the emulated rcon servers. (Default: emulator)
+     */
+    public static final Option<String> RCON_PASSWORD = Option.create("emuRconPassword", "emulator");
+
+    /**
+     * The size (in bytes) of the response body returned for rcon commands other than {@code echo}. Bodies larger than 4096 bytes are sent as multiple packets. (Default: 1024)
+     */
+    public static final Option<Integer> RCON_RESPONSE_SIZE = Option.create("emuRconResponseSize", 1024);
+
+    /**
+     * <p>Create a new {@link OptionBuilder} for {@link EmulatorOptions}</p>
+     *
+     * @return a newly instantiated {@link com.ibasco.agql.core.util.OptionBuilder} object
+     */
+    public static OptionBuilder<EmulatorOptions> builder() {
+        return OptionBuilder.newBuilder(EmulatorOptions.class);
+    }
+}
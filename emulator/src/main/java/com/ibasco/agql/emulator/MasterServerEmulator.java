@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.emulator;
+
+import com.ibasco.agql.core.util.Options;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.socket.DatagramPacket;
+import io.netty.channel.socket.nio.NioDatagramChannel;
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Emulates a Steam master server. Addresses are served in batches of up to 231 entries, continuing from the seed address of each request. The last batch is followed by the terminating address (0.0.0.0:0).
+ *
+ * <p>
+ * The filter and region of the request are ignored. Either serve an explicit list of addresses (e.g. those of a {@link SourceQueryEmulator}) or let the emulator generate {@link EmulatorOptions#SERVER_COUNT} addresses within the 10.0.0.0/8 block.
+ * </p>
+ *
+ * @see <a href="https://developer.valvesoftware.com/wiki/Master_Server_Query_Protocol">Master Server Query Protocol</a>
+ */
+public final class MasterServerEmulator extends AbstractEmulator {
+
+    private static final int REQUEST_TYPE = 0x31;
+
+    private static final int MAX_BATCH_SIZE = 231;
+
+    private static final String INITIAL_SEED = "0.0.0.0:0";
+
+    private final List<InetSocketAddress> servers;
+
+    private final Map<InetSocketAddress, Integer> indices;
+
+    /**
+     * Create a new emulator using the default {@link EmulatorOptions}
+     */
+    public MasterServerEmulator() {
+        this(null);
+    }
+
+    /**
+     * Create a new emulator serving {@link EmulatorOptions#SERVER_COUNT} generated addresses
+     *
+     * @param options
+     *         The {@link EmulatorOptions} to use
+     */
+    public MasterServerEmulator(Options options) {
+        this(options, null);
+    }
+
+    /**
+     * Create a new emulator serving the provided addresses
+     *
+     * @param options
+     *         The {@link EmulatorOptions} to use
+     * @param servers
+     *         The IPv4 addresses to be served. If {@code null}, {@link EmulatorOptions#SERVER_COUNT} addresses will be generated.
+     */
+    public MasterServerEmulator(Options options, List<InetSocketAddress> servers) {
+        super(options);
+        this.servers = Collections.unmodifiableList(servers != null ? new ArrayList<>(servers) : generate(getOption(EmulatorOptions.SERVER_COUNT)));
+        this.indices = new HashMap<>(this.servers.size() * 2);
+        for (int i = 0; i < this.servers.size(); i++) {
+            InetSocketAddress address = this.servers.get(i);
+            if (!(address.getAddress() instanceof Inet4Address))
+                throw new IllegalArgumentException("Only IPv4 addresses are supported: " + address);
+            indices.put(address, i);
+        }
+    }
+
+    /**
+     * @return The addresses served by this master server
+     */
+    public List<InetSocketAddress> getServers() {
+        return servers;
+    }
+
+    /**
+     * @return The address of the emulated master server (available after {@link #start()})
+     */
+    public InetSocketAddress getAddress() {
+        List<InetSocketAddress> addresses = getAddresses();
+        if (addresses.isEmpty())
+            throw new IllegalStateException("Emulator has not been started");
+        return addresses.get(0);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected int serverCount() {
+        return 1;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected Channel bind(EventLoopGroup group, InetSocketAddress localAddress, int index) throws InterruptedException {
+        Bootstrap bootstrap = new Bootstrap().group(group).channel(NioDatagramChannel.class).handler(new ServerHandler());
+        return bootstrap.bind(localAddress).sync().channel();
+    }
+
+    private class ServerHandler extends SimpleChannelInboundHandler<DatagramPacket> {
+
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, DatagramPacket msg) {
+            ByteBuf in = msg.content();
+            if (in.readableBytes() < 3 || in.readUnsignedByte() != REQUEST_TYPE)
+                return;
+            in.skipBytes(1); //region
+            int length = in.bytesBefore((byte) 0);
+            if (length < 0)
+                return;
+            String seed = in.readCharSequence(length, StandardCharsets.US_ASCII).toString();
+            int start = nextIndex(seed);
+            int end = Math.min(start + MAX_BATCH_SIZE, servers.size());
+
+            ByteBuf out = ctx.alloc().buffer(6 * (end - start + 2));
+            out.writeIntLE(0xFFFFFFFF);
+            out.writeByte(0x66);
+            out.writeByte(0x0A);
+            for (int i = start; i < end; i++) {
+                InetSocketAddress address = servers.get(i);
+                out.writeBytes(address.getAddress().getAddress());
+                out.writeShort(address.getPort());
+            }
+            if (end == servers.size()) {
+                out.writeInt(0);
+                out.writeShort(0);
+            }
+            if (drop()) {
+                out.release();
+                return;
+            }
+            InetSocketAddress recipient = msg.sender();
+            schedule(ctx.channel(), nextDelay(), () -> ctx.writeAndFlush(new DatagramPacket(out, recipient)));
+        }
+
+        private int nextIndex(String seed) {
+            if (INITIAL_SEED.equals(seed))
+                return 0;
+            int separator = seed.lastIndexOf(':');
+            if (separator < 0)
+                return servers.size();
+            try {
+                InetSocketAddress address = new InetSocketAddress(seed.substring(0, separator), Integer.parseInt(seed.substring(separator + 1)));
+                Integer index = indices.get(address);
+                return index == null ? servers.size() : index + 1;
+            } catch (IllegalArgumentException e) {
+                return servers.size();
+            }
+        }
+    }
+
+    private static List<InetSocketAddress> generate(int count) {
+        if (count < 0 || count > 0xFFFFFF)
+            throw new IllegalArgumentException("Server count must be between 0 and " + 0xFFFFFF);
+        List<InetSocketAddress> addresses = new ArrayList<>(count);
+        try {
+            for (int i = 0; i < count; i++) {
+                byte[] ip = new byte[] {10, (byte) (i >> 16), (byte) (i >> 8), (byte) i};
+                addresses.add(new InetSocketAddress(InetAddress.getByAddress(ip), 27015 + (i % 10)));
+            }
+        } catch (UnknownHostException e) {
+            throw new IllegalStateException(e);
+        }
+        return addresses;
+    }
+}
@@ -0,0 +1,298 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.emulator;
+
+import com.ibasco.agql.core.util.Compression;
+import com.ibasco.agql.core.util.Options;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.socket.DatagramPacket;
+import io.netty.channel.socket.nio.NioDatagramChannel;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
+
+/**
+ * Emulates one or more Source servers responding to A2S_INFO, A2S_PLAYER and A2S_RULES queries.
+ *
+ * <p>
+ * Each emulated server has its own challenge number (derived from {@link EmulatorOptions#SEED}) and a pre-encoded set of responses sized by {@link EmulatorOptions#PLAYER_COUNT} and {@link EmulatorOptions#RULE_COUNT}.
+ * Responses larger than {@link EmulatorOptions#MAX_PACKET_SIZE} are sent as split-packets, optionally bzip2 compressed ({@link EmulatorOptions#COMPRESSED}).
+ * </p>
+ *
+ * @see <a href="https://developer.valvesoftware.com/wiki/Server_queries">Server Queries</a>
+ */
+public final class SourceQueryEmulator extends AbstractEmulator {
+
+    private static final int PACKET_TYPE_SINGLE = 0xFFFFFFFF;
+
+    private static final int PACKET_TYPE_SPLIT = 0xFFFFFFFE;
+
+    private static final int INFO_REQ = 0x54;
+
+    private static final int INFO_RES = 0x49;
+
+    private static final int PLAYER_REQ = 0x55;
+
+    private static final int PLAYER_RES = 0x44;
+
+    private static final int RULES_REQ = 0x56;
+
+    private static final int RULES_RES = 0x45;
+
+    private static final int CHALLENGE_REQ = 0x57;
+
+    private static final int CHALLENGE_RES = 0x41;
+
+    private static final int MAX_SPLIT_PACKETS = 255;
+
+    private final boolean challengeEnabled;
+
+    private final int maxPacketSize;
+
+    private final boolean compressed;
+
+    private final byte[][] playersResponse;
+
+    private final byte[][] rulesResponse;
+
+    /**
+     * Create a new emulator using the default {@link EmulatorOptions}
+     */
+    public SourceQueryEmulator() {
+        this(null);
+    }
+
+    /**
+     * Create a new emulator
+     *
+     * @param options
+     *         The {@link EmulatorOptions} to use
+     */
+    public SourceQueryEmulator(Options options) {
+        super(options);
+        this.challengeEnabled = getOption(EmulatorOptions.CHALLENGE);
+        this.maxPacketSize = getOption(EmulatorOptions.MAX_PACKET_SIZE);
+        this.compressed = getOption(EmulatorOptions.COMPRESSED);
+        if (maxPacketSize < 64)
+            throw new IllegalArgumentException("Maximum packet size must be at least 64 bytes");
+        //player and rule responses are identical for all servers, so encode them only once
+        this.playersResponse = encode(2, PLAYER_RES, players());
+        this.rulesResponse = encode(3, RULES_RES, rules());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected Channel bind(EventLoopGroup group, InetSocketAddress localAddress, int index) throws InterruptedException {
+        Bootstrap bootstrap = new Bootstrap().group(group).channel(NioDatagramChannel.class).handler(new ServerHandler());
+        return bootstrap.bind(localAddress).sync().channel();
+    }
+
+    private class ServerHandler extends SimpleChannelInboundHandler<DatagramPacket> {
+
+        private final int challenge;
+
+        private final byte[][] challengeResponse;
+
+        private byte[][] infoResponse;
+
+        private ServerHandler() {
+            //never hand out -1 as it is reserved for requesting a new challenge
+            int value;
+            do {
+                value = random().nextInt();
+            } while (value == -1);
+            this.challenge = value;
+            this.challengeResponse = new byte[][] {single(CHALLENGE_RES, Unpooled.buffer(4).writeIntLE(challenge))};
+        }
+
+        @Override
+        public void channelActive(ChannelHandlerContext ctx) throws Exception {
+            int port = ((InetSocketAddress) ctx.channel().localAddress()).getPort();
+            infoResponse = encode(1, INFO_RES, info(port));
+            super.channelActive(ctx);
+        }
+
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, DatagramPacket msg) {
+            ByteBuf in = msg.content();
+            if (in.readableBytes() < 5 || in.readIntLE() != PACKET_TYPE_SINGLE)
+                return;
+            int header = in.readUnsignedByte();
+            switch (header) {
+                case INFO_REQ: {
+                    int length = in.bytesBefore((byte) 0);
+                    if (length >= 0)
+                        in.skipBytes(length + 1);
+                    Integer value = in.readableBytes() >= 4 ? in.readIntLE() : null;
+                    reply(ctx, msg.sender(), isValid(value) ? infoResponse : challengeResponse);
+                    break;
+                }
+                case PLAYER_REQ:
+                case RULES_REQ: {
+                    Integer value = in.readableBytes() >= 4 ? in.readIntLE() : null;
+                    byte[][] response = header == PLAYER_REQ ? playersResponse : rulesResponse;
+                    reply(ctx, msg.sender(), isValid(value) ? response : challengeResponse);
+                    break;
+                }
+                case CHALLENGE_REQ:
+                    reply(ctx, msg.sender(), challengeResponse);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private boolean isValid(Integer value) {
+            return !challengeEnabled || (value != null && value == challenge);
+        }
+
+        private void reply(ChannelHandlerContext ctx, InetSocketAddress recipient, byte[][] datagrams) {
+            schedule(ctx.channel(), nextDelay(), () -> {
+                for (byte[] datagram : datagrams) {
+                    if (drop())
+                        continue;
+                    ctx.write(new DatagramPacket(Unpooled.wrappedBuffer(datagram), recipient));
+                }
+                ctx.flush();
+            });
+        }
+    }
+
+    //<editor-fold desc="Response Encoding">
+    private ByteBuf info(int port) {
+        int players = Math.min(getOption(EmulatorOptions.PLAYER_COUNT), 255);
+        ByteBuf buf = Unpooled.buffer();
+        buf.writeByte(17); //protocol
+        writeString(buf, "AGQL Emulator #" + port);
+        writeString(buf, "de_dust2");
+        writeString(buf, "csgo");
+        writeString(buf, "Counter-Strike: Global Offensive");
+        buf.writeShortLE(730);
+        buf.writeByte(players);
+        buf.writeByte(Math.max(players, 32));
+        buf.writeByte(0); //bots
+        buf.writeByte('d');
+        buf.writeByte('l');
+        buf.writeByte(0); //visibility
+        buf.writeByte(1); //vac
+        writeString(buf, "1.38.8.1");
+        buf.writeByte(0x80 | 0x10 | 0x20 | 0x01); //port, steam id, tags, game id
+        buf.writeShortLE(port);
+        buf.writeLongLE(90000000000000000L + port);
+        writeString(buf, "emulator,secure");
+        buf.writeLongLE(730L);
+        return buf;
+    }
+
+    private ByteBuf players() {
+        int count = Math.min(getOption(EmulatorOptions.PLAYER_COUNT), 255);
+        ByteBuf buf = Unpooled.buffer();
+        buf.writeByte(count);
+        for (int i = 0; i < count; i++) {
+            buf.writeByte(i);
+            writeString(buf, "Player #" + i);
+            buf.writeIntLE(i * 3);
+            buf.writeFloatLE(60.5f * (i + 1));
+        }
+        return buf;
+    }
+
+    private ByteBuf rules() {
+        int count = Math.min(getOption(EmulatorOptions.RULE_COUNT), 0xFFFF);
+        ByteBuf buf = Unpooled.buffer();
+        buf.writeShortLE(count);
+        for (int i = 0; i < count; i++) {
+            writeString(buf, "emu_rule_" + i);
+            writeString(buf, (i % 3 == 0) ? "1" : "value_" + i);
+        }
+        return buf;
+    }
+
+    /**
+     * Encode the response body into one or more datagrams
+     */
+    private byte[][] encode(int id, int header, ByteBuf body) {
+        byte[] single = single(header, body);
+        if (single.length <= maxPacketSize)
+            return new byte[][] {single};
+        byte[] data = compressed ? compress(single) : single;
+        int count = (data.length + maxPacketSize - 1) / maxPacketSize;
+        if (count > MAX_SPLIT_PACKETS)
+            throw new IllegalStateException(String.format("Response of %d bytes does not fit in %d split-packets. Increase the maximum packet size or reduce the payload size", data.length, MAX_SPLIT_PACKETS));
+        byte[][] datagrams = new byte[count][];
+        for (int i = 0; i < count; i++) {
+            int offset = i * maxPacketSize;
+            int length = Math.min(maxPacketSize, data.length - offset);
+            ByteBuf buf = Unpooled.buffer(length + 20);
+            buf.writeIntLE(PACKET_TYPE_SPLIT);
+            buf.writeIntLE(compressed ? (id | 0x80000000) : id);
+            buf.writeByte(count);
+            buf.writeByte(i);
+            buf.writeShortLE(maxPacketSize);
+            if (compressed && i == 0) {
+                buf.writeIntLE(single.length);
+                buf.writeIntLE((int) Compression.getCrc32Checksum(single));
+            }
+            buf.writeBytes(data, offset, length);
+            datagrams[i] = toArray(buf);
+        }
+        return datagrams;
+    }
+
+    private static byte[] single(int header, ByteBuf body) {
+        ByteBuf buf = Unpooled.buffer(body.readableBytes() + 5);
+        buf.writeIntLE(PACKET_TYPE_SINGLE);
+        buf.writeByte(header);
+        buf.writeBytes(body);
+        body.release();
+        return toArray(buf);
+    }
+
+    private static byte[] compress(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length);
+        try (BZip2CompressorOutputStream bzip2 = new BZip2CompressorOutputStream(out)) {
+            bzip2.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] toArray(ByteBuf buf) {
+        try {
+            return Arrays.copyOfRange(buf.array(), buf.arrayOffset() + buf.readerIndex(), buf.arrayOffset() + buf.writerIndex());
+        } finally {
+            buf.release();
+        }
+    }
+
+    private static void writeString(ByteBuf buf, String value) {
+        buf.writeCharSequence(value, StandardCharsets.UTF_8);
+        buf.writeByte(0);
+    }
+    //</editor-fold>
+}
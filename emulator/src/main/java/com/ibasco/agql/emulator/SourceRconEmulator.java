@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.emulator;
+
+import com.ibasco.agql.core.util.Options;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+import java.net.InetSocketAddress;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Emulates one or more Source RCON servers.
+ *
+ * <p>
+ * Authentication requests are accepted if the password matches {@link EmulatorOptions#RCON_PASSWORD}. The command {@code echo <text>} responds with {@code <text>}, any other command responds with a generated body of {@link EmulatorOptions#RCON_RESPONSE_SIZE} bytes.
+ * Bodies larger than 4096 bytes are sent as multiple response packets and empty response value packets are mirrored back followed by a secondary terminator packet, just like a real server does.
+ * Commands received on an unauthenticated connection cause the connection to be closed.
+ * </p>
+ *
+ * @see <a href="https://developer.valvesoftware.com/wiki/Source_RCON_Protocol">Source RCON Protocol</a>
+ */
+public final class SourceRconEmulator extends AbstractEmulator {
+
+    private static final int TYPE_AUTH = 3;
+
+    private static final int TYPE_EXECCOMMAND = 2;
+
+    private static final int TYPE_AUTH_RESPONSE = 2;
+
+    private static final int TYPE_RESPONSE_VALUE = 0;
+
+    private static final int MAX_BODY_SIZE = 4096;
+
+    private static final int MAX_FRAME_SIZE = 65536;
+
+    private static final byte[] ECHO = "echo ".getBytes(StandardCharsets.US_ASCII);
+
+    private final byte[] password;
+
+    private final byte[] responseBody;
+
+    /**
+     * Create a new emulator using the default {@link EmulatorOptions}
+     */
+    public SourceRconEmulator() {
+        this(null);
+    }
+
+    /**
+     * Create a new emulator
+     *
+     * @param options
+     *         The {@link EmulatorOptions} to use
+     */
+    public SourceRconEmulator(Options options) {
+        super(options);
+        this.password = getOption(EmulatorOptions.RCON_PASSWORD).getBytes(StandardCharsets.US_ASCII);
+        int size = getOption(EmulatorOptions.RCON_RESPONSE_SIZE);
+        if (size < 0)
+            throw new IllegalArgumentException("Response size must not be negative");
+        this.responseBody = new byte[size];
+        for (int i = 0; i < size; i++)
+            responseBody[i] = (byte) ((i % 64 == 63) ? '\n' : 'a' + (i % 26));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected Channel bind(EventLoopGroup group, InetSocketAddress localAddress, int index) throws InterruptedException {
+        ServerBootstrap bootstrap = new ServerBootstrap().group(group).channel(NioServerSocketChannel.class).childHandler(new ChannelInitializer<SocketChannel>() {
+            @Override
+            protected void initChannel(SocketChannel ch) {
+                ch.pipeline().addLast(new LengthFieldBasedFrameDecoder(ByteOrder.LITTLE_ENDIAN, MAX_FRAME_SIZE, 0, 4, 0, 4, true));
+                ch.pipeline().addLast(new ConnectionHandler());
+            }
+        });
+        return bootstrap.bind(localAddress).sync().channel();
+    }
+
+    private class ConnectionHandler extends SimpleChannelInboundHandler<ByteBuf> {
+
+        private final Deque<Response> queue = new ArrayDeque<>();
+
+        private boolean authenticated;
+
+        private long lastDeadline;
+
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, ByteBuf frame) {
+            if (frame.readableBytes() < 10)
+                return;
+            int id = frame.readIntLE();
+            int type = frame.readIntLE();
+            int length = frame.bytesBefore((byte) 0);
+            byte[] body = new byte[length < 0 ? frame.readableBytes() : length];
+            frame.readBytes(body);
+
+            ByteBuf out = ctx.alloc().buffer();
+            switch (type) {
+                case TYPE_AUTH:
+                    authenticated = Arrays.equals(password, body);
+                    writePacket(out, id, TYPE_RESPONSE_VALUE, null, 0, 0);
+                    writePacket(out, authenticated ? id : -1, TYPE_AUTH_RESPONSE, null, 0, 0);
+                    break;
+                case TYPE_EXECCOMMAND:
+                    if (!authenticated) {
+                        out.release();
+                        ctx.close();
+                        return;
+                    }
+                    boolean echo = body.length >= ECHO.length && Arrays.equals(ECHO, Arrays.copyOf(body, ECHO.length));
+                    byte[] response = echo ? Arrays.copyOfRange(body, ECHO.length, body.length) : responseBody;
+                    int offset = 0;
+                    do {
+                        int chunk = Math.min(MAX_BODY_SIZE, response.length - offset);
+                        writePacket(out, id, TYPE_RESPONSE_VALUE, response, offset, chunk);
+                        offset += chunk;
+                    } while (offset < response.length);
+                    break;
+                case TYPE_RESPONSE_VALUE:
+                    //mirror the empty response value packet, followed by the secondary terminator packet (terminating byte of 0x01)
+                    writePacket(out, id, TYPE_RESPONSE_VALUE, null, 0, 0);
+                    out.writeIntLE(10);
+                    out.writeIntLE(id);
+                    out.writeIntLE(TYPE_RESPONSE_VALUE);
+                    out.writeByte(0);
+                    out.writeByte(1);
+                    break;
+                default:
+                    out.release();
+                    return;
+            }
+            write(ctx, out);
+        }
+
+        @Override
+        public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+            Response response;
+            while ((response = queue.poll()) != null)
+                response.content.release();
+            super.channelInactive(ctx);
+        }
+
+        /**
+         * Queues the response while preserving the order of responses on this connection when latency or jitter is applied.
+         * Deadlines never decrease, so the queue is always sorted and each scheduled drain writes every response that is due.
+         */
+        private void write(ChannelHandlerContext ctx, ByteBuf out) {
+            long now = System.nanoTime();
+            long deadline = Math.max(lastDeadline, now + TimeUnit.MILLISECONDS.toNanos(nextDelay()));
+            lastDeadline = deadline;
+            queue.add(new Response(deadline, out));
+            if (deadline - now <= 0)
+                drain(ctx);
+            else
+                ctx.executor().schedule(() -> drain(ctx), deadline - now, TimeUnit.NANOSECONDS);
+        }
+
+        private void drain(ChannelHandlerContext ctx) {
+            long now = System.nanoTime();
+            boolean written = false;
+            while (!queue.isEmpty() && queue.peek().deadline - now <= 0) {
+                ctx.write(queue.poll().content);
+                written = true;
+            }
+            if (written)
+                ctx.flush();
+        }
+
+        private void writePacket(ByteBuf out, int id, int type, byte[] body, int offset, int length) {
+            out.writeIntLE(length + 10);
+            out.writeIntLE(id);
+            out.writeIntLE(type);
+            if (body != null)
+                out.writeBytes(body, offset, length);
+            out.writeByte(0);
+            out.writeByte(0);
+        }
+    }
+
+    private static final class Response {
+
+        private final long deadline;
+
+        private final ByteBuf content;
+
+        private Response(long deadline, ByteBuf content) {
+            this.deadline = deadline;
+            this.content = content;
+        }
+    }
+}
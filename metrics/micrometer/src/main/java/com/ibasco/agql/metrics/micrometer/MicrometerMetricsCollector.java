@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.metrics.micrometer;
+
+import com.ibasco.agql.core.AbstractRequest;
+import com.ibasco.agql.core.exceptions.TimeoutException;
+import com.ibasco.agql.core.metrics.MetricsCollector;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link MetricsCollector} that records the metrics of the library to a Micrometer {@link MeterRegistry}.
+ *
+ * <p>
+ * The following meters are registered (remote addresses are intentionally not used as tags to keep the cardinality low):
+ * </p>
+ * <ul>
+ *     <li><strong>agql.requests</strong> - Timer of request/response round-trips (tags: type, outcome=success|timeout|error)</li>
+ *     <li><strong>agql.requests.retries</strong> - Counter of retried requests (tags: type)</li>
+ *     <li><strong>agql.connections.retries</strong> - Counter of retried connection attempts</li>
+ *     <li><strong>agql.ratelimiter.wait</strong> - Timer of the time spent waiting for a rate limiter permit (tags: type)</li>
+ *     <li><strong>agql.authentications</strong> - Counter of authentication attempts (tags: outcome=success|error)</li>
+ *     <li><strong>agql.pool.acquire</strong> - Timer of the time spent waiting for a pooled channel (tags: outcome=success|error)</li>
+ *     <li><strong>agql.pool.held</strong> - Timer of the time a pooled channel was held before being released</li>
+ *     <li><strong>agql.bytes.read</strong> and <strong>agql.bytes.written</strong> - Counters of the raw bytes transferred</li>
+ * </ul>
+ *
+ * <h3>Sample usage:</h3>
+ *
+ * <pre>
+ *  SourceQueryOptions options = SourceQueryOptions.builder()
+ *                                                 .option(GeneralOptions.METRICS_COLLECTOR, new MicrometerMetricsCollector(registry))
+ *                                                 .build();
+ *  SourceQueryClient client = new SourceQueryClient(options);
+ * </pre>
+ */
+public class MicrometerMetricsCollector implements MetricsCollector {
+
+    private static final String OUTCOME_SUCCESS = "success";
+
+    private static final String OUTCOME_TIMEOUT = "timeout";
+
+    private static final String OUTCOME_ERROR = "error";
+
+    private final MeterRegistry registry;
+
+    private final Tags tags;
+
+    private final boolean histograms;
+
+    private final ConcurrentMap<Class<?>, RequestMeters> requestMeters = new ConcurrentHashMap<>();
+
+    private final Timer acquireSuccessTimer;
+
+    private final Timer acquireErrorTimer;
+
+    private final Timer heldTimer;
+
+    private final Counter connectRetries;
+
+    private final Counter authSuccesses;
+
+    private final Counter authFailures;
+
+    private final Counter bytesRead;
+
+    private final Counter bytesWritten;
+
+    /**
+     * Create a new collector with percentile histograms enabled
+     *
+     * @param registry
+     *         The {@link MeterRegistry} to register the meters with
+     */
+    public MicrometerMetricsCollector(MeterRegistry registry) {
+        this(registry, Tags.empty(), true);
+    }
+
+    /**
+     * Create a new collector
+     *
+     * @param registry
+     *         The {@link MeterRegistry} to register the meters with
+     * @param tags
+     *         Additional tags applied to all meters (e.g. the name of the application)
+     * @param histograms
+     *         {@code true} to publish percentile histograms for the timers (required for computing aggregable percentiles on the monitoring backend)
+     */
+    public MicrometerMetricsCollector(MeterRegistry registry, Iterable<Tag> tags, boolean histograms) {
+        if (registry == null)
+            throw new IllegalArgumentException("Registry must not be null");
+        this.registry = registry;
+        this.tags = Tags.of(tags);
+        this.histograms = histograms;
+        this.acquireSuccessTimer = timer("agql.pool.acquire", "Time spent waiting for a pooled channel", Tags.of("outcome", OUTCOME_SUCCESS));
+        this.acquireErrorTimer = timer("agql.pool.acquire", "Time spent waiting for a pooled channel", Tags.of("outcome", OUTCOME_ERROR));
+        this.heldTimer = timer("agql.pool.held", "Time a pooled channel was held before being released", Tags.empty());
+        this.connectRetries = Counter.builder("agql.connections.retries").description("Number of retried connection attempts").tags(this.tags).register(registry);
+        this.authSuccesses = Counter.builder("agql.authentications").description("Number of authentication attempts").tags(this.tags).tag("outcome", OUTCOME_SUCCESS).register(registry);
+        this.authFailures = Counter.builder("agql.authentications").description("Number of authentication attempts").tags(this.tags).tag("outcome", OUTCOME_ERROR).register(registry);
+        this.bytesRead = Counter.builder("agql.bytes.read").description("Raw bytes received from the network").baseUnit("bytes").tags(this.tags).register(registry);
+        this.bytesWritten = Counter.builder("agql.bytes.written").description("Raw bytes sent to the network").baseUnit("bytes").tags(this.tags).register(registry);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void requestCompleted(Class<? extends AbstractRequest> type, InetSocketAddress address, long durationNanos, Throwable error) {
+        RequestMeters meters = requestMeters(type);
+        Timer timer;
+        if (error == null)
+            timer = meters.success;
+        else if (error instanceof TimeoutException)
+            timer = meters.timeout;
+        else
+            timer = meters.error;
+        timer.record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void requestRetried(Class<? extends AbstractRequest> type, InetSocketAddress address, int attempt) {
+        requestMeters(type).retries.increment();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void connectRetried(InetSocketAddress address, int attempt) {
+        connectRetries.increment();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void rateLimited(Class<? extends AbstractRequest> type, long waitNanos) {
+        requestMeters(type).rateLimit.record(waitNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void authenticated(InetSocketAddress address, boolean success) {
+        (success ? authSuccesses : authFailures).increment();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void channelAcquired(InetSocketAddress address, long waitNanos, Throwable error) {
+        (error == null ? acquireSuccessTimer : acquireErrorTimer).record(waitNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void channelReleased(InetSocketAddress address, long heldNanos) {
+        heldTimer.record(heldNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void bytesRead(int bytes) {
+        bytesRead.increment(bytes);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void bytesWritten(int bytes) {
+        bytesWritten.increment(bytes);
+    }
+
+    private RequestMeters requestMeters(Class<?> type) {
+        return requestMeters.computeIfAbsent(type, RequestMeters::new);
+    }
+
+    private Timer timer(String name, String description, Tags extraTags) {
+        Timer.Builder builder = Timer.builder(name).description(description).tags(tags).tags(extraTags);
+        if (histograms)
+            builder.publishPercentileHistogram();
+        return builder.register(registry);
+    }
+
+    /**
+     * The meters of a single request type, cached so we do not look them up from the registry on every request
+     */
+    private final class RequestMeters {
+
+        private final Timer success;
+
+        private final Timer timeout;
+
+        private final Timer error;
+
+        private final Timer rateLimit;
+
+        private final Counter retries;
+
+        private RequestMeters(Class<?> type) {
+            String name = type.getSimpleName();
+            this.success = timer("agql.requests", "Request/response round-trip time", Tags.of("type", name, "outcome", OUTCOME_SUCCESS));
+            this.timeout = timer("agql.requests", "Request/response round-trip time", Tags.of("type", name, "outcome", OUTCOME_TIMEOUT));
+            this.error = timer("agql.requests", "Request/response round-trip time", Tags.of("type", name, "outcome", OUTCOME_ERROR));
+            this.rateLimit = timer("agql.ratelimiter.wait", "Time spent waiting for a rate limiter permit", Tags.of("type", name));
+            this.retries = Counter.builder("agql.requests.retries").description("Number of retried requests").tags(tags).tag("type", name).register(registry);
+        }
+    }
+}
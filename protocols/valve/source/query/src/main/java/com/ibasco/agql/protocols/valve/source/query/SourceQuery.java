@@ -22,6 +22,7 @@ import com.ibasco.agql.protocols.valve.source.query.common.message.SourceQueryRe
 import com.ibasco.agql.protocols.valve.source.query.info.SourceQueryInfoRequest;
 import com.ibasco.agql.protocols.valve.source.query.players.SourceQueryPlayerRequest;
 import com.ibasco.agql.protocols.valve.source.query.rules.SourceQueryRulesRequest;
+import io.netty.util.AttributeKey;
 import org.jetbrains.annotations.ApiStatus;
 import org.slf4j.Marker;
 import org.slf4j.MarkerFactory;
@@ -85,6 +86,9 @@ public final class SourceQuery {
     /** Constant <code>A2S_INFO_EDF_GAMEID=0x01</code> */
     public static final int A2S_INFO_EDF_GAMEID = 0x01;
 
+    /** The time (in nanoseconds) the current request of a channel was last re-sent with a challenge number */
+    public static final AttributeKey<Long> CHALLENGE_RESENT_AT = AttributeKey.valueOf("sourceQueryChallengeResentAt");
+
     /**
      * <p>isValidPacketType.</p>
      *
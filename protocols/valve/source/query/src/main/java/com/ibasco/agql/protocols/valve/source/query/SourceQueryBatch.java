@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.protocols.valve.source.query;
+
+import com.ibasco.agql.core.util.Errors;
+import com.ibasco.agql.protocols.valve.source.query.common.message.SourceQueryResponse;
+import java.net.InetSocketAddress;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Dispatches a query to a (possibly unbounded) sequence of addresses while keeping at most a fixed number of requests in-flight.
+ * Addresses are only pulled from the source {@link Iterator} once a slot becomes available, so memory usage stays flat regardless of the number of addresses.
+ *
+ * @param <R>
+ *         The type of response
+ *
+ * @see SourceQueryOptions#BATCH_MAX_IN_FLIGHT
+ */
+final class SourceQueryBatch<R extends SourceQueryResponse<?>> {
+
+    private static final Logger log = LoggerFactory.getLogger(SourceQueryBatch.class);
+
+    private final Iterator<InetSocketAddress> addresses;
+
+    private final Function<InetSocketAddress, CompletableFuture<R>> query;
+
+    private final BiConsumer<InetSocketAddress, R> onResponse;
+
+    private final BiConsumer<InetSocketAddress, Throwable> onError;
+
+    private final int maxInFlight;
+
+    private final CompletableFuture<Void> promise = new CompletableFuture<>();
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final AtomicInteger wip = new AtomicInteger();
+
+    private boolean exhausted;
+
+    SourceQueryBatch(Iterator<InetSocketAddress> addresses, Function<InetSocketAddress, CompletableFuture<R>> query, BiConsumer<InetSocketAddress, R> onResponse, BiConsumer<InetSocketAddress, Throwable> onError, int maxInFlight) {
+        if (maxInFlight < 1)
+            throw new IllegalArgumentException("Maximum in-flight requests must be greater than zero");
+        this.addresses = Objects.requireNonNull(addresses, "Addresses must not be null");
+        this.query = Objects.requireNonNull(query, "Query function must not be null");
+        this.onResponse = Objects.requireNonNull(onResponse, "Response callback must not be null");
+        this.onError = Objects.requireNonNull(onError, "Error callback must not be null");
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Start dispatching requests
+     *
+     * @return A {@link CompletableFuture} that is completed once all addresses have been queried and all callbacks have been notified. Cancelling the future stops the batch from dispatching any more requests.
+     */
+    CompletableFuture<Void> execute() {
+        drain();
+        return promise;
+    }
+
+    /**
+     * Fills the in-flight window. Only one thread drains at a time, calls made while another thread is draining are picked up by the active thread on its next pass.
+     */
+    private void drain() {
+        if (wip.getAndIncrement() != 0)
+            return;
+        do {
+            while (!promise.isDone() && inFlight.get() < maxInFlight) {
+                InetSocketAddress address = next();
+                if (address == null)
+                    break;
+                inFlight.incrementAndGet();
+                dispatch(address);
+            }
+            if (exhausted && inFlight.get() == 0)
+                promise.complete(null);
+        } while (wip.decrementAndGet() != 0);
+    }
+
+    private InetSocketAddress next() {
+        if (exhausted)
+            return null;
+        try {
+            if (addresses.hasNext())
+                return Objects.requireNonNull(addresses.next(), "Address must not be null");
+            exhausted = true;
+        } catch (Exception e) {
+            exhausted = true;
+            promise.completeExceptionally(e);
+        }
+        return null;
+    }
+
+    private void dispatch(InetSocketAddress address) {
+        CompletableFuture<R> future;
+        try {
+            future = query.apply(address);
+        } catch (Exception e) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+        }
+        future.whenComplete((response, error) -> {
+            try {
+                if (error != null)
+                    onError.accept(address, Errors.unwrap(error));
+                else
+                    onResponse.accept(address, response);
+            } catch (Exception e) {
+                log.debug("BATCH => Callback threw an exception for address '{}'", address, e);
+            } finally {
+                inFlight.decrementAndGet();
+                drain();
+            }
+        });
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.protocols.valve.source.query;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.ibasco.agql.protocols.valve.source.query.challenge.SourceQueryChallengeRequest;
+import com.ibasco.agql.protocols.valve.source.query.challenge.SourceQueryChallengeResponse;
+import com.ibasco.agql.protocols.valve.source.query.common.enums.SourceChallengeType;
+import com.ibasco.agql.protocols.valve.source.query.common.message.SourceQueryAuthRequest;
+import com.ibasco.agql.protocols.valve.source.query.common.message.SourceQueryRequest;
+import com.ibasco.agql.protocols.valve.source.query.common.message.SourceQueryResponse;
+import com.ibasco.agql.protocols.valve.source.query.info.SourceQueryInfoRequest;
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A bounded, time-based cache of challenge numbers keyed by server address and {@link SourceChallengeType}.
+ *
+ * <p>
+ * Requests that were issued without an explicit challenge number are sent with the cached challenge number up-front, saving the extra round-trip.
+ * Since auto-update remains enabled on these requests, the regular challenge flow takes over if the server rejects the cached number.
+ * </p>
+ *
+ * @see SourceQueryOptions#CHALLENGE_CACHE_ENABLED
+ */
+final class SourceQueryChallengeCache {
+
+    private static final Logger log = LoggerFactory.getLogger(SourceQueryChallengeCache.class);
+
+    private final Cache<Key, Integer> cache;
+
+    SourceQueryChallengeCache(long maxSize, long ttl) {
+        this.cache = CacheBuilder.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl, TimeUnit.MILLISECONDS).build();
+    }
+
+    /**
+     * Apply the cached challenge number (if available) to the request
+     *
+     * @param address
+     *         The address of the server
+     * @param request
+     *         The {@link SourceQueryRequest} about to be sent
+     */
+    void apply(InetSocketAddress address, SourceQueryRequest request) {
+        if (!isApplicable(request))
+            return;
+        SourceQueryAuthRequest authRequest = (SourceQueryAuthRequest) request;
+        Integer challenge = cache.getIfPresent(new Key(address, SourceQuery.getChallengeType(request.getClass())));
+        if (challenge == null)
+            return;
+        log.debug("CHALLENGE CACHE => Using cached challenge '{}' for request '{}' (Address: {})", challenge, request, address);
+        authRequest.setChallenge(challenge);
+    }
+
+    /**
+     * Update the cache with the outcome of a request
+     *
+     * @param address
+     *         The address of the server
+     * @param request
+     *         The {@link SourceQueryRequest} that was sent
+     * @param response
+     *         The {@link SourceQueryResponse} received or {@code null} if the request failed
+     * @param error
+     *         The error encountered or {@code null} if the request was successful
+     */
+    void update(InetSocketAddress address, SourceQueryRequest request, SourceQueryResponse<?> response, Throwable error) {
+        if (request instanceof SourceQueryChallengeRequest) {
+            if (response instanceof SourceQueryChallengeResponse && ((SourceQueryChallengeResponse) response).getResult() != null) {
+                SourceQueryChallengeRequest challengeRequest = (SourceQueryChallengeRequest) request;
+                cache.put(new Key(address, challengeRequest.getType()), ((SourceQueryChallengeResponse) response).getResult());
+            }
+            return;
+        }
+        if (!(request instanceof SourceQueryAuthRequest) || !((SourceQueryAuthRequest) request).isAutoUpdate())
+            return;
+        Key key = new Key(address, SourceQuery.getChallengeType(request.getClass()));
+        Integer challenge = ((SourceQueryAuthRequest) request).getChallenge();
+        if (error != null || challenge == null || challenge == -1) {
+            cache.invalidate(key);
+        } else {
+            cache.put(key, challenge);
+        }
+    }
+
+    private static boolean isApplicable(SourceQueryRequest request) {
+        if (!(request instanceof SourceQueryAuthRequest))
+            return false;
+        if (request instanceof SourceQueryInfoRequest && ((SourceQueryInfoRequest) request).isBypassChallenge())
+            return false;
+        SourceQueryAuthRequest authRequest = (SourceQueryAuthRequest) request;
+        return authRequest.isAutoUpdate() && authRequest.getChallenge() == null;
+    }
+
+    private static final class Key {
+
+        private final InetSocketAddress address;
+
+        private final SourceChallengeType type;
+
+        private Key(InetSocketAddress address, SourceChallengeType type) {
+            this.address = address;
+            this.type = type;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return address.equals(key.address) && type == key.type;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * address.hashCode() + (type != null ? type.hashCode() : 0);
+        }
+    }
+}
@@ -33,7 +33,10 @@ import com.ibasco.agql.protocols.valve.source.query.players.SourceQueryPlayerRes
 import com.ibasco.agql.protocols.valve.source.query.rules.SourceQueryRulesRequest;
 import com.ibasco.agql.protocols.valve.source.query.rules.SourceQueryRulesResponse;
 import java.net.InetSocketAddress;
+import java.util.Iterator;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 
 /**
  * <p>
@@ -249,6 +252,144 @@ public final class SourceQueryClient extends NettySocketClient<SourceQueryReques
         return send(address, new SourceQueryPlayerRequest(challenge), SourceQueryPlayerResponse.class);
     }
 
+    //<editor-fold desc="Batch Queries">
+
+    /**
+     * <p>Retrieves information from each server in the provided {@link java.lang.Iterable}, keeping at most {@link SourceQueryOptions#BATCH_MAX_IN_FLIGHT} requests in-flight at any given time.</p>
+     *
+     * @param addresses
+     *         An {@link java.lang.Iterable} of {@link java.net.InetSocketAddress} of the target servers
+     * @param onResponse
+     *         Callback invoked for each successful response as soon as it arrives
+     * @param onError
+     *         Callback invoked for each server that failed to respond
+     *
+     * @return A {@link java.util.concurrent.CompletableFuture} that is notified once all servers have been queried
+     *
+     * @see #getInfo(Iterator, BiConsumer, BiConsumer)
+     */
+    public CompletableFuture<Void> getInfo(Iterable<InetSocketAddress> addresses, BiConsumer<InetSocketAddress, SourceQueryInfoResponse> onResponse, BiConsumer<InetSocketAddress, Throwable> onError) {
+        return getInfo(addresses.iterator(), onResponse, onError);
+    }
+
+    /**
+     * <p>Retrieves information from each server returned by the provided {@link java.util.Iterator}, keeping at most {@link SourceQueryOptions#BATCH_MAX_IN_FLIGHT} requests in-flight at any given time.
+     * The next address is only pulled from the iterator once a previous request has completed, which makes it suitable for very large (or lazily produced) sequences of addresses.</p>
+     *
+     * <p>The callbacks may be invoked concurrently from different threads. Cancelling the returned future stops any further requests from being sent.</p>
+     *
+     * @param addresses
+     *         An {@link java.util.Iterator} of {@link java.net.InetSocketAddress} of the target servers. The iterator is accessed by one thread at a time.
+     * @param onResponse
+     *         Callback invoked for each successful response as soon as it arrives
+     * @param onError
+     *         Callback invoked for each server that failed to respond
+     *
+     * @return A {@link java.util.concurrent.CompletableFuture} that is notified once all servers have been queried and all callbacks have been invoked. It is completed exceptionally if the iterator itself throws an exception.
+     */
+    public CompletableFuture<Void> getInfo(Iterator<InetSocketAddress> addresses, BiConsumer<InetSocketAddress, SourceQueryInfoResponse> onResponse, BiConsumer<InetSocketAddress, Throwable> onError) {
+        return batch(addresses, this::getInfo, onResponse, onError);
+    }
+
+    /**
+     * <p>Retrieves the list of active players from each server in the provided {@link java.lang.Iterable}, keeping at most {@link SourceQueryOptions#BATCH_MAX_IN_FLIGHT} requests in-flight at any given time.</p>
+     *
+     * @param addresses
+     *         An {@link java.lang.Iterable} of {@link java.net.InetSocketAddress} of the target servers
+     * @param onResponse
+     *         Callback invoked for each successful response as soon as it arrives
+     * @param onError
+     *         Callback invoked for each server that failed to respond
+     *
+     * @return A {@link java.util.concurrent.CompletableFuture} that is notified once all servers have been queried
+     *
+     * @see #getPlayers(Iterator, BiConsumer, BiConsumer)
+     */
+    public CompletableFuture<Void> getPlayers(Iterable<InetSocketAddress> addresses, BiConsumer<InetSocketAddress, SourceQueryPlayerResponse> onResponse, BiConsumer<InetSocketAddress, Throwable> onError) {
+        return getPlayers(addresses.iterator(), onResponse, onError);
+    }
+
+    /**
+     * <p>Retrieves the list of active players from each server returned by the provided {@link java.util.Iterator}, keeping at most {@link SourceQueryOptions#BATCH_MAX_IN_FLIGHT} requests in-flight at any given time.</p>
+     *
+     * @param addresses
+     *         An {@link java.util.Iterator} of {@link java.net.InetSocketAddress} of the target servers. The iterator is accessed by one thread at a time.
+     * @param onResponse
+     *         Callback invoked for each successful response as soon as it arrives
+     * @param onError
+     *         Callback invoked for each server that failed to respond
+     *
+     * @return A {@link java.util.concurrent.CompletableFuture} that is notified once all servers have been queried and all callbacks have been invoked
+     *
+     * @see #getInfo(Iterator, BiConsumer, BiConsumer)
+     */
+    public CompletableFuture<Void> getPlayers(Iterator<InetSocketAddress> addresses, BiConsumer<InetSocketAddress, SourceQueryPlayerResponse> onResponse, BiConsumer<InetSocketAddress, Throwable> onError) {
+        return batch(addresses, this::getPlayers, onResponse, onError);
+    }
+
+    /**
+     * <p>Retrieves the rules from each server in the provided {@link java.lang.Iterable}, keeping at most {@link SourceQueryOptions#BATCH_MAX_IN_FLIGHT} requests in-flight at any given time.</p>
+     *
+     * @param addresses
+     *         An {@link java.lang.Iterable} of {@link java.net.InetSocketAddress} of the target servers
+     * @param onResponse
+     *         Callback invoked for each successful response as soon as it arrives
+     * @param onError
+     *         Callback invoked for each server that failed to respond
+     *
+     * @return A {@link java.util.concurrent.CompletableFuture} that is notified once all servers have been queried
+     *
+     * @see #getRules(Iterator, BiConsumer, BiConsumer)
+     */
+    public CompletableFuture<Void> getRules(Iterable<InetSocketAddress> addresses, BiConsumer<InetSocketAddress, SourceQueryRulesResponse> onResponse, BiConsumer<InetSocketAddress, Throwable> onError) {
+        return getRules(addresses.iterator(), onResponse, onError);
+    }
+
+    /**
+     * <p>Retrieves the rules from each server returned by the provided {@link java.util.Iterator}, keeping at most {@link SourceQueryOptions#BATCH_MAX_IN_FLIGHT} requests in-flight at any given time.</p>
+     *
+     * @param addresses
+     *         An {@link java.util.Iterator} of {@link java.net.InetSocketAddress} of the target servers. The iterator is accessed by one thread at a time.
+     * @param onResponse
+     *         Callback invoked for each successful response as soon as it arrives
+     * @param onError
+     *         Callback invoked for each server that failed to respond
+     *
+     * @return A {@link java.util.concurrent.CompletableFuture} that is notified once all servers have been queried and all callbacks have been invoked
+     *
+     * @see #getInfo(Iterator, BiConsumer, BiConsumer)
+     */
+    public CompletableFuture<Void> getRules(Iterator<InetSocketAddress> addresses, BiConsumer<InetSocketAddress, SourceQueryRulesResponse> onResponse, BiConsumer<InetSocketAddress, Throwable> onError) {
+        return batch(addresses, this::getRules, onResponse, onError);
+    }
+
+    private <V extends SourceQueryResponse<?>> CompletableFuture<Void> batch(Iterator<InetSocketAddress> addresses, Function<InetSocketAddress, CompletableFuture<V>> query, BiConsumer<InetSocketAddress, V> onResponse, BiConsumer<InetSocketAddress, Throwable> onError) {
+        int maxInFlight = getOptions().getOrDefault(SourceQueryOptions.BATCH_MAX_IN_FLIGHT);
+        return new SourceQueryBatch<>(addresses, query, onResponse, onError, maxInFlight).execute();
+    }
+
+    /**
+     * <p>Create a new {@link SourceQueryPipeline}, which queries each address emitted by a {@link org.reactivestreams.Publisher} (e.g. {@code MasterServerQueryClient#streamServers}) through the configured A2S stages
+     * and passes the merged results of each server to a sink. The stages configured without explicit limits use the values of {@link SourceQueryOptions#PIPELINE_MAX_IN_FLIGHT} and {@link SourceQueryOptions#PIPELINE_RETRIES}.</p>
+     *
+     * @return A new {@link SourceQueryPipeline.Builder}
+     */
+    public SourceQueryPipeline.Builder pipeline() {
+        return new SourceQueryPipeline.Builder(this, getOptions().getOrDefault(SourceQueryOptions.PIPELINE_MAX_IN_FLIGHT), getOptions().getOrDefault(SourceQueryOptions.PIPELINE_RETRIES));
+    }
+
+    /**
+     * <p>Create a new {@link SourceQueryCrawler}, which repeatedly crawls a set of servers and reports the changes since the previous crawl. The players and rules of a server are only queried again
+     * if the server information has changed or if they are older than {@link SourceQueryOptions#CRAWLER_PLAYERS_MAX_AGE} and {@link SourceQueryOptions#CRAWLER_RULES_MAX_AGE}. A server is only
+     * reported as removed once it has failed to respond {@link SourceQueryOptions#CRAWLER_MAX_FAILURES} consecutive times.</p>
+     *
+     * @return A new {@link SourceQueryCrawler}
+     */
+    public SourceQueryCrawler crawler() {
+        return new SourceQueryCrawler(this, getOptions().getOrDefault(SourceQueryOptions.CRAWLER_PLAYERS_MAX_AGE), getOptions().getOrDefault(SourceQueryOptions.CRAWLER_RULES_MAX_AGE), getOptions().getOrDefault(SourceQueryOptions.CRAWLER_MAX_FAILURES));
+    }
+    //</editor-fold>
+
     /**
      * <p>Obtains a 4-byte (32-bit) anti-spoofing integer from the server. This is used for queries (such as PLAYERS, RULES or INFO) that requires a challenge number.</p>
      *
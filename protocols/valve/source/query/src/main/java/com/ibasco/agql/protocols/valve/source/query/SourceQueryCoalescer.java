@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.protocols.valve.source.query;
+
+import com.ibasco.agql.protocols.valve.source.query.common.message.SourceQueryAuthRequest;
+import com.ibasco.agql.protocols.valve.source.query.common.message.SourceQueryRequest;
+import com.ibasco.agql.protocols.valve.source.query.common.message.SourceQueryResponse;
+import com.ibasco.agql.protocols.valve.source.query.info.SourceQueryInfoRequest;
+import java.net.InetSocketAddress;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Coalesces concurrent requests of the same kind to the same server into a single query ("single-flight").
+ *
+ * <p>
+ * The first request for a given server address, request type and challenge number is sent as usual, subsequent requests issued while it is still in-flight are attached to it instead of sending another query.
+ * Once the query completes, the entry is removed, so a request issued afterwards always triggers a new query. Every caller receives its own copy of the response (see {@link SourceQueryResponse#copy()}),
+ * so a caller can modify the result without affecting the others. Attached requests whose response can not be copied (see {@link SourceQueryResponse#isCopyable()}) are sent on their own once the query completes.
+ * </p>
+ *
+ * @see SourceQueryOptions#COALESCING_ENABLED
+ */
+final class SourceQueryCoalescer {
+
+    private static final Logger log = LoggerFactory.getLogger(SourceQueryCoalescer.class);
+
+    private final ConcurrentHashMap<Key, CompletableFuture<SourceQueryResponse<?>>> inflight = new ConcurrentHashMap<>();
+
+    /**
+     * Send the request or attach to an identical request that is already in-flight
+     *
+     * @param address
+     *         The address of the server
+     * @param request
+     *         The {@link SourceQueryRequest} to send
+     * @param sender
+     *         The function responsible for sending the request if no identical request is in-flight
+     *
+     * @return A {@link CompletableFuture} notified with a copy of the response
+     */
+    CompletableFuture<SourceQueryResponse<?>> send(InetSocketAddress address, SourceQueryRequest request, BiFunction<InetSocketAddress, SourceQueryRequest, CompletableFuture<SourceQueryResponse<?>>> sender) {
+        final Key key = new Key(address, request);
+        final CompletableFuture<SourceQueryResponse<?>> promise = new CompletableFuture<>();
+        CompletableFuture<SourceQueryResponse<?>> existing = inflight.putIfAbsent(key, promise);
+        if (existing != null) {
+            log.debug("COALESCER => Attaching request '{}' to an in-flight query (Address: {})", request, address);
+            return existing.thenCompose(response -> {
+                if (response == null || response.isCopyable())
+                    return CompletableFuture.completedFuture(copy(response, request));
+                //the response can not be shared, so the attached request is sent on its own
+                log.debug("COALESCER => Response type '{}' can not be copied, sending attached request '{}' on its own (Address: {})", response.getClass().getSimpleName(), request, address);
+                return sender.apply(address, request);
+            });
+        }
+        try {
+            sender.apply(address, request).whenComplete((response, error) -> {
+                inflight.remove(key, promise);
+                if (error != null) {
+                    promise.completeExceptionally(error);
+                } else {
+                    promise.complete(response);
+                }
+            });
+        } catch (Throwable error) {
+            inflight.remove(key, promise);
+            promise.completeExceptionally(error);
+        }
+        //note: the caller receives a dependent stage, so completing or cancelling it does not affect the attached requests
+        return promise.thenApply(response -> response == null || response.isCopyable() ? copy(response, request) : response);
+    }
+
+    private static SourceQueryResponse<?> copy(SourceQueryResponse<?> response, SourceQueryRequest request) {
+        if (response == null)
+            return null;
+        SourceQueryResponse<?> copy = response.copy();
+        copy.setRequest(request);
+        return copy;
+    }
+
+    private static final class Key {
+
+        private final InetSocketAddress address;
+
+        private final Class<?> type;
+
+        private final Integer challenge;
+
+        private final boolean autoUpdate;
+
+        private final boolean bypassChallenge;
+
+        private Key(InetSocketAddress address, SourceQueryRequest request) {
+            this.address = address;
+            this.type = request.getClass();
+            if (request instanceof SourceQueryAuthRequest) {
+                SourceQueryAuthRequest authRequest = (SourceQueryAuthRequest) request;
+                this.challenge = authRequest.getChallenge();
+                this.autoUpdate = authRequest.isAutoUpdate();
+            } else {
+                this.challenge = null;
+                this.autoUpdate = false;
+            }
+            this.bypassChallenge = request instanceof SourceQueryInfoRequest && ((SourceQueryInfoRequest) request).isBypassChallenge();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return autoUpdate == key.autoUpdate && bypassChallenge == key.bypassChallenge && address.equals(key.address) && type.equals(key.type) && Objects.equals(challenge, key.challenge);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(address, type, challenge, autoUpdate, bypassChallenge);
+        }
+    }
+}
@@ -0,0 +1,341 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.protocols.valve.source.query;
+
+import com.ibasco.agql.protocols.valve.source.query.SourceQueryPipeline.Stage;
+import com.ibasco.agql.protocols.valve.source.query.info.SourceServer;
+import com.ibasco.agql.protocols.valve.source.query.players.SourcePlayer;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Repeatedly crawls a set of servers and only re-queries what has likely changed since the previous crawl.
+ *
+ * <p>
+ * Every crawl sends an A2S_INFO query to each server. The players of a server are only queried again if the server information (player and bot count, max players, name, map, version and
+ * password flag) has changed, the rules only if the name, map, version or password flag have changed, or if the previously retrieved players or rules are older than the configured maximum age.
+ * Instead of the full results, the changes are reported as {@link SourceServerDelta}s: a server seen for the first time is {@link SourceServerDelta.Type#ADDED}, a server whose information,
+ * player names or rules have changed is {@link SourceServerDelta.Type#CHANGED} and a server that is not part of the crawl anymore or that has failed to respond to the A2S_INFO query of
+ * several consecutive crawls is {@link SourceServerDelta.Type#REMOVED}. A server that has failed to respond fewer times keeps its last known state.
+ * </p>
+ *
+ * <p>
+ * The last known state of each server is kept in memory. Only one crawl may run at a time.
+ * </p>
+ *
+ * @see SourceQueryClient#crawler()
+ * @see SourceQueryOptions#CRAWLER_PLAYERS_MAX_AGE
+ * @see SourceQueryOptions#CRAWLER_RULES_MAX_AGE
+ * @see SourceQueryOptions#CRAWLER_MAX_FAILURES
+ */
+public final class SourceQueryCrawler {
+
+    private static final Logger log = LoggerFactory.getLogger(SourceQueryCrawler.class);
+
+    private final SourceQueryPipeline pipeline;
+
+    private final long playersMaxAge;
+
+    private final long rulesMaxAge;
+
+    private final int maxFailures;
+
+    private final ConcurrentHashMap<InetSocketAddress, State> states = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private volatile int generation;
+
+    /**
+     * Create a new crawler
+     *
+     * @param client
+     *         The {@link SourceQueryClient} used to send the queries
+     * @param playersMaxAge
+     *         The maximum age (in milliseconds) of the players of a server before they are queried again, even if the server information has not changed (a negative value disables player queries)
+     * @param rulesMaxAge
+     *         The maximum age (in milliseconds) of the rules of a server before they are queried again, even if the server information has not changed (a negative value disables rules queries)
+     * @param maxFailures
+     *         The number of consecutive crawls a known server may fail to respond to the A2S_INFO query before it is removed
+     */
+    SourceQueryCrawler(SourceQueryClient client, long playersMaxAge, long rulesMaxAge, int maxFailures) {
+        this(client.pipeline(), playersMaxAge, rulesMaxAge, maxFailures);
+    }
+
+    SourceQueryCrawler(SourceQueryPipeline.Builder builder, long playersMaxAge, long rulesMaxAge, int maxFailures) {
+        this.playersMaxAge = playersMaxAge < 0 ? -1 : TimeUnit.MILLISECONDS.toNanos(playersMaxAge);
+        this.rulesMaxAge = rulesMaxAge < 0 ? -1 : TimeUnit.MILLISECONDS.toNanos(rulesMaxAge);
+        this.maxFailures = Math.max(1, maxFailures);
+        builder.info();
+        if (this.playersMaxAge >= 0)
+            builder.stage(Stage.PLAYERS, record -> isOutdated(record, Stage.PLAYERS));
+        if (this.rulesMaxAge >= 0)
+            builder.stage(Stage.RULES, record -> isOutdated(record, Stage.RULES));
+        this.pipeline = builder.build();
+    }
+
+    /**
+     * Crawl the servers emitted by the source and report the changes since the previous crawl
+     *
+     * @param source
+     *         The {@link Publisher} emitting the addresses of all servers to crawl (e.g. the address stream of the master server)
+     * @param listener
+     *         Callback invoked for each detected change. May be invoked concurrently from different threads.
+     *
+     * @return A {@link CompletableFuture} notified once the crawl has completed, after the servers not emitted by the source have been reported as {@link SourceServerDelta.Type#REMOVED}
+     *
+     * @throws IllegalStateException
+     *         If a crawl is already running
+     */
+    public CompletableFuture<Void> crawl(Publisher<? extends InetSocketAddress> source, Consumer<SourceServerDelta> listener) {
+        Objects.requireNonNull(listener, "Listener must not be null");
+        if (!running.compareAndSet(false, true))
+            throw new IllegalStateException("A crawl is already running");
+        final int current = ++generation;
+        CompletableFuture<Void> crawl;
+        try {
+            crawl = pipeline.execute(source, record -> update(record, current, listener));
+        } catch (Throwable e) {
+            running.set(false);
+            throw e;
+        }
+        return crawl.whenComplete((v, error) -> {
+            try {
+                //only prune after a complete crawl, otherwise we do not know which servers have been left out
+                if (error == null)
+                    prune(current, listener);
+            } finally {
+                running.set(false);
+            }
+        });
+    }
+
+    /**
+     * Get the last known state of a server
+     *
+     * @param address
+     *         The address of the server
+     *
+     * @return The last known {@link SourceServerRecord} or {@code null} if the server is unknown
+     */
+    public SourceServerRecord get(InetSocketAddress address) {
+        State state = states.get(address);
+        return state != null ? state.record : null;
+    }
+
+    /**
+     * @return The number of known servers
+     */
+    public int size() {
+        return states.size();
+    }
+
+    /**
+     * Forget the state of all servers, all servers are reported as {@link SourceServerDelta.Type#ADDED} by the next crawl
+     */
+    public void clear() {
+        states.clear();
+    }
+
+    private boolean isOutdated(SourceServerRecord record, Stage stage) {
+        State state = states.get(record.getAddress());
+        if (state == null)
+            return true;
+        //the players change with the player count, the rules only if the server has been reconfigured
+        if (stage == Stage.PLAYERS ? !state.infoKey.equals(infoKey(record.getInfo())) : !state.rulesKey.equals(rulesKey(record.getInfo())))
+            return true;
+        long updated = stage == Stage.PLAYERS ? state.playersUpdated : state.rulesUpdated;
+        return updated == 0 || System.nanoTime() - updated > (stage == Stage.PLAYERS ? playersMaxAge : rulesMaxAge);
+    }
+
+    private void update(SourceServerRecord record, int generation, Consumer<SourceServerDelta> listener) {
+        final InetSocketAddress address = record.getAddress();
+        final State previous = states.get(address);
+        if (record.getInfo() == null) {
+            if (previous == null)
+                return;
+            //a single lost datagram should not report the server as removed and added again
+            if (previous.failures + 1 < maxFailures) {
+                states.replace(address, previous, previous.failed(generation));
+            } else if (states.remove(address, previous)) {
+                notify(listener, new SourceServerDelta(SourceServerDelta.Type.REMOVED, previous.record, null, parts(previous.record)));
+            }
+            return;
+        }
+        final long now = System.nanoTime();
+        final State state = new State(generation, infoKey(record.getInfo()), rulesKey(record.getInfo()));
+        EnumSet<Stage> changes = EnumSet.noneOf(Stage.class);
+        if (previous == null || !previous.infoKey.equals(state.infoKey))
+            changes.add(Stage.INFO);
+
+        //players and rules which have not been queried (or failed) are carried over
+        List<SourcePlayer> players = record.getPlayers();
+        if (players != null) {
+            state.playerNames = playerNames(players);
+            state.playersUpdated = now;
+            if (previous == null || previous.playerNames == null || !previous.playerNames.equals(state.playerNames))
+                changes.add(Stage.PLAYERS);
+        } else if (previous != null) {
+            players = previous.record.getPlayers();
+            state.playerNames = previous.playerNames;
+            //do not query a server again on each crawl if it refuses to send the players
+            state.playersUpdated = record.getError(Stage.PLAYERS) != null ? now : previous.playersUpdated;
+        }
+        Map<String, String> rules = record.getRules();
+        if (rules != null) {
+            state.rulesUpdated = now;
+            if (previous == null || previous.record.getRules() == null || !previous.record.getRules().equals(rules))
+                changes.add(Stage.RULES);
+        } else if (previous != null) {
+            rules = previous.record.getRules();
+            state.rulesUpdated = record.getError(Stage.RULES) != null ? now : previous.rulesUpdated;
+        }
+        state.record = new SourceServerRecord(address, record.getInfo(), players, rules);
+        states.put(address, state);
+        if (previous == null) {
+            notify(listener, new SourceServerDelta(SourceServerDelta.Type.ADDED, null, state.record, parts(state.record)));
+        } else if (!changes.isEmpty()) {
+            notify(listener, new SourceServerDelta(SourceServerDelta.Type.CHANGED, previous.record, state.record, changes));
+        }
+    }
+
+    /**
+     * Remove the servers that have not been emitted by the source of the current crawl
+     */
+    private void prune(int generation, Consumer<SourceServerDelta> listener) {
+        int removed = 0;
+        for (Iterator<State> it = states.values().iterator(); it.hasNext(); ) {
+            State state = it.next();
+            if (state.generation == generation)
+                continue;
+            it.remove();
+            removed++;
+            notify(listener, new SourceServerDelta(SourceServerDelta.Type.REMOVED, state.record, null, parts(state.record)));
+        }
+        log.debug("CRAWLER => Crawl completed (Servers: {}, Removed: {})", states.size(), removed);
+    }
+
+    private static void notify(Consumer<SourceServerDelta> listener, SourceServerDelta delta) {
+        try {
+            listener.accept(delta);
+        } catch (Throwable e) {
+            log.debug("CRAWLER => Listener threw an exception for delta '{}'", delta, e);
+        }
+    }
+
+    private static EnumSet<Stage> parts(SourceServerRecord record) {
+        EnumSet<Stage> parts = EnumSet.noneOf(Stage.class);
+        if (record.getInfo() != null)
+            parts.add(Stage.INFO);
+        if (record.getPlayers() != null)
+            parts.add(Stage.PLAYERS);
+        if (record.getRules() != null)
+            parts.add(Stage.RULES);
+        return parts;
+    }
+
+    /**
+     * @return The values of the server information a change is detected on, compared by value so changes can not be hidden by hash collisions
+     */
+    private static List<Object> infoKey(SourceServer info) {
+        if (info == null)
+            return null;
+        return Arrays.asList(info.getNumOfPlayers(), info.getNumOfBots(), info.getMaxPlayers(), info.getName(), info.getMapName(), info.getGameVersion(), info.isPrivateServer());
+    }
+
+    /**
+     * @return The values of the server information the rules depend on, players joining or leaving do not change the rules
+     */
+    private static List<Object> rulesKey(SourceServer info) {
+        if (info == null)
+            return null;
+        return Arrays.asList(info.getName(), info.getMapName(), info.getGameVersion(), info.isPrivateServer());
+    }
+
+    /**
+     * @return The sorted player names, so the comparison is independent of the order of the players
+     */
+    private static List<String> playerNames(List<SourcePlayer> players) {
+        List<String> names = new ArrayList<>(players.size());
+        for (SourcePlayer player : players)
+            names.add(player.getName());
+        names.sort(Comparator.nullsFirst(Comparator.naturalOrder()));
+        return names;
+    }
+
+    private static final class State {
+
+        private final int generation;
+
+        private final List<Object> infoKey;
+
+        private final List<Object> rulesKey;
+
+        private SourceServerRecord record;
+
+        private List<String> playerNames;
+
+        /**
+         * The time the players have last been queried (0 if never)
+         */
+        private long playersUpdated;
+
+        /**
+         * The time the rules have last been queried (0 if never)
+         */
+        private long rulesUpdated;
+
+        /**
+         * The number of consecutive crawls the server has failed to respond to the A2S_INFO query
+         */
+        private int failures;
+
+        private State(int generation, List<Object> infoKey, List<Object> rulesKey) {
+            this.generation = generation;
+            this.infoKey = infoKey;
+            this.rulesKey = rulesKey;
+        }
+
+        /**
+         * @return A copy of this state retained by the crawl of the provided generation, with one more failure
+         */
+        private State failed(int generation) {
+            State state = new State(generation, infoKey, rulesKey);
+            state.record = record;
+            state.playerNames = playerNames;
+            state.playersUpdated = playersUpdated;
+            state.rulesUpdated = rulesUpdated;
+            state.failures = failures + 1;
+            return state;
+        }
+    }
+}
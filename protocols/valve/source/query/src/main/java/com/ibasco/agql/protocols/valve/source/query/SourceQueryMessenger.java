@@ -19,9 +19,9 @@ package com.ibasco.agql.protocols.valve.source.query;
 import com.ibasco.agql.core.NettyChannelContext;
 import com.ibasco.agql.core.NettyMessenger;
 import com.ibasco.agql.core.enums.RateLimitType;
-import com.ibasco.agql.core.exceptions.AgqlRuntimeException;
 import com.ibasco.agql.core.exceptions.MaxAttemptsReachedException;
 import com.ibasco.agql.core.exceptions.MessengerException;
+import com.ibasco.agql.core.exceptions.RateLimitExceededException;
 import com.ibasco.agql.core.exceptions.RejectedRequestException;
 import com.ibasco.agql.core.exceptions.TimeoutException;
 import com.ibasco.agql.core.transport.DefaultChannelContextFactory;
@@ -40,16 +40,17 @@ import dev.failsafe.event.ExecutionAttemptedEvent;
 import dev.failsafe.event.ExecutionCompletedEvent;
 import dev.failsafe.function.CheckedFunction;
 import dev.failsafe.function.ContextualSupplier;
-import io.netty.util.concurrent.DefaultThreadFactory;
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -66,17 +67,52 @@ public final class SourceQueryMessenger extends NettyMessenger<SourceQueryReques
 
     private final boolean failsafeEnabled;
 
+    private FailsafeExecutor<NettyChannelContext> executor;
+
     /**
-     * Executor that is used for acquiring permits (applicable only if rate limiting is enabled)
+     * Global rate limiter (applicable only if {@link FailsafeOptions#FAILSAFE_RATELIMIT_ENABLED} is enabled)
      */
-    private final ExecutorService permitExecutor;
+    private AsyncRateLimiter rateLimiter;
 
-    private FailsafeExecutor<NettyChannelContext> executor;
-
-    private RateLimiter<NettyChannelContext> rateLimiter;
+    /**
+     * Per-server rate limiter (applicable only if {@link FailsafeOptions#FAILSAFE_RATELIMIT_ADDRESS_MAX_EXEC} is greater than zero)
+     */
+    private KeyedAsyncRateLimiter<InetSocketAddress> addressRateLimiter;
 
     private RetryPolicy<NettyChannelContext> retryPolicy;
 
+    /**
+     * Multiplexer used for sending requests through a set of shared channels (applicable only if {@link SourceQueryOptions#SHARED_CHANNELS} is enabled)
+     */
+    private final SourceQueryMultiplexer multiplexer;
+
+    private FailsafeExecutor<SourceQueryResponse<?>> sharedExecutor;
+
+    /**
+     * Cache of challenge numbers (applicable only if {@link SourceQueryOptions#CHALLENGE_CACHE_ENABLED} is enabled)
+     */
+    private final SourceQueryChallengeCache challengeCache;
+
+    /**
+     * Pool of canonical strings used by the decoders (applicable only if {@link SourceQueryOptions#STRING_POOL_SIZE} is greater than zero)
+     */
+    private final StringPool stringPool;
+
+    /**
+     * Per-server round-trip time estimates (applicable only if {@link SourceQueryOptions#ADAPTIVE_TIMEOUT_ENABLED} is enabled)
+     */
+    private final SourceQueryRttEstimator rttEstimator;
+
+    /**
+     * Coalesces identical in-flight requests (applicable only if {@link SourceQueryOptions#COALESCING_ENABLED} is enabled)
+     */
+    private final SourceQueryCoalescer coalescer;
+
+    /**
+     * Cache of info, player and rules responses (applicable only if {@link SourceQueryOptions#RESPONSE_CACHE_ENABLED} is enabled)
+     */
+    private final SourceQueryResponseCache responseCache;
+
     private final EventListener<ExecutionCompletedEvent<NettyChannelContext>> retryExceededListener = new EventListener<ExecutionCompletedEvent<NettyChannelContext>>() {
         @Override
         public void accept(ExecutionCompletedEvent<NettyChannelContext> event) throws Throwable {
@@ -110,8 +146,46 @@ public final class SourceQueryMessenger extends NettyMessenger<SourceQueryReques
         super(options);
         //note: use getOptions() instead of options, to guarante that we do not receive a null value in case developer did not provide a user-defined options.
         this.failsafeEnabled = getOptions().getOrDefault(FailsafeOptions.FAILSAFE_ENABLED);
-        this.permitExecutor = failsafeEnabled ? Executors.newSingleThreadScheduledExecutor(new DefaultThreadFactory("rate-limiter")) : null;
+        if (getOptions().getOrDefault(SourceQueryOptions.ADAPTIVE_TIMEOUT_ENABLED)) {
+            this.rttEstimator = new SourceQueryRttEstimator(getOptions().getOrDefault(SourceQueryOptions.ADAPTIVE_TIMEOUT_MAX_SIZE), getOptions().getOrDefault(SourceQueryOptions.ADAPTIVE_TIMEOUT_INITIAL), getOptions().getOrDefault(SourceQueryOptions.ADAPTIVE_TIMEOUT_MIN), getOptions().getOrDefault(GeneralOptions.READ_TIMEOUT));
+        } else {
+            this.rttEstimator = null;
+        }
         initFailSafe(getOptions());
+        if (getOptions().getOrDefault(SourceQueryOptions.SHARED_CHANNELS)) {
+            this.multiplexer = new SourceQueryMultiplexer(this, getOptions().getOrDefault(SourceQueryOptions.SHARED_CHANNEL_COUNT), getOptions().getOrDefault(GeneralOptions.READ_TIMEOUT), rttEstimator);
+            initSharedFailSafe(getOptions());
+        } else {
+            this.multiplexer = null;
+        }
+        if (getOptions().getOrDefault(SourceQueryOptions.CHALLENGE_CACHE_ENABLED)) {
+            this.challengeCache = new SourceQueryChallengeCache(getOptions().getOrDefault(SourceQueryOptions.CHALLENGE_CACHE_MAX_SIZE), getOptions().getOrDefault(SourceQueryOptions.CHALLENGE_CACHE_TTL));
+        } else {
+            this.challengeCache = null;
+        }
+        int stringPoolSize = getOptions().getOrDefault(SourceQueryOptions.STRING_POOL_SIZE);
+        this.stringPool = stringPoolSize > 0 ? new StringPool(stringPoolSize) : null;
+        this.coalescer = getOptions().getOrDefault(SourceQueryOptions.COALESCING_ENABLED) ? new SourceQueryCoalescer() : null;
+        if (getOptions().getOrDefault(SourceQueryOptions.RESPONSE_CACHE_ENABLED)) {
+            this.responseCache = new SourceQueryResponseCache(getOptions().getOrDefault(SourceQueryOptions.RESPONSE_CACHE_MAX_WEIGHT),
+                                                              getOptions().getOrDefault(SourceQueryOptions.RESPONSE_CACHE_INFO_TTL),
+                                                              getOptions().getOrDefault(SourceQueryOptions.RESPONSE_CACHE_PLAYERS_TTL),
+                                                              getOptions().getOrDefault(SourceQueryOptions.RESPONSE_CACHE_RULES_TTL),
+                                                              getOptions().getOrDefault(SourceQueryOptions.RESPONSE_CACHE_STALE_TTL));
+        } else {
+            this.responseCache = null;
+        }
+    }
+
+    private void initSharedFailSafe(final Options options) {
+        if (!failsafeEnabled || !options.getOrDefault(FailsafeOptions.FAILSAFE_RETRY_ENABLED))
+            return;
+        RetryPolicyBuilder<SourceQueryResponse<?>> builder = FailsafeBuilder.buildRetryPolicy(FailsafeOptions.class, options);
+        builder.abortOn(RejectedExecutionException.class, RateLimitExceededException.class);
+        //the failure of a shared request does not carry the address of the server, so the adaptive retry delay is applied by the attempt itself (see sendSharedAttempt)
+        if (rttEstimator != null)
+            builder.withDelayFn(context -> Duration.ZERO);
+        this.sharedExecutor = Failsafe.with(builder.build()).with(getExecutor());
     }
 
     private void initFailSafe(final Options options) {
@@ -129,11 +203,11 @@ public final class SourceQueryMessenger extends NettyMessenger<SourceQueryReques
             this.retryPolicy = buildRetryPolicy(options);
             policies.add(retryPolicy);
         }
-        //rate limiter (standalone)
-        if (options.getOrDefault(FailsafeOptions.FAILSAFE_RATELIMIT_ENABLED)) {
-            //note: we will not add the rate limiter to the list of policies for the executor. since we are using the standalone way of handling permits.
-            this.rateLimiter = buildRateLimiterPolicy(options);
-        }
+        //rate limiters (standalone)
+        //note: the rate limiters are not added to the list of policies for the executor, permits are acquired asynchronously before each request is sent.
+        if (options.getOrDefault(FailsafeOptions.FAILSAFE_RATELIMIT_ENABLED))
+            this.rateLimiter = FailsafeBuilder.buildAsyncRateLimiter(FailsafeOptions.class, options);
+        this.addressRateLimiter = FailsafeBuilder.buildKeyedAsyncRateLimiter(FailsafeOptions.class, options);
 
         //Initialize executor
         this.executor = Failsafe.with(policies).with(getExecutor());
@@ -163,11 +237,16 @@ public final class SourceQueryMessenger extends NettyMessenger<SourceQueryReques
         RetryPolicyBuilder<NettyChannelContext> builder = FailsafeBuilder.buildRetryPolicy(FailsafeOptions.class, options);
         builder.abortOn(RejectedExecutionException.class, RateLimitExceededException.class);
         builder.onRetriesExceeded(retryExceededListener);
-        return builder.build();
-    }
-
-    private RateLimiter<NettyChannelContext> buildRateLimiterPolicy(final Options options) {
-        RateLimiterBuilder<NettyChannelContext> builder = FailsafeBuilder.buildRateLimiter(FailsafeOptions.class, options);
+        if (rttEstimator != null) {
+            final long retryDelay = options.getOrDefault(FailsafeOptions.FAILSAFE_RETRY_DELAY);
+            builder.withDelayFn(context -> {
+                //a negative value falls back to the configured delay
+                if (!(context.getLastException() instanceof MessengerException))
+                    return Duration.ofMillis(-1);
+                InetSocketAddress address = ((MessengerException) context.getLastException()).getRemoteAddress();
+                return address != null ? Duration.ofMillis(rttEstimator.retryDelay(address, retryDelay)) : Duration.ofMillis(-1);
+            });
+        }
         return builder.build();
     }
 
@@ -231,6 +310,27 @@ public final class SourceQueryMessenger extends NettyMessenger<SourceQueryReques
     /** {@inheritDoc} */
     @Override
     public CompletableFuture<SourceQueryResponse<?>> send(InetSocketAddress address, SourceQueryRequest request) {
+        if (responseCache != null)
+            return responseCache.send(address, request, this::sendCoalesced);
+        return sendCoalesced(address, request);
+    }
+
+    private CompletableFuture<SourceQueryResponse<?>> sendCoalesced(InetSocketAddress address, SourceQueryRequest request) {
+        if (coalescer != null)
+            return coalescer.send(address, request, this::sendCached);
+        return sendCached(address, request);
+    }
+
+    private CompletableFuture<SourceQueryResponse<?>> sendCached(InetSocketAddress address, SourceQueryRequest request) {
+        if (challengeCache == null)
+            return sendRequest(address, request);
+        challengeCache.apply(address, request);
+        return sendRequest(address, request).whenComplete((response, error) -> challengeCache.update(address, request, response, error));
+    }
+
+    private CompletableFuture<SourceQueryResponse<?>> sendRequest(InetSocketAddress address, SourceQueryRequest request) {
+        if (multiplexer != null)
+            return sendShared(address, request);
         CompletableFuture<NettyChannelContext> future;
         RequestContext query = new RequestContext(address, request);
         if (executor != null && failsafeEnabled)
@@ -240,16 +340,95 @@ public final class SourceQueryMessenger extends NettyMessenger<SourceQueryReques
         return future.handle(query::completion);
     }
 
+    private CompletableFuture<SourceQueryResponse<?>> sendShared(InetSocketAddress address, SourceQueryRequest request) {
+        if (getExecutor().isShutdown() || getExecutor().isShuttingDown() || getExecutor().isTerminated())
+            return Concurrency.failedFuture(new RejectedExecutionException());
+        final AtomicInteger attempts = new AtomicInteger();
+        CompletableFuture<SourceQueryResponse<?>> future;
+        if (sharedExecutor != null)
+            future = sharedExecutor.getStageAsync(context -> sendSharedAttempt(address, request, attempts.incrementAndGet()));
+        else
+            future = sendSharedAttempt(address, request, attempts.incrementAndGet());
+        return future.handle((response, error) -> {
+            if (error == null)
+                return response;
+            Throwable cause = Errors.unwrap(error);
+            int maxAttempts = getOptions().getOrDefault(FailsafeOptions.FAILSAFE_RETRY_MAX_ATTEMPTS);
+            if (cause instanceof TimeoutException && sharedExecutor != null && attempts.get() >= maxAttempts) {
+                log.debug("Maximum number of attempts reached on address '{}' for request '{}' (Attempts: {}, Max Attempts: {})", address, request, attempts.get(), maxAttempts);
+                cause = new MaxAttemptsReachedException(cause, address, request, attempts.get(), maxAttempts);
+            }
+            throw new CompletionException(cause);
+        });
+    }
+
+    private CompletableFuture<SourceQueryResponse<?>> sendSharedAttempt(InetSocketAddress address, SourceQueryRequest request, int attempt) {
+        if (attempt > 1)
+            getMetrics().requestRetried(request.getClass(), address, attempt);
+        if (attempt > 1 && rttEstimator != null) {
+            long delay = rttEstimator.retryDelay(address, getOptions().getOrDefault(FailsafeOptions.FAILSAFE_RETRY_DELAY));
+            if (delay > 0) {
+                CompletableFuture<Void> delayFuture = new CompletableFuture<>();
+                getExecutor().schedule(() -> delayFuture.complete(null), delay, TimeUnit.MILLISECONDS);
+                return delayFuture.thenCompose(v -> sendSharedRequest(address, request, attempt));
+            }
+        }
+        return sendSharedRequest(address, request, attempt);
+    }
+
+    private CompletableFuture<SourceQueryResponse<?>> sendSharedRequest(InetSocketAddress address, SourceQueryRequest request, int attempt) {
+        if (!isRateLimited())
+            return multiplexer.send(address, request, attempt);
+        return acquirePermit(getExecutor().next(), address, request).thenCompose(v -> multiplexer.send(address, request, attempt));
+    }
+
+    private boolean isRateLimited() {
+        return failsafeEnabled && (rateLimiter != null || addressRateLimiter != null);
+    }
+
+    /**
+     * Acquire a send permit from the global and the per-server rate limiters, without blocking the caller
+     *
+     * @param executor
+     *         The {@link ScheduledExecutorService} that completes the returned future once the permit is available
+     * @param address
+     *         The address of the server
+     * @param request
+     *         The {@link SourceQueryRequest} about to be sent
+     *
+     * @return A {@link CompletableFuture} notified once the request may be sent
+     */
+    private CompletableFuture<Long> acquirePermit(ScheduledExecutorService executor, InetSocketAddress address, SourceQueryRequest request) {
+        log.debug("MESSENGER => (SourceQueryMessenger) Acquiring send permit (Request: {}, Address: {})", request, address);
+        CompletableFuture<Long> permit = AsyncRateLimiter.acquire(executor, rateLimiter, addressRateLimiter != null ? addressRateLimiter.get(address) : null);
+        return permit.thenApply(waitNanos -> {
+            getMetrics().rateLimited(request.getClass(), waitNanos);
+            return waitNanos;
+        });
+    }
+
     /** {@inheritDoc} */
     @Override
     protected Object transformProperties(InetSocketAddress address, SourceQueryRequest request) {
         return new ImmutablePair<>(address, request);
     }
 
+    /**
+     * <p>The pool of canonical strings shared by the decoders of this messenger</p>
+     *
+     * @return The {@link StringPool} or {@code null} if string pooling has been disabled
+     *
+     * @see SourceQueryOptions#STRING_POOL_SIZE
+     */
+    public final StringPool getStringPool() {
+        return stringPool;
+    }
+
     @Override
     public void close() throws IOException {
+        if (multiplexer != null)
+            multiplexer.close();
         super.close();
-        Concurrency.shutdown(permitExecutor);
     }
 
     private static class PropertyResolver implements NettyPoolPropertyResolver {
@@ -284,6 +463,8 @@ public final class SourceQueryMessenger extends NettyMessenger<SourceQueryReques
 
         private final AtomicReference<NettyChannelContext> contextRef = new AtomicReference<>();
 
+        private int attempt = 1;
+
         private RequestContext(InetSocketAddress address, SourceQueryRequest request) {
             this.address = address;
             this.request = request;
@@ -295,6 +476,9 @@ public final class SourceQueryMessenger extends NettyMessenger<SourceQueryReques
                 log.debug("{} Retrying request '{}' for server address '{}'. Closing existing context.", currentContext.id(), this.request, this.address);
                 currentContext.close();
             }
+            this.attempt = executionContext.getAttemptCount() + 1;
+            if (executionContext.isRetry())
+                getMetrics().requestRetried(request.getClass(), address, attempt);
             return execute();
         }
 
@@ -302,11 +486,26 @@ public final class SourceQueryMessenger extends NettyMessenger<SourceQueryReques
             if (getExecutor().isShutdown() || getExecutor().isShuttingDown() || getExecutor().isTerminated())
                 return Concurrency.failedFuture(new RejectedExecutionException());
             CompletableFuture<NettyChannelContext> contextFuture = acquireContext(this).thenApply(this::initialize);
-            if (failsafeEnabled) {
-                //make sure we do not block the event loop, so we need to run this at another thread
-                contextFuture = contextFuture.thenApplyAsync(this::acquirePermit, permitExecutor);
-            }
-            return contextFuture.thenCompose(SourceQueryMessenger.super::send);
+            if (isRateLimited())
+                contextFuture = contextFuture.thenCompose(this::acquirePermit);
+            return contextFuture.thenCompose(this::send);
+        }
+
+        private CompletableFuture<NettyChannelContext> send(NettyChannelContext context) {
+            if (rttEstimator == null)
+                return SourceQueryMessenger.super.send(context);
+            final int attempt = this.attempt;
+            GeneralOptions.READ_TIMEOUT.attr(context.channel(), rttEstimator.timeout(address, attempt));
+            context.channel().attr(SourceQuery.CHALLENGE_RESENT_AT).set(null);
+            final long start = System.nanoTime();
+            return SourceQueryMessenger.super.send(context).whenComplete((c, error) -> {
+                //only sample the last round trip if the request had to be re-sent with a challenge number
+                Long resentAt = context.channel().attr(SourceQuery.CHALLENGE_RESENT_AT).getAndSet(null);
+                if (error == null)
+                    rttEstimator.success(address, attempt, System.nanoTime() - (resentAt != null ? resentAt : start));
+                else if (Errors.unwrap(error) instanceof TimeoutException)
+                    rttEstimator.timeout(address);
+            });
         }
 
         private NettyChannelContext initialize(NettyChannelContext newContext) {
@@ -322,26 +521,18 @@ public final class SourceQueryMessenger extends NettyMessenger<SourceQueryReques
         }
 
         /**
-         * <p>Acquire a send permit. If no permits available, this method will block until there is one</p>
+         * <p>Acquire a send permit. The returned future is completed on the event loop of the context once a permit is available</p>
          *
          * @param context
          *         a {@link com.ibasco.agql.core.NettyChannelContext} object
          *
-         * @return a {@link com.ibasco.agql.core.NettyChannelContext} object
+         * @return a {@link CompletableFuture} notified with the {@link com.ibasco.agql.core.NettyChannelContext} once a permit has been acquired
          */
-        private NettyChannelContext acquirePermit(NettyChannelContext context) {
-            if (!failsafeEnabled || rateLimiter == null)
-                return context;
-            try {
-                log.debug("{} MESSENGER => (SourceQueryMessenger) Acquiring send permit from rate limiter: {} (Request: {})", context.id(), rateLimiter, context.properties().request());
-                Console.println("Acquiring send permit for %s (Max Rate: %dms)", context.properties().request(), (rateLimiter.getConfig().getMaxRate() != null) ? rateLimiter.getConfig().getMaxRate().toMillis() : -1);
-                rateLimiter.acquirePermit();
-                log.debug("{} MESSENGER => (SourceQueryMessenger) Successfully acquired permit from rate limiter: {} (Request: {})", context.id(), rateLimiter, context.properties().request());
+        private CompletableFuture<NettyChannelContext> acquirePermit(NettyChannelContext context) {
+            return SourceQueryMessenger.this.acquirePermit(context.eventLoop(), address, request).thenApply(waitNanos -> {
+                log.debug("{} MESSENGER => (SourceQueryMessenger) Successfully acquired send permit (Request: {}, Wait time: {} ms)", context.id(), request, TimeUnit.NANOSECONDS.toMillis(waitNanos));
                 return context;
-            } catch (InterruptedException e) {
-                log.debug("{} MESSENGER => (SourceQueryMessenger) Successfully acquired permit from rate limiter: {} (Request: {})", context.id(), rateLimiter, context.properties().request(), e);
-                throw new AgqlRuntimeException(e);
-            }
+            });
         }
 
         private void setContext(NettyChannelContext newContext) {
@@ -0,0 +1,615 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.protocols.valve.source.query;
+
+import com.ibasco.agql.core.Envelope;
+import com.ibasco.agql.core.NettyChannelContext;
+import com.ibasco.agql.core.PacketDecoder;
+import com.ibasco.agql.core.exceptions.ChannelClosedException;
+import com.ibasco.agql.core.exceptions.InvalidPacketException;
+import com.ibasco.agql.core.exceptions.NoMessageHandlerException;
+import com.ibasco.agql.core.exceptions.PacketDecodeException;
+import com.ibasco.agql.core.exceptions.ReadTimeoutException;
+import com.ibasco.agql.core.exceptions.TimeoutException;
+import com.ibasco.agql.core.metrics.MetricsCollector;
+import com.ibasco.agql.core.transport.NettyChannelAttributes;
+import com.ibasco.agql.core.util.Concurrency;
+import com.ibasco.agql.core.util.Errors;
+import com.ibasco.agql.core.util.MessageEnvelopeBuilder;
+import com.ibasco.agql.core.util.Netty;
+import com.ibasco.agql.protocols.valve.source.query.challenge.SourceQueryChallengeDecoder;
+import com.ibasco.agql.protocols.valve.source.query.challenge.SourceQueryChallengeEncoder;
+import com.ibasco.agql.protocols.valve.source.query.common.enums.SourceChallengeType;
+import com.ibasco.agql.protocols.valve.source.query.common.exceptions.InvalidPacketTypeException;
+import com.ibasco.agql.protocols.valve.source.query.common.message.SourceQueryAuthRequest;
+import com.ibasco.agql.protocols.valve.source.query.common.message.SourceQueryRequest;
+import com.ibasco.agql.protocols.valve.source.query.common.message.SourceQueryResponse;
+import com.ibasco.agql.protocols.valve.source.query.common.packets.SourceQueryPacket;
+import com.ibasco.agql.protocols.valve.source.query.common.packets.SourceQuerySinglePacket;
+import com.ibasco.agql.protocols.valve.source.query.common.packets.SourceQuerySplitPacket;
+import com.ibasco.agql.protocols.valve.source.query.common.packets.util.SourceCompositeSplitPacketAssembler;
+import com.ibasco.agql.protocols.valve.source.query.common.packets.util.SourceQueryPacketDecoderProvider;
+import com.ibasco.agql.protocols.valve.source.query.common.packets.util.SourceSplitPacketAssembler;
+import com.ibasco.agql.protocols.valve.source.query.info.SourceQueryInfoDecoder;
+import com.ibasco.agql.protocols.valve.source.query.info.SourceQueryInfoEncoder;
+import com.ibasco.agql.protocols.valve.source.query.players.SourceQueryPlayersDecoder;
+import com.ibasco.agql.protocols.valve.source.query.players.SourceQueryPlayersEncoder;
+import com.ibasco.agql.protocols.valve.source.query.rules.SourceQueryRulesDecoder;
+import com.ibasco.agql.protocols.valve.source.query.rules.SourceQueryRulesEncoder;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.socket.DatagramPacket;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.ScheduledFuture;
+import java.io.Closeable;
+import java.net.InetSocketAddress;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiConsumer;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends every query through a small fixed set of long-lived {@link io.netty.channel.socket.DatagramChannel}s. Incoming datagrams are routed back to the pending request by the sender's address and the response type.
+ *
+ * <p>
+ * Each server address is always assigned to the same channel (and therefore the same event loop), so all bookkeeping for an address is confined to a single thread.
+ * Only one request per address and request type is sent at a time, any other request for the same pair is queued until the previous one completes.
+ * </p>
+ *
+ * @see SourceQueryOptions#SHARED_CHANNELS
+ */
+final class SourceQueryMultiplexer implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(SourceQueryMultiplexer.class);
+
+    private final SourceQueryMessenger messenger;
+
+    private final Bootstrap bootstrap;
+
+    private final int readTimeout;
+
+    private final SourceQueryRttEstimator rttEstimator;
+
+    private final AtomicReferenceArray<CompletableFuture<Channel>> channels;
+
+    private volatile boolean closed;
+
+    /**
+     * <p>Constructor for SourceQueryMultiplexer.</p>
+     *
+     * @param messenger
+     *         The {@link SourceQueryMessenger} that owns the shared channels
+     * @param channelCount
+     *         The number of long-lived channels to maintain
+     * @param readTimeout
+     *         The number of milliseconds to wait for a response before a {@link ReadTimeoutException} is thrown
+     * @param rttEstimator
+     *         The {@link SourceQueryRttEstimator} used to compute the read timeout of each request or {@code null} to always use the fixed read timeout
+     */
+    SourceQueryMultiplexer(SourceQueryMessenger messenger, int channelCount, int readTimeout, SourceQueryRttEstimator rttEstimator) {
+        if (channelCount < 1)
+            throw new IllegalArgumentException("Channel count must be greater than zero");
+        this.messenger = Objects.requireNonNull(messenger, "Messenger must not be null");
+        this.readTimeout = readTimeout;
+        this.rttEstimator = rttEstimator;
+        this.channels = new AtomicReferenceArray<>(channelCount);
+        this.bootstrap = messenger.getChannelFactory().getBootstrap().clone();
+        this.bootstrap.localAddress(0);
+        this.bootstrap.handler(new ChannelInitializer<Channel>() {
+            @Override
+            protected void initChannel(@NotNull Channel ch) {
+                Demultiplexer demultiplexer = new Demultiplexer();
+                ChannelPipeline pipe = ch.pipeline();
+                pipe.addLast("demultiplexer", demultiplexer);
+                pipe.addLast(new SourceQueryChallengeDecoder());
+                pipe.addLast(new SourceQueryInfoDecoder());
+                pipe.addLast(new SourceQueryPlayersDecoder());
+                pipe.addLast(new SourceQueryRulesDecoder());
+                pipe.addLast("router", demultiplexer.router());
+                pipe.addLast(new SourceQueryChallengeEncoder());
+                pipe.addLast(new SourceQueryInfoEncoder());
+                pipe.addLast(new SourceQueryPlayersEncoder());
+                pipe.addLast(new SourceQueryRulesEncoder());
+            }
+        });
+    }
+
+    /**
+     * Send a request to the server through one of the shared channels
+     *
+     * @param address
+     *         The address of the server
+     * @param request
+     *         The {@link SourceQueryRequest} to send
+     * @param attempt
+     *         The attempt number of the request (starting from 1)
+     *
+     * @return A {@link CompletableFuture} that is notified once a response has been received from the server
+     */
+    CompletableFuture<SourceQueryResponse<?>> send(InetSocketAddress address, SourceQueryRequest request, int attempt) {
+        if (closed)
+            return Concurrency.failedFuture(new RejectedExecutionException("Multiplexer has been closed"));
+        final PendingRequest pending = new PendingRequest(address, request, attempt);
+        channel(address, (channel, error) -> {
+            if (error != null) {
+                pending.promise.completeExceptionally(Errors.unwrap(error));
+                return;
+            }
+            Demultiplexer demultiplexer = channel.pipeline().get(Demultiplexer.class);
+            if (demultiplexer == null) {
+                pending.promise.completeExceptionally(new ChannelClosedException("Shared channel is no longer available", channel));
+                return;
+            }
+            if (channel.eventLoop().inEventLoop())
+                demultiplexer.register(pending);
+            else
+                channel.eventLoop().execute(() -> demultiplexer.register(pending));
+        });
+        return pending.promise;
+    }
+
+    /**
+     * Pass the shared channel assigned to the address to the callback, binding it first if needed.
+     * Callbacks waiting for the same channel are chained (dependents of a {@link CompletableFuture} are not notified in the order they have been registered), so requests sent before the channel is bound are registered in the order they have been sent.
+     */
+    private void channel(InetSocketAddress address, BiConsumer<Channel, Throwable> callback) {
+        final int index = Math.floorMod(address.hashCode(), channels.length());
+        while (true) {
+            CompletableFuture<Channel> current = channels.get(index);
+            if (current != null && current.isDone() && isUsable(current)) {
+                callback.accept(current.join(), null);
+                return;
+            }
+            CompletableFuture<Channel> next = new CompletableFuture<>();
+            if (channels.compareAndSet(index, current, next)) {
+                CompletableFuture<Channel> previous = current;
+                if (previous == null || previous.isDone()) {
+                    previous = new CompletableFuture<>();
+                    bind(index, previous);
+                }
+                previous.whenComplete((channel, error) -> {
+                    try {
+                        callback.accept(channel, error);
+                    } finally {
+                        if (error != null)
+                            next.completeExceptionally(error);
+                        else
+                            next.complete(channel);
+                    }
+                });
+                return;
+            }
+        }
+    }
+
+    private static boolean isUsable(CompletableFuture<Channel> future) {
+        return !future.isCompletedExceptionally() && future.join().isActive();
+    }
+
+    private void bind(int index, CompletableFuture<Channel> promise) {
+        log.debug("MULTIPLEXER => Binding shared channel #{}", index);
+        bootstrap.bind().addListener((ChannelFutureListener) future -> {
+            if (!future.isSuccess()) {
+                log.debug("MULTIPLEXER => Failed to bind shared channel #{}", index, future.cause());
+                promise.completeExceptionally(future.cause());
+                return;
+            }
+            Channel channel = future.channel();
+            //the decoders expect a context attached to the channel, the request is swapped on every incoming datagram
+            NettyChannelContext context = new NettyChannelContext(channel, messenger);
+            context.disableAutoRelease();
+            channel.attr(NettyChannelAttributes.CHANNEL_CONTEXT).set(context);
+            log.debug("{} MULTIPLEXER => Shared channel #{} bound to '{}'", Netty.id(channel), index, channel.localAddress());
+            promise.complete(channel);
+        });
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        for (int i = 0; i < channels.length(); i++) {
+            CompletableFuture<Channel> future = channels.getAndSet(i, null);
+            if (future != null)
+                future.thenAccept(Channel::close);
+        }
+    }
+
+    private static final class PendingKey {
+
+        private final InetSocketAddress address;
+
+        private final SourceChallengeType type;
+
+        private PendingKey(InetSocketAddress address, SourceChallengeType type) {
+            this.address = address;
+            this.type = type;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof PendingKey)) return false;
+            PendingKey that = (PendingKey) o;
+            return address.equals(that.address) && type == that.type;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * address.hashCode() + type.hashCode();
+        }
+    }
+
+    private static final class PendingRequest {
+
+        private final InetSocketAddress address;
+
+        private final SourceQueryRequest request;
+
+        private final PendingKey key;
+
+        private final CompletableFuture<SourceQueryResponse<?>> promise = new CompletableFuture<>();
+
+        private final int attempt;
+
+        private long sequence;
+
+        private long sentAt;
+
+        private long rttStart;
+
+        private ScheduledFuture<?> timeout;
+
+        private PendingRequest(InetSocketAddress address, SourceQueryRequest request, int attempt) {
+            this.address = Objects.requireNonNull(address, "Address not provided");
+            this.request = Objects.requireNonNull(request, "Request not provided");
+            this.attempt = attempt;
+            SourceChallengeType type = SourceQuery.getChallengeType(request.getClass());
+            if (type == null)
+                throw new IllegalArgumentException("Unsupported request type: " + request.getClass().getSimpleName());
+            this.key = new PendingKey(address, type);
+        }
+
+        @Override
+        public String toString() {
+            return request.getClass().getSimpleName() + " -> " + address;
+        }
+    }
+
+    /**
+     * Routes incoming datagrams to the pending request of the sender. All state is confined to the channel's event loop.
+     */
+    private final class Demultiplexer extends ChannelInboundHandlerAdapter {
+
+        private final Map<PendingKey, Deque<PendingRequest>> pending = new HashMap<>();
+
+        private final Map<InetSocketAddress, SourceSplitPacketAssembler> assemblers = new HashMap<>();
+
+        private final Router router = new Router();
+
+        private ChannelHandlerContext ctx;
+
+        private PendingRequest current;
+
+        private long sequence;
+
+        private Router router() {
+            return router;
+        }
+
+        @Override
+        public void handlerAdded(ChannelHandlerContext ctx) {
+            this.ctx = ctx;
+        }
+
+        private void register(PendingRequest request) {
+            assert ctx.executor().inEventLoop();
+            if (!ctx.channel().isActive()) {
+                request.promise.completeExceptionally(new ChannelClosedException("Shared channel is no longer active", ctx.channel()));
+                return;
+            }
+            request.sequence = sequence++;
+            Deque<PendingRequest> queue = pending.computeIfAbsent(request.key, k -> new ArrayDeque<>());
+            queue.addLast(request);
+            if (queue.size() == 1) {
+                write(request);
+            } else {
+                log.debug("{} MULTIPLEXER => Queued request '{}' (Queue size: {})", Netty.id(ctx.channel()), request, queue.size());
+            }
+        }
+
+        private void write(PendingRequest request) {
+            scheduleTimeout(request);
+            Envelope<SourceQueryRequest> envelope = MessageEnvelopeBuilder.<SourceQueryRequest>createNew().fromAnyAddress().recipient(request.address).message(request.request).build();
+            log.debug("{} MULTIPLEXER => Sending request '{}'", Netty.id(ctx.channel()), request);
+            request.sentAt = System.nanoTime();
+            request.rttStart = request.sentAt;
+            ctx.channel().writeAndFlush(envelope).addListener((ChannelFutureListener) future -> {
+                if (!future.isSuccess())
+                    complete(request, null, future.cause());
+            });
+        }
+
+        private void scheduleTimeout(PendingRequest request) {
+            if (request.timeout != null)
+                request.timeout.cancel(false);
+            final int timeout = rttEstimator != null ? rttEstimator.timeout(request.address, request.attempt) : readTimeout;
+            request.timeout = ctx.executor().schedule(() -> complete(request, null, new ReadTimeoutException(String.format("No response received from '%s' within %d ms (Request: %s)", request.address, timeout, request.request.getClass().getSimpleName()))), timeout, TimeUnit.MILLISECONDS);
+        }
+
+        private void complete(PendingRequest request, SourceQueryResponse<?> response, Throwable error) {
+            if (request.timeout != null)
+                request.timeout.cancel(false);
+            Deque<PendingRequest> queue = pending.get(request.key);
+            if (queue != null) {
+                boolean head = queue.peekFirst() == request;
+                if (queue.remove(request)) {
+                    if (queue.isEmpty()) {
+                        pending.remove(request.key);
+                        if (!hasPending(request.address))
+                            resetAssembler(request.address);
+                    } else if (head) {
+                        write(queue.peekFirst());
+                    }
+                }
+            }
+            if (rttEstimator != null && request.sentAt != 0 && !request.promise.isDone()) {
+                if (error == null)
+                    rttEstimator.success(request.address, request.attempt, System.nanoTime() - request.rttStart);
+                else if (error instanceof TimeoutException)
+                    rttEstimator.timeout(request.address);
+            }
+            MetricsCollector metrics = messenger.getMetrics();
+            if (metrics != MetricsCollector.NOOP && request.sentAt != 0) {
+                metrics.requestCompleted(request.request.getClass(), request.address, System.nanoTime() - request.sentAt, error);
+                if (error instanceof TimeoutException)
+                    metrics.requestTimedOut(request.request.getClass(), request.address);
+            }
+            if (error != null)
+                request.promise.completeExceptionally(error);
+            else
+                request.promise.complete(response);
+        }
+
+        private boolean hasPending(InetSocketAddress address) {
+            for (SourceChallengeType type : SourceChallengeType.values()) {
+                if (pending.containsKey(new PendingKey(address, type)))
+                    return true;
+            }
+            return false;
+        }
+
+        private PendingRequest head(InetSocketAddress address, SourceChallengeType type) {
+            Deque<PendingRequest> queue = pending.get(new PendingKey(address, type));
+            return queue == null ? null : queue.peekFirst();
+        }
+
+        /**
+         * @return The oldest in-flight request for the given address
+         */
+        private PendingRequest oldest(InetSocketAddress address) {
+            PendingRequest oldest = null;
+            for (SourceChallengeType type : SourceChallengeType.values()) {
+                PendingRequest request = head(address, type);
+                if (request != null && (oldest == null || request.sequence < oldest.sequence))
+                    oldest = request;
+            }
+            return oldest;
+        }
+
+        /**
+         * Challenge responses do not carry the request type, so they are matched by the challenge state of the in-flight requests instead.
+         * A server issues the same challenge number to every request of a client, so a challenge belongs to one of the requests that have not yet been sent with that number.
+         * Requests that have already been re-sent with it are only waiting for the actual response and are skipped, while a request which is challenged again with a new number is matched again.
+         *
+         * @return The oldest in-flight request for the given address that has not yet been sent with the received challenge number or {@code null} if there is none
+         */
+        private PendingRequest challenged(InetSocketAddress address, ByteBuf payload) {
+            //let the decoder of the oldest request report the malformed challenge
+            if (payload.readableBytes() < 4)
+                return oldest(address);
+            final int challenge = payload.getIntLE(payload.readerIndex());
+            PendingRequest match = null;
+            for (SourceChallengeType type : SourceChallengeType.values()) {
+                PendingRequest request = head(address, type);
+                if (request == null || !(request.request instanceof SourceQueryAuthRequest))
+                    continue;
+                Integer current = ((SourceQueryAuthRequest) request.request).getChallenge();
+                if (current != null && current == challenge)
+                    continue;
+                if (match == null || request.sequence < match.sequence)
+                    match = request;
+            }
+            return match;
+        }
+
+        private PendingRequest resolve(InetSocketAddress sender, SourceQuerySinglePacket packet) {
+            PendingRequest request;
+            switch (packet.getHeader()) {
+                case SourceQuery.SOURCE_QUERY_INFO_RES:
+                    request = head(sender, SourceChallengeType.INFO);
+                    //some servers send an empty info response for any type of request
+                    if (request == null && !packet.content().isReadable())
+                        request = oldest(sender);
+                    return request;
+                case SourceQuery.SOURCE_QUERY_PLAYER_RES:
+                    return head(sender, SourceChallengeType.PLAYER);
+                case SourceQuery.SOURCE_QUERY_RULES_RES:
+                    return head(sender, SourceChallengeType.RULES);
+                case SourceQuery.SOURCE_QUERY_CHALLENGE_RES:
+                    request = head(sender, SourceChallengeType.CHALLENGE);
+                    return request != null ? request : challenged(sender, packet.content());
+                default:
+                    return null;
+            }
+        }
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+            if (!(msg instanceof DatagramPacket)) {
+                ctx.fireChannelRead(msg);
+                return;
+            }
+            final DatagramPacket datagram = (DatagramPacket) msg;
+            final InetSocketAddress sender = datagram.sender();
+            if (messenger.getMetrics() != MetricsCollector.NOOP)
+                messenger.getMetrics().bytesRead(datagram.content().readableBytes());
+            SourceQuerySinglePacket packet;
+            try {
+                packet = decode(sender, datagram.content());
+            } catch (Exception e) {
+                PendingRequest request = oldest(sender);
+                log.debug("{} MULTIPLEXER => Failed to decode datagram from '{}' (Pending request: {})", Netty.id(ctx.channel()), sender, request, e);
+                if (request != null) {
+                    byte[] data = log.isDebugEnabled() ? Netty.getBufferContentsAll(datagram.content()) : null;
+                    complete(request, null, new InvalidPacketException("Received an unsupported/malformed packet from the server", data));
+                }
+                if (datagram.refCnt() > 0)
+                    ReferenceCountUtil.release(datagram);
+                return;
+            }
+            //still waiting for the remaining split-packets
+            if (packet == null)
+                return;
+            final PendingRequest request = resolve(sender, packet);
+            if (request == null) {
+                log.debug("{} MULTIPLEXER => Discarding packet '{}' from '{}'. No pending request found", Netty.id(ctx.channel()), packet, sender);
+                packet.release();
+                return;
+            }
+            NettyChannelContext context = NettyChannelContext.getContext(ctx.channel());
+            context.properties().request(request.request);
+            context.properties().envelope().recipient(sender);
+            current = request;
+            try {
+                ctx.fireChannelRead(packet);
+            } finally {
+                current = null;
+            }
+            //the request has been re-sent with a challenge number, so time (and sample) the last round trip only
+            Long resentAt = ctx.channel().attr(SourceQuery.CHALLENGE_RESENT_AT).getAndSet(null);
+            if (resentAt != null && !request.promise.isDone()) {
+                request.rttStart = resentAt;
+                scheduleTimeout(request);
+            }
+        }
+
+        /**
+         * Decodes the raw datagram into a single-type packet. Split-packets are collected per sender until all of them have been received.
+         *
+         * @return The decoded {@link SourceQuerySinglePacket} or {@code null} if we are still waiting for more split-packets
+         */
+        private SourceQuerySinglePacket decode(InetSocketAddress sender, ByteBuf content) throws PacketDecodeException {
+            int type = content.readIntLE();
+            if (!SourceQuery.isValidPacketType(type))
+                throw new InvalidPacketTypeException(type, String.format("Invalid source query packet type: %d", type));
+            SourceQueryPacket packet = SourceQueryPacketDecoderProvider.getDecoder(type).decode(content);
+            if (packet instanceof SourceQuerySinglePacket)
+                return (SourceQuerySinglePacket) packet;
+            SourceSplitPacketAssembler assembler = assemblers.computeIfAbsent(sender, a -> new SourceCompositeSplitPacketAssembler(ctx));
+            try {
+                if (!assembler.add((SourceQuerySplitPacket) packet))
+                    return null;
+                ByteBuf assembled = assembler.getBuffer();
+                int assembledType = assembled.readIntLE();
+                PacketDecoder<SourceQuerySinglePacket> decoder = SourceQueryPacketDecoderProvider.getDecoder(assembledType);
+                SourceQuerySinglePacket single = decoder.decode(assembled);
+                single.retain();
+                return single;
+            } finally {
+                if (assembler.isComplete() || !assembler.isProcessing())
+                    resetAssembler(sender);
+            }
+        }
+
+        private void resetAssembler(InetSocketAddress address) {
+            SourceSplitPacketAssembler assembler = assemblers.remove(address);
+            if (assembler != null)
+                assembler.reset();
+        }
+
+        @Override
+        public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+            List<PendingRequest> requests = new ArrayList<>();
+            for (Deque<PendingRequest> queue : pending.values())
+                requests.addAll(queue);
+            pending.clear();
+            for (SourceSplitPacketAssembler assembler : assemblers.values())
+                assembler.reset();
+            assemblers.clear();
+            for (PendingRequest request : requests) {
+                if (request.timeout != null)
+                    request.timeout.cancel(false);
+                request.promise.completeExceptionally(new ChannelClosedException("Shared channel was closed", ctx.channel()));
+            }
+            super.channelInactive(ctx);
+        }
+
+        /**
+         * The last handler in the pipeline. Completes the request currently being processed by the demultiplexer.
+         */
+        private final class Router extends ChannelInboundHandlerAdapter {
+
+            @Override
+            public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                final PendingRequest request = current;
+                try {
+                    if (request == null) {
+                        log.debug("{} MULTIPLEXER => Received message '{}' but no request is currently being processed", Netty.id(ctx.channel()), msg);
+                        return;
+                    }
+                    if (msg instanceof SourceQueryResponse) {
+                        SourceQueryResponse<?> response = (SourceQueryResponse<?>) msg;
+                        response.setAddress(request.address);
+                        response.setRequest(request.request);
+                        complete(request, response, null);
+                    } else {
+                        complete(request, null, new NoMessageHandlerException(String.format("No handlers found for message type '%s' (Request: %s)", msg.getClass().getSimpleName(), request.request)));
+                    }
+                } finally {
+                    ReferenceCountUtil.release(msg);
+                }
+            }
+
+            @Override
+            public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+                final PendingRequest request = current;
+                if (request == null) {
+                    log.debug("{} MULTIPLEXER => Error caught but no request is currently being processed", Netty.id(ctx.channel()), cause);
+                    return;
+                }
+                complete(request, null, Errors.unwrap(cause));
+            }
+        }
+    }
+}
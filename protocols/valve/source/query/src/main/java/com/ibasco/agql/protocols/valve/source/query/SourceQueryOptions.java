@@ -20,6 +20,7 @@ import com.ibasco.agql.core.util.AbstractOptions;
 import com.ibasco.agql.core.util.ConnectOptions;
 import com.ibasco.agql.core.util.FailsafeOptions;
 import com.ibasco.agql.core.util.Inherit;
+import com.ibasco.agql.core.util.Option;
 import com.ibasco.agql.core.util.OptionBuilder;
 import com.ibasco.agql.core.util.Options;
 
@@ -34,6 +35,214 @@ import com.ibasco.agql.core.util.Options;
 @Inherit(options = {FailsafeOptions.class, ConnectOptions.class})
 public final class SourceQueryOptions extends AbstractOptions {
 
+    /**
+     * Send all queries through a small fixed set of long-lived {@link io.netty.channel.socket.DatagramChannel}s instead of binding a new socket for every request (Default: {@code false}).
+     * Incoming datagrams are routed back to the pending request by the sender's address and the response type, allowing a single socket to carry thousands of concurrent queries.
+     *
+     * <p>
+     * <strong>Note:</strong> Only one request per server address and request type is sent at a time. Concurrent requests for the same address and type are queued until the previous one has completed.
+     * </p>
+     *
+     * @see #SHARED_CHANNEL_COUNT
+     */
+    public static final Option<Boolean> SHARED_CHANNELS = Option.create("sqSharedChannels", false);
+
+    /**
+     * The number of long-lived channels to maintain when {@link #SHARED_CHANNELS} is enabled. Each server address is always assigned to the same channel (Default: 4)
+     *
+     * @see #SHARED_CHANNELS
+     */
+    public static final Option<Integer> SHARED_CHANNEL_COUNT = Option.create("sqSharedChannelCount", 4);
+
+    /**
+     * The maximum number of requests a batch query (e.g. {@link SourceQueryClient#getInfo(java.util.Iterator, java.util.function.BiConsumer, java.util.function.BiConsumer)}) keeps in-flight at any given time (Default: 128)
+     */
+    public static final Option<Integer> BATCH_MAX_IN_FLIGHT = Option.create("sqBatchMaxInFlight", 128);
+
+    /**
+     * Remember the last challenge number received from each server (per {@link com.ibasco.agql.protocols.valve.source.query.common.enums.SourceChallengeType}) and send it up-front on subsequent requests, saving an extra round-trip (Default: {@code false}).
+     * If the server rejects the cached challenge number, the request falls back to the regular challenge flow.
+     *
+     * <p>
+     * <strong>Note:</strong> Only applies to requests that were issued without an explicit challenge number.
+     * </p>
+     *
+     * @see #CHALLENGE_CACHE_TTL
+     * @see #CHALLENGE_CACHE_MAX_SIZE
+     */
+    public static final Option<Boolean> CHALLENGE_CACHE_ENABLED = Option.create("sqChallengeCacheEnabled", false);
+
+    /**
+     * The number of milliseconds a cached challenge number remains valid after it has been received (Default: 30000)
+     *
+     * @see #CHALLENGE_CACHE_ENABLED
+     */
+    public static final Option<Long> CHALLENGE_CACHE_TTL = Option.create("sqChallengeCacheTtl", 30000L);
+
+    /**
+     * The maximum number of challenge numbers to keep in the cache. The least recently used entries are evicted once the limit is reached (Default: 10000)
+     *
+     * @see #CHALLENGE_CACHE_ENABLED
+     */
+    public static final Option<Long> CHALLENGE_CACHE_MAX_SIZE = Option.create("sqChallengeCacheMaxSize", 10000L);
+
+    /**
+     * Decode A2S_INFO and A2S_PLAYER responses lazily (Default: {@code false}). The response keeps a copy of the raw payload along with an offset index built in a single pass,
+     * string fields (e.g. server name, map name and player names) are only decoded on first access. Recommended when only a few fields of each response are read (e.g. player count and map name).
+     *
+     * <p>
+     * <strong>Note:</strong> The returned {@link com.ibasco.agql.protocols.valve.source.query.info.SourceServer} and player list behave exactly like the eagerly decoded ones, but the player list is unmodifiable.
+     * </p>
+     */
+    public static final Option<Boolean> LAZY_DECODING = Option.create("sqLazyDecoding", false);
+
+    /**
+     * The maximum number of canonical strings kept by the decoders for low cardinality values that repeat across responses (map names, game directories, game descriptions, game versions, server tags and rules). Pooling is disabled unless a positive size is set (Default: 0)
+     *
+     * <p>
+     * Strings are looked up by their raw bytes, so repeated values share the same {@link String} instance instead of decoding a new copy for every response.
+     * </p>
+     *
+     * @see com.ibasco.agql.core.util.StringPool
+     */
+    public static final Option<Integer> STRING_POOL_SIZE = Option.create("sqStringPoolSize", 0);
+
+    /**
+     * Derive the read timeout and the retry delay of each request from the round-trip times previously observed for the server, instead of using the fixed {@link com.ibasco.agql.core.util.GeneralOptions#READ_TIMEOUT}
+     * and {@link FailsafeOptions#FAILSAFE_RETRY_DELAY} for every server (Default: {@code false}).
+     *
+     * <p>
+     * The timeout is computed from a smoothed round-trip time and its variation (Jacobson/Karels), doubled on each retry and capped by {@link com.ibasco.agql.core.util.GeneralOptions#READ_TIMEOUT}.
+     * Servers without any samples (e.g. servers that never responded) start from {@link #ADAPTIVE_TIMEOUT_INITIAL}. The retry delay is the smoothed round-trip time of the server, capped by {@link FailsafeOptions#FAILSAFE_RETRY_DELAY}.
+     * </p>
+     *
+     * @see #ADAPTIVE_TIMEOUT_INITIAL
+     * @see #ADAPTIVE_TIMEOUT_MIN
+     * @see #ADAPTIVE_TIMEOUT_MAX_SIZE
+     */
+    public static final Option<Boolean> ADAPTIVE_TIMEOUT_ENABLED = Option.create("sqAdaptiveTimeoutEnabled", false);
+
+    /**
+     * The read timeout (in milliseconds) of the first attempt for servers without any round-trip time samples (Default: 1000)
+     *
+     * @see #ADAPTIVE_TIMEOUT_ENABLED
+     */
+    public static final Option<Integer> ADAPTIVE_TIMEOUT_INITIAL = Option.create("sqAdaptiveTimeoutInitial", 1000);
+
+    /**
+     * The lower bound (in milliseconds) of the adaptive read timeout (Default: 200)
+     *
+     * @see #ADAPTIVE_TIMEOUT_ENABLED
+     */
+    public static final Option<Integer> ADAPTIVE_TIMEOUT_MIN = Option.create("sqAdaptiveTimeoutMin", 200);
+
+    /**
+     * The maximum number of servers to keep round-trip time estimates for. The least recently used entries are evicted once the limit is reached (Default: 100000)
+     *
+     * @see #ADAPTIVE_TIMEOUT_ENABLED
+     */
+    public static final Option<Long> ADAPTIVE_TIMEOUT_MAX_SIZE = Option.create("sqAdaptiveTimeoutMaxSize", 100000L);
+
+    /**
+     * Coalesce concurrent requests of the same type and challenge number to the same server into a single query (Default: {@code false}).
+     * Requests issued while an identical request is still in-flight are attached to it instead of sending another query, which avoids flooding a server when many callers ask for the same data at once.
+     *
+     * <p>
+     * <strong>Note:</strong> Each caller receives an independent copy of the response, so the result can be safely modified.
+     * </p>
+     */
+    public static final Option<Boolean> COALESCING_ENABLED = Option.create("sqCoalescingEnabled", false);
+
+    /**
+     * Cache the A2S_INFO, A2S_PLAYER and A2S_RULES responses of each server in memory (Default: {@code false}). Requests issued within the time-to-live of a cached response are completed immediately without sending a query.
+     *
+     * <p>
+     * Once the time-to-live has elapsed, the cached response is still served for the duration of {@link #RESPONSE_CACHE_STALE_TTL} while the response is refreshed in the background (stale-while-revalidate).
+     * Failed requests are never cached. Each caller receives an independent copy of the cached response.
+     * Requests with a challenge number (e.g. {@link SourceQueryClient#getInfo(java.net.InetSocketAddress, Integer)}) bypass the cache and are always sent to the server.
+     * </p>
+     *
+     * @see #RESPONSE_CACHE_INFO_TTL
+     * @see #RESPONSE_CACHE_PLAYERS_TTL
+     * @see #RESPONSE_CACHE_RULES_TTL
+     * @see #RESPONSE_CACHE_STALE_TTL
+     * @see #RESPONSE_CACHE_MAX_WEIGHT
+     */
+    public static final Option<Boolean> RESPONSE_CACHE_ENABLED = Option.create("sqResponseCacheEnabled", false);
+
+    /**
+     * The number of milliseconds a cached A2S_INFO response remains fresh. Set to 0 to disable caching of info responses (Default: 5000)
+     *
+     * @see #RESPONSE_CACHE_ENABLED
+     */
+    public static final Option<Long> RESPONSE_CACHE_INFO_TTL = Option.create("sqResponseCacheInfoTtl", 5000L);
+
+    /**
+     * The number of milliseconds a cached A2S_PLAYER response remains fresh. Set to 0 to disable caching of player responses (Default: 5000)
+     *
+     * @see #RESPONSE_CACHE_ENABLED
+     */
+    public static final Option<Long> RESPONSE_CACHE_PLAYERS_TTL = Option.create("sqResponseCachePlayersTtl", 5000L);
+
+    /**
+     * The number of milliseconds a cached A2S_RULES response remains fresh. Set to 0 to disable caching of rules responses (Default: 30000)
+     *
+     * @see #RESPONSE_CACHE_ENABLED
+     */
+    public static final Option<Long> RESPONSE_CACHE_RULES_TTL = Option.create("sqResponseCacheRulesTtl", 30000L);
+
+    /**
+     * The number of milliseconds an expired response may still be served while it is being refreshed in the background. Set to 0 to always wait for a new response once the time-to-live has elapsed (Default: 10000)
+     *
+     * @see #RESPONSE_CACHE_ENABLED
+     */
+    public static final Option<Long> RESPONSE_CACHE_STALE_TTL = Option.create("sqResponseCacheStaleTtl", 10000L);
+
+    /**
+     * The maximum total weight of the cached responses. A server info weighs one unit, player and rules responses weigh one unit plus one per player or rule.
+     * The least recently used entries are evicted once the limit is reached (Default: 1000000)
+     *
+     * @see #RESPONSE_CACHE_ENABLED
+     */
+    public static final Option<Long> RESPONSE_CACHE_MAX_WEIGHT = Option.create("sqResponseCacheMaxWeight", 1000000L);
+
+    /**
+     * The default maximum number of requests a stage of a {@link SourceQueryPipeline} keeps in-flight at any given time, used for the stages configured without an explicit limit (Default: 128)
+     *
+     * @see SourceQueryClient#pipeline()
+     */
+    public static final Option<Integer> PIPELINE_MAX_IN_FLIGHT = Option.create("sqPipelineMaxInFlight", 128);
+
+    /**
+     * The default number of times a stage of a {@link SourceQueryPipeline} retries a failed request, used for the stages configured without an explicit value (Default: 1)
+     *
+     * @see SourceQueryClient#pipeline()
+     */
+    public static final Option<Integer> PIPELINE_RETRIES = Option.create("sqPipelineRetries", 1);
+
+    /**
+     * The maximum age (in milliseconds) of the players of a server tracked by a {@link SourceQueryCrawler}. The players are queried again once exceeded, even if the server information has not changed.
+     * Set to a negative value to never query the players (Default: 60000)
+     *
+     * @see SourceQueryClient#crawler()
+     */
+    public static final Option<Long> CRAWLER_PLAYERS_MAX_AGE = Option.create("sqCrawlerPlayersMaxAge", 60000L);
+
+    /**
+     * The maximum age (in milliseconds) of the rules of a server tracked by a {@link SourceQueryCrawler}. The rules are queried again once exceeded, even if the server information has not changed.
+     * Set to a negative value to never query the rules (Default: 300000)
+     *
+     * @see SourceQueryClient#crawler()
+     */
+    public static final Option<Long> CRAWLER_RULES_MAX_AGE = Option.create("sqCrawlerRulesMaxAge", 300000L);
+
+    /**
+     * The number of consecutive crawls a server tracked by a {@link SourceQueryCrawler} may fail to respond to the A2S_INFO query before it is reported as removed. Until then, the server keeps its last known state (Default: 3)
+     *
+     * @see SourceQueryClient#crawler()
+     */
+    public static final Option<Integer> CRAWLER_MAX_FAILURES = Option.create("sqCrawlerMaxFailures", 3);
+
     /**
      * <p>Create a new {@link OptionBuilder} for {@link SourceQueryOptions}</p>
      *
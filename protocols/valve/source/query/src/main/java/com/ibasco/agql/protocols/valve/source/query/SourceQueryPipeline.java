@@ -0,0 +1,532 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.protocols.valve.source.query;
+
+import com.ibasco.agql.core.util.Errors;
+import com.ibasco.agql.protocols.valve.source.query.common.message.SourceQueryResponse;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Queries each address emitted by a {@link Publisher} (e.g. the address stream of the master server) through a sequence of A2S stages and passes the merged result of each server to a sink.
+ *
+ * <p>
+ * The stages are always executed in the order {@link Stage#INFO}, {@link Stage#PLAYERS}, {@link Stage#RULES}, skipping the ones that have not been configured or whose condition
+ * (see {@link Builder#stage(Stage, int, int, java.util.function.Predicate)}) is not met by the server. Each stage keeps its own
+ * limit of in-flight requests and retries a failed request up to a configured number of times. A server is handed over to the next stage as soon as the previous stage has completed, so
+ * all stages work concurrently on different servers and the first servers are queried while the source is still emitting addresses.
+ * </p>
+ *
+ * <p>
+ * The source is consumed with backpressure, at most as many addresses are requested as the in-flight limits of all stages combined. Once all stages have completed, the {@link SourceServerRecord}
+ * is passed to the sink, regardless of the outcome of the queries. If the {@link Stage#INFO} query fails, the server is considered unreachable and the remaining stages are skipped.
+ * </p>
+ *
+ * <pre>
+ * SourceQueryPipeline pipeline = sourceClient.pipeline().info().players().rules(32, 0).build();
+ * pipeline.execute(masterClient.streamServers(type, region, filter), record -&gt; System.out.println(record)).join();
+ * </pre>
+ *
+ * @see SourceQueryClient#pipeline()
+ * @see SourceQueryOptions#PIPELINE_MAX_IN_FLIGHT
+ * @see SourceQueryOptions#PIPELINE_RETRIES
+ */
+public final class SourceQueryPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(SourceQueryPipeline.class);
+
+    /**
+     * The stages of a pipeline
+     */
+    public enum Stage {
+        /**
+         * A2S_INFO query
+         */
+        INFO,
+        /**
+         * A2S_PLAYER query
+         */
+        PLAYERS,
+        /**
+         * A2S_RULES query
+         */
+        RULES
+    }
+
+    /**
+     * Sends the query of a stage to a server, see {@link #query(SourceQueryClient, Stage, InetSocketAddress)}
+     */
+    private final BiFunction<Stage, InetSocketAddress, CompletableFuture<? extends SourceQueryResponse<?>>> query;
+
+    private final List<StageConfig> stages;
+
+    private SourceQueryPipeline(BiFunction<Stage, InetSocketAddress, CompletableFuture<? extends SourceQueryResponse<?>>> query, List<StageConfig> stages) {
+        this.query = query;
+        this.stages = stages;
+    }
+
+    /**
+     * Start querying the addresses emitted by the source
+     *
+     * @param source
+     *         The {@link Publisher} emitting the server addresses
+     * @param sink
+     *         Callback invoked with the merged record of each server once all stages have completed. May be invoked concurrently from different threads.
+     *
+     * @return A {@link CompletableFuture} notified once the source has completed and all records have been passed to the sink. It is completed exceptionally if the source signals an error.
+     * Cancelling the future cancels the subscription, no further addresses are requested from the source.
+     */
+    public CompletableFuture<Void> execute(Publisher<? extends InetSocketAddress> source, Consumer<SourceServerRecord> sink) {
+        Objects.requireNonNull(source, "Source must not be null");
+        Objects.requireNonNull(sink, "Sink must not be null");
+        Execution execution = new Execution(sink);
+        source.subscribe(execution);
+        return execution.promise;
+    }
+
+    private static CompletableFuture<? extends SourceQueryResponse<?>> query(SourceQueryClient client, Stage stage, InetSocketAddress address) {
+        switch (stage) {
+            case INFO:
+                return client.getInfo(address);
+            case PLAYERS:
+                return client.getPlayers(address);
+            case RULES:
+                return client.getRules(address);
+            default:
+                throw new IllegalStateException("Unsupported stage: " + stage);
+        }
+    }
+
+    private static BiFunction<Stage, InetSocketAddress, CompletableFuture<? extends SourceQueryResponse<?>>> queryOf(SourceQueryClient client) {
+        return (stage, address) -> query(client, stage, address);
+    }
+
+    private static final class StageConfig {
+
+        private final Stage stage;
+
+        private final int maxInFlight;
+
+        private final int retries;
+
+        private final Predicate<SourceServerRecord> condition;
+
+        private StageConfig(Stage stage, int maxInFlight, int retries, Predicate<SourceServerRecord> condition) {
+            this.stage = stage;
+            this.maxInFlight = maxInFlight;
+            this.retries = retries;
+            this.condition = condition;
+        }
+    }
+
+    /**
+     * A record travelling through the stages
+     */
+    private static final class Task {
+
+        private final SourceServerRecord record;
+
+        private int stageIndex;
+
+        private Task(InetSocketAddress address) {
+            this.record = new SourceServerRecord(address);
+        }
+    }
+
+    /**
+     * The state of a single pipeline execution
+     */
+    private final class Execution implements Subscriber<InetSocketAddress> {
+
+        private final Consumer<SourceServerRecord> sink;
+
+        private final CompletableFuture<Void> promise = new CompletableFuture<>();
+
+        private final List<StageExecutor> executors = new ArrayList<>(stages.size());
+
+        private final AtomicReference<Subscription> subscription = new AtomicReference<>();
+
+        /**
+         * The number of records received from the source that have not yet been passed to the sink
+         */
+        private final AtomicInteger active = new AtomicInteger();
+
+        private volatile boolean sourceDone;
+
+        private volatile Throwable sourceError;
+
+        private final int capacity;
+
+        private Execution(Consumer<SourceServerRecord> sink) {
+            this.sink = sink;
+            int capacity = 0;
+            for (StageConfig config : stages) {
+                executors.add(new StageExecutor(this, config));
+                capacity += config.maxInFlight;
+            }
+            this.capacity = capacity;
+            promise.whenComplete((v, e) -> {
+                Subscription s = subscription.get();
+                if (promise.isCancelled() && s != null)
+                    s.cancel();
+            });
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            if (!subscription.compareAndSet(null, s) || promise.isDone()) {
+                //rule 2.5
+                s.cancel();
+                return;
+            }
+            s.request(capacity);
+        }
+
+        @Override
+        public void onNext(InetSocketAddress address) {
+            if (promise.isDone())
+                return;
+            active.incrementAndGet();
+            submit(new Task(address), 0);
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            sourceError = error;
+            onSourceDone();
+        }
+
+        @Override
+        public void onComplete() {
+            onSourceDone();
+        }
+
+        private void onSourceDone() {
+            sourceDone = true;
+            log.debug("PIPELINE => Source completed (Pending Records: {}, Error: {})", active.get(), sourceError);
+            if (active.get() == 0)
+                complete();
+        }
+
+        private void submit(Task task, int stageIndex) {
+            //skip the stages whose condition is not met
+            while (stageIndex < executors.size() && !executors.get(stageIndex).accepts(task))
+                stageIndex++;
+            task.stageIndex = stageIndex;
+            if (stageIndex >= executors.size() || promise.isDone()) {
+                finish(task);
+                return;
+            }
+            executors.get(stageIndex).submit(task);
+        }
+
+        private void onStageDone(Task task, Stage stage, SourceQueryResponse<?> response, Throwable error) {
+            if (error != null) {
+                task.record.setError(stage, error);
+                if (stage == Stage.INFO) {
+                    finish(task);
+                    return;
+                }
+            } else if (response != null) {
+                task.record.setResult(stage, response.getResult());
+            }
+            submit(task, task.stageIndex + 1);
+        }
+
+        private void finish(Task task) {
+            if (!promise.isDone()) {
+                try {
+                    sink.accept(task.record);
+                } catch (Throwable e) {
+                    log.debug("PIPELINE => Sink threw an exception for address '{}'", task.record.getAddress(), e);
+                }
+            }
+            int remaining = active.decrementAndGet();
+            if (!sourceDone) {
+                //replace the finished record with the next address of the source
+                Subscription s = subscription.get();
+                if (s != null && !promise.isDone())
+                    s.request(1);
+            } else if (remaining == 0) {
+                complete();
+            }
+        }
+
+        private void complete() {
+            if (sourceError != null)
+                promise.completeExceptionally(sourceError);
+            else
+                promise.complete(null);
+        }
+    }
+
+    /**
+     * Dispatches the tasks of a single stage while keeping at most a fixed number of requests in-flight
+     */
+    private final class StageExecutor {
+
+        private final Execution execution;
+
+        private final StageConfig config;
+
+        private final Queue<Task> queue = new ConcurrentLinkedQueue<>();
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        private final AtomicInteger wip = new AtomicInteger();
+
+        private StageExecutor(Execution execution, StageConfig config) {
+            this.execution = execution;
+            this.config = config;
+        }
+
+        private boolean accepts(Task task) {
+            try {
+                return config.condition == null || config.condition.test(task.record);
+            } catch (Throwable e) {
+                task.record.setError(config.stage, e);
+                return false;
+            }
+        }
+
+        private void submit(Task task) {
+            queue.add(task);
+            drain();
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() != 0)
+                return;
+            do {
+                //once the execution has been completed (e.g. cancelled), the queued tasks are discarded instead of being dispatched
+                if (execution.promise.isDone()) {
+                    queue.clear();
+                    continue;
+                }
+                while (inFlight.get() < config.maxInFlight && !execution.promise.isDone()) {
+                    Task task = queue.poll();
+                    if (task == null)
+                        break;
+                    inFlight.incrementAndGet();
+                    dispatch(task, 0);
+                }
+            } while (wip.decrementAndGet() != 0);
+        }
+
+        private void dispatch(Task task, int attempt) {
+            final InetSocketAddress address = task.record.getAddress();
+            CompletableFuture<? extends SourceQueryResponse<?>> future;
+            try {
+                future = query.apply(config.stage, address);
+            } catch (Throwable e) {
+                CompletableFuture<SourceQueryResponse<?>> failed = new CompletableFuture<>();
+                failed.completeExceptionally(e);
+                future = failed;
+            }
+            future.whenComplete((response, error) -> {
+                if (error != null && attempt < config.retries && !execution.promise.isDone()) {
+                    log.debug("PIPELINE => Retrying {} query for address '{}' (Attempt: {}, Error: {})", config.stage, address, attempt + 1, error.getClass().getSimpleName());
+                    dispatch(task, attempt + 1);
+                    return;
+                }
+                inFlight.decrementAndGet();
+                execution.onStageDone(task, config.stage, response, error != null ? Errors.unwrap(error) : null);
+                drain();
+            });
+        }
+    }
+
+    /**
+     * Configures the stages of a {@link SourceQueryPipeline}
+     *
+     * @see SourceQueryClient#pipeline()
+     */
+    public static final class Builder {
+
+        private final BiFunction<Stage, InetSocketAddress, CompletableFuture<? extends SourceQueryResponse<?>>> query;
+
+        private final Map<Stage, StageConfig> stages = new EnumMap<>(Stage.class);
+
+        private final int defaultMaxInFlight;
+
+        private final int defaultRetries;
+
+        Builder(SourceQueryClient client, int defaultMaxInFlight, int defaultRetries) {
+            this(queryOf(Objects.requireNonNull(client, "Client must not be null")), defaultMaxInFlight, defaultRetries);
+        }
+
+        Builder(BiFunction<Stage, InetSocketAddress, CompletableFuture<? extends SourceQueryResponse<?>>> query, int defaultMaxInFlight, int defaultRetries) {
+            this.query = Objects.requireNonNull(query, "Query function must not be null");
+            this.defaultMaxInFlight = defaultMaxInFlight;
+            this.defaultRetries = defaultRetries;
+        }
+
+        /**
+         * Add the A2S_INFO stage using the default limits
+         *
+         * @return This builder
+         */
+        public Builder info() {
+            return stage(Stage.INFO, defaultMaxInFlight, defaultRetries);
+        }
+
+        /**
+         * Add the A2S_INFO stage
+         *
+         * @param maxInFlight
+         *         The maximum number of requests of this stage in-flight at any given time
+         * @param retries
+         *         The number of times a failed request is retried
+         *
+         * @return This builder
+         */
+        public Builder info(int maxInFlight, int retries) {
+            return stage(Stage.INFO, maxInFlight, retries);
+        }
+
+        /**
+         * Add the A2S_PLAYER stage using the default limits
+         *
+         * @return This builder
+         */
+        public Builder players() {
+            return stage(Stage.PLAYERS, defaultMaxInFlight, defaultRetries);
+        }
+
+        /**
+         * Add the A2S_PLAYER stage
+         *
+         * @param maxInFlight
+         *         The maximum number of requests of this stage in-flight at any given time
+         * @param retries
+         *         The number of times a failed request is retried
+         *
+         * @return This builder
+         */
+        public Builder players(int maxInFlight, int retries) {
+            return stage(Stage.PLAYERS, maxInFlight, retries);
+        }
+
+        /**
+         * Add the A2S_RULES stage using the default limits
+         *
+         * @return This builder
+         */
+        public Builder rules() {
+            return stage(Stage.RULES, defaultMaxInFlight, defaultRetries);
+        }
+
+        /**
+         * Add the A2S_RULES stage
+         *
+         * @param maxInFlight
+         *         The maximum number of requests of this stage in-flight at any given time
+         * @param retries
+         *         The number of times a failed request is retried
+         *
+         * @return This builder
+         */
+        public Builder rules(int maxInFlight, int retries) {
+            return stage(Stage.RULES, maxInFlight, retries);
+        }
+
+        /**
+         * Add or replace a stage
+         *
+         * @param stage
+         *         The {@link Stage} to add
+         * @param maxInFlight
+         *         The maximum number of requests of this stage in-flight at any given time
+         * @param retries
+         *         The number of times a failed request is retried
+         *
+         * @return This builder
+         */
+        public Builder stage(Stage stage, int maxInFlight, int retries) {
+            return stage(stage, maxInFlight, retries, null);
+        }
+
+        /**
+         * Add or replace a stage which is only executed for the servers matching a condition
+         *
+         * @param stage
+         *         The {@link Stage} to add
+         * @param maxInFlight
+         *         The maximum number of requests of this stage in-flight at any given time
+         * @param retries
+         *         The number of times a failed request is retried
+         * @param condition
+         *         Evaluated with the record of a server (containing the results of the preceding stages) before the stage is executed, the stage is skipped for the server if {@code false} ({@code null} to always execute the stage)
+         *
+         * @return This builder
+         */
+        public Builder stage(Stage stage, int maxInFlight, int retries, Predicate<SourceServerRecord> condition) {
+            Objects.requireNonNull(stage, "Stage must not be null");
+            if (maxInFlight < 1)
+                throw new IllegalArgumentException("Maximum in-flight requests must be greater than zero");
+            if (retries < 0)
+                throw new IllegalArgumentException("Number of retries must not be negative");
+            stages.put(stage, new StageConfig(stage, maxInFlight, retries, condition));
+            return this;
+        }
+
+        /**
+         * Add or replace a stage using the default limits, which is only executed for the servers matching a condition
+         *
+         * @param stage
+         *         The {@link Stage} to add
+         * @param condition
+         *         Evaluated with the record of a server (containing the results of the preceding stages) before the stage is executed, the stage is skipped for the server if {@code false}
+         *
+         * @return This builder
+         *
+         * @see #stage(Stage, int, int, Predicate)
+         */
+        public Builder stage(Stage stage, Predicate<SourceServerRecord> condition) {
+            return stage(stage, defaultMaxInFlight, defaultRetries, condition);
+        }
+
+        /**
+         * @return A new {@link SourceQueryPipeline}
+         *
+         * @throws IllegalStateException
+         *         If no stage has been configured
+         */
+        public SourceQueryPipeline build() {
+            if (stages.isEmpty())
+                throw new IllegalStateException("At least one stage must be configured");
+            return new SourceQueryPipeline(query, new ArrayList<>(stages.values()));
+        }
+    }
+}
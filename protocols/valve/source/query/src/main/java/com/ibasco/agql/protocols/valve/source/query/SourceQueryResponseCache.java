@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.protocols.valve.source.query;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.ibasco.agql.protocols.valve.source.query.common.message.SourceQueryAuthRequest;
+import com.ibasco.agql.protocols.valve.source.query.common.message.SourceQueryRequest;
+import com.ibasco.agql.protocols.valve.source.query.common.message.SourceQueryResponse;
+import com.ibasco.agql.protocols.valve.source.query.info.SourceQueryInfoRequest;
+import com.ibasco.agql.protocols.valve.source.query.players.SourceQueryPlayerRequest;
+import com.ibasco.agql.protocols.valve.source.query.rules.SourceQueryRulesRequest;
+import java.net.InetSocketAddress;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A bounded cache of A2S_INFO, A2S_PLAYER and A2S_RULES responses keyed by server address and request type.
+ *
+ * <p>
+ * A lookup within the time-to-live of the request type is completed immediately from memory. Once the time-to-live has elapsed, the stale response is still returned for the duration of the stale period,
+ * while a single refresh is issued in the background (stale-while-revalidate). Entries older than the time-to-live and the stale period combined are treated as a miss.
+ * Entries are weighed by the size of the decoded result (one unit per server info, player or rule), the least recently used entries are evicted once the maximum weight is reached.
+ * Failed requests are never cached, a failed background refresh keeps the stale entry until it expires.
+ * </p>
+ *
+ * <p>
+ * Each caller receives its own copy of the cached response (see {@link SourceQueryResponse#copy()}), so the cached entry can not be modified by a caller.
+ * Responses which can not be copied (see {@link SourceQueryResponse#isCopyable()}) are not cached.
+ * </p>
+ *
+ * <p>
+ * Only requests which leave the challenge number to the library (no challenge number provided and auto-update enabled) are served from the cache. Requests carrying a challenge number
+ * are always sent to the server and their responses are not cached, so callers which need an uncached response can bypass the cache by providing a challenge number
+ * (e.g. {@link SourceQueryClient#getInfo(InetSocketAddress, Integer)}).
+ * </p>
+ *
+ * @see SourceQueryOptions#RESPONSE_CACHE_ENABLED
+ */
+final class SourceQueryResponseCache {
+
+    private static final Logger log = LoggerFactory.getLogger(SourceQueryResponseCache.class);
+
+    private final Cache<Key, Entry> cache;
+
+    private final long infoTtl;
+
+    private final long playersTtl;
+
+    private final long rulesTtl;
+
+    private final long staleTtl;
+
+    /**
+     * Create a new response cache
+     *
+     * @param maxWeight
+     *         The maximum total weight of the cached responses
+     * @param infoTtl
+     *         The time-to-live (in milliseconds) of A2S_INFO responses (0 to disable caching of this type)
+     * @param playersTtl
+     *         The time-to-live (in milliseconds) of A2S_PLAYER responses (0 to disable caching of this type)
+     * @param rulesTtl
+     *         The time-to-live (in milliseconds) of A2S_RULES responses (0 to disable caching of this type)
+     * @param staleTtl
+     *         The number of milliseconds an expired response may still be served while it is being refreshed in the background (0 to disable stale-while-revalidate)
+     */
+    SourceQueryResponseCache(long maxWeight, long infoTtl, long playersTtl, long rulesTtl, long staleTtl) {
+        this.infoTtl = TimeUnit.MILLISECONDS.toNanos(Math.max(0, infoTtl));
+        this.playersTtl = TimeUnit.MILLISECONDS.toNanos(Math.max(0, playersTtl));
+        this.rulesTtl = TimeUnit.MILLISECONDS.toNanos(Math.max(0, rulesTtl));
+        this.staleTtl = TimeUnit.MILLISECONDS.toNanos(Math.max(0, staleTtl));
+        long maxAge = Math.max(this.infoTtl, Math.max(this.playersTtl, this.rulesTtl)) + this.staleTtl;
+        this.cache = CacheBuilder.newBuilder()
+                                 .maximumWeight(maxWeight)
+                                 .weigher((Key key, Entry entry) -> entry.weight)
+                                 .expireAfterWrite(Math.max(1, maxAge), TimeUnit.NANOSECONDS)
+                                 .build();
+    }
+
+    /**
+     * Lookup the response of the request in the cache, or send the request if no usable response is available
+     *
+     * @param address
+     *         The address of the server
+     * @param request
+     *         The {@link SourceQueryRequest} to send
+     * @param sender
+     *         The function responsible for sending the request on a cache miss or refresh
+     *
+     * @return A {@link CompletableFuture} notified with the cached or the received response
+     */
+    CompletableFuture<SourceQueryResponse<?>> send(InetSocketAddress address, SourceQueryRequest request, BiFunction<InetSocketAddress, SourceQueryRequest, CompletableFuture<SourceQueryResponse<?>>> sender) {
+        final long ttl = getTtl(request);
+        if (ttl <= 0 || !isCacheable(request))
+            return sender.apply(address, request);
+        final Key key = new Key(address, request.getClass());
+        final Entry entry = cache.getIfPresent(key);
+        if (entry != null) {
+            long age = System.nanoTime() - entry.created;
+            if (age <= ttl) {
+                log.debug("RESPONSE CACHE => Cache hit for request '{}' (Address: {}, Age: {} ms)", request, address, TimeUnit.NANOSECONDS.toMillis(age));
+                return CompletableFuture.completedFuture(entry.copy(request));
+            }
+            if (age <= ttl + staleTtl) {
+                if (entry.refreshing.compareAndSet(false, true)) {
+                    log.debug("RESPONSE CACHE => Serving stale response for request '{}' and refreshing in the background (Address: {}, Age: {} ms)", request, address, TimeUnit.NANOSECONDS.toMillis(age));
+                    //note: the request of the caller is modified while it is being processed, so refresh with a new one
+                    sender.apply(address, newRequest(request)).whenComplete((response, error) -> {
+                        if (error != null) {
+                            log.debug("RESPONSE CACHE => Background refresh failed for request '{}' (Address: {}, Error: {})", request, address, error.getClass().getSimpleName());
+                            entry.refreshing.set(false);
+                        } else if (!put(key, response)) {
+                            entry.refreshing.set(false);
+                        }
+                    });
+                }
+                return CompletableFuture.completedFuture(entry.copy(request));
+            }
+        }
+        return sender.apply(address, request).thenApply(response -> {
+            put(key, response);
+            return response;
+        });
+    }
+
+    /**
+     * @return {@code true} if the response has been cached, responses which can not be copied are never cached
+     */
+    private boolean put(Key key, SourceQueryResponse<?> response) {
+        if (response == null || !response.isCopyable())
+            return false;
+        //note: store a copy, the response itself is handed over to the caller who may modify it
+        cache.put(key, new Entry(response.copy()));
+        return true;
+    }
+
+    private static boolean isCacheable(SourceQueryRequest request) {
+        if (!(request instanceof SourceQueryAuthRequest))
+            return false;
+        SourceQueryAuthRequest authRequest = (SourceQueryAuthRequest) request;
+        return authRequest.getChallenge() == null && authRequest.isAutoUpdate();
+    }
+
+    private static SourceQueryRequest newRequest(SourceQueryRequest request) {
+        if (request instanceof SourceQueryInfoRequest)
+            return new SourceQueryInfoRequest();
+        if (request instanceof SourceQueryPlayerRequest)
+            return new SourceQueryPlayerRequest();
+        if (request instanceof SourceQueryRulesRequest)
+            return new SourceQueryRulesRequest();
+        throw new IllegalArgumentException("Unsupported request type: " + request.getClass().getSimpleName());
+    }
+
+    private long getTtl(SourceQueryRequest request) {
+        if (request instanceof SourceQueryInfoRequest)
+            return infoTtl;
+        if (request instanceof SourceQueryPlayerRequest)
+            return playersTtl;
+        if (request instanceof SourceQueryRulesRequest)
+            return rulesTtl;
+        return 0;
+    }
+
+    private static int weigh(SourceQueryResponse<?> response) {
+        Object result = response.getResult();
+        if (result instanceof Collection)
+            return 1 + ((Collection<?>) result).size();
+        if (result instanceof Map)
+            return 1 + ((Map<?, ?>) result).size();
+        return 1;
+    }
+
+    private static final class Entry {
+
+        private final SourceQueryResponse<?> response;
+
+        private final long created = System.nanoTime();
+
+        private final int weight;
+
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        private Entry(SourceQueryResponse<?> response) {
+            this.response = response;
+            this.weight = weigh(response);
+        }
+
+        private SourceQueryResponse<?> copy(SourceQueryRequest request) {
+            SourceQueryResponse<?> copy = response.copy();
+            copy.setRequest(request);
+            return copy;
+        }
+    }
+
+    private static final class Key {
+
+        private final InetSocketAddress address;
+
+        private final Class<?> type;
+
+        private Key(InetSocketAddress address, Class<?> type) {
+            this.address = address;
+            this.type = type;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return address.equals(key.address) && type.equals(key.type);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * address.hashCode() + type.hashCode();
+        }
+    }
+}
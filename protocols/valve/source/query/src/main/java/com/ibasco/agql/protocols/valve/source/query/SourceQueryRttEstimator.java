@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.protocols.valve.source.query;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps a smoothed round-trip time (SRTT) and round-trip time variation (RTTVAR) for each server address and derives the read timeout of each request from it (Jacobson/Karels, see RFC 6298).
+ *
+ * <p>
+ * Only the first attempt of a request is sampled, since a response received after a retry cannot be matched to a specific attempt (Karn's algorithm). Timeouts double the timeout of the server
+ * until a new sample is taken. Servers that have never responded are not tracked and always start from the initial timeout, so unresponsive hosts do not end up waiting for the maximum timeout on every attempt.
+ * </p>
+ *
+ * @see SourceQueryOptions#ADAPTIVE_TIMEOUT_ENABLED
+ */
+final class SourceQueryRttEstimator {
+
+    private static final Logger log = LoggerFactory.getLogger(SourceQueryRttEstimator.class);
+
+    /**
+     * Lower bound of the variance term in microseconds (clock granularity)
+     */
+    private static final long MIN_VARIANCE = 1000;
+
+    private final Cache<InetSocketAddress, Entry> entries;
+
+    private final int initialTimeout;
+
+    private final int minTimeout;
+
+    private final int maxTimeout;
+
+    /**
+     * Create a new estimator
+     *
+     * @param maxSize
+     *         The maximum number of servers to track. The least recently used entries are evicted once the limit is reached
+     * @param initialTimeout
+     *         The timeout (in milliseconds) used for servers without any samples
+     * @param minTimeout
+     *         The lower bound (in milliseconds) of the computed timeout
+     * @param maxTimeout
+     *         The upper bound (in milliseconds) of the computed timeout
+     */
+    SourceQueryRttEstimator(long maxSize, int initialTimeout, int minTimeout, int maxTimeout) {
+        if (minTimeout <= 0 || maxTimeout < minTimeout)
+            throw new IllegalArgumentException(String.format("Invalid timeout range (Min: %d, Max: %d)", minTimeout, maxTimeout));
+        this.entries = CacheBuilder.newBuilder().maximumSize(maxSize).build();
+        this.initialTimeout = clamp(initialTimeout, minTimeout, maxTimeout);
+        this.minTimeout = minTimeout;
+        this.maxTimeout = maxTimeout;
+    }
+
+    /**
+     * Compute the read timeout of a request
+     *
+     * @param address
+     *         The address of the server
+     * @param attempt
+     *         The attempt number of the request (starting from 1). Each retry doubles the timeout.
+     *
+     * @return The read timeout in milliseconds
+     */
+    int timeout(InetSocketAddress address, int attempt) {
+        Entry entry = entries.getIfPresent(address);
+        long timeout = entry != null ? entry.timeout() : initialTimeout;
+        timeout <<= Math.min(Math.max(attempt - 1, 0), 16);
+        return (int) Math.min(timeout, maxTimeout);
+    }
+
+    /**
+     * Compute the delay before a failed request is retried. This is the smoothed round-trip time of the server (or the minimum timeout if unknown), so a retry is not sent before a late response could have arrived.
+     *
+     * @param address
+     *         The address of the server
+     * @param maxDelay
+     *         The configured retry delay (in milliseconds) which is used as the upper bound
+     *
+     * @return The retry delay in milliseconds
+     */
+    long retryDelay(InetSocketAddress address, long maxDelay) {
+        Entry entry = entries.getIfPresent(address);
+        long delay = entry != null ? entry.smoothedRtt() : minTimeout;
+        return Math.max(0, Math.min(delay, maxDelay));
+    }
+
+    /**
+     * Record a response received from the server
+     *
+     * @param address
+     *         The address of the server
+     * @param attempt
+     *         The attempt number of the request (starting from 1)
+     * @param rttNanos
+     *         The time elapsed (in nanoseconds) between sending the request and receiving the response
+     */
+    void success(InetSocketAddress address, int attempt, long rttNanos) {
+        //karn's algorithm: ignore ambiguous samples of retried requests
+        if (attempt > 1)
+            return;
+        Entry entry = entries.asMap().computeIfAbsent(address, a -> new Entry());
+        entry.sample(TimeUnit.NANOSECONDS.toMicros(rttNanos));
+        log.debug("RTT ESTIMATOR => Updated estimate for '{}' (Sample: {} ms, Entry: {})", address, TimeUnit.NANOSECONDS.toMillis(rttNanos), entry);
+    }
+
+    /**
+     * Record a request that did not receive a response in time
+     *
+     * @param address
+     *         The address of the server
+     */
+    void timeout(InetSocketAddress address) {
+        Entry entry = entries.getIfPresent(address);
+        if (entry == null)
+            return;
+        entry.backoff();
+        log.debug("RTT ESTIMATOR => Backed off timeout of '{}' (Entry: {})", address, entry);
+    }
+
+    private static int clamp(long value, int min, int max) {
+        return (int) Math.max(min, Math.min(value, max));
+    }
+
+    /**
+     * The estimate of a single server. Values are in microseconds, except for the timeout.
+     */
+    private final class Entry {
+
+        private long srtt = -1;
+
+        private long rttvar;
+
+        private int timeout;
+
+        private synchronized void sample(long rtt) {
+            if (srtt < 0) {
+                srtt = rtt;
+                rttvar = rtt / 2;
+            } else {
+                rttvar += (Math.abs(srtt - rtt) - rttvar) >> 2;
+                srtt += (rtt - srtt) >> 3;
+            }
+            timeout = clamp(TimeUnit.MICROSECONDS.toMillis(srtt + Math.max(MIN_VARIANCE, rttvar << 2)), minTimeout, maxTimeout);
+        }
+
+        private synchronized void backoff() {
+            timeout = clamp((long) timeout << 1, minTimeout, maxTimeout);
+        }
+
+        private synchronized int timeout() {
+            return timeout;
+        }
+
+        private synchronized long smoothedRtt() {
+            return TimeUnit.MICROSECONDS.toMillis(srtt);
+        }
+
+        @Override
+        public synchronized String toString() {
+            return String.format("srtt=%d us, rttvar=%d us, timeout=%d ms", srtt, rttvar, timeout);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.protocols.valve.source.query;
+
+import java.net.InetSocketAddress;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * A change of the state of a server detected by a {@link SourceQueryCrawler}
+ *
+ * @see SourceQueryCrawler
+ */
+public final class SourceServerDelta {
+
+    /**
+     * The type of change
+     */
+    public enum Type {
+        /**
+         * The server has been seen for the first time
+         */
+        ADDED,
+        /**
+         * The server information, players or rules have changed
+         */
+        CHANGED,
+        /**
+         * The server no longer responds or is no longer listed
+         */
+        REMOVED
+    }
+
+    private final Type type;
+
+    private final SourceServerRecord previous;
+
+    private final SourceServerRecord current;
+
+    private final Set<SourceQueryPipeline.Stage> changes;
+
+    SourceServerDelta(Type type, SourceServerRecord previous, SourceServerRecord current, Set<SourceQueryPipeline.Stage> changes) {
+        this.type = type;
+        this.previous = previous;
+        this.current = current;
+        this.changes = Collections.unmodifiableSet(changes);
+    }
+
+    /**
+     * @return The {@link Type} of change
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return The address of the server
+     */
+    public InetSocketAddress getAddress() {
+        return current != null ? current.getAddress() : previous.getAddress();
+    }
+
+    /**
+     * @return The last known state of the server or {@code null} if the server has been {@link Type#ADDED}
+     */
+    public SourceServerRecord getPrevious() {
+        return previous;
+    }
+
+    /**
+     * @return The current state of the server or {@code null} if the server has been {@link Type#REMOVED}. Players or rules that have not been queried again are carried over from the previous state.
+     */
+    public SourceServerRecord getCurrent() {
+        return current;
+    }
+
+    /**
+     * @return The parts of the server state that have changed (all available parts for {@link Type#ADDED} and {@link Type#REMOVED})
+     */
+    public Set<SourceQueryPipeline.Stage> getChanges() {
+        return changes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SourceServerDelta{type=%s, address=%s, changes=%s}", type, getAddress(), changes);
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.protocols.valve.source.query;
+
+import com.ibasco.agql.protocols.valve.source.query.info.SourceServer;
+import com.ibasco.agql.protocols.valve.source.query.players.SourcePlayer;
+import java.net.InetSocketAddress;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The merged A2S_INFO, A2S_PLAYER and A2S_RULES results of a single server.
+ *
+ * <p>
+ * A result is {@code null} if the corresponding query has not been performed or if it has failed, in which case the cause is available via {@link #getError(SourceQueryPipeline.Stage)}.
+ * </p>
+ *
+ * @see SourceQueryPipeline
+ */
+public final class SourceServerRecord {
+
+    private final InetSocketAddress address;
+
+    private SourceServer info;
+
+    private List<SourcePlayer> players;
+
+    private Map<String, String> rules;
+
+    private final Map<SourceQueryPipeline.Stage, Throwable> errors = new EnumMap<>(SourceQueryPipeline.Stage.class);
+
+    /**
+     * Create a new empty record
+     *
+     * @param address
+     *         The address of the server
+     */
+    public SourceServerRecord(InetSocketAddress address) {
+        this.address = Objects.requireNonNull(address, "Address must not be null");
+    }
+
+    /**
+     * Create a new record
+     *
+     * @param address
+     *         The address of the server
+     * @param info
+     *         The server information or {@code null} if not available
+     * @param players
+     *         The list of players or {@code null} if not available
+     * @param rules
+     *         The server rules or {@code null} if not available
+     */
+    public SourceServerRecord(InetSocketAddress address, SourceServer info, List<SourcePlayer> players, Map<String, String> rules) {
+        this(address);
+        this.info = info;
+        this.players = players;
+        this.rules = rules;
+    }
+
+    /**
+     * @return The address of the server
+     */
+    public InetSocketAddress getAddress() {
+        return address;
+    }
+
+    /**
+     * @return The server information or {@code null} if not available
+     */
+    public SourceServer getInfo() {
+        return info;
+    }
+
+    /**
+     * @return The list of active players or {@code null} if not available
+     */
+    public List<SourcePlayer> getPlayers() {
+        return players;
+    }
+
+    /**
+     * @return The server rules or {@code null} if not available
+     */
+    public Map<String, String> getRules() {
+        return rules;
+    }
+
+    /**
+     * Get the cause of a failed query
+     *
+     * @param stage
+     *         The {@link SourceQueryPipeline.Stage}
+     *
+     * @return The last error raised by the stage or {@code null} if it did not fail
+     */
+    public Throwable getError(SourceQueryPipeline.Stage stage) {
+        return errors.get(stage);
+    }
+
+    /**
+     * @return An unmodifiable map of the failed stages and their last error
+     */
+    public Map<SourceQueryPipeline.Stage, Throwable> getErrors() {
+        return Collections.unmodifiableMap(errors);
+    }
+
+    /**
+     * @return {@code true} if none of the queries have failed
+     */
+    public boolean isSuccess() {
+        return errors.isEmpty();
+    }
+
+    void setResult(SourceQueryPipeline.Stage stage, Object result) {
+        switch (stage) {
+            case INFO:
+                this.info = (SourceServer) result;
+                break;
+            case PLAYERS:
+                //noinspection unchecked
+                this.players = (List<SourcePlayer>) result;
+                break;
+            case RULES:
+                //noinspection unchecked
+                this.rules = (Map<String, String>) result;
+                break;
+        }
+    }
+
+    void setError(SourceQueryPipeline.Stage stage, Throwable error) {
+        errors.put(stage, error);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SourceServerRecord{address=%s, info=%s, players=%s, rules=%s, errors=%s}", address, info != null ? info.getName() : null, players != null ? players.size() : null, rules != null ? rules.size() : null, errors.keySet());
+    }
+}
@@ -49,4 +49,16 @@ public class SourceQueryChallengeResponse extends SourceQueryResponse<Integer> {
     public final SourceChallengeType getType() {
         return type;
     }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean isCopyable() {
+        return true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public SourceQueryChallengeResponse copy() {
+        return copyProperties(new SourceQueryChallengeResponse(getResult(), type));
+    }
 }
@@ -100,6 +100,7 @@ abstract public class SourceQueryAuthDecoder<T extends SourceQueryAuthRequest> e
             request.setChallenge(challenge);
             //resend auth request
             Envelope<AbstractRequest> reauthRequest = MessageEnvelopeBuilder.createFrom(envelope, request).build();
+            ctx.channel().attr(SourceQuery.CHALLENGE_RESENT_AT).set(System.nanoTime());
             ChannelFuture writeFuture = ctx.channel().writeAndFlush(reauthRequest);
             if (writeFuture.isDone()) {
                 if (writeFuture.isSuccess()) {
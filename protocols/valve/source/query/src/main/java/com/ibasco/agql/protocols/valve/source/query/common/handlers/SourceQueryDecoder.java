@@ -21,6 +21,8 @@ import com.ibasco.agql.core.exceptions.DecodeException;
 import com.ibasco.agql.core.transport.handlers.MessageInboundHandler;
 import com.ibasco.agql.core.util.Functions;
 import com.ibasco.agql.core.util.Netty;
+import com.ibasco.agql.core.util.StringPool;
+import com.ibasco.agql.protocols.valve.source.query.SourceQueryMessenger;
 import com.ibasco.agql.protocols.valve.source.query.common.message.SourceQueryRequest;
 import com.ibasco.agql.protocols.valve.source.query.common.packets.SourceQuerySinglePacket;
 import io.netty.buffer.ByteBuf;
@@ -117,6 +119,23 @@ abstract public class SourceQueryDecoder<T extends SourceQueryRequest> extends M
 
     //<editor-fold desc="Utility Functions for Sub-classes">
 
+    /**
+     * <p>Get the {@link StringPool} of the messenger owning the channel</p>
+     *
+     * @param ctx
+     *         a {@link io.netty.channel.ChannelHandlerContext} object
+     *
+     * @return The {@link StringPool} or {@code null} if string pooling is not available
+     *
+     * @see com.ibasco.agql.protocols.valve.source.query.SourceQueryOptions#STRING_POOL_SIZE
+     */
+    protected static StringPool getStringPool(ChannelHandlerContext ctx) {
+        NettyChannelContext context = NettyChannelContext.getContext(ctx.channel());
+        if (context == null || !(context.messenger() instanceof SourceQueryMessenger))
+            return null;
+        return ((SourceQueryMessenger) context.messenger()).getStringPool();
+    }
+
     /**
      * <p>Decodes a flag from the provided int value.</p>
      *
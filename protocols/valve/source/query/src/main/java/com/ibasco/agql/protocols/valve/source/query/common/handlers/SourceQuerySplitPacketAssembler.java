@@ -23,7 +23,7 @@ import com.ibasco.agql.core.transport.handlers.MessageInboundHandler;
 import com.ibasco.agql.protocols.valve.source.query.SourceQuery;
 import com.ibasco.agql.protocols.valve.source.query.common.packets.SourceQuerySinglePacket;
 import com.ibasco.agql.protocols.valve.source.query.common.packets.SourceQuerySplitPacket;
-import com.ibasco.agql.protocols.valve.source.query.common.packets.util.SourceLazySplitPacketAssembler;
+import com.ibasco.agql.protocols.valve.source.query.common.packets.util.SourceCompositeSplitPacketAssembler;
 import com.ibasco.agql.protocols.valve.source.query.common.packets.util.SourceQueryPacketDecoderProvider;
 import com.ibasco.agql.protocols.valve.source.query.common.packets.util.SourceSplitPacketAssembler;
 import io.netty.buffer.ByteBuf;
@@ -60,20 +60,29 @@ public class SourceQuerySplitPacketAssembler extends MessageInboundHandler {
         }
         SourceSplitPacketAssembler assembler = getAssembler(ctx);
         SourceQuerySplitPacket splitPacket = (SourceQuerySplitPacket) msg;
+        final boolean complete;
         try {
-            if (!assembler.add(splitPacket)) {
-                debug(log, ctx, "[SPLIT-PACKET-ASSEMBLER] Added split-packet {} to assembler {}", splitPacket, assembler);
-                return;
-            } else {
-                debug(log, ctx, "[SPLIT-PACKET-ASSEMBLER] Added last split-packet {} to assembler {}. Assembling packets.", splitPacket, assembler);
-            }
-            reassembleAndDecode(ctx);
+            complete = assembler.add(splitPacket);
         } catch (Exception ex) {
-            error(log, ctx, "[SPLIT-PACKET-ASSEMBLER] An error occured while attempting to re-assemble split packets. Releasing split-packet and resetting assembler (Assembler complete: {})", assembler.isComplete(), ex);
+            //the packet has been rejected by the assembler, so we still own it
+            error(log, ctx, "[SPLIT-PACKET-ASSEMBLER] Split-packet rejected by the assembler. Releasing split-packet and resetting assembler", ex);
             splitPacket.release();
             assembler.reset();
             throw ex;
         }
+        if (!complete) {
+            debug(log, ctx, "[SPLIT-PACKET-ASSEMBLER] Added split-packet {} to assembler {}", splitPacket, assembler);
+            return;
+        }
+        debug(log, ctx, "[SPLIT-PACKET-ASSEMBLER] Added last split-packet {} to assembler {}. Assembling packets.", splitPacket, assembler);
+        try {
+            reassembleAndDecode(ctx);
+        } catch (Exception ex) {
+            //the assembler owns all split-packets at this point (some of them may have already been released), they are released on reset
+            error(log, ctx, "[SPLIT-PACKET-ASSEMBLER] An error occured while attempting to re-assemble split packets. Resetting assembler (Assembler complete: {})", assembler.isComplete(), ex);
+            assembler.reset();
+            throw ex;
+        }
     }
 
     private void reassembleAndDecode(ChannelHandlerContext ctx) throws Exception {
@@ -153,7 +162,7 @@ public class SourceQuerySplitPacketAssembler extends MessageInboundHandler {
         Attribute<SourceSplitPacketAssembler> attr = ctx.channel().attr(ASSEMBLER);
         SourceSplitPacketAssembler assembler = attr.get();
         if (assembler == null) {
-            assembler = new SourceLazySplitPacketAssembler(ctx);
+            assembler = new SourceCompositeSplitPacketAssembler(ctx);
             attr.set(assembler);
         }
         return assembler;
@@ -46,4 +46,44 @@ abstract public class SourceQueryResponse<T> extends AbstractResponse<T> {
     public final T getResult() {
         return super.getResult();
     }
+
+    /**
+     * <p>Create an independent copy of this response. Mutable results (e.g. the server info, the player list or the rules map) are copied, so the copy can be modified without affecting this response.</p>
+     *
+     * <p>The responses of this library override this method. Other subclasses do not support copies unless they override it as well as {@link #isCopyable()} (see {@link #copyProperties(SourceQueryResponse)}).</p>
+     *
+     * @return A copy of this response, including the sender address and the originating request
+     *
+     * @throws UnsupportedOperationException
+     *         If this type of response can not be copied
+     * @see #isCopyable()
+     */
+    public SourceQueryResponse<T> copy() {
+        throw new UnsupportedOperationException(String.format("Response type '%s' does not support copies", getClass().getSimpleName()));
+    }
+
+    /**
+     * <p>Check if this response supports {@link #copy()}. Responses which can not be copied are neither shared between coalesced requests nor cached.</p>
+     *
+     * @return {@code true} if {@link #copy()} is supported by this type of response
+     */
+    public boolean isCopyable() {
+        return false;
+    }
+
+    /**
+     * <p>Copy the sender address and the originating request of this response to the provided copy</p>
+     *
+     * @param copy
+     *         The copy of this response
+     * @param <R>
+     *         The type of the response
+     *
+     * @return The provided copy
+     */
+    protected final <R extends SourceQueryResponse<T>> R copyProperties(R copy) {
+        copy.setAddress(getAddress());
+        copy.setRequest(getRequest());
+        return copy;
+    }
 }
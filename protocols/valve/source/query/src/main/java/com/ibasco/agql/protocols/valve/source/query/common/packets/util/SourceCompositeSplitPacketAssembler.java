@@ -0,0 +1,261 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.protocols.valve.source.query.common.packets.util;
+
+import com.ibasco.agql.core.util.Compression;
+import com.ibasco.agql.core.util.Netty;
+import com.ibasco.agql.protocols.valve.source.query.common.packets.SourceQuerySplitPacket;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Objects;
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Zero-copy implementation of the {@link SourceSplitPacketAssembler}. Received split-packets are tracked with a {@link BitSet} (indexed by packet number) and once all packets have been received,
+ * the payload is exposed as a {@link CompositeByteBuf} over the retained buffers of the split-packets, so no data is copied for uncompressed responses.
+ *
+ * <p>
+ * Compressed responses are decompressed as a whole (the compressed stream spans all split-packets) and verified against the size and CRC32 checksum provided by the first packet.
+ * Make sure to call {@link #reset()} after consuming the buffer.
+ * </p>
+ */
+public class SourceCompositeSplitPacketAssembler implements SourceSplitPacketAssembler {
+
+    private static final Logger log = LoggerFactory.getLogger(SourceCompositeSplitPacketAssembler.class);
+
+    /**
+     * Upper limit of the decompressed size we are willing to allocate for a single response
+     */
+    private static final int MAX_DECOMPRESSED_SIZE = 16 * 1024 * 1024;
+
+    private final ByteBufAllocator allocator;
+
+    private final ChannelHandlerContext ctx;
+
+    private final BitSet received = new BitSet();
+
+    private SourceQuerySplitPacket[] packets;
+
+    private int receivedCount;
+
+    private int packetId = -1;
+
+    private int maxPacketSize = -1;
+
+    private int packetCount = -1;
+
+    private ByteBuf buffer;
+
+    private boolean completed;
+
+    /**
+     * <p>Constructor for SourceCompositeSplitPacketAssembler.</p>
+     *
+     * @param ctx
+     *         a {@link io.netty.channel.ChannelHandlerContext} object
+     */
+    public SourceCompositeSplitPacketAssembler(ChannelHandlerContext ctx) {
+        this.allocator = Objects.requireNonNull(ctx.alloc());
+        this.ctx = ctx;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean add(SourceQuerySplitPacket splitPacket) {
+        Objects.requireNonNull(splitPacket, "Packet cannot be null");
+
+        //container has been marked as completed and has not yet been reset.
+        if (completed)
+            throw new IllegalStateException("Container is in completed state. Make sure to explicitly call reset first");
+
+        if (packetCount < 0)
+            initialize(splitPacket);
+        else if (splitPacket.getId() != packetId)
+            throw new IllegalStateException(String.format("Rejected split-packet. Expected packet id of %d but was %d (Current packet count: %d)", packetId, splitPacket.getId(), packetCount));
+
+        int packetNumber = splitPacket.getPacketNumber();
+        if (packetNumber < 0 || packetNumber >= packetCount)
+            throw new IndexOutOfBoundsException(String.format("Packet number %d is out of bounds (Packet count: %d)", packetNumber, packetCount));
+        if (received.get(packetNumber))
+            throw new IllegalStateException(String.format("Packet '%s' has already been added in this container", splitPacket));
+
+        log.debug("{} ASSEMBLER => Adding packet: {} (Count: {})", Netty.id(ctx), splitPacket, receivedCount);
+        packets[packetNumber] = splitPacket;
+        received.set(packetNumber);
+        if (++receivedCount == packetCount) {
+            log.debug("{} ASSEMBLER => Marking assembler as 'completed' (Received packets: {})", Netty.id(ctx), receivedCount);
+            this.completed = true;
+            return true;
+        }
+        return false;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int received() {
+        return receivedCount;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean isComplete() {
+        return completed;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public ByteBuf getBuffer() {
+        if (!completed)
+            throw new IllegalStateException("Not yet in completed state");
+        if (buffer == null) {
+            SourceQuerySplitPacket first = packets[0];
+            CompositeByteBuf composite = compose();
+            if (first.isCompressed()) {
+                try {
+                    buffer = decompress(first, composite);
+                } finally {
+                    composite.release();
+                }
+            } else {
+                buffer = composite;
+            }
+            log.debug("{} ASSEMBLER => Packet container is now in a valid state (Buffer: {})", Netty.id(ctx), buffer);
+        }
+        return buffer;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int count() {
+        return packetCount;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void reset() {
+        if (packets != null) {
+            for (int i = 0; i < packets.length; i++) {
+                SourceQuerySplitPacket packet = packets[i];
+                if (packet != null && packet.refCnt() > 0) {
+                    log.debug("ASSEMBLER => Releasing incomplete split-packet: {}", packet);
+                    packet.release();
+                }
+                packets[i] = null;
+            }
+        }
+        if (buffer != null)
+            buffer.release();
+        buffer = null;
+        received.clear();
+        receivedCount = 0;
+        packetId = -1;
+        maxPacketSize = -1;
+        packetCount = -1;
+        completed = false;
+        log.debug("{} ASSEMBLER => Successfully reset assembler", Netty.id(ctx));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public List<ByteBuf> dump() {
+        ArrayList<ByteBuf> dump = new ArrayList<>();
+        if (packetCount < 0)
+            return dump;
+        for (int i = 0; i < packetCount; i++) {
+            SourceQuerySplitPacket packet = packets[i];
+            dump.add(packet != null ? Unpooled.copiedBuffer(packet.content()) : null);
+        }
+        return dump;
+    }
+
+    private CompositeByteBuf compose() {
+        final int maxBufferSize = maxPacketSize * packetCount;
+        CompositeByteBuf composite = allocator.compositeBuffer(packetCount);
+        try {
+            for (int i = 0; i < packetCount; i++) {
+                SourceQuerySplitPacket packet = packets[i];
+                //transfer the ownership of the packet's buffer to the composite buffer
+                composite.addComponent(true, packet.content());
+                packets[i] = null;
+            }
+        } catch (Throwable e) {
+            composite.release();
+            throw e;
+        }
+        if (maxPacketSize > 0 && composite.readableBytes() > maxBufferSize) {
+            composite.release();
+            throw new IllegalStateException(String.format("The total bytes received is larger than the maximum allowable size (Max: %d, Actual: %d)", maxBufferSize, composite.readableBytes()));
+        }
+        log.debug("{} ASSEMBLER => Composed {} split-packets ({} bytes)", Netty.id(ctx), packetCount, composite.readableBytes());
+        return composite;
+    }
+
+    /**
+     * Decompress the bzip2 stream spanning all split-packets
+     *
+     * @param first
+     *         The first split-packet, containing the decompressed size and the checksum
+     * @param compressed
+     *         The composed payload of the split-packets
+     *
+     * @return A heap-based {@link ByteBuf} containing the decompressed payload
+     */
+    private ByteBuf decompress(SourceQuerySplitPacket first, ByteBuf compressed) {
+        Integer size = first.getDecompressedSize();
+        Integer checksum = first.getCrcChecksum();
+        if (size == null || checksum == null)
+            throw new IllegalStateException("Missing decompressed size or checksum in the first split-packet");
+        if (size <= 0 || size > MAX_DECOMPRESSED_SIZE)
+            throw new IllegalStateException(String.format("Invalid decompressed size: %d (Max: %d)", size, MAX_DECOMPRESSED_SIZE));
+        byte[] data = new byte[size];
+        try (InputStream bzip2 = new BZip2CompressorInputStream(new ByteBufInputStream(compressed))) {
+            int offset = 0;
+            int read;
+            while (offset < size && (read = bzip2.read(data, offset, size - offset)) > 0)
+                offset += read;
+            if (offset != size)
+                throw new IOException(String.format("Decompressed size mismatch (Expected: %d, Actual: %d)", size, offset));
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to decompress split-packets. Possibly corrupted", e);
+        }
+        if ((int) Compression.getCrc32Checksum(data) != checksum)
+            throw new IllegalStateException("CRC32 checksum mismatch");
+        log.debug("{} ASSEMBLER => Decompressed {} bytes to {} bytes", Netty.id(ctx), compressed.writerIndex(), size);
+        return Unpooled.wrappedBuffer(data);
+    }
+
+    private void initialize(SourceQuerySplitPacket packet) {
+        log.debug("{} ASSEMBLER => Initializing packet container", Netty.id(ctx));
+        this.packetId = packet.getId();
+        this.maxPacketSize = packet.getPacketMaxSize();
+        this.packetCount = packet.getPacketCount();
+        //packet count is an unsigned byte, so the array can be safely re-used between responses
+        if (this.packets == null || this.packets.length < packetCount)
+            this.packets = new SourceQuerySplitPacket[packetCount];
+    }
+}
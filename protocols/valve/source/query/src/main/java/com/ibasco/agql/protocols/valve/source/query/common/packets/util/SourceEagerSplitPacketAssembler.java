@@ -22,6 +22,7 @@ import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.util.ReferenceCountUtil;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -147,6 +148,12 @@ public class SourceEagerSplitPacketAssembler implements SourceSplitPacketAssembl
     /** {@inheritDoc} */
     @Override
     public void reset() {
+        if (this.packets != null) {
+            for (SourceQuerySplitPacket packet : packets) {
+                if (ReferenceCountUtil.refCnt(packet) > 0)
+                    ReferenceCountUtil.release(packet);
+            }
+        }
         this.packets = null;
         this.packetId = -1;
         this.maxPacketSize = -1;
@@ -30,6 +30,10 @@ public interface SourceSplitPacketAssembler {
     /**
      * Adds a {@link com.ibasco.agql.protocols.valve.source.query.common.packets.SourceQuerySplitPacket} to the container. Once an assembler is marked in a completed state, this method throws an {@link java.lang.IllegalStateException} indicating that it is no longer accepting new packets. {@link #reset()} should be called
      *
+     * <p>
+     * Once added, the assembler becomes the owner of the packet and is responsible for releasing it (at the latest on {@link #reset()}). If this method throws, the packet has not been added and is still owned by the caller.
+     * </p>
+     *
      * @param packet
      *         The split-packet to be added. Note that packets can arrive at different order,
      *         as long as both the container and the split-packet are in a valid state, then calling this method should not fail.
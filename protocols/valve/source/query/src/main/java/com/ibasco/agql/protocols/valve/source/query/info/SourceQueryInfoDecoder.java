@@ -24,6 +24,8 @@ import static com.ibasco.agql.protocols.valve.source.query.SourceQuery.A2S_INFO_
 import static com.ibasco.agql.protocols.valve.source.query.SourceQuery.SOURCE_QUERY_INFO_RES;
 import com.ibasco.agql.core.NettyChannelContext;
 import com.ibasco.agql.core.util.Netty;
+import com.ibasco.agql.core.util.StringPool;
+import com.ibasco.agql.protocols.valve.source.query.SourceQueryOptions;
 import com.ibasco.agql.protocols.valve.source.query.common.handlers.SourceQueryAuthDecoder;
 import com.ibasco.agql.protocols.valve.source.query.common.packets.SourceQuerySinglePacket;
 import io.netty.buffer.ByteBuf;
@@ -62,6 +64,11 @@ public class SourceQueryInfoDecoder extends SourceQueryAuthDecoder<SourceQueryIn
 
         ByteBuf buf = packet.content();
 
+        if (context.messenger().getOptions().getOrDefault(SourceQueryOptions.LAZY_DECODING)) {
+            debug("Indexing A2S_INFO response (Reader Index: {}, Readable bytes: {})", buf.readerIndex(), buf.readableBytes());
+            return new SourceQueryInfoResponse(new SourceServerView(context.properties().remoteAddress(), buf, getStringPool(ctx)));
+        }
+
         final SourceServer info = new SourceServer();
 
         info.setAddress(context.properties().remoteAddress());
@@ -69,12 +76,14 @@ public class SourceQueryInfoDecoder extends SourceQueryAuthDecoder<SourceQueryIn
         //NOTE: Some servers return an empty response. If this is the case, we skip the decoding process and simply return SourceServer instance
         if (buf.isReadable()) {
             debug("Attempting to decode A2S_INFO response (Reader Index: {}, Readable bytes: {})", buf.readerIndex(), buf.readableBytes());
+            final StringPool pool = getStringPool(ctx);
+            final Function<ByteBuf, String> readPooledString = b -> Netty.readString(b, StandardCharsets.UTF_8, pool);
 
             decodeField("protocol", buf, buf::readUnsignedByte, info::setNetworkVersion, Short::byteValue);
             decodeField("name", buf, Netty::readString, info::setName);
-            decodeField("mapName", buf, Netty::readString, info::setMapName);
-            decodeField("gameDirectory", buf, Netty::readString, info::setGameDirectory);
-            decodeField("gameDescription", buf, Netty::readString, info::setGameDescription);
+            decodeField("mapName", buf, readPooledString, info::setMapName);
+            decodeField("gameDirectory", buf, readPooledString, info::setGameDirectory);
+            decodeField("gameDescription", buf, readPooledString, info::setGameDescription);
             decodeField("appId", buf, buf::readShortLE, info::setAppId, Short::intValue);
             decodeField("playerCount", buf, buf::readUnsignedByte, info::setNumOfPlayers, Short::intValue);
             decodeField("maxPlayerCount", buf, buf::readUnsignedByte, info::setMaxPlayers, Short::intValue);
@@ -85,7 +94,7 @@ public class SourceQueryInfoDecoder extends SourceQueryAuthDecoder<SourceQueryIn
             decodeField("operatingSystem", buf, READ_ASCII_BYTE_STR, info::setOperatingSystem); //l = linux, w = windows, m = mac
             decodeField("isPrivateServer", buf, buf::readByte, info::setPrivateServer, IS_PRIVATE_SERVER); //0 = public, 1 = private
             decodeField("isSecure", buf, buf::readByte, info::setSecure, IS_VAC); //0 = unsecured, 1 = secured
-            decodeField("gameVersion", buf, Netty::readString, info::setGameVersion);
+            decodeField("gameVersion", buf, readPooledString, info::setGameVersion);
 
             //do we still have more bytes to process?
             if (!buf.isReadable()) {
@@ -98,7 +107,7 @@ public class SourceQueryInfoDecoder extends SourceQueryAuthDecoder<SourceQueryIn
             decodeFlag("edfServerSteamId", buf, flags, A2S_INFO_EDF_STEAMID, buf::readLongLE, info::setServerId);
             decodeFlag("edfSourceTvPort", buf, flags, A2S_INFO_EDF_SOURCETV, buf::readShortLE, info::setTvPort, Short::intValue);
             decodeFlag("edfSourceTvName", buf, flags, A2S_INFO_EDF_SOURCETV, Netty::readString, info::setTvName);
-            decodeFlag("edfServerTags", buf, flags, A2S_INFO_EDF_TAGS, Netty::readString, info::setServerTags);
+            decodeFlag("edfServerTags", buf, flags, A2S_INFO_EDF_TAGS, readPooledString, info::setServerTags);
             decodeFlag("edfAppId64", buf, flags, A2S_INFO_EDF_GAMEID, buf::readLongLE, info::setGameId);
         } else {
             debug("Received an empty INFO response");
@@ -34,4 +34,17 @@ public class SourceQueryInfoResponse extends SourceQueryResponse<SourceServer> {
     public SourceQueryInfoResponse(SourceServer sourceServer) {
         super(sourceServer);
     }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean isCopyable() {
+        return true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public SourceQueryInfoResponse copy() {
+        SourceServer server = getResult();
+        return copyProperties(new SourceQueryInfoResponse(server != null ? new SourceServer(server) : null));
+    }
 }
@@ -70,6 +70,43 @@ public class SourceServer {
 
     private boolean sourceTvProxy;
 
+    /**
+     * <p>Constructor for SourceServer.</p>
+     */
+    public SourceServer() {
+    }
+
+    /**
+     * <p>Copy constructor for SourceServer. The values are read through the getters of the provided instance, so lazily decoded fields are materialized in the copy.</p>
+     *
+     * @param other
+     *         The {@link SourceServer} to copy the values from
+     */
+    public SourceServer(SourceServer other) {
+        this.name = other.getName();
+        this.networkVersion = other.getNetworkVersion();
+        this.mapName = other.getMapName();
+        this.gameDirectory = other.getGameDirectory();
+        this.gameDescription = other.getGameDescription();
+        this.appId = other.getAppId();
+        this.numOfPlayers = other.getNumOfPlayers();
+        this.maxPlayers = other.getMaxPlayers();
+        this.numOfBots = other.getNumOfBots();
+        this.dedicated = other.isDedicated();
+        this.operatingSystem = other.getOperatingSystem();
+        this.secure = other.isSecure();
+        this.gameVersion = other.getGameVersion();
+        this.serverId = other.getServerId();
+        this.tvPort = other.getTvPort();
+        this.tvName = other.getTvName();
+        this.serverTags = other.getServerTags();
+        this.gameId = other.getGameId();
+        this.address = other.getAddress();
+        this.privateServer = other.isPrivateServer();
+        this.gamePort = other.getGamePort();
+        this.sourceTvProxy = other.isSourceTvProxy();
+    }
+
     /**
      * <p>Specifies if the server is a private server and password protected</p>
      *
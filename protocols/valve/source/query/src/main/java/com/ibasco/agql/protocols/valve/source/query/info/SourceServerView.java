@@ -0,0 +1,299 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.protocols.valve.source.query.info;
+
+import static com.ibasco.agql.protocols.valve.source.query.SourceQuery.A2S_INFO_EDF_GAMEID;
+import static com.ibasco.agql.protocols.valve.source.query.SourceQuery.A2S_INFO_EDF_PORT;
+import static com.ibasco.agql.protocols.valve.source.query.SourceQuery.A2S_INFO_EDF_SOURCETV;
+import static com.ibasco.agql.protocols.valve.source.query.SourceQuery.A2S_INFO_EDF_STEAMID;
+import static com.ibasco.agql.protocols.valve.source.query.SourceQuery.A2S_INFO_EDF_TAGS;
+import com.ibasco.agql.core.util.StringPool;
+import io.netty.buffer.ByteBuf;
+import java.net.InetSocketAddress;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A {@link SourceServer} backed by a copy of the raw A2S_INFO payload. Numeric fields are decoded up-front while building an offset index of the string fields in a single pass,
+ * the string fields are only decoded on first access.
+ *
+ * @see com.ibasco.agql.protocols.valve.source.query.SourceQueryOptions#LAZY_DECODING
+ */
+final class SourceServerView extends SourceServer {
+
+    private static final int NAME = 0;
+
+    private static final int MAP_NAME = 1;
+
+    private static final int GAME_DIRECTORY = 2;
+
+    private static final int GAME_DESCRIPTION = 3;
+
+    private static final int OPERATING_SYSTEM = 4;
+
+    private static final int GAME_VERSION = 5;
+
+    private static final int TV_NAME = 6;
+
+    private static final int SERVER_TAGS = 7;
+
+    private static final int FIELD_COUNT = 8;
+
+    private final byte[] data;
+
+    /**
+     * Offset and length pairs of the string fields within {@link #data}. An offset of -1 means the field is not present.
+     */
+    private final int[] index = new int[FIELD_COUNT * 2];
+
+    /**
+     * Pool used for the low cardinality string fields (may be {@code null})
+     */
+    private final StringPool pool;
+
+    /**
+     * Bit mask of the string fields that have either been decoded or explicitly set
+     */
+    private volatile int materialized;
+
+    SourceServerView(InetSocketAddress address, ByteBuf payload, StringPool pool) {
+        this.pool = pool;
+        this.data = new byte[payload.readableBytes()];
+        payload.readBytes(data);
+        Arrays.fill(index, -1);
+        setAddress(address);
+        index();
+    }
+
+    private void index() {
+        final int length = data.length;
+        if (length < 1)
+            return;
+        int pos = 0;
+        setNetworkVersion(data[pos++]);
+        if ((pos = string(NAME, pos)) < 0 || (pos = string(MAP_NAME, pos)) < 0 || (pos = string(GAME_DIRECTORY, pos)) < 0 || (pos = string(GAME_DESCRIPTION, pos)) < 0)
+            return;
+        if (pos + 9 > length)
+            return;
+        setAppId(shortLE(pos));
+        setNumOfPlayers(data[pos + 2] & 0xff);
+        setMaxPlayers(data[pos + 3] & 0xff);
+        setNumOfBots(data[pos + 4] & 0xff);
+        int serverType = Character.toLowerCase(data[pos + 5]);
+        setSourceTvProxy(serverType == 'p');
+        setDedicated(serverType == 'd');
+        index[OPERATING_SYSTEM * 2] = pos + 6;
+        index[OPERATING_SYSTEM * 2 + 1] = 1;
+        setPrivateServer(data[pos + 7] != 0);
+        setSecure(data[pos + 8] == 1);
+        if ((pos = string(GAME_VERSION, pos + 9)) < 0 || pos >= length)
+            return;
+
+        //extra data flags
+        int flags = data[pos++] & 0xff;
+        if ((flags & A2S_INFO_EDF_PORT) != 0) {
+            if (pos + 2 > length)
+                return;
+            setGamePort(shortLE(pos) & 0xffff);
+            pos += 2;
+        }
+        if ((flags & A2S_INFO_EDF_STEAMID) != 0) {
+            if (pos + 8 > length)
+                return;
+            setServerId(longLE(pos));
+            pos += 8;
+        }
+        if ((flags & A2S_INFO_EDF_SOURCETV) != 0) {
+            if (pos + 2 > length)
+                return;
+            setTvPort(shortLE(pos));
+            if ((pos = string(TV_NAME, pos + 2)) < 0)
+                return;
+        }
+        if ((flags & A2S_INFO_EDF_TAGS) != 0 && (pos = string(SERVER_TAGS, pos)) < 0)
+            return;
+        if ((flags & A2S_INFO_EDF_GAMEID) != 0 && pos + 8 <= length)
+            setGameId(longLE(pos));
+    }
+
+    /**
+     * Index a null-terminated string
+     *
+     * @return The position after the null-terminator or -1 if the string is not terminated
+     */
+    private int string(int field, int pos) {
+        for (int i = pos; i < data.length; i++) {
+            if (data[i] == 0) {
+                index[field * 2] = pos;
+                index[field * 2 + 1] = i - pos;
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    private short shortLE(int pos) {
+        return (short) ((data[pos] & 0xff) | (data[pos + 1] & 0xff) << 8);
+    }
+
+    private long longLE(int pos) {
+        long value = 0;
+        for (int i = 7; i >= 0; i--)
+            value = (value << 8) | (data[pos + i] & 0xff);
+        return value;
+    }
+
+    private boolean pending(int field) {
+        return (materialized & (1 << field)) == 0;
+    }
+
+    private String decode(int field) {
+        int offset = index[field * 2];
+        if (offset < 0)
+            return null;
+        Charset charset = field == OPERATING_SYSTEM ? StandardCharsets.US_ASCII : StandardCharsets.UTF_8;
+        //the server name and the source tv name are unique to each server, so there is nothing to gain from pooling them
+        if (pool == null || field == NAME || field == TV_NAME)
+            return new String(data, offset, index[field * 2 + 1], charset);
+        return pool.get(data, offset, index[field * 2 + 1], charset);
+    }
+
+    private synchronized void markMaterialized(int field) {
+        materialized |= 1 << field;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getName() {
+        if (pending(NAME))
+            setName(decode(NAME));
+        return super.getName();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void setName(String name) {
+        super.setName(name);
+        markMaterialized(NAME);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getMapName() {
+        if (pending(MAP_NAME))
+            setMapName(decode(MAP_NAME));
+        return super.getMapName();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void setMapName(String mapName) {
+        super.setMapName(mapName);
+        markMaterialized(MAP_NAME);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getGameDirectory() {
+        if (pending(GAME_DIRECTORY))
+            setGameDirectory(decode(GAME_DIRECTORY));
+        return super.getGameDirectory();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void setGameDirectory(String gameDirectory) {
+        super.setGameDirectory(gameDirectory);
+        markMaterialized(GAME_DIRECTORY);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getGameDescription() {
+        if (pending(GAME_DESCRIPTION))
+            setGameDescription(decode(GAME_DESCRIPTION));
+        return super.getGameDescription();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void setGameDescription(String gameDescription) {
+        super.setGameDescription(gameDescription);
+        markMaterialized(GAME_DESCRIPTION);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getOperatingSystem() {
+        if (pending(OPERATING_SYSTEM))
+            setOperatingSystem(decode(OPERATING_SYSTEM));
+        return super.getOperatingSystem();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void setOperatingSystem(String operatingSystem) {
+        super.setOperatingSystem(operatingSystem);
+        markMaterialized(OPERATING_SYSTEM);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getGameVersion() {
+        if (pending(GAME_VERSION))
+            setGameVersion(decode(GAME_VERSION));
+        return super.getGameVersion();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void setGameVersion(String gameVersion) {
+        super.setGameVersion(gameVersion);
+        markMaterialized(GAME_VERSION);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getTvName() {
+        if (pending(TV_NAME))
+            setTvName(decode(TV_NAME));
+        return super.getTvName();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void setTvName(String tvName) {
+        super.setTvName(tvName);
+        markMaterialized(TV_NAME);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getServerTags() {
+        if (pending(SERVER_TAGS))
+            setServerTags(decode(SERVER_TAGS));
+        return super.getServerTags();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void setServerTags(String serverTags) {
+        super.setServerTags(serverTags);
+        markMaterialized(SERVER_TAGS);
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.protocols.valve.source.query.players;
+
+import io.netty.buffer.ByteBuf;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * An unmodifiable list of {@link SourcePlayer} backed by a copy of the raw A2S_PLAYER payload. The offset of each player entry is indexed in a single pass,
+ * the {@link SourcePlayer} instances are only created on first access and the player names are only decoded once {@link SourcePlayer#getName()} is called.
+ *
+ * @see com.ibasco.agql.protocols.valve.source.query.SourceQueryOptions#LAZY_DECODING
+ */
+final class SourcePlayerList extends AbstractList<SourcePlayer> implements RandomAccess {
+
+    /**
+     * Minimum size of a player entry (index, name terminator, score and duration)
+     */
+    private static final int MIN_ENTRY_SIZE = 10;
+
+    private final byte[] data;
+
+    /**
+     * Offset of the name of each player entry
+     */
+    private final int[] offsets;
+
+    /**
+     * Length of the name of each player entry (excluding the null-terminator)
+     */
+    private final int[] lengths;
+
+    private final int size;
+
+    private final SourcePlayer[] players;
+
+    SourcePlayerList(ByteBuf payload) {
+        this.data = new byte[payload.readableBytes()];
+        payload.readBytes(data);
+        int count = data.length > 0 ? data[0] & 0xff : 0;
+        this.offsets = new int[count];
+        this.lengths = new int[count];
+        this.players = new SourcePlayer[count];
+        int pos = 1, indexed = 0;
+        while (indexed < count && data.length - pos >= MIN_ENTRY_SIZE) {
+            int end = pos + 1;
+            while (end < data.length && data[end] != 0)
+                end++;
+            //name must be terminated and followed by the score and duration
+            if (end + 9 > data.length)
+                break;
+            offsets[indexed] = pos + 1;
+            lengths[indexed] = end - pos - 1;
+            indexed++;
+            pos = end + 9;
+        }
+        this.size = indexed;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public SourcePlayer get(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException(String.format("Index: %d, Size: %d", index, size));
+        SourcePlayer player = players[index];
+        if (player == null) {
+            int offset = offsets[index];
+            int end = offset + lengths[index] + 1;
+            player = new LazySourcePlayer(data[offset - 1] & 0xff, intLE(end), Float.intBitsToFloat(intLE(end + 4)), offset, lengths[index]);
+            players[index] = player;
+        }
+        return player;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private int intLE(int pos) {
+        return (data[pos] & 0xff) | (data[pos + 1] & 0xff) << 8 | (data[pos + 2] & 0xff) << 16 | (data[pos + 3] & 0xff) << 24;
+    }
+
+    /**
+     * A {@link SourcePlayer} decoding its name from the shared payload on first access
+     */
+    private final class LazySourcePlayer extends SourcePlayer {
+
+        private final int offset;
+
+        private final int length;
+
+        private volatile String name;
+
+        private LazySourcePlayer(int index, int score, float duration, int offset, int length) {
+            super(index, null, score, duration);
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public String getName() {
+            String name = this.name;
+            if (name == null)
+                this.name = name = new String(data, offset, length, StandardCharsets.UTF_8);
+            return name;
+        }
+    }
+}
@@ -17,6 +17,7 @@
 package com.ibasco.agql.protocols.valve.source.query.players;
 
 import com.ibasco.agql.protocols.valve.source.query.common.message.SourceQueryResponse;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -35,4 +36,18 @@ public class SourceQueryPlayerResponse extends SourceQueryResponse<List<SourcePl
     public SourceQueryPlayerResponse(List<SourcePlayer> players) {
         super(players);
     }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean isCopyable() {
+        return true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public SourceQueryPlayerResponse copy() {
+        //note: player instances are immutable, so only the list needs to be copied
+        List<SourcePlayer> players = getResult();
+        return copyProperties(new SourceQueryPlayerResponse(players != null ? new ArrayList<>(players) : null));
+    }
 }
@@ -16,8 +16,10 @@
 
 package com.ibasco.agql.protocols.valve.source.query.players;
 
+import com.ibasco.agql.core.NettyChannelContext;
 import com.ibasco.agql.core.util.Netty;
 import com.ibasco.agql.protocols.valve.source.query.SourceQuery;
+import com.ibasco.agql.protocols.valve.source.query.SourceQueryOptions;
 import com.ibasco.agql.protocols.valve.source.query.common.handlers.SourceQueryAuthDecoder;
 import com.ibasco.agql.protocols.valve.source.query.common.packets.SourceQuerySinglePacket;
 import io.netty.buffer.ByteBuf;
@@ -47,6 +49,11 @@ public class SourceQueryPlayersDecoder extends SourceQueryAuthDecoder<SourceQuer
     @Override
     protected Object decodeQueryPacket(ChannelHandlerContext ctx, SourceQueryPlayerRequest request, SourceQuerySinglePacket packet) throws Exception {
         ByteBuf payload = packet.content();
+        NettyChannelContext context = NettyChannelContext.getContext(ctx.channel());
+        if (context.messenger().getOptions().getOrDefault(SourceQueryOptions.LAZY_DECODING)) {
+            debug(log, "Indexing player payload data (Readable bytes: {})", payload.readableBytes());
+            return new SourceQueryPlayerResponse(new SourcePlayerList(payload));
+        }
         ArrayList<SourcePlayer> playerList = new ArrayList<>();
         //some servers send an empty info response packet, so we also return an empty response
         if (payload.readableBytes() > 0) {
@@ -18,14 +18,17 @@ package com.ibasco.agql.protocols.valve.source.query.rules;
 
 import com.ibasco.agql.core.util.Netty;
 import com.ibasco.agql.core.util.Pair;
+import com.ibasco.agql.core.util.StringPool;
 import com.ibasco.agql.core.util.Strings;
 import com.ibasco.agql.protocols.valve.source.query.SourceQuery;
 import com.ibasco.agql.protocols.valve.source.query.common.handlers.SourceQueryAuthDecoder;
 import com.ibasco.agql.protocols.valve.source.query.common.packets.SourceQuerySinglePacket;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Function;
 
 /**
  * <p>SourceQueryRulesDecoder class.</p>
@@ -52,14 +55,16 @@ public class SourceQueryRulesDecoder extends SourceQueryAuthDecoder<SourceQueryR
         if (payload.isReadable()) {
             if (isDebugEnabled())
                 debug("RULES Dump\n{}", Netty.prettyHexDump(payload));
+            final StringPool pool = getStringPool(ctx);
+            final Function<ByteBuf, String> readPooledString = b -> Netty.readString(b, StandardCharsets.UTF_8, pool);
             expectedCount = payload.readShortLE();
             for (int i = 0; i < expectedCount; i++) {
                 //make sure we have more data to read
                 if (!payload.isReadable())
                     break;
                 Pair<String, String> rule = new Pair<>();
-                decodeField("ruleName", payload, Netty::readString, rule::setFirst, null);
-                decodeField("ruleValue", payload, Netty::readString, rule::setSecond, null);
+                decodeField("ruleName", payload, readPooledString, rule::setFirst, null);
+                decodeField("ruleValue", payload, readPooledString, rule::setSecond, null);
                 if (!Strings.isBlank(rule.getFirst()) && !Strings.isBlank(rule.getSecond()))
                     rules.put(rule.getFirst(), rule.getSecond());
             }
@@ -17,6 +17,7 @@
 package com.ibasco.agql.protocols.valve.source.query.rules;
 
 import com.ibasco.agql.protocols.valve.source.query.common.message.SourceQueryResponse;
+import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -49,4 +50,17 @@ public class SourceQueryRulesResponse extends SourceQueryResponse<Map<String, St
     public final int getExpectedCount() {
         return expectedCount;
     }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean isCopyable() {
+        return true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public SourceQueryRulesResponse copy() {
+        Map<String, String> rules = getResult();
+        return copyProperties(new SourceQueryRulesResponse(rules != null ? new HashMap<>(rules) : null, expectedCount));
+    }
 }
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.protocols.valve.source.query;
+
+import com.ibasco.agql.protocols.valve.source.query.common.message.SourceQueryRequest;
+import com.ibasco.agql.protocols.valve.source.query.common.message.SourceQueryResponse;
+import com.ibasco.agql.protocols.valve.source.query.info.SourceQueryInfoRequest;
+import com.ibasco.agql.protocols.valve.source.query.info.SourceQueryInfoResponse;
+import com.ibasco.agql.protocols.valve.source.query.info.SourceServer;
+import com.ibasco.agql.protocols.valve.source.query.players.SourceQueryPlayerRequest;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiFunction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SourceQueryCoalescerTest {
+
+    private static final InetSocketAddress FIRST = new InetSocketAddress("10.0.0.1", 27015);
+
+    private static final InetSocketAddress SECOND = new InetSocketAddress("10.0.0.2", 27015);
+
+    private SourceQueryCoalescer coalescer;
+
+    private List<CompletableFuture<SourceQueryResponse<?>>> sent;
+
+    private BiFunction<InetSocketAddress, SourceQueryRequest, CompletableFuture<SourceQueryResponse<?>>> sender;
+
+    @BeforeEach
+    void setUp() {
+        coalescer = new SourceQueryCoalescer();
+        sent = new ArrayList<>();
+        sender = (address, request) -> {
+            CompletableFuture<SourceQueryResponse<?>> future = new CompletableFuture<>();
+            sent.add(future);
+            return future;
+        };
+    }
+
+    @Test
+    @DisplayName("Only requests of the same type, challenge and server are coalesced into a single query")
+    void testKey() {
+        coalescer.send(FIRST, new SourceQueryInfoRequest(), sender);
+        coalescer.send(FIRST, new SourceQueryInfoRequest(), sender);
+        assertEquals(1, sent.size());
+        coalescer.send(SECOND, new SourceQueryInfoRequest(), sender);
+        coalescer.send(FIRST, new SourceQueryPlayerRequest(), sender);
+        coalescer.send(FIRST, new SourceQueryInfoRequest(1234), sender);
+        assertEquals(4, sent.size());
+
+        //once completed, the next request triggers a new query
+        sent.get(0).complete(response(FIRST, new SourceQueryInfoRequest()));
+        coalescer.send(FIRST, new SourceQueryInfoRequest(), sender);
+        assertEquals(5, sent.size());
+    }
+
+    @Test
+    @DisplayName("Each caller receives its own copy of the response which carries the request of the caller")
+    void testCopies() {
+        SourceQueryInfoRequest firstRequest = new SourceQueryInfoRequest();
+        SourceQueryInfoRequest secondRequest = new SourceQueryInfoRequest();
+        CompletableFuture<SourceQueryResponse<?>> first = coalescer.send(FIRST, firstRequest, sender);
+        CompletableFuture<SourceQueryResponse<?>> second = coalescer.send(FIRST, secondRequest, sender);
+        SourceQueryInfoResponse response = response(FIRST, firstRequest);
+        sent.get(0).complete(response);
+
+        SourceQueryInfoResponse firstResponse = (SourceQueryInfoResponse) first.join();
+        SourceQueryInfoResponse secondResponse = (SourceQueryInfoResponse) second.join();
+        assertSame(firstRequest, firstResponse.getRequest());
+        assertSame(secondRequest, secondResponse.getRequest());
+        assertEquals(FIRST, secondResponse.getAddress());
+        assertNotSame(firstResponse.getResult(), secondResponse.getResult());
+        firstResponse.getResult().setName("Modified");
+        assertEquals("Server", secondResponse.getResult().getName());
+    }
+
+    @Test
+    @DisplayName("A failed query is reported to every attached caller")
+    void testFailure() {
+        List<CompletableFuture<SourceQueryResponse<?>>> futures = new ArrayList<>();
+        for (int i = 0; i < 3; i++)
+            futures.add(coalescer.send(FIRST, new SourceQueryInfoRequest(), sender));
+        IllegalStateException error = new IllegalStateException("Query failed");
+        sent.get(0).completeExceptionally(error);
+        for (CompletableFuture<SourceQueryResponse<?>> future : futures) {
+            CompletionException thrown = assertThrows(CompletionException.class, future::join);
+            assertSame(error, thrown.getCause());
+        }
+        assertEquals(1, sent.size());
+    }
+
+    @Test
+    @DisplayName("Attached requests are sent on their own if the response can not be copied")
+    void testNotCopyable() {
+        SourceQueryInfoRequest firstRequest = new SourceQueryInfoRequest();
+        CompletableFuture<SourceQueryResponse<?>> first = coalescer.send(FIRST, firstRequest, sender);
+        CompletableFuture<SourceQueryResponse<?>> second = coalescer.send(FIRST, new SourceQueryInfoRequest(), sender);
+        UncopyableResponse response = new UncopyableResponse();
+        sent.get(0).complete(response);
+        assertSame(response, first.join());
+        assertEquals(2, sent.size());
+        assertFalse(second.isDone());
+        UncopyableResponse secondResponse = new UncopyableResponse();
+        sent.get(1).complete(secondResponse);
+        assertSame(secondResponse, second.join());
+    }
+
+    private static SourceQueryInfoResponse response(InetSocketAddress address, SourceQueryRequest request) {
+        SourceServer server = new SourceServer();
+        server.setName("Server");
+        SourceQueryInfoResponse response = new SourceQueryInfoResponse(server);
+        response.setAddress(address);
+        response.setRequest(request);
+        return response;
+    }
+
+    private static final class UncopyableResponse extends SourceQueryResponse<String> {
+
+        private UncopyableResponse() {
+            super("Uncopyable");
+        }
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.protocols.valve.source.query;
+
+import com.ibasco.agql.protocols.valve.source.query.SourceQueryPipeline.Stage;
+import com.ibasco.agql.protocols.valve.source.query.common.message.SourceQueryResponse;
+import com.ibasco.agql.protocols.valve.source.query.info.SourceQueryInfoResponse;
+import com.ibasco.agql.protocols.valve.source.query.info.SourceServer;
+import com.ibasco.agql.protocols.valve.source.query.players.SourcePlayer;
+import com.ibasco.agql.protocols.valve.source.query.players.SourceQueryPlayerResponse;
+import com.ibasco.agql.protocols.valve.source.query.rules.SourceQueryRulesResponse;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscription;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SourceQueryCrawlerTest {
+
+    private static final InetSocketAddress ADDRESS = new InetSocketAddress("10.0.0.1", 27015);
+
+    private SourceServer info;
+
+    private List<SourcePlayer> players;
+
+    private Map<String, String> rules;
+
+    private boolean online;
+
+    private Map<Stage, AtomicInteger> queries;
+
+    private List<SourceServerDelta> deltas;
+
+    @BeforeEach
+    void setUp() {
+        info = new SourceServer();
+        info.setName("Server");
+        info.setMapName("de_dust2");
+        info.setGameVersion("1.0");
+        info.setNumOfPlayers(1);
+        info.setMaxPlayers(16);
+        players = new ArrayList<>(Collections.singletonList(new SourcePlayer(0, "Player", 0, 0)));
+        rules = new HashMap<>(Collections.singletonMap("sv_gravity", "800"));
+        online = true;
+        queries = new EnumMap<>(Stage.class);
+        for (Stage stage : Stage.values())
+            queries.put(stage, new AtomicInteger());
+        deltas = new ArrayList<>();
+    }
+
+    @Test
+    @DisplayName("A player joining re-queries the players but not the rules, a map change re-queries both")
+    void testRulesKey() {
+        SourceQueryCrawler crawler = crawler(60000, 60000, 1);
+        crawl(crawler);
+        assertDelta(SourceServerDelta.Type.ADDED, EnumSet.allOf(Stage.class));
+
+        info.setNumOfPlayers(2);
+        players.add(new SourcePlayer(1, "Joined", 0, 0));
+        crawl(crawler);
+        assertEquals(2, queries.get(Stage.PLAYERS).get());
+        assertEquals(1, queries.get(Stage.RULES).get());
+        assertDelta(SourceServerDelta.Type.CHANGED, EnumSet.of(Stage.INFO, Stage.PLAYERS));
+
+        info.setMapName("de_inferno");
+        crawl(crawler);
+        assertEquals(3, queries.get(Stage.PLAYERS).get());
+        assertEquals(2, queries.get(Stage.RULES).get());
+        assertDelta(SourceServerDelta.Type.CHANGED, EnumSet.of(Stage.INFO));
+
+        //nothing has changed, nothing is queried besides the info
+        crawl(crawler);
+        assertEquals(4, queries.get(Stage.INFO).get());
+        assertEquals(3, queries.get(Stage.PLAYERS).get());
+        assertEquals(2, queries.get(Stage.RULES).get());
+        assertTrue(deltas.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Changes are detected by value, even if the old and new values share the same hash code")
+    void testHashCollisions() {
+        //"Aa" and "BB" have the same hash code
+        SourceQueryCrawler crawler = crawler(0, 0, 1);
+        info.setName("Aa");
+        players.set(0, new SourcePlayer(0, "Aa", 0, 0));
+        rules.put("sv_gravity", "Aa");
+        crawl(crawler);
+        assertDelta(SourceServerDelta.Type.ADDED, EnumSet.allOf(Stage.class));
+
+        info.setName("BB");
+        crawl(crawler);
+        assertDelta(SourceServerDelta.Type.CHANGED, EnumSet.of(Stage.INFO));
+
+        players.set(0, new SourcePlayer(0, "BB", 0, 0));
+        crawl(crawler);
+        assertDelta(SourceServerDelta.Type.CHANGED, EnumSet.of(Stage.PLAYERS));
+
+        rules.put("sv_gravity", "BB");
+        crawl(crawler);
+        assertDelta(SourceServerDelta.Type.CHANGED, EnumSet.of(Stage.RULES));
+    }
+
+    @Test
+    @DisplayName("A server is only removed once it has failed to respond on consecutive crawls")
+    void testConsecutiveFailures() {
+        SourceQueryCrawler crawler = crawler(60000, 60000, 3);
+        crawl(crawler);
+        assertDelta(SourceServerDelta.Type.ADDED, EnumSet.allOf(Stage.class));
+
+        //a single failure keeps the last known state and is not reported
+        online = false;
+        crawl(crawler);
+        assertTrue(deltas.isEmpty());
+        assertNotNull(crawler.get(ADDRESS));
+        online = true;
+        crawl(crawler);
+        assertTrue(deltas.isEmpty());
+
+        online = false;
+        crawl(crawler);
+        crawl(crawler);
+        assertTrue(deltas.isEmpty());
+        crawl(crawler);
+        assertDelta(SourceServerDelta.Type.REMOVED, EnumSet.allOf(Stage.class));
+        assertNull(crawler.get(ADDRESS));
+        assertEquals(0, crawler.size());
+    }
+
+    @Test
+    @DisplayName("Servers no longer emitted by the source are removed after the crawl")
+    void testPrune() {
+        SourceQueryCrawler crawler = crawler(60000, 60000, 3);
+        crawl(crawler);
+        assertDelta(SourceServerDelta.Type.ADDED, EnumSet.allOf(Stage.class));
+        crawler.crawl(source(Collections.emptyList()), deltas::add).join();
+        assertDelta(SourceServerDelta.Type.REMOVED, EnumSet.allOf(Stage.class));
+    }
+
+    private SourceQueryCrawler crawler(long playersMaxAge, long rulesMaxAge, int maxFailures) {
+        SourceQueryPipeline.Builder builder = new SourceQueryPipeline.Builder((stage, address) -> {
+            queries.get(stage).incrementAndGet();
+            CompletableFuture<SourceQueryResponse<?>> future = new CompletableFuture<>();
+            if (!online)
+                future.completeExceptionally(new TimeoutException());
+            else
+                future.complete(response(stage));
+            return future;
+        }, 4, 0);
+        return new SourceQueryCrawler(builder, playersMaxAge, rulesMaxAge, maxFailures);
+    }
+
+    private void crawl(SourceQueryCrawler crawler) {
+        crawler.crawl(source(Collections.singletonList(ADDRESS)), deltas::add).join();
+    }
+
+    private void assertDelta(SourceServerDelta.Type type, EnumSet<Stage> changes) {
+        assertEquals(1, deltas.size(), "Unexpected deltas: " + deltas);
+        SourceServerDelta delta = deltas.remove(0);
+        assertEquals(type, delta.getType());
+        assertEquals(changes, delta.getChanges());
+    }
+
+    /**
+     * @return A copy of the current state of the server, so later modifications by the test are not visible in the records of the crawler
+     */
+    private SourceQueryResponse<?> response(Stage stage) {
+        switch (stage) {
+            case INFO:
+                SourceServer copy = new SourceServer();
+                copy.setName(info.getName());
+                copy.setMapName(info.getMapName());
+                copy.setGameVersion(info.getGameVersion());
+                copy.setNumOfPlayers(info.getNumOfPlayers());
+                copy.setMaxPlayers(info.getMaxPlayers());
+                return new SourceQueryInfoResponse(copy);
+            case PLAYERS:
+                return new SourceQueryPlayerResponse(new ArrayList<>(players));
+            default:
+                return new SourceQueryRulesResponse(new HashMap<>(rules), rules.size());
+        }
+    }
+
+    private static Publisher<InetSocketAddress> source(List<InetSocketAddress> addresses) {
+        return subscriber -> subscriber.onSubscribe(new Subscription() {
+            private boolean done;
+
+            @Override
+            public void request(long n) {
+                if (done)
+                    return;
+                done = true;
+                addresses.forEach(subscriber::onNext);
+                subscriber.onComplete();
+            }
+
+            @Override
+            public void cancel() {
+                done = true;
+            }
+        });
+    }
+}
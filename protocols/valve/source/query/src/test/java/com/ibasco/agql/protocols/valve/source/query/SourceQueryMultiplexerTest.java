@@ -0,0 +1,300 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.protocols.valve.source.query;
+
+import com.ibasco.agql.core.exceptions.MaxAttemptsReachedException;
+import com.ibasco.agql.core.util.FailsafeOptions;
+import com.ibasco.agql.core.util.GeneralOptions;
+import com.ibasco.agql.core.util.Option;
+import com.ibasco.agql.core.util.Platform;
+import com.ibasco.agql.protocols.valve.source.query.common.message.SourceQueryResponse;
+import com.ibasco.agql.protocols.valve.source.query.info.SourceQueryInfoRequest;
+import com.ibasco.agql.protocols.valve.source.query.info.SourceQueryInfoResponse;
+import com.ibasco.agql.protocols.valve.source.query.players.SourceQueryPlayerRequest;
+import com.ibasco.agql.protocols.valve.source.query.players.SourceQueryPlayerResponse;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SourceQueryMultiplexerTest {
+
+    private static final int CHALLENGE = 0x12345678;
+
+    private FakeServer first;
+
+    private FakeServer second;
+
+    private SourceQueryMessenger messenger;
+
+    private SourceQueryMultiplexer multiplexer;
+
+    @BeforeAll
+    static void setUpAll() {
+        Platform.initialize();
+        Option.initialize(SourceQueryOptions.class);
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        first = new FakeServer();
+        second = new FakeServer();
+        messenger = new SourceQueryMessenger(SourceQueryOptions.builder().option(FailsafeOptions.FAILSAFE_ENABLED, false).build());
+        //a single channel is shared by both servers
+        multiplexer = new SourceQueryMultiplexer(messenger, 1, 2000, null);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        multiplexer.close();
+        messenger.close();
+        first.close();
+        second.close();
+    }
+
+    @Test
+    @DisplayName("Responses are routed to the pending request by the address of the sender and the response type")
+    void testDemultiplexing() throws Exception {
+        CompletableFuture<SourceQueryResponse<?>> firstInfo = multiplexer.send(first.address(), new SourceQueryInfoRequest(), 1);
+        CompletableFuture<SourceQueryResponse<?>> firstPlayers = multiplexer.send(first.address(), new SourceQueryPlayerRequest(CHALLENGE), 1);
+        CompletableFuture<SourceQueryResponse<?>> secondInfo = multiplexer.send(second.address(), new SourceQueryInfoRequest(), 1);
+        Received[] firstRequests = {first.receive(), first.receive()};
+        Received secondRequest = second.receive();
+        Received firstInfoRequest = firstRequests[0].header == SourceQuery.SOURCE_QUERY_INFO_REQ ? firstRequests[0] : firstRequests[1];
+        Received firstPlayersRequest = firstRequests[0] == firstInfoRequest ? firstRequests[1] : firstRequests[0];
+        assertEquals(SourceQuery.SOURCE_QUERY_PLAYER_REQ, firstPlayersRequest.header);
+        assertEquals(SourceQuery.SOURCE_QUERY_INFO_REQ, secondRequest.header);
+
+        //reply in the reverse order of the requests
+        second.reply(secondRequest, info("Second"));
+        first.reply(firstPlayersRequest, players("Player"));
+        first.reply(firstInfoRequest, info("First"));
+        assertEquals("Second", ((SourceQueryInfoResponse) get(secondInfo)).getResult().getName());
+        assertEquals("Player", ((SourceQueryPlayerResponse) get(firstPlayers)).getResult().get(0).getName());
+        assertEquals("First", ((SourceQueryInfoResponse) get(firstInfo)).getResult().getName());
+        assertEquals(first.address(), get(firstInfo).getAddress());
+        assertEquals(second.address(), get(secondInfo).getAddress());
+    }
+
+    @Test
+    @DisplayName("A request is queued behind the pending request of the same type until its challenge exchange has been completed")
+    void testQueuedBehindChallenge() throws Exception {
+        CompletableFuture<SourceQueryResponse<?>> queried = multiplexer.send(first.address(), new SourceQueryPlayerRequest(), 1);
+        CompletableFuture<SourceQueryResponse<?>> queued = multiplexer.send(first.address(), new SourceQueryPlayerRequest(), 1);
+        Received request = first.receive();
+        assertEquals(-1, request.challenge);
+        assertNull(first.poll(200));
+
+        first.reply(request, challenge(CHALLENGE));
+        request = first.receive();
+        assertEquals(CHALLENGE, request.challenge);
+        assertNull(first.poll(200));
+        assertFalse(queued.isDone());
+
+        //requests of a different type are not affected by the queue
+        CompletableFuture<SourceQueryResponse<?>> info = multiplexer.send(first.address(), new SourceQueryInfoRequest(), 1);
+        Received infoRequest = first.receive();
+        assertEquals(SourceQuery.SOURCE_QUERY_INFO_REQ, infoRequest.header);
+        first.reply(infoRequest, info("Server"));
+        assertEquals("Server", ((SourceQueryInfoResponse) get(info)).getResult().getName());
+
+        first.reply(request, players("First"));
+        assertEquals("First", ((SourceQueryPlayerResponse) get(queried)).getResult().get(0).getName());
+        request = first.receive();
+        assertEquals(-1, request.challenge);
+        first.reply(request, challenge(CHALLENGE + 1));
+        request = first.receive();
+        assertEquals(CHALLENGE + 1, request.challenge);
+        first.reply(request, players("Second"));
+        assertEquals("Second", ((SourceQueryPlayerResponse) get(queued)).getResult().get(0).getName());
+    }
+
+    @Test
+    @DisplayName("A shared request that has timed out on every attempt reports the number of attempts made")
+    void testMaxAttempts() throws Exception {
+        SourceQueryOptions options = SourceQueryOptions.builder()
+                                                       .option(SourceQueryOptions.SHARED_CHANNELS, true)
+                                                       .option(SourceQueryOptions.SHARED_CHANNEL_COUNT, 1)
+                                                       .option(GeneralOptions.READ_TIMEOUT, 200)
+                                                       .option(FailsafeOptions.FAILSAFE_RATELIMIT_ENABLED, false)
+                                                       .option(FailsafeOptions.FAILSAFE_RETRY_MAX_ATTEMPTS, 2)
+                                                       .option(FailsafeOptions.FAILSAFE_RETRY_DELAY, 10L)
+                                                       .option(FailsafeOptions.FAILSAFE_RETRY_BACKOFF_ENABLED, false)
+                                                       .build();
+        try (SourceQueryMessenger shared = new SourceQueryMessenger(options)) {
+            CompletableFuture<SourceQueryResponse<?>> future = shared.send(first.address(), new SourceQueryInfoRequest());
+            ExecutionException error = assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+            MaxAttemptsReachedException cause = assertInstanceOf(MaxAttemptsReachedException.class, error.getCause());
+            assertEquals(2, cause.getAttemptCount());
+            assertEquals(2, cause.getMaxAttemptCount());
+        }
+        assertNotNull(first.poll(0));
+        assertNotNull(first.poll(0));
+        assertNull(first.poll(0));
+    }
+
+    private static SourceQueryResponse<?> get(CompletableFuture<SourceQueryResponse<?>> future) throws Exception {
+        return future.get(5, TimeUnit.SECONDS);
+    }
+
+    private static byte[] challenge(int challenge) {
+        ByteBuf buf = response(SourceQuery.SOURCE_QUERY_CHALLENGE_RES);
+        buf.writeIntLE(challenge);
+        return ByteBufUtil.getBytes(buf);
+    }
+
+    private static byte[] info(String name) {
+        ByteBuf buf = response(SourceQuery.SOURCE_QUERY_INFO_RES);
+        buf.writeByte(17);
+        writeString(buf, name);
+        writeString(buf, "de_dust2");
+        writeString(buf, "csgo");
+        writeString(buf, "Counter-Strike: Global Offensive");
+        buf.writeShortLE(730);
+        buf.writeByte(1);
+        buf.writeByte(16);
+        buf.writeByte(0);
+        buf.writeByte('d');
+        buf.writeByte('l');
+        buf.writeByte(0);
+        buf.writeByte(1);
+        writeString(buf, "1.0");
+        return ByteBufUtil.getBytes(buf);
+    }
+
+    private static byte[] players(String name) {
+        ByteBuf buf = response(SourceQuery.SOURCE_QUERY_PLAYER_RES);
+        buf.writeByte(1);
+        buf.writeByte(0);
+        writeString(buf, name);
+        buf.writeIntLE(10);
+        buf.writeFloatLE(60f);
+        return ByteBufUtil.getBytes(buf);
+    }
+
+    private static ByteBuf response(int header) {
+        ByteBuf buf = Unpooled.buffer();
+        buf.writeIntLE(-1);
+        buf.writeByte(header);
+        return buf;
+    }
+
+    private static void writeString(ByteBuf buf, String value) {
+        buf.writeCharSequence(value, StandardCharsets.UTF_8);
+        buf.writeByte(0);
+    }
+
+    private static final class Received {
+
+        private final SocketAddress sender;
+
+        private final int header;
+
+        /**
+         * The challenge number of a players request or {@code null} for any other request
+         */
+        private final Integer challenge;
+
+        private Received(DatagramPacket packet) {
+            ByteBuffer data = ByteBuffer.wrap(Arrays.copyOf(packet.getData(), packet.getLength())).order(ByteOrder.LITTLE_ENDIAN);
+            this.sender = packet.getSocketAddress();
+            data.getInt();
+            this.header = data.get();
+            this.challenge = header == SourceQuery.SOURCE_QUERY_PLAYER_REQ ? data.getInt() : null;
+        }
+    }
+
+    /**
+     * A game server that records the incoming requests, the test decides when (and what) to reply
+     */
+    private static final class FakeServer implements AutoCloseable {
+
+        private final DatagramSocket socket;
+
+        private final BlockingQueue<Received> requests = new LinkedBlockingQueue<>();
+
+        private final Thread thread;
+
+        private FakeServer() throws SocketException {
+            socket = new DatagramSocket(0, InetAddress.getLoopbackAddress());
+            thread = new Thread(() -> {
+                byte[] buffer = new byte[1400];
+                while (!socket.isClosed()) {
+                    try {
+                        DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+                        socket.receive(packet);
+                        requests.add(new Received(packet));
+                    } catch (SocketException e) {
+                        return;
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            });
+            thread.start();
+        }
+
+        private InetSocketAddress address() {
+            return (InetSocketAddress) socket.getLocalSocketAddress();
+        }
+
+        private Received receive() throws InterruptedException {
+            Received request = poll(5000);
+            assertNotNull(request, "No request received by the server");
+            return request;
+        }
+
+        private Received poll(long timeout) throws InterruptedException {
+            return requests.poll(timeout, TimeUnit.MILLISECONDS);
+        }
+
+        private void reply(Received request, byte[] data) throws Exception {
+            socket.send(new DatagramPacket(data, data.length, request.sender));
+        }
+
+        @Override
+        public void close() throws Exception {
+            socket.close();
+            thread.join();
+        }
+    }
+}
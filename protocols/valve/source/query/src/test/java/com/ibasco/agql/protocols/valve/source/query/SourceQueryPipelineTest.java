@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.protocols.valve.source.query;
+
+import com.ibasco.agql.protocols.valve.source.query.SourceQueryPipeline.Stage;
+import com.ibasco.agql.protocols.valve.source.query.common.message.SourceQueryResponse;
+import com.ibasco.agql.protocols.valve.source.query.info.SourceQueryInfoResponse;
+import com.ibasco.agql.protocols.valve.source.query.info.SourceServer;
+import com.ibasco.agql.protocols.valve.source.query.players.SourceQueryPlayerResponse;
+import com.ibasco.agql.protocols.valve.source.query.rules.SourceQueryRulesResponse;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SourceQueryPipelineTest {
+
+    private Map<InetSocketAddress, List<Stage>> queried;
+
+    private Queue<CompletableFuture<SourceQueryResponse<?>>> pending;
+
+    private Map<Stage, AtomicInteger> inFlight;
+
+    private Map<Stage, AtomicInteger> maxInFlight;
+
+    private List<SourceServerRecord> records;
+
+    @BeforeEach
+    void setUp() {
+        queried = new ConcurrentHashMap<>();
+        pending = new ConcurrentLinkedQueue<>();
+        inFlight = new EnumMap<>(Stage.class);
+        maxInFlight = new EnumMap<>(Stage.class);
+        for (Stage stage : Stage.values()) {
+            inFlight.put(stage, new AtomicInteger());
+            maxInFlight.put(stage, new AtomicInteger());
+        }
+        records = new CopyOnWriteArrayList<>();
+    }
+
+    @Test
+    @DisplayName("Stages are executed in order regardless of the order they have been configured in")
+    void testStageOrder() {
+        SourceQueryPipeline pipeline = builder(true).rules().info().players().build();
+        List<InetSocketAddress> addresses = addresses(3);
+        pipeline.execute(new TestSource(addresses), records::add).join();
+        assertEquals(addresses.size(), records.size());
+        for (InetSocketAddress address : addresses)
+            assertEquals(Arrays.asList(Stage.INFO, Stage.PLAYERS, Stage.RULES), queried.get(address));
+        for (SourceServerRecord record : records) {
+            assertNotNull(record.getInfo());
+            assertNotNull(record.getPlayers());
+            assertNotNull(record.getRules());
+        }
+    }
+
+    @Test
+    @DisplayName("Stages whose condition is not met are skipped and a failed info query skips the remaining stages")
+    void testSkippedStages() {
+        List<InetSocketAddress> addresses = addresses(2);
+        SourceQueryPipeline pipeline = new SourceQueryPipeline.Builder((stage, address) -> {
+            record(stage, address);
+            CompletableFuture<SourceQueryResponse<?>> future = new CompletableFuture<>();
+            if (address.equals(addresses.get(0)))
+                future.completeExceptionally(new IllegalStateException("Unreachable"));
+            else
+                future.complete(response(stage));
+            return future;
+        }, 4, 0).info().players().stage(Stage.RULES, record -> false).build();
+        pipeline.execute(new TestSource(addresses), records::add).join();
+        assertEquals(Collections.singletonList(Stage.INFO), queried.get(addresses.get(0)));
+        assertEquals(Arrays.asList(Stage.INFO, Stage.PLAYERS), queried.get(addresses.get(1)));
+        assertEquals(2, records.size());
+    }
+
+    @Test
+    @DisplayName("Each stage keeps its own limit of in-flight requests")
+    void testMaxInFlight() {
+        SourceQueryPipeline pipeline = builder(false).info(2, 0).players(1, 0).build();
+        List<InetSocketAddress> addresses = addresses(6);
+        CompletableFuture<Void> execution = pipeline.execute(new TestSource(addresses), records::add);
+        CompletableFuture<SourceQueryResponse<?>> next;
+        while ((next = pending.poll()) != null)
+            next.complete(null);
+        assertTrue(execution.isDone());
+        assertEquals(addresses.size(), records.size());
+        assertEquals(2, maxInFlight.get(Stage.INFO).get());
+        assertEquals(1, maxInFlight.get(Stage.PLAYERS).get());
+    }
+
+    @Test
+    @DisplayName("Cancelling the execution cancels the source and stops dispatching the queued requests")
+    void testCancel() {
+        SourceQueryPipeline pipeline = builder(false).info(1, 0).players(3, 0).build();
+        TestSource source = new TestSource(addresses(10));
+        CompletableFuture<Void> execution = pipeline.execute(source, records::add);
+        //the source is consumed up to the combined limit of all stages, 3 addresses are waiting for the info stage
+        assertEquals(4, source.requested);
+        assertEquals(1, pending.size());
+        execution.cancel(false);
+        assertTrue(source.cancelled);
+        pending.poll().complete(null);
+        assertNull(pending.poll());
+        assertEquals(1, queried.size());
+        assertTrue(records.isEmpty());
+    }
+
+    /**
+     * @param complete
+     *         {@code true} to complete the queries immediately, otherwise they are kept pending until completed by the test
+     */
+    private SourceQueryPipeline.Builder builder(boolean complete) {
+        return new SourceQueryPipeline.Builder((stage, address) -> {
+            record(stage, address);
+            CompletableFuture<SourceQueryResponse<?>> future = new CompletableFuture<>();
+            int count = inFlight.get(stage).incrementAndGet();
+            maxInFlight.get(stage).accumulateAndGet(count, Math::max);
+            if (complete)
+                future.complete(response(stage));
+            else
+                pending.add(future);
+            //the pipeline is notified once the request is no longer counted as in-flight
+            return future.whenComplete((response, error) -> inFlight.get(stage).decrementAndGet());
+        }, 4, 0);
+    }
+
+    private void record(Stage stage, InetSocketAddress address) {
+        queried.computeIfAbsent(address, a -> new CopyOnWriteArrayList<>()).add(stage);
+    }
+
+    private static SourceQueryResponse<?> response(Stage stage) {
+        switch (stage) {
+            case INFO:
+                return new SourceQueryInfoResponse(new SourceServer());
+            case PLAYERS:
+                return new SourceQueryPlayerResponse(new ArrayList<>());
+            default:
+                return new SourceQueryRulesResponse(new HashMap<>(), 0);
+        }
+    }
+
+    private static List<InetSocketAddress> addresses(int count) {
+        List<InetSocketAddress> addresses = new ArrayList<>();
+        for (int i = 1; i <= count; i++)
+            addresses.add(new InetSocketAddress("10.0.0." + i, 27015));
+        return addresses;
+    }
+
+    /**
+     * Emits the addresses synchronously as they are requested
+     */
+    private static final class TestSource implements Publisher<InetSocketAddress>, Subscription {
+
+        private final List<InetSocketAddress> addresses;
+
+        private Subscriber<? super InetSocketAddress> subscriber;
+
+        private int index;
+
+        private long requested;
+
+        private boolean cancelled;
+
+        private TestSource(List<InetSocketAddress> addresses) {
+            this.addresses = addresses;
+        }
+
+        @Override
+        public void subscribe(Subscriber<? super InetSocketAddress> subscriber) {
+            this.subscriber = subscriber;
+            subscriber.onSubscribe(this);
+        }
+
+        @Override
+        public void request(long n) {
+            requested += n;
+            while (!cancelled && index < requested && index < addresses.size())
+                subscriber.onNext(addresses.get(index++));
+            if (!cancelled && index == addresses.size()) {
+                cancelled = true;
+                subscriber.onComplete();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.protocols.valve.source.query;
+
+import com.ibasco.agql.protocols.valve.source.query.common.message.SourceQueryRequest;
+import com.ibasco.agql.protocols.valve.source.query.common.message.SourceQueryResponse;
+import com.ibasco.agql.protocols.valve.source.query.info.SourceQueryInfoRequest;
+import com.ibasco.agql.protocols.valve.source.query.info.SourceQueryInfoResponse;
+import com.ibasco.agql.protocols.valve.source.query.info.SourceServer;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SourceQueryResponseCacheTest {
+
+    private static final InetSocketAddress ADDRESS = new InetSocketAddress("10.0.0.1", 27015);
+
+    private static final long TTL = 100;
+
+    private List<CompletableFuture<SourceQueryResponse<?>>> sent;
+
+    private List<SourceQueryRequest> requests;
+
+    private BiFunction<InetSocketAddress, SourceQueryRequest, CompletableFuture<SourceQueryResponse<?>>> sender;
+
+    @BeforeEach
+    void setUp() {
+        sent = new ArrayList<>();
+        requests = new ArrayList<>();
+        sender = (address, request) -> {
+            CompletableFuture<SourceQueryResponse<?>> future = new CompletableFuture<>();
+            sent.add(future);
+            requests.add(request);
+            return future;
+        };
+    }
+
+    @Test
+    @DisplayName("A response is served from memory until its time-to-live has elapsed")
+    void testExpiry() throws Exception {
+        SourceQueryResponseCache cache = new SourceQueryResponseCache(1000, TTL, TTL, TTL, 0);
+        CompletableFuture<SourceQueryResponse<?>> first = cache.send(ADDRESS, new SourceQueryInfoRequest(), sender);
+        sent.get(0).complete(response("First"));
+        assertEquals("First", name(first));
+
+        SourceQueryInfoRequest request = new SourceQueryInfoRequest();
+        CompletableFuture<SourceQueryResponse<?>> cached = cache.send(ADDRESS, request, sender);
+        assertEquals(1, sent.size());
+        assertEquals("First", name(cached));
+        assertSame(request, cached.join().getRequest());
+        //each caller receives its own copy
+        assertNotSame(((SourceQueryInfoResponse) first.join()).getResult(), ((SourceQueryInfoResponse) cached.join()).getResult());
+
+        Thread.sleep(TTL * 2);
+        CompletableFuture<SourceQueryResponse<?>> expired = cache.send(ADDRESS, new SourceQueryInfoRequest(), sender);
+        assertEquals(2, sent.size());
+        assertFalse(expired.isDone());
+        sent.get(1).complete(response("Second"));
+        assertEquals("Second", name(expired));
+    }
+
+    @Test
+    @DisplayName("An expired response is served during the stale period while a single refresh is running in the background")
+    void testStaleWhileRefresh() throws Exception {
+        SourceQueryResponseCache cache = new SourceQueryResponseCache(1000, TTL, TTL, TTL, 60000);
+        cache.send(ADDRESS, new SourceQueryInfoRequest(), sender);
+        sent.get(0).complete(response("First"));
+        Thread.sleep(TTL * 2);
+
+        SourceQueryInfoRequest request = new SourceQueryInfoRequest();
+        assertEquals("First", name(cache.send(ADDRESS, request, sender)));
+        assertEquals("First", name(cache.send(ADDRESS, new SourceQueryInfoRequest(), sender)));
+        assertEquals(2, sent.size());
+        //the refresh is sent with a request of its own
+        assertNotSame(request, requests.get(1));
+
+        sent.get(1).complete(response("Second"));
+        assertEquals("Second", name(cache.send(ADDRESS, new SourceQueryInfoRequest(), sender)));
+        assertEquals(2, sent.size());
+    }
+
+    @Test
+    @DisplayName("A failed refresh keeps the stale response and is retried by the next caller")
+    void testFailedRefresh() throws Exception {
+        SourceQueryResponseCache cache = new SourceQueryResponseCache(1000, TTL, TTL, TTL, 60000);
+        cache.send(ADDRESS, new SourceQueryInfoRequest(), sender);
+        sent.get(0).complete(response("First"));
+        Thread.sleep(TTL * 2);
+
+        assertEquals("First", name(cache.send(ADDRESS, new SourceQueryInfoRequest(), sender)));
+        sent.get(1).completeExceptionally(new IllegalStateException("Refresh failed"));
+        assertEquals("First", name(cache.send(ADDRESS, new SourceQueryInfoRequest(), sender)));
+        assertEquals(3, sent.size());
+    }
+
+    @Test
+    @DisplayName("Requests carrying a challenge number or without auto-update bypass the cache")
+    void testBypass() {
+        SourceQueryResponseCache cache = new SourceQueryResponseCache(1000, 60000, 60000, 60000, 0);
+        cache.send(ADDRESS, new SourceQueryInfoRequest(), sender);
+        sent.get(0).complete(response("Cached"));
+
+        CompletableFuture<SourceQueryResponse<?>> challenged = cache.send(ADDRESS, new SourceQueryInfoRequest(1234), sender);
+        SourceQueryInfoRequest request = new SourceQueryInfoRequest();
+        request.setAutoUpdate(false);
+        CompletableFuture<SourceQueryResponse<?>> manual = cache.send(ADDRESS, request, sender);
+        assertEquals(3, sent.size());
+        assertFalse(challenged.isDone());
+        assertFalse(manual.isDone());
+
+        //the responses of bypassed requests are not cached either
+        sent.get(1).complete(response("Challenged"));
+        assertEquals("Cached", name(cache.send(ADDRESS, new SourceQueryInfoRequest(), sender)));
+        assertEquals(3, sent.size());
+    }
+
+    @Test
+    @DisplayName("Responses which can not be copied are not cached")
+    void testNotCopyable() {
+        SourceQueryResponseCache cache = new SourceQueryResponseCache(1000, 60000, 60000, 60000, 0);
+        CompletableFuture<SourceQueryResponse<?>> first = cache.send(ADDRESS, new SourceQueryInfoRequest(), sender);
+        UncopyableResponse response = new UncopyableResponse();
+        sent.get(0).complete(response);
+        assertSame(response, first.join());
+        CompletableFuture<SourceQueryResponse<?>> second = cache.send(ADDRESS, new SourceQueryInfoRequest(), sender);
+        assertEquals(2, sent.size());
+        assertFalse(second.isDone());
+    }
+
+    private static String name(CompletableFuture<SourceQueryResponse<?>> future) {
+        assertTrue(future.isDone(), "Response has not been received");
+        return ((SourceQueryInfoResponse) future.join()).getResult().getName();
+    }
+
+    private static SourceQueryInfoResponse response(String name) {
+        SourceServer server = new SourceServer();
+        server.setName(name);
+        SourceQueryInfoResponse response = new SourceQueryInfoResponse(server);
+        response.setAddress(ADDRESS);
+        return response;
+    }
+
+    private static final class UncopyableResponse extends SourceQueryResponse<String> {
+
+        private UncopyableResponse() {
+            super("Uncopyable");
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.protocols.valve.source.query;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SourceQueryRttEstimatorTest {
+
+    private static final InetSocketAddress ADDRESS = new InetSocketAddress("127.0.0.1", 27015);
+
+    private static final int INITIAL_TIMEOUT = 1000;
+
+    private static final int MIN_TIMEOUT = 50;
+
+    private static final int MAX_TIMEOUT = 5000;
+
+    private SourceQueryRttEstimator estimator;
+
+    @BeforeEach
+    void setUp() {
+        estimator = new SourceQueryRttEstimator(16, INITIAL_TIMEOUT, MIN_TIMEOUT, MAX_TIMEOUT);
+    }
+
+    @Test
+    @DisplayName("Servers without samples use the initial timeout, doubled on each attempt and clamped to the maximum")
+    void testInitialTimeout() {
+        assertEquals(INITIAL_TIMEOUT, estimator.timeout(ADDRESS, 1));
+        assertEquals(INITIAL_TIMEOUT * 2, estimator.timeout(ADDRESS, 2));
+        assertEquals(INITIAL_TIMEOUT * 4, estimator.timeout(ADDRESS, 3));
+        assertEquals(MAX_TIMEOUT, estimator.timeout(ADDRESS, 4));
+        assertEquals(MAX_TIMEOUT, estimator.timeout(ADDRESS, 100));
+    }
+
+    @Test
+    @DisplayName("The initial timeout is clamped to the configured range")
+    void testInitialTimeoutClamped() {
+        assertEquals(MIN_TIMEOUT, new SourceQueryRttEstimator(16, 1, MIN_TIMEOUT, MAX_TIMEOUT).timeout(ADDRESS, 1));
+        assertEquals(MAX_TIMEOUT, new SourceQueryRttEstimator(16, MAX_TIMEOUT * 2, MIN_TIMEOUT, MAX_TIMEOUT).timeout(ADDRESS, 1));
+    }
+
+    @Test
+    @DisplayName("Invalid timeout ranges are rejected")
+    void testInvalidRange() {
+        assertThrows(IllegalArgumentException.class, () -> new SourceQueryRttEstimator(16, 100, 0, 100));
+        assertThrows(IllegalArgumentException.class, () -> new SourceQueryRttEstimator(16, 100, 200, 100));
+    }
+
+    @Test
+    @DisplayName("The timeout is derived from the smoothed round-trip time and its variation")
+    void testSample() {
+        estimator.success(ADDRESS, 1, millis(100));
+        //srtt = 100, rttvar = 50 => 100 + 4 * 50
+        assertEquals(300, estimator.timeout(ADDRESS, 1));
+        assertEquals(600, estimator.timeout(ADDRESS, 2));
+        estimator.success(ADDRESS, 1, millis(100));
+        //srtt = 100, rttvar = 50 + (0 - 50) / 4 = 37.5 => 100 + 4 * 37.5
+        assertEquals(250, estimator.timeout(ADDRESS, 1));
+        assertEquals(100, estimator.retryDelay(ADDRESS, 1000));
+        assertEquals(40, estimator.retryDelay(ADDRESS, 40));
+    }
+
+    @Test
+    @DisplayName("Samples of retried requests are ignored (Karn's algorithm)")
+    void testKarn() {
+        estimator.success(ADDRESS, 2, millis(100));
+        assertEquals(INITIAL_TIMEOUT, estimator.timeout(ADDRESS, 1));
+        estimator.success(ADDRESS, 1, millis(100));
+        estimator.success(ADDRESS, 3, millis(4000));
+        assertEquals(300, estimator.timeout(ADDRESS, 1));
+    }
+
+    @Test
+    @DisplayName("Computed timeouts are clamped to the configured range")
+    void testClamp() {
+        InetSocketAddress fast = new InetSocketAddress("127.0.0.2", 27015);
+        estimator.success(fast, 1, TimeUnit.MICROSECONDS.toNanos(500));
+        assertEquals(MIN_TIMEOUT, estimator.timeout(fast, 1));
+        InetSocketAddress slow = new InetSocketAddress("127.0.0.3", 27015);
+        estimator.success(slow, 1, millis(10000));
+        assertEquals(MAX_TIMEOUT, estimator.timeout(slow, 1));
+    }
+
+    @Test
+    @DisplayName("Timeouts back off the timeout of tracked servers only")
+    void testBackoff() {
+        estimator.timeout(ADDRESS);
+        assertEquals(INITIAL_TIMEOUT, estimator.timeout(ADDRESS, 1));
+        estimator.success(ADDRESS, 1, millis(100));
+        estimator.timeout(ADDRESS);
+        assertEquals(600, estimator.timeout(ADDRESS, 1));
+        for (int i = 0; i < 10; i++)
+            estimator.timeout(ADDRESS);
+        assertEquals(MAX_TIMEOUT, estimator.timeout(ADDRESS, 1));
+        //a new sample replaces the backed off timeout
+        estimator.success(ADDRESS, 1, millis(100));
+        assertEquals(250, estimator.timeout(ADDRESS, 1));
+    }
+
+    private static long millis(long value) {
+        return TimeUnit.MILLISECONDS.toNanos(value);
+    }
+}
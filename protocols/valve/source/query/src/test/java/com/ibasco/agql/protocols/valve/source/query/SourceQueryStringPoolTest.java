@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.protocols.valve.source.query;
+
+import com.ibasco.agql.core.util.FailsafeOptions;
+import com.ibasco.agql.core.util.Option;
+import com.ibasco.agql.core.util.Platform;
+import com.ibasco.agql.protocols.valve.source.query.info.SourceQueryInfoRequest;
+import com.ibasco.agql.protocols.valve.source.query.info.SourceQueryInfoResponse;
+import com.ibasco.agql.protocols.valve.source.query.info.SourceServer;
+import com.ibasco.agql.protocols.valve.source.query.rules.SourceQueryRulesRequest;
+import com.ibasco.agql.protocols.valve.source.query.rules.SourceQueryRulesResponse;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class SourceQueryStringPoolTest {
+
+    private static final int CHALLENGE = 0x12345678;
+
+    private static SourceQueryMessenger unpooled;
+
+    private static SourceQueryMessenger pooled;
+
+    private static SourceQueryMessenger lazyUnpooled;
+
+    private static SourceQueryMessenger lazyPooled;
+
+    private FakeServer server;
+
+    @BeforeAll
+    static void setUpAll() {
+        Platform.initialize();
+        Option.initialize(SourceQueryOptions.class);
+        //the messengers share the default event loop group, so they are kept open until all tests are done
+        unpooled = new SourceQueryMessenger(SourceQueryOptions.builder().option(FailsafeOptions.FAILSAFE_ENABLED, false).build());
+        pooled = messenger(1024, false);
+        lazyUnpooled = messenger(0, true);
+        lazyPooled = messenger(1024, true);
+    }
+
+    @AfterAll
+    static void tearDownAll() throws Exception {
+        lazyPooled.close();
+        lazyUnpooled.close();
+        pooled.close();
+        unpooled.close();
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new FakeServer();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        server.close();
+    }
+
+    @Test
+    @DisplayName("String pooling is disabled by default")
+    void testDisabledByDefault() {
+        assertNull(unpooled.getStringPool());
+        assertNotNull(pooled.getStringPool());
+    }
+
+    @Test
+    @DisplayName("Info responses decoded with and without the string pool are equal")
+    void testInfo() throws Exception {
+        assertInfo(unpooled, pooled);
+    }
+
+    @Test
+    @DisplayName("Lazily decoded info responses with and without the string pool are equal")
+    void testLazyInfo() throws Exception {
+        assertInfo(lazyUnpooled, lazyPooled);
+    }
+
+    @Test
+    @DisplayName("Rules responses decoded with and without the string pool are equal")
+    void testRules() throws Exception {
+        Map<String, String> expected = rules(unpooled);
+        assertEquals(3, expected.size());
+        assertEquals(expected, rules(pooled));
+    }
+
+    private void assertInfo(SourceQueryMessenger unpooled, SourceQueryMessenger pooled) throws Exception {
+        SourceServer expected = info(unpooled);
+        SourceServer first = info(pooled);
+        SourceServer second = info(pooled);
+        assertEquals(fields(expected), fields(first));
+        assertEquals(fields(first), fields(second));
+        //the repeated values are shared between the responses
+        assertSame(first.getMapName(), second.getMapName());
+        assertSame(first.getServerTags(), second.getServerTags());
+    }
+
+    private static SourceQueryMessenger messenger(int stringPoolSize, boolean lazy) {
+        return new SourceQueryMessenger(SourceQueryOptions.builder()
+                                                          .option(SourceQueryOptions.STRING_POOL_SIZE, stringPoolSize)
+                                                          .option(SourceQueryOptions.LAZY_DECODING, lazy)
+                                                          .option(FailsafeOptions.FAILSAFE_ENABLED, false)
+                                                          .build());
+    }
+
+    private SourceServer info(SourceQueryMessenger messenger) throws Exception {
+        SourceQueryInfoResponse response = (SourceQueryInfoResponse) messenger.send(server.address(), new SourceQueryInfoRequest()).get(5, TimeUnit.SECONDS);
+        return response.getResult();
+    }
+
+    private Map<String, String> rules(SourceQueryMessenger messenger) throws Exception {
+        SourceQueryRulesResponse response = (SourceQueryRulesResponse) messenger.send(server.address(), new SourceQueryRulesRequest(CHALLENGE)).get(5, TimeUnit.SECONDS);
+        return response.getResult();
+    }
+
+    private static List<Object> fields(SourceServer server) {
+        return Arrays.asList(server.getNetworkVersion(), server.getName(), server.getMapName(), server.getGameDirectory(), server.getGameDescription(),
+                             server.getAppId(), server.getNumOfPlayers(), server.getMaxPlayers(), server.getNumOfBots(), server.isDedicated(),
+                             server.getOperatingSystem(), server.isPasswordProtected(), server.isSecure(), server.getGameVersion(),
+                             server.getGamePort(), server.getServerId(), server.getServerTags(), server.getGameId());
+    }
+
+    private static byte[] info() {
+        ByteBuf buf = response(SourceQuery.SOURCE_QUERY_INFO_RES);
+        buf.writeByte(17);
+        writeString(buf, "Server");
+        writeString(buf, "de_dust2");
+        writeString(buf, "csgo");
+        writeString(buf, "Counter-Strike: Global Offensive");
+        buf.writeShortLE(730);
+        buf.writeByte(1);
+        buf.writeByte(16);
+        buf.writeByte(0);
+        buf.writeByte('d');
+        buf.writeByte('l');
+        buf.writeByte(0);
+        buf.writeByte(1);
+        writeString(buf, "1.0");
+        //extra data flags: port, steam id, tags and game id
+        buf.writeByte(0x80 | 0x10 | 0x20 | 0x01);
+        buf.writeShortLE(27015);
+        buf.writeLongLE(90000000000000001L);
+        writeString(buf, "secure,competitive");
+        buf.writeLongLE(730L);
+        return ByteBufUtil.getBytes(buf);
+    }
+
+    private static byte[] rules() {
+        ByteBuf buf = response(SourceQuery.SOURCE_QUERY_RULES_RES);
+        buf.writeShortLE(3);
+        writeString(buf, "sv_gravity");
+        writeString(buf, "800");
+        writeString(buf, "mp_timelimit");
+        writeString(buf, "30");
+        writeString(buf, "sv_tags");
+        writeString(buf, "secure,competitive");
+        return ByteBufUtil.getBytes(buf);
+    }
+
+    private static ByteBuf response(int header) {
+        ByteBuf buf = Unpooled.buffer();
+        buf.writeIntLE(-1);
+        buf.writeByte(header);
+        return buf;
+    }
+
+    private static void writeString(ByteBuf buf, String value) {
+        buf.writeCharSequence(value, StandardCharsets.UTF_8);
+        buf.writeByte(0);
+    }
+
+    /**
+     * A game server replying to every info and rules request with the same response
+     */
+    private static final class FakeServer implements AutoCloseable {
+
+        private final DatagramSocket socket;
+
+        private final Thread thread;
+
+        private FakeServer() throws SocketException {
+            socket = new DatagramSocket(0, InetAddress.getLoopbackAddress());
+            thread = new Thread(() -> {
+                byte[] buffer = new byte[1400];
+                while (!socket.isClosed()) {
+                    try {
+                        DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+                        socket.receive(packet);
+                        byte[] reply = buffer[4] == SourceQuery.SOURCE_QUERY_RULES_REQ ? rules() : info();
+                        socket.send(new DatagramPacket(reply, reply.length, packet.getSocketAddress()));
+                    } catch (SocketException e) {
+                        return;
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            });
+            thread.start();
+        }
+
+        private InetSocketAddress address() {
+            return (InetSocketAddress) socket.getLocalSocketAddress();
+        }
+
+        @Override
+        public void close() throws Exception {
+            socket.close();
+            thread.join();
+        }
+    }
+}
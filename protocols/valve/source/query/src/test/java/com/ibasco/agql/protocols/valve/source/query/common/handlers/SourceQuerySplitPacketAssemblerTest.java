@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.protocols.valve.source.query.common.handlers;
+
+import com.ibasco.agql.core.NettyChannelContext;
+import com.ibasco.agql.core.transport.NettyChannelAttributes;
+import com.ibasco.agql.core.util.Option;
+import com.ibasco.agql.protocols.valve.source.query.SourceQueryMessenger;
+import com.ibasco.agql.protocols.valve.source.query.SourceQueryOptions;
+import com.ibasco.agql.protocols.valve.source.query.common.packets.SourceQuerySplitPacket;
+import com.ibasco.agql.protocols.valve.source.query.rules.SourceQueryRulesRequest;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SourceQuerySplitPacketAssemblerTest {
+
+    private static SourceQueryMessenger messenger;
+
+    @BeforeAll
+    static void setUp() {
+        Option.initialize(SourceQueryOptions.class);
+        messenger = new SourceQueryMessenger(SourceQueryOptions.builder().build());
+    }
+
+    @AfterAll
+    static void tearDown() throws Exception {
+        messenger.close();
+    }
+
+    @Test
+    @DisplayName("A corrupted compressed response reports the decode error and releases all split-packets")
+    void testCorruptedCompressedResponse() {
+        EmbeddedChannel channel = new EmbeddedChannel(new SourceQuerySplitPacketAssembler());
+        NettyChannelContext context = new NettyChannelContext(channel, messenger);
+        context.attach(new SourceQueryRulesRequest());
+        channel.attr(NettyChannelAttributes.CHANNEL_CONTEXT).set(context);
+
+        //random data is not a valid bzip2 stream
+        byte[] garbage = new byte[64];
+        new Random(1).nextBytes(garbage);
+        SourceQuerySplitPacket[] packets = new SourceQuerySplitPacket[2];
+        for (int i = 0; i < packets.length; i++) {
+            ByteBuf content = Unpooled.buffer().writeBytes(Arrays.copyOfRange(garbage, i * 32, (i + 1) * 32));
+            SourceQuerySplitPacket packet = new SourceQuerySplitPacket(content);
+            packet.setId(0x80001234);
+            packet.setCompressed(true);
+            packet.setPacketCount(packets.length);
+            packet.setPacketNumber(i);
+            packet.setPacketSize(32);
+            packet.setPacketMaxSize(32);
+            if (i == 0) {
+                packet.setDecompressedSize(1024);
+                packet.setCrcChecksum(0);
+            }
+            packets[i] = packet;
+        }
+
+        channel.writeInbound(packets[0]);
+        IllegalStateException error = assertThrows(IllegalStateException.class, () -> channel.writeInbound(packets[1]));
+        assertTrue(error.getMessage().startsWith("Failed to decompress"), error.getMessage());
+        assertNull(channel.readInbound());
+        for (SourceQuerySplitPacket packet : packets)
+            assertEquals(0, packet.refCnt());
+        channel.finishAndReleaseAll();
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.protocols.valve.source.query.common.packets.util;
+
+import com.ibasco.agql.core.util.Compression;
+import com.ibasco.agql.protocols.valve.source.query.common.packets.SourceQuerySplitPacket;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SourceCompositeSplitPacketAssemblerTest {
+
+    private static final int PACKET_ID = 0x1234;
+
+    private static final int MAX_PACKET_SIZE = 16;
+
+    private EmbeddedChannel channel;
+
+    private SourceCompositeSplitPacketAssembler assembler;
+
+    @BeforeEach
+    void setUp() {
+        channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+        assembler = new SourceCompositeSplitPacketAssembler(channel.pipeline().firstContext());
+    }
+
+    @AfterEach
+    void tearDown() {
+        assembler.reset();
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    @DisplayName("Packets received out of order are assembled by packet number")
+    void testOutOfOrder() {
+        byte[] data = payload(40);
+        SourceQuerySplitPacket[] packets = split(data, PACKET_ID, false);
+        assertEquals(3, packets.length);
+        assertFalse(assembler.add(packets[2]));
+        assertFalse(assembler.add(packets[0]));
+        assertTrue(assembler.isProcessing());
+        assertTrue(assembler.add(packets[1]));
+        assertTrue(assembler.isComplete());
+        assertArrayEquals(data, ByteBufUtil.getBytes(assembler.getBuffer()));
+        assembler.reset();
+        for (SourceQuerySplitPacket packet : packets)
+            assertEquals(0, packet.refCnt());
+    }
+
+    @Test
+    @DisplayName("Duplicate packets are rejected and remain owned by the caller")
+    void testDuplicate() {
+        SourceQuerySplitPacket[] packets = split(payload(40), PACKET_ID, false);
+        SourceQuerySplitPacket duplicate = split(payload(40), PACKET_ID, false)[0];
+        assertFalse(assembler.add(packets[0]));
+        assertThrows(IllegalStateException.class, () -> assembler.add(duplicate));
+        assertEquals(1, assembler.received());
+        assertEquals(1, duplicate.refCnt());
+        duplicate.release();
+        packets[1].release();
+        packets[2].release();
+        assembler.reset();
+        assertEquals(0, packets[0].refCnt());
+        assertEquals(0, assembler.received());
+    }
+
+    @Test
+    @DisplayName("Packets of a different response are rejected")
+    void testPacketIdMismatch() {
+        SourceQuerySplitPacket[] packets = split(payload(40), PACKET_ID, false);
+        SourceQuerySplitPacket other = split(payload(40), PACKET_ID + 1, false)[1];
+        assembler.add(packets[0]);
+        assertThrows(IllegalStateException.class, () -> assembler.add(other));
+        other.release();
+        packets[1].release();
+        packets[2].release();
+    }
+
+    @Test
+    @DisplayName("Packet numbers beyond the packet count are rejected")
+    void testOutOfBounds() {
+        SourceQuerySplitPacket[] packets = split(payload(40), PACKET_ID, false);
+        packets[2].setPacketNumber(3);
+        assembler.add(packets[0]);
+        assertThrows(IndexOutOfBoundsException.class, () -> assembler.add(packets[2]));
+        packets[1].release();
+        packets[2].release();
+    }
+
+    @Test
+    @DisplayName("Compressed responses are decompressed and verified")
+    void testCompressed() throws IOException {
+        byte[] data = payload(500);
+        SourceQuerySplitPacket[] packets = compressed(data, (int) Compression.getCrc32Checksum(data));
+        assertTrue(packets.length > 1);
+        for (int i = packets.length - 1; i >= 0; i--)
+            assembler.add(packets[i]);
+        assertTrue(assembler.isComplete());
+        assertArrayEquals(data, ByteBufUtil.getBytes(assembler.getBuffer()));
+        assembler.reset();
+        for (SourceQuerySplitPacket packet : packets)
+            assertEquals(0, packet.refCnt());
+    }
+
+    @Test
+    @DisplayName("Compressed responses with an invalid checksum are rejected and the packets are released")
+    void testChecksumMismatch() throws IOException {
+        byte[] data = payload(500);
+        SourceQuerySplitPacket[] packets = compressed(data, (int) Compression.getCrc32Checksum(data) + 1);
+        for (SourceQuerySplitPacket packet : packets)
+            assembler.add(packet);
+        IllegalStateException error = assertThrows(IllegalStateException.class, assembler::getBuffer);
+        assertTrue(error.getMessage().contains("CRC32"));
+        assembler.reset();
+        for (SourceQuerySplitPacket packet : packets)
+            assertEquals(0, packet.refCnt());
+    }
+
+    @Test
+    @DisplayName("Corrupted compressed responses are rejected")
+    void testCorruptedCompressed() throws IOException {
+        byte[] data = payload(500);
+        SourceQuerySplitPacket[] packets = compressed(data, (int) Compression.getCrc32Checksum(data));
+        packets[1].content().setByte(0, ~packets[1].content().getByte(0));
+        for (SourceQuerySplitPacket packet : packets)
+            assembler.add(packet);
+        assertThrows(IllegalStateException.class, assembler::getBuffer);
+    }
+
+    @Test
+    @DisplayName("Assembler can be re-used after a reset")
+    void testReuse() {
+        byte[] first = payload(40);
+        for (SourceQuerySplitPacket packet : split(first, PACKET_ID, false))
+            assembler.add(packet);
+        assertArrayEquals(first, ByteBufUtil.getBytes(assembler.getBuffer()));
+        assertThrows(IllegalStateException.class, () -> assembler.add(split(first, PACKET_ID, false)[0]));
+        assembler.reset();
+        byte[] second = payload(20);
+        for (SourceQuerySplitPacket packet : split(second, PACKET_ID + 1, false))
+            assembler.add(packet);
+        assertArrayEquals(second, ByteBufUtil.getBytes(assembler.getBuffer()));
+    }
+
+    private static byte[] payload(int size) {
+        byte[] data = new byte[size];
+        byte[] text = "hostname\0Test Server\0".getBytes(StandardCharsets.US_ASCII);
+        for (int i = 0; i < size; i++)
+            data[i] = text[i % text.length];
+        return data;
+    }
+
+    private static SourceQuerySplitPacket[] compressed(byte[] data, int checksum) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (BZip2CompressorOutputStream bzip2 = new BZip2CompressorOutputStream(out)) {
+            bzip2.write(data);
+        }
+        SourceQuerySplitPacket[] packets = split(out.toByteArray(), PACKET_ID, true);
+        packets[0].setDecompressedSize(data.length);
+        packets[0].setCrcChecksum(checksum);
+        return packets;
+    }
+
+    private static SourceQuerySplitPacket[] split(byte[] data, int id, boolean compressed) {
+        int count = (data.length + MAX_PACKET_SIZE - 1) / MAX_PACKET_SIZE;
+        SourceQuerySplitPacket[] packets = new SourceQuerySplitPacket[count];
+        for (int i = 0; i < count; i++) {
+            byte[] chunk = Arrays.copyOfRange(data, i * MAX_PACKET_SIZE, Math.min(data.length, (i + 1) * MAX_PACKET_SIZE));
+            ByteBuf content = Unpooled.buffer(chunk.length).writeBytes(chunk);
+            SourceQuerySplitPacket packet = new SourceQuerySplitPacket(content);
+            packet.setId(compressed ? id | 0x80000000 : id);
+            packet.setCompressed(compressed);
+            packet.setPacketCount(count);
+            packet.setPacketNumber(i);
+            packet.setPacketSize(chunk.length);
+            packet.setPacketMaxSize(MAX_PACKET_SIZE);
+            packets[i] = packet;
+        }
+        return packets;
+    }
+}
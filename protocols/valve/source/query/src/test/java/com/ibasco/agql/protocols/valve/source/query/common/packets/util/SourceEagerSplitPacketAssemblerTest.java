@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.protocols.valve.source.query.common.packets.util;
+
+import com.ibasco.agql.protocols.valve.source.query.common.packets.SourceQuerySplitPacket;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SourceEagerSplitPacketAssemblerTest {
+
+    private static final int PACKET_ID = 0x1234;
+
+    private static final int MAX_PACKET_SIZE = 16;
+
+    private EmbeddedChannel channel;
+
+    private SourceEagerSplitPacketAssembler assembler;
+
+    @BeforeEach
+    void setUp() {
+        channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+        assembler = new SourceEagerSplitPacketAssembler(channel.pipeline().firstContext());
+    }
+
+    @AfterEach
+    void tearDown() {
+        assembler.reset();
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    @DisplayName("Packets are written to the buffer as they are received and released on reset")
+    void testAssemble() {
+        byte[] data = payload(40);
+        SourceQuerySplitPacket[] packets = split(data, PACKET_ID);
+        assertEquals(3, packets.length);
+        assertFalse(assembler.add(packets[0]));
+        assertFalse(assembler.add(packets[1]));
+        assertTrue(assembler.add(packets[2]));
+        assertTrue(assembler.isComplete());
+        assertEquals(3, assembler.received());
+        assertArrayEquals(data, ByteBufUtil.getBytes(assembler.getBuffer()));
+        assembler.reset();
+        assertNull(assembler.getBuffer());
+        assertEquals(0, assembler.received());
+        for (SourceQuerySplitPacket packet : packets)
+            assertEquals(0, packet.refCnt());
+    }
+
+    @Test
+    @DisplayName("Packets of an incomplete response are released on reset")
+    void testResetIncomplete() {
+        SourceQuerySplitPacket[] packets = split(payload(40), PACKET_ID);
+        assembler.add(packets[0]);
+        assembler.add(packets[2]);
+        assertFalse(assembler.isComplete());
+        assembler.reset();
+        assertEquals(0, packets[0].refCnt());
+        assertEquals(0, packets[2].refCnt());
+        //the packet that has never been added is still owned by the caller
+        assertEquals(1, packets[1].refCnt());
+        packets[1].release();
+    }
+
+    @Test
+    @DisplayName("Packets of a different response are rejected and remain owned by the caller")
+    void testPacketIdMismatch() {
+        SourceQuerySplitPacket[] packets = split(payload(40), PACKET_ID);
+        SourceQuerySplitPacket other = split(payload(40), PACKET_ID + 1)[1];
+        assembler.add(packets[0]);
+        assertThrows(IllegalStateException.class, () -> assembler.add(other));
+        assertEquals(1, assembler.received());
+        assembler.reset();
+        assertEquals(0, packets[0].refCnt());
+        assertEquals(1, other.refCnt());
+        other.release();
+        packets[1].release();
+        packets[2].release();
+    }
+
+    @Test
+    @DisplayName("Assembler can be re-used after a reset")
+    void testReuse() {
+        byte[] first = payload(40);
+        for (SourceQuerySplitPacket packet : split(first, PACKET_ID))
+            assembler.add(packet);
+        assertArrayEquals(first, ByteBufUtil.getBytes(assembler.getBuffer()));
+        assembler.reset();
+        byte[] second = payload(20);
+        for (SourceQuerySplitPacket packet : split(second, PACKET_ID + 1))
+            assembler.add(packet);
+        assertArrayEquals(second, ByteBufUtil.getBytes(assembler.getBuffer()));
+    }
+
+    private static byte[] payload(int size) {
+        byte[] data = new byte[size];
+        byte[] text = "hostname\0Test Server\0".getBytes(StandardCharsets.US_ASCII);
+        for (int i = 0; i < size; i++)
+            data[i] = text[i % text.length];
+        return data;
+    }
+
+    private static SourceQuerySplitPacket[] split(byte[] data, int id) {
+        int count = (data.length + MAX_PACKET_SIZE - 1) / MAX_PACKET_SIZE;
+        SourceQuerySplitPacket[] packets = new SourceQuerySplitPacket[count];
+        for (int i = 0; i < count; i++) {
+            byte[] chunk = Arrays.copyOfRange(data, i * MAX_PACKET_SIZE, Math.min(data.length, (i + 1) * MAX_PACKET_SIZE));
+            ByteBuf content = Unpooled.buffer(chunk.length).writeBytes(chunk);
+            SourceQuerySplitPacket packet = new SourceQuerySplitPacket(content);
+            packet.setId(id);
+            packet.setPacketCount(count);
+            packet.setPacketNumber(i);
+            packet.setPacketSize(chunk.length);
+            packet.setPacketMaxSize(MAX_PACKET_SIZE);
+            packets[i] = packet;
+        }
+        return packets;
+    }
+}
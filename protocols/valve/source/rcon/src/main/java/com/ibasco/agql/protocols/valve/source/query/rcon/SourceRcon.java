@@ -124,6 +124,23 @@ public final class SourceRcon {
         return RCON_TERMINATOR_RID == requestId;
     }
 
+    /**
+     * Get the id of the terminator packet bracketing the response of a pipelined request. Unlike {@link #RCON_TERMINATOR_RID}, the id is unique for each request so that
+     * multiple responses can be in-flight on the same connection.
+     *
+     * @param requestId
+     *         The id of the command request
+     *
+     * @return The negated request id
+     *
+     * @see com.ibasco.agql.protocols.valve.source.query.rcon.handlers.SourceRconPipelineHandler
+     */
+    public static int getTerminatorId(int requestId) {
+        if (!isValidRequestId(requestId))
+            throw new IllegalArgumentException("Invalid request id: " + requestId);
+        return -requestId;
+    }
+
     /**
      * Check if packet is an RCON response value packet
      *
@@ -16,27 +16,31 @@
 
 package com.ibasco.agql.protocols.valve.source.query.rcon;
 
-import com.google.common.collect.MultimapBuilder;
-import com.google.common.collect.Multimaps;
-import com.google.common.collect.SetMultimap;
 import com.ibasco.agql.core.ChannelRegistry;
 import com.ibasco.agql.core.exceptions.ChannelClosedException;
 import com.ibasco.agql.core.exceptions.ChannelRegistrationException;
 import com.ibasco.agql.core.util.Netty;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelId;
 import java.net.InetSocketAddress;
 import java.nio.channels.UnsupportedAddressTypeException;
+import java.util.AbstractMap;
+import java.util.Collections;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Default implementation for {@link com.ibasco.agql.core.ChannelRegistry}. Uses a {@link com.google.common.collect.SetMultimap} to store managed netty based {@link io.netty.channel.Channel} instances.
+ * Default implementation for {@link com.ibasco.agql.core.ChannelRegistry}. Stores the managed netty based {@link io.netty.channel.Channel} instances in a {@link ConcurrentHashMap} keyed by address, so lookups never block and registrations for different addresses do not contend with each other.
+ *
+ * <p>
+ * Channels are identified by their {@link ChannelId} since pooled channels and their underlying channels are not equal to each other.
+ * </p>
  *
  * @author Rafael Luis Ibasco
  */
@@ -44,7 +48,12 @@ public class SourceRconChannelRegistry implements ChannelRegistry {
 
     private static final Logger log = LoggerFactory.getLogger(SourceRconChannelRegistry.class);
 
-    private final SetMultimap<InetSocketAddress, Channel> channels = Multimaps.synchronizedSetMultimap(MultimapBuilder.hashKeys().hashSetValues().build());
+    private final ConcurrentHashMap<InetSocketAddress, Map<ChannelId, Channel>> channels = new ConcurrentHashMap<>();
+
+    /**
+     * The address each registered channel has been registered with. The remote address of a channel is not guaranteed to be available once it has been closed.
+     */
+    private final ConcurrentHashMap<ChannelId, InetSocketAddress> addresses = new ConcurrentHashMap<>();
 
     private final ChannelFutureListener UNREGISTER_ON_CLOSE = future -> {
         final Channel channel = future.channel();
@@ -66,13 +75,18 @@ public class SourceRconChannelRegistry implements ChannelRegistry {
             throw new ChannelRegistrationException(new ChannelClosedException("Can't register a channel that is inactive", channel));
         if (!(channel.remoteAddress() instanceof InetSocketAddress))
             throw new ChannelRegistrationException(new UnsupportedAddressTypeException());
-        synchronized (channels) {
-            log.debug("{} REGISTRY => Registering channel '{}'", Netty.id(channel), channel);
-            final InetSocketAddress address = (InetSocketAddress) channel.remoteAddress();
-            if (!channels.put(address, channel))
-                throw new ChannelRegistrationException("Failed to register channel: " + channel);
-            unregisterOnClose(channel);
-        }
+        log.debug("{} REGISTRY => Registering channel '{}'", Netty.id(channel), channel);
+        final InetSocketAddress address = (InetSocketAddress) channel.remoteAddress();
+        if (addresses.putIfAbsent(channel.id(), address) != null)
+            throw new ChannelRegistrationException("Failed to register channel: " + channel);
+        //the mapping function is executed atomically, an address is never removed while a channel is being added to it
+        channels.compute(address, (key, map) -> {
+            if (map == null)
+                map = new ConcurrentHashMap<>();
+            map.put(channel.id(), channel);
+            return map;
+        });
+        unregisterOnClose(channel);
     }
 
     /** {@inheritDoc} */
@@ -80,23 +94,15 @@ public class SourceRconChannelRegistry implements ChannelRegistry {
     public boolean unregister(Channel channel) {
         if (channel == null)
             throw new IllegalArgumentException("Channel must not be null");
-        if (!isRegistered(channel))
+        final InetSocketAddress address = addresses.remove(channel.id());
+        if (address == null)
             return true;
-        synchronized (channels) {
-            InetSocketAddress address = (InetSocketAddress) channel.remoteAddress();
-            if (address == null)
-                throw new IllegalStateException("Missing remote address for channel: " + channel);
-            Iterator<Map.Entry<InetSocketAddress, Channel>> it = channels.entries().iterator();
-            while (it.hasNext()) {
-                Map.Entry<InetSocketAddress, Channel> entry = it.next();
-                if (channel.id().equals(entry.getValue().id())) {
-                    it.remove();
-                    log.debug("{} REGISTRY => Unregistered channel: {}", Netty.id(entry.getValue()), entry.getValue());
-                    return true;
-                }
-            }
-            return false;
-        }
+        channels.computeIfPresent(address, (key, map) -> {
+            map.remove(channel.id());
+            return map.isEmpty() ? null : map;
+        });
+        log.debug("{} REGISTRY => Unregistered channel: {}", Netty.id(channel), channel);
+        return true;
     }
 
     /** {@inheritDoc} */
@@ -104,45 +110,38 @@ public class SourceRconChannelRegistry implements ChannelRegistry {
     public boolean isRegistered(Channel channel) {
         if (channel == null)
             throw new IllegalArgumentException("Channel must not be null");
-        synchronized (channels) {
-            for (Channel ch : channels.values()) {
-                if (ch.id().equals(channel.id()))
-                    return true;
-            }
-        }
-        return false;
+        return addresses.containsKey(channel.id());
     }
 
     /** {@inheritDoc} */
     @Override
     public Set<Map.Entry<InetSocketAddress, Channel>> getEntries() {
-        synchronized (channels) {
-            return new HashSet<>(channels.entries());
+        Set<Map.Entry<InetSocketAddress, Channel>> entries = new HashSet<>();
+        for (Map.Entry<InetSocketAddress, Map<ChannelId, Channel>> entry : channels.entrySet()) {
+            for (Channel channel : entry.getValue().values())
+                entries.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), channel));
         }
+        return entries;
     }
 
     /** {@inheritDoc} */
     @Override
     public Set<InetSocketAddress> getAddresses() {
-        synchronized (channels) {
-            return new HashSet<>(channels.keySet());
-        }
+        return new HashSet<>(channels.keySet());
     }
 
     /** {@inheritDoc} */
     @Override
     public Set<Channel> getChannels(InetSocketAddress address) {
-        synchronized (channels) {
-            return new HashSet<>(channels.get(address));
-        }
+        Map<ChannelId, Channel> map = channels.get(address);
+        return map != null ? new HashSet<>(map.values()) : Collections.emptySet();
     }
 
     /** {@inheritDoc} */
     @Override
     public int getCount(InetSocketAddress address) {
-        synchronized (channels) {
-            return channels.get(address).size();
-        }
+        Map<ChannelId, Channel> map = channels.get(address);
+        return map != null ? map.size() : 0;
     }
 
     private void unregisterOnClose(Channel channel) {
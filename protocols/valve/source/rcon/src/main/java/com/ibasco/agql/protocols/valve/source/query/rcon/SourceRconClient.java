@@ -38,6 +38,8 @@ import com.ibasco.agql.protocols.valve.source.query.rcon.message.SourceRconRespo
 import io.netty.channel.Channel;
 import org.jetbrains.annotations.ApiStatus;
 import java.net.InetSocketAddress;
+import java.util.Iterator;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 import org.slf4j.Logger;
@@ -217,6 +219,82 @@ public final class SourceRconClient extends NettySocketClient<SourceRconRequest,
         return send(address, new SourceRconCmdRequest(command), SourceRconCmdResponse.class);
     }
 
+    /**
+     * <p>Sends a command request to the server and streams the output to a consumer as each response packet arrives. Unlike {@link #execute(InetSocketAddress, String)}, the output is never held in memory as a whole, which is preferable for commands producing large outputs (e.g. {@code cvarlist}).</p>
+     *
+     * <p>The consumer is invoked sequentially from the I/O thread, so it should not block. Note that if the request is retried (e.g. after a timeout), the consumer may receive part of the output more than once.</p>
+     *
+     * @param address
+     *         The {@link java.net.InetSocketAddress} of the source server
+     * @param command
+     *         The {@link java.lang.String} containing the command to be issued on the server
+     * @param consumer
+     *         The {@link Consumer} receiving the decoded chunks of the output
+     *
+     * @return A {@link java.util.concurrent.CompletableFuture} notified once the end of the output has been reached. The result of the response is always empty.
+     *
+     * @throws com.ibasco.agql.protocols.valve.source.query.rcon.exceptions.RconAuthException
+     *         If the address is not yet authenticated by the server.
+     * @see #authenticate(InetSocketAddress, byte[])
+     */
+    public CompletableFuture<SourceRconCmdResponse> execute(InetSocketAddress address, String command, Consumer<String> consumer) throws RconAuthException {
+        if (consumer == null)
+            throw new IllegalArgumentException("Consumer must not be null");
+        if (!isAuthenticated(address))
+            return Concurrency.failedFuture(new RconNotYetAuthException(String.format("Address '%s' not yet authenticated", address), null, address, SourceRconAuthReason.NOT_AUTHENTICATED));
+        return send(address, new SourceRconCmdRequest(command, consumer), SourceRconCmdResponse.class);
+    }
+
+    /**
+     * <p>Executes the same command on each server in the provided {@link java.lang.Iterable}, keeping at most {@link SourceRconOptions#FLEET_MAX_CONCURRENCY} servers in-flight at any given time.</p>
+     *
+     * @param addresses
+     *         An {@link java.lang.Iterable} of {@link java.net.InetSocketAddress} of the target servers
+     * @param command
+     *         The {@link java.lang.String} containing the command to be issued on each server
+     * @param listener
+     *         Callback invoked with the outcome of each server as soon as it is known
+     *
+     * @return A {@link java.util.concurrent.CompletableFuture} notified with the {@link SourceRconFleetSummary} once the command has been executed on all servers
+     *
+     * @see #execute(Iterator, String, Consumer)
+     */
+    public CompletableFuture<SourceRconFleetSummary> execute(Iterable<InetSocketAddress> addresses, String command, Consumer<SourceRconFleetResult> listener) {
+        if (addresses == null)
+            throw new IllegalArgumentException("Addresses must not be null");
+        return execute(addresses.iterator(), command, listener);
+    }
+
+    /**
+     * <p>Executes the same command on each server returned by the provided {@link java.util.Iterator}, keeping at most {@link SourceRconOptions#FLEET_MAX_CONCURRENCY} servers in-flight at any given time.
+     * The credentials of each server are looked up from the configured {@link CredentialsStore}, so each address must have been authenticated (via {@link #authenticate(InetSocketAddress, byte[])}) beforehand. Existing connections are re-used and new connections are authenticated as needed.</p>
+     *
+     * <p>Each server is handled independently: a failed server is attempted again after {@link SourceRconOptions#FLEET_RETRY_DELAY} (up to {@link SourceRconOptions#FLEET_MAX_ATTEMPTS} times) without holding back the remaining servers,
+     * and is given up on once {@link SourceRconOptions#FLEET_DEADLINE} has elapsed since its first attempt. Authentication failures are reported right away. The listener may be invoked concurrently from different threads. Cancelling the returned future stops any further commands from being sent.</p>
+     *
+     * @param addresses
+     *         An {@link java.util.Iterator} of {@link java.net.InetSocketAddress} of the target servers. The iterator is accessed by one thread at a time.
+     * @param command
+     *         The {@link java.lang.String} containing the command to be issued on each server
+     * @param listener
+     *         Callback invoked with the outcome of each server as soon as it is known
+     *
+     * @return A {@link java.util.concurrent.CompletableFuture} notified with the {@link SourceRconFleetSummary} once all servers have an outcome and the listener has been invoked for each of them. It is completed exceptionally if the iterator itself throws an exception.
+     *
+     * @see SourceRconFleetResult
+     * @see SourceRconFleetSummary
+     */
+    public CompletableFuture<SourceRconFleetSummary> execute(Iterator<InetSocketAddress> addresses, String command, Consumer<SourceRconFleetResult> listener) {
+        if (command == null)
+            throw new IllegalArgumentException("Command must not be null");
+        Options options = getOptions();
+        return new SourceRconFleet(addresses, address -> execute(address, command), listener, getExecutor(),
+                                   options.getOrDefault(SourceRconOptions.FLEET_MAX_CONCURRENCY),
+                                   options.getOrDefault(SourceRconOptions.FLEET_DEADLINE),
+                                   options.getOrDefault(SourceRconOptions.FLEET_MAX_ATTEMPTS),
+                                   options.getOrDefault(SourceRconOptions.FLEET_RETRY_DELAY)).execute();
+    }
+
     /**
      * <p>Invalidates only the connections of all registered address (registered via {@link #authenticate(InetSocketAddress, byte[])}). The credentials registered with the address will remain valid. You do not need to call {@link #authenticate(InetSocketAddress, byte[])} unless the {@link Credentials} have been invalidated.</p>
      *
@@ -282,6 +360,28 @@ public final class SourceRconClient extends NettySocketClient<SourceRconRequest,
         return getMessenger().getStatistics().getConnectionStats();
     }
 
+    /**
+     * <p>Take a snapshot of the statistics of every server contacted by this client. Unlike {@link #getStatistics()}, this does not walk the attributes of the active connections, so it is cheap enough to be polled periodically and exported to a metrics system.</p>
+     *
+     * @return An unmodifiable {@link Map} containing an immutable {@link SourceRconServerStats} for each server
+     */
+    public Map<InetSocketAddress, SourceRconServerStats> getServerStatistics() {
+        return getMessenger().getServerStats();
+    }
+
+    /**
+     * <p>Take a snapshot of the statistics of a single server</p>
+     *
+     * @param address
+     *         The {@link InetSocketAddress} of the server
+     *
+     * @return An immutable {@link SourceRconServerStats} or {@code null} if the server has not been contacted yet or its statistics have expired
+     * @see SourceRconOptions#SERVER_STATS_EXPIRY
+     */
+    public SourceRconServerStats getServerStatistics(InetSocketAddress address) {
+        return getMessenger().getServerStats(address);
+    }
+
     @ApiStatus.Experimental
     public void printExecutorStats(Consumer<String> output) {
         getMessenger().getStatistics().printExecutorStats(output);
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.protocols.valve.source.query.rcon;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The counters of a single server. Each counter is a {@link LongAdder}, so concurrent updates from different event loops do not contend with each other.
+ *
+ * @see SourceRconServerStats
+ */
+final class SourceRconCounters {
+
+    final LongAdder acquires = new LongAdder();
+
+    final LongAdder acquireFailures = new LongAdder();
+
+    final LongAdder authSuccesses = new LongAdder();
+
+    final LongAdder authFailures = new LongAdder();
+
+    final LongAdder commands = new LongAdder();
+
+    final LongAdder commandFailures = new LongAdder();
+
+    final LongAdder bytesRead = new LongAdder();
+
+    final LongAdder bytesWritten = new LongAdder();
+
+    private final LongAdder latencyTotal = new LongAdder();
+
+    private final LongAdder[] latencies = new LongAdder[SourceRconServerStats.LATENCY_BUCKETS];
+
+    /**
+     * The time (in nanoseconds) the counters have last been accessed
+     */
+    private volatile long lastAccess = System.nanoTime();
+
+    SourceRconCounters() {
+        for (int i = 0; i < latencies.length; i++)
+            latencies[i] = new LongAdder();
+    }
+
+    /**
+     * Mark the counters as in use, so they are not discarded while the server is still being contacted
+     */
+    void touch() {
+        lastAccess = System.nanoTime();
+    }
+
+    /**
+     * @param expiry
+     *         The number of nanoseconds the counters are retained since they have last been accessed
+     *
+     * @return {@code true} if the counters have not been accessed within the expiry
+     */
+    boolean isExpired(long expiry) {
+        return System.nanoTime() - lastAccess >= expiry;
+    }
+
+    void acquired(Throwable error) {
+        if (error == null)
+            acquires.increment();
+        else
+            acquireFailures.increment();
+    }
+
+    void authenticated(boolean success) {
+        if (success)
+            authSuccesses.increment();
+        else
+            authFailures.increment();
+    }
+
+    void commandCompleted(long durationNanos, Throwable error) {
+        commands.increment();
+        if (error != null)
+            commandFailures.increment();
+        latencyTotal.add(durationNanos);
+        latencies[SourceRconServerStats.getLatencyBucket(durationNanos)].increment();
+    }
+
+    /**
+     * Read the current value of each counter
+     *
+     * @param address
+     *         The address of the server
+     * @param connections
+     *         The number of connections currently registered for the server
+     *
+     * @return A new immutable {@link SourceRconServerStats}
+     */
+    SourceRconServerStats snapshot(InetSocketAddress address, int connections) {
+        long[] buckets = new long[latencies.length];
+        for (int i = 0; i < buckets.length; i++)
+            buckets[i] = latencies[i].sum();
+        return new SourceRconServerStats(address, connections, acquires.sum(), acquireFailures.sum(), authSuccesses.sum(), authFailures.sum(), commands.sum(), commandFailures.sum(), latencyTotal.sum(), buckets, bytesRead.sum(), bytesWritten.sum());
+    }
+}
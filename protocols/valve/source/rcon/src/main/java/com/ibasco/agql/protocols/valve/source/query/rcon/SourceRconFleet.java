@@ -0,0 +1,250 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.protocols.valve.source.query.rcon;
+
+import com.ibasco.agql.core.util.Errors;
+import com.ibasco.agql.protocols.valve.source.query.rcon.enums.SourceRconAuthReason;
+import com.ibasco.agql.protocols.valve.source.query.rcon.exceptions.RconAuthException;
+import com.ibasco.agql.protocols.valve.source.query.rcon.message.SourceRconCmdResponse;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executes a command on a fleet of servers while keeping at most a fixed number of servers in-flight. Addresses are only pulled from the source {@link Iterator} once a slot becomes available.
+ *
+ * <p>
+ * Each server is handled independently: a failed attempt is scheduled for another attempt after a delay without occupying a slot in the meantime, so a slow or unreachable server never holds back the rest of the rollout.
+ * A server is given up on once the maximum number of attempts or its deadline has been reached. Authentication failures are not retried.
+ * A server that exceeded its deadline is reported right away, but its slot is only released once the underlying request has settled.
+ * </p>
+ *
+ * @see SourceRconOptions#FLEET_MAX_CONCURRENCY
+ * @see SourceRconOptions#FLEET_DEADLINE
+ * @see SourceRconOptions#FLEET_MAX_ATTEMPTS
+ * @see SourceRconOptions#FLEET_RETRY_DELAY
+ */
+final class SourceRconFleet {
+
+    private static final Logger log = LoggerFactory.getLogger(SourceRconFleet.class);
+
+    private final Iterator<InetSocketAddress> addresses;
+
+    private final Function<InetSocketAddress, CompletableFuture<SourceRconCmdResponse>> command;
+
+    private final Consumer<SourceRconFleetResult> listener;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final int maxConcurrency;
+
+    private final long deadline;
+
+    private final int maxAttempts;
+
+    private final long retryDelay;
+
+    private final CompletableFuture<SourceRconFleetSummary> promise = new CompletableFuture<>();
+
+    /**
+     * Servers waiting for their next attempt
+     */
+    private final Queue<Server> retries = new ConcurrentLinkedQueue<>();
+
+    private final Queue<SourceRconFleetResult> failures = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /**
+     * Servers that have been pulled from the source but have no outcome yet (in-flight or waiting for a retry)
+     */
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private final AtomicInteger succeeded = new AtomicInteger();
+
+    private final AtomicInteger wip = new AtomicInteger();
+
+    private final long started = System.nanoTime();
+
+    private boolean exhausted;
+
+    SourceRconFleet(Iterator<InetSocketAddress> addresses, Function<InetSocketAddress, CompletableFuture<SourceRconCmdResponse>> command, Consumer<SourceRconFleetResult> listener, ScheduledExecutorService scheduler, int maxConcurrency, long deadline, int maxAttempts, long retryDelay) {
+        if (maxConcurrency < 1)
+            throw new IllegalArgumentException("Maximum concurrency must be greater than zero");
+        if (maxAttempts < 1)
+            throw new IllegalArgumentException("Maximum attempts must be greater than zero");
+        this.addresses = Objects.requireNonNull(addresses, "Addresses must not be null");
+        this.command = Objects.requireNonNull(command, "Command function must not be null");
+        this.listener = Objects.requireNonNull(listener, "Listener must not be null");
+        this.scheduler = Objects.requireNonNull(scheduler, "Scheduler must not be null");
+        this.maxConcurrency = maxConcurrency;
+        this.deadline = deadline > 0 ? TimeUnit.MILLISECONDS.toNanos(deadline) : -1;
+        this.maxAttempts = maxAttempts;
+        this.retryDelay = Math.max(0, retryDelay);
+    }
+
+    /**
+     * Start the rollout
+     *
+     * @return A {@link CompletableFuture} that is completed once every server has an outcome and the listener has been notified of it. Cancelling the future stops the rollout from dispatching any more attempts.
+     */
+    CompletableFuture<SourceRconFleetSummary> execute() {
+        drain();
+        return promise;
+    }
+
+    /**
+     * Fills the concurrency window, servers waiting for a retry take precedence over new servers. Only one thread drains at a time, calls made while another thread is draining are picked up by the active thread on its next pass.
+     */
+    private void drain() {
+        if (wip.getAndIncrement() != 0)
+            return;
+        do {
+            while (!promise.isDone() && inFlight.get() < maxConcurrency) {
+                Server server = retries.poll();
+                if (server == null) {
+                    InetSocketAddress address = next();
+                    if (address == null)
+                        break;
+                    server = new Server(address);
+                    pending.incrementAndGet();
+                }
+                inFlight.incrementAndGet();
+                server.attempt();
+            }
+            if (exhausted && pending.get() == 0)
+                promise.complete(new SourceRconFleetSummary(succeeded.get(), new ArrayList<>(failures), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)));
+        } while (wip.decrementAndGet() != 0);
+    }
+
+    private InetSocketAddress next() {
+        if (exhausted)
+            return null;
+        try {
+            if (addresses.hasNext())
+                return Objects.requireNonNull(addresses.next(), "Address must not be null");
+            exhausted = true;
+        } catch (Exception e) {
+            exhausted = true;
+            promise.completeExceptionally(e);
+        }
+        return null;
+    }
+
+    private static boolean isRetryable(Throwable error) {
+        if (error instanceof TimeoutException)
+            return false;
+        if (error instanceof RconAuthException)
+            return ((RconAuthException) error).getReason() == SourceRconAuthReason.CONNECTION_DROPPED;
+        return true;
+    }
+
+    private final class Server {
+
+        private final InetSocketAddress address;
+
+        private int attempts;
+
+        private long started;
+
+        private Server(InetSocketAddress address) {
+            this.address = address;
+        }
+
+        private long remaining() {
+            return deadline < 0 ? Long.MAX_VALUE : deadline - (System.nanoTime() - started);
+        }
+
+        private void attempt() {
+            if (attempts++ == 0)
+                started = System.nanoTime();
+            final CompletableFuture<SourceRconCmdResponse> attempt = new CompletableFuture<>();
+            attempt.whenComplete((response, error) -> complete(response, error != null ? Errors.unwrap(error) : null));
+            CompletableFuture<SourceRconCmdResponse> request;
+            try {
+                if (deadline >= 0) {
+                    ScheduledFuture<?> timeout = scheduler.schedule(() -> attempt.completeExceptionally(new TimeoutException(String.format("Deadline of %d ms exceeded for address '%s'", TimeUnit.NANOSECONDS.toMillis(deadline), address))), remaining(), TimeUnit.NANOSECONDS);
+                    attempt.whenComplete((response, error) -> timeout.cancel(false));
+                }
+                request = command.apply(address);
+            } catch (Exception e) {
+                request = new CompletableFuture<>();
+                request.completeExceptionally(e);
+            }
+            request.whenComplete((response, error) -> {
+                if (error != null)
+                    attempt.completeExceptionally(error);
+                else
+                    attempt.complete(response);
+                //an expired attempt keeps its slot until the request itself has settled, the connection is still busy with it until then
+                inFlight.decrementAndGet();
+                drain();
+            });
+        }
+
+        private void complete(SourceRconCmdResponse response, Throwable error) {
+            try {
+                if (error != null && attempts < maxAttempts && isRetryable(error) && remaining() > TimeUnit.MILLISECONDS.toNanos(retryDelay)) {
+                    log.debug("FLEET => Attempt {} of {} failed for address '{}', retrying in {} ms ({})", attempts, maxAttempts, address, retryDelay, error.getMessage());
+                    try {
+                        scheduler.schedule(this::retry, retryDelay, TimeUnit.MILLISECONDS);
+                        return;
+                    } catch (RejectedExecutionException e) {
+                        log.debug("FLEET => Unable to schedule retry for address '{}'", address, e);
+                    }
+                }
+                finish(response, error);
+            } finally {
+                drain();
+            }
+        }
+
+        private void retry() {
+            retries.add(this);
+            drain();
+        }
+
+        private void finish(SourceRconCmdResponse response, Throwable error) {
+            SourceRconFleetResult result = new SourceRconFleetResult(address, response, error, attempts, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            if (error == null)
+                succeeded.incrementAndGet();
+            else
+                failures.add(result);
+            try {
+                listener.accept(result);
+            } catch (Exception e) {
+                log.debug("FLEET => Listener threw an exception for address '{}'", address, e);
+            } finally {
+                pending.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.protocols.valve.source.query.rcon;
+
+import com.ibasco.agql.protocols.valve.source.query.rcon.message.SourceRconCmdResponse;
+import java.net.InetSocketAddress;
+
+/**
+ * The outcome of a fleet command on a single server
+ *
+ * @see SourceRconClient#execute(Iterable, String, java.util.function.Consumer)
+ */
+public final class SourceRconFleetResult {
+
+    private final InetSocketAddress address;
+
+    private final SourceRconCmdResponse response;
+
+    private final Throwable error;
+
+    private final int attempts;
+
+    private final long duration;
+
+    SourceRconFleetResult(InetSocketAddress address, SourceRconCmdResponse response, Throwable error, int attempts, long duration) {
+        this.address = address;
+        this.response = response;
+        this.error = error;
+        this.attempts = attempts;
+        this.duration = duration;
+    }
+
+    /**
+     * @return The address of the server
+     */
+    public InetSocketAddress getAddress() {
+        return address;
+    }
+
+    /**
+     * @return {@code true} if the command has been executed successfully
+     */
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    /**
+     * @return The response of the server or {@code null} if the command has failed
+     */
+    public SourceRconCmdResponse getResponse() {
+        return response;
+    }
+
+    /**
+     * @return The error of the last attempt or {@code null} if the command has been executed successfully
+     */
+    public Throwable getError() {
+        return error;
+    }
+
+    /**
+     * @return The number of attempts made on the server
+     */
+    public int getAttempts() {
+        return attempts;
+    }
+
+    /**
+     * @return The time (in milliseconds) elapsed between the first attempt and the outcome
+     */
+    public long getDuration() {
+        return duration;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SourceRconFleetResult{address=%s, success=%s, attempts=%d, duration=%d ms, error=%s}", address, isSuccess(), attempts, duration, error);
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.protocols.valve.source.query.rcon;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The aggregated outcome of a fleet command
+ *
+ * @see SourceRconClient#execute(Iterable, String, java.util.function.Consumer)
+ */
+public final class SourceRconFleetSummary {
+
+    private final int succeeded;
+
+    private final List<SourceRconFleetResult> failures;
+
+    private final long duration;
+
+    SourceRconFleetSummary(int succeeded, List<SourceRconFleetResult> failures, long duration) {
+        this.succeeded = succeeded;
+        this.failures = Collections.unmodifiableList(failures);
+        this.duration = duration;
+    }
+
+    /**
+     * @return The total number of servers the command has been executed on
+     */
+    public int getTotal() {
+        return succeeded + failures.size();
+    }
+
+    /**
+     * @return The number of servers the command has been executed successfully on
+     */
+    public int getSucceeded() {
+        return succeeded;
+    }
+
+    /**
+     * @return The number of servers the command has failed on
+     */
+    public int getFailed() {
+        return failures.size();
+    }
+
+    /**
+     * @return An unmodifiable list of the results of the servers the command has failed on, in order of completion
+     */
+    public List<SourceRconFleetResult> getFailures() {
+        return failures;
+    }
+
+    /**
+     * @return The time (in milliseconds) the whole rollout took
+     */
+    public long getDuration() {
+        return duration;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SourceRconFleetSummary{total=%d, succeeded=%d, failed=%d, duration=%d ms}", getTotal(), succeeded, getFailed(), duration);
+    }
+}
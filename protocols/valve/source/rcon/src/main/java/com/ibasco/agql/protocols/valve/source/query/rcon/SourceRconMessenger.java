@@ -21,12 +21,14 @@ import com.google.common.collect.SetMultimap;
 import com.ibasco.agql.core.ChannelRegistry;
 import com.ibasco.agql.core.Credentials;
 import com.ibasco.agql.core.CredentialsStore;
+import com.ibasco.agql.core.NettyChannelContext;
 import com.ibasco.agql.core.NettyMessenger;
 import com.ibasco.agql.core.exceptions.ChannelClosedException;
 import com.ibasco.agql.core.exceptions.ChannelRegistrationException;
 import com.ibasco.agql.core.exceptions.MessengerException;
 import com.ibasco.agql.core.exceptions.RejectedRequestException;
 import com.ibasco.agql.core.exceptions.TimeoutException;
+import com.ibasco.agql.core.metrics.MetricsCollector;
 import com.ibasco.agql.core.transport.FailsafeChannelFactory;
 import com.ibasco.agql.core.transport.NettyChannelFactory;
 import com.ibasco.agql.core.transport.NettyContextChannelFactory;
@@ -41,7 +43,10 @@ import com.ibasco.agql.protocols.valve.source.query.rcon.exceptions.RconExceptio
 import com.ibasco.agql.protocols.valve.source.query.rcon.exceptions.RconInvalidCredentialsException;
 import com.ibasco.agql.protocols.valve.source.query.rcon.exceptions.RconMaxLoginAttemptsException;
 import com.ibasco.agql.protocols.valve.source.query.rcon.exceptions.RconNotYetAuthException;
+import com.ibasco.agql.protocols.valve.source.query.rcon.handlers.SourceRconPipelineHandler;
+import com.ibasco.agql.protocols.valve.source.query.rcon.handlers.SourceRconTrafficCounter;
 import com.ibasco.agql.protocols.valve.source.query.rcon.message.SourceRconAuthRequest;
+import com.ibasco.agql.protocols.valve.source.query.rcon.message.SourceRconAuthResponse;
 import com.ibasco.agql.protocols.valve.source.query.rcon.message.SourceRconCmdRequest;
 import com.ibasco.agql.protocols.valve.source.query.rcon.message.SourceRconRequest;
 import com.ibasco.agql.protocols.valve.source.query.rcon.message.SourceRconResponse;
@@ -53,6 +58,9 @@ import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.SingleThreadEventLoop;
 import io.netty.util.AttributeKey;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.netty.util.TimerTask;
 import io.netty.util.concurrent.DefaultThreadFactory;
 import io.netty.util.concurrent.EventExecutor;
 import org.apache.commons.lang3.StringUtils;
@@ -66,13 +74,17 @@ import java.net.InetSocketAddress;
 import java.net.SocketAddress;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
@@ -94,13 +106,18 @@ public final class SourceRconMessenger extends NettyMessenger<SourceRconRequest,
     //<editor-fold desc="Private Fields">
     private final Statistics statistics = new Statistics();
 
+    private final ConcurrentHashMap<InetSocketAddress, SourceRconCounters> counters = new ConcurrentHashMap<>();
+
     private final ScheduledExecutorService jobScheduler;
 
     private final CredentialsStore credentialsStore;
 
     private final boolean reauthenticate;
 
-    private final CleanupTask INACTIVITY_CHECK_TASK = new CleanupTask();
+    /**
+     * Tracks the idle deadline of each registered channel, only channels whose deadline has passed are checked
+     */
+    private final HashedWheelTimer idleTimer;
 
     private final ChannelRegistry registry = new SourceRconChannelRegistry();
 
@@ -108,6 +125,34 @@ public final class SourceRconMessenger extends NettyMessenger<SourceRconRequest,
 
     private final RconAuthenticator authenticator;
 
+    private final boolean pipelining;
+
+    private final ConcurrentHashMap<InetSocketAddress, CompletableFuture<SourceRconPipelineHandler>> pipelines = new ConcurrentHashMap<>();
+
+    private final int warmPoolMinIdle;
+
+    private final WarmPoolTask WARM_POOL_TASK = new WarmPoolTask();
+
+    /**
+     * The registered addresses whose connections are kept warm
+     */
+    private final Set<InetSocketAddress> warmAddresses = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The pending keep-alive requests of each address
+     */
+    private final ConcurrentHashMap<InetSocketAddress, CompletableFuture<Void>> keepAlives = new ConcurrentHashMap<>();
+
+    /**
+     * The keep-alive commands currently in-flight, these are not reported as user commands
+     */
+    private final Set<SourceRconRequest> keepAliveRequests = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The number of nanoseconds the statistics of an unused server are retained or -1 if they are retained indefinitely
+     */
+    private final long serverStatsExpiry;
+
     private RetryPolicy<SourceRconChannelContext> retryPolicy;
 
     private Fallback<SourceRconChannelContext> fallbackPolicy;
@@ -116,7 +161,7 @@ public final class SourceRconMessenger extends NettyMessenger<SourceRconRequest,
 
     private FailsafeExecutor<SourceRconChannelContext> executor;
 
-    private volatile boolean healthCheckStarted;
+    private volatile boolean warmPoolStarted;
     //</editor-fold>
 
     //<editor-fold desc="Constructor">
@@ -131,9 +176,21 @@ public final class SourceRconMessenger extends NettyMessenger<SourceRconRequest,
         super(options);
         this.credentialsStore = get(SourceRconOptions.CREDENTIALS_STORE, new InMemoryCredentialsStore());
         this.jobScheduler = Executors.newSingleThreadScheduledExecutor(new DefaultThreadFactory("agql-jobs-auth"));
+        this.idleTimer = new HashedWheelTimer(new DefaultThreadFactory("agql-rcon-idle", true), Math.max(1, getOrDefault(SourceRconOptions.INACTIVE_CHECK_INTERVAL)), TimeUnit.SECONDS);
         this.reauthenticate = getOrDefault(SourceRconOptions.REAUTHENTICATE);
         this.authenticator = new SourceRconAuthenticator(credentialsStore, reauthenticate);
         this.channelFactory = (SourceRconChannelFactory) getChannelFactory();
+        //responses of pipelined commands can only be told apart by their terminator packets
+        this.pipelining = getOrDefault(SourceRconOptions.PIPELINING) && getOrDefault(SourceRconOptions.USE_TERMINATOR_PACKET);
+        //only as many connections can be kept warm as the pool is able to hold
+        int minIdle = Math.max(0, getOrDefault(SourceRconOptions.WARM_POOL_MIN_IDLE));
+        if (!getOrDefault(GeneralOptions.CONNECTION_POOLING))
+            minIdle = 0;
+        this.warmPoolMinIdle = pipelining ? Math.min(1, minIdle) : Math.min(minIdle, getOrDefault(GeneralOptions.POOL_MAX_CONNECTIONS));
+        final int statsExpiry = getOrDefault(SourceRconOptions.SERVER_STATS_EXPIRY);
+        this.serverStatsExpiry = statsExpiry > 0 ? TimeUnit.SECONDS.toNanos(statsExpiry) : -1;
+        if (statsExpiry > 0)
+            jobScheduler.scheduleWithFixedDelay(this::evictServerStats, statsExpiry, statsExpiry, TimeUnit.SECONDS);
         initFailSafe(getOptions());
     }
     //</editor-fold>
@@ -262,6 +319,13 @@ public final class SourceRconMessenger extends NettyMessenger<SourceRconRequest,
 
     //<editor-fold desc="Getters">
 
+    /** {@inheritDoc} */
+    @Override
+    protected boolean isMetered(NettyChannelContext context) {
+        //keep-alive commands are not user commands, do not report them as such
+        return !keepAliveRequests.contains(context.properties().request());
+    }
+
     /** {@inheritDoc} */
     @Override
     protected NettyChannelFactory createChannelFactory() {
@@ -278,16 +342,30 @@ public final class SourceRconMessenger extends NettyMessenger<SourceRconRequest,
     public CompletableFuture<SourceRconResponse> send(final InetSocketAddress address, final SourceRconRequest request) {
         Objects.requireNonNull(address, "Address must not be null");
         Objects.requireNonNull(request, "Request must not be null");
-        Function<SourceRconChannelContext, CompletableFuture<SourceRconChannelContext>> method;
-        if (request instanceof SourceRconAuthRequest) {
-            method = this::sendAuthRequest;
-        } else if (request instanceof SourceRconCmdRequest) {
-            method = this::sendCmdRequest;
-        } else {
+        if (request instanceof SourceRconCmdRequest) {
+            final long start = System.nanoTime();
+            final CompletableFuture<SourceRconResponse> response = sendCommand(address, (SourceRconCmdRequest) request);
+            final SourceRconCounters counters = counters(address);
+            response.whenComplete((res, error) -> {
+                final long duration = System.nanoTime() - start;
+                counters.commandCompleted(duration, error);
+                //pipelined commands bypass the messenger's transport, so these are not reported by it
+                if (pipelining)
+                    reportPipelined(request, address, duration, error);
+            });
+            return response;
+        }
+        if (!(request instanceof SourceRconAuthRequest))
             throw new IllegalStateException("Invalid rcon request");
+        final RequestContext details = new RequestContext(address, request, this::sendAuthRequest);
+        final CompletableFuture<SourceRconResponse> response = failSafeExecute(details).handle(details::collectAndRelease);
+        if (warmPoolMinIdle > 0) {
+            response.thenAccept(authResponse -> {
+                if (((SourceRconAuthResponse) authResponse).isAuthenticated())
+                    warm(address);
+            });
         }
-        final RequestContext details = new RequestContext(address, request, method);
-        return failSafeExecute(details).handle(details::collectAndRelease);
+        return response;
     }
 
     /** {@inheritDoc} */
@@ -296,6 +374,7 @@ public final class SourceRconMessenger extends NettyMessenger<SourceRconRequest,
         try {
             super.close();
         } finally {
+            idleTimer.stop();
             if (!jobScheduler.isShutdown()) {
                 log.debug("AUTH (CLOSE) => Requesting graceful shutdown");
                 if (Concurrency.shutdown(jobScheduler)) {
@@ -374,6 +453,8 @@ public final class SourceRconMessenger extends NettyMessenger<SourceRconRequest,
         try {
             log.debug("{} AUTH => Registering channel '{}'", Netty.id(channel), channel);
             registry.register(channel);
+            final SourceRconCounters counters = counters(address);
+            channel.pipeline().addFirst(SourceRconTrafficCounter.NAME, new SourceRconTrafficCounter(counters.bytesRead, counters.bytesWritten));
             if (log.isDebugEnabled()) {
                 log.debug("{} AUTH => Successfully registered channel (Total: {}, Address: {}, Authenticated: {})", context.id(), registry.getChannels(address).size(), channel.remoteAddress(), isAuthenticated(channel));
             }
@@ -383,8 +464,12 @@ public final class SourceRconMessenger extends NettyMessenger<SourceRconRequest,
             context.properties().autoRelease(false); //Disable auto release of channel, we will release/close it manually (requires to explicitly call context.close())
             context.properties().authenticated(false);
 
-            //Start inactivity check task once a channel has been registered
-            startInactivityCheck();
+            //close the channel once it has been idle for too long, channels that are never acquired are closed on the first check
+            scheduleIdleCheck(channel, address, TimeUnit.SECONDS.toMillis(Math.max(1, getOrDefault(SourceRconOptions.INACTIVE_CHECK_INTERVAL))));
+
+            //replace the connection once it has been closed
+            if (warmPoolMinIdle > 0)
+                channel.closeFuture().addListener(future -> replenish(address));
         } catch (ChannelRegistrationException e) {
             throw new IllegalStateException(e);
         }
@@ -410,12 +495,13 @@ public final class SourceRconMessenger extends NettyMessenger<SourceRconRequest,
         return context.properties().authenticated();
     }
 
-    private void startInactivityCheck() {
-        if (healthCheckStarted)
+    private void scheduleIdleCheck(final Channel channel, final InetSocketAddress address, final long delay) {
+        if (delay < 0)
             return;
-        synchronized (this) {
-            jobScheduler.scheduleAtFixedRate(INACTIVITY_CHECK_TASK, 0, getOrDefault(SourceRconOptions.INACTIVE_CHECK_INTERVAL), TimeUnit.SECONDS);
-            healthCheckStarted = true;
+        try {
+            idleTimer.newTimeout(new IdleCheck(channel, address), delay, TimeUnit.MILLISECONDS);
+        } catch (IllegalStateException e) {
+            log.debug("{} AUTH => Idle timer has been stopped, not tracking channel '{}'", Netty.id(channel), channel);
         }
     }
 
@@ -452,11 +538,18 @@ public final class SourceRconMessenger extends NettyMessenger<SourceRconRequest,
 
     private CompletableFuture<SourceRconChannelContext> sendAuthRequest(final SourceRconChannelContext context) {
         log.debug("{} AUTH => Sending AUTH request '{}'", context.id(), context.properties().request());
-        return authenticator.authenticate(context).handle(Pair::new).thenCombine(CompletableFuture.completedFuture(context), this::wrapOnError);
+        return authenticate(context).handle(Pair::new).thenCombine(CompletableFuture.completedFuture(context), this::wrapOnError);
     }
 
     private CompletableFuture<SourceRconChannelContext> sendCmdRequest(final SourceRconChannelContext context) {
         log.debug("{} AUTH => Sending COMMAND request '{}'", context.id(), context.properties().request());
+        return authenticateCmdRequest(context).thenCompose(SourceRconChannelContext::send);
+    }
+
+    /**
+     * Ensure that the channel of the context is authenticated before a command request is sent. If the channel is not yet authenticated, an authentication request will be sent first.
+     */
+    private CompletableFuture<SourceRconChannelContext> authenticateCmdRequest(final SourceRconChannelContext context) {
         final SourceRconRequest request = context.properties().request();
         final InetSocketAddress address = context.properties().envelope().recipient();
         //Do we a valid credential registered for the address
@@ -468,13 +561,212 @@ public final class SourceRconMessenger extends NettyMessenger<SourceRconRequest,
         log.debug("{} AUTH => Found existing valid credentials for address '{}' (Authenticated: {})", context.id(), address, context.properties().authenticated());
         //is the channel authenticated already?
         if (context.properties().authenticated())
-            return context.send();
+            return CompletableFuture.completedFuture(context);
         if (!reauthenticate)
             throw new RconInvalidCredentialsException(String.format(SourceRconAuthenticator.INVALID_CREDENTIALS_MSG, address), request, address, SourceRconAuthReason.INVALIDATED);
 
         log.debug("{} AUTH => Channel not yet authenticated. Attempting to authenticate the underlying connection with remote server", context.id());
-        //Send the request over the transport. If the channel is not yet authenticated, an authentication request will be sent first.
-        return authenticator.authenticate(context).handle(Pair::new).thenCombine(CompletableFuture.completedFuture(context), this::wrapOnError).thenCompose(SourceRconChannelContext::send);
+        return authenticate(context).handle(Pair::new).thenCombine(CompletableFuture.completedFuture(context), this::wrapOnError);
+    }
+    //</editor-fold>
+
+    /**
+     * Authenticate the channel of the context and record the outcome
+     */
+    private CompletableFuture<SourceRconChannelContext> authenticate(final SourceRconChannelContext context) {
+        final InetSocketAddress address = context.remoteAddress();
+        final SourceRconCounters counters = counters(address);
+        return authenticator.authenticate(context).whenComplete((ctx, error) -> {
+            final boolean success = error == null && ctx.properties().authenticated();
+            counters.authenticated(success);
+            getMetrics().authenticated(address, success);
+        });
+    }
+
+    //<editor-fold desc="Pipelining">
+
+    /**
+     * Send a command request without recording it in the statistics of the server
+     */
+    private CompletableFuture<SourceRconResponse> sendCommand(final InetSocketAddress address, final SourceRconCmdRequest request) {
+        if (pipelining)
+            return sendPipelined(address, request);
+        final RequestContext details = new RequestContext(address, request, this::sendCmdRequest);
+        return failSafeExecute(details).handle(details::collectAndRelease);
+    }
+
+    private void reportPipelined(final SourceRconRequest request, final InetSocketAddress address, final long duration, final Throwable error) {
+        final MetricsCollector metrics = getMetrics();
+        if (metrics == MetricsCollector.NOOP)
+            return;
+        final Throwable cause = error != null ? Errors.unwrap(error) : null;
+        metrics.requestCompleted(request.getClass(), address, duration, cause);
+        if (cause instanceof TimeoutException)
+            metrics.requestTimedOut(request.getClass(), address);
+    }
+
+    /**
+     * Send a command request over the pipelined connection of the address, the connection is opened and authenticated if necessary
+     *
+     * @see SourceRconOptions#PIPELINING
+     */
+    private CompletableFuture<SourceRconResponse> sendPipelined(final InetSocketAddress address, final SourceRconCmdRequest request) {
+        return pipeline(address).thenCompose(handler -> handler.execute(request)).thenApply(SourceRconResponse.class::cast);
+    }
+
+    private CompletableFuture<SourceRconPipelineHandler> pipeline(final InetSocketAddress address) {
+        while (true) {
+            //failed pipelines are removed from the map, so an existing entry is either pending or successful
+            final CompletableFuture<SourceRconPipelineHandler> existing = pipelines.get(address);
+            final CompletableFuture<SourceRconPipelineHandler> pipeline = new CompletableFuture<>();
+            if (existing == null) {
+                if (pipelines.putIfAbsent(address, pipeline) != null)
+                    continue;
+            } else if (!existing.isDone() || existing.join().isActive()) {
+                return existing;
+            } else {
+                //closed or no longer authenticated (e.g. invalidated), replace it with a new one
+                if (!pipelines.replace(address, existing, pipeline))
+                    continue;
+                existing.join().close();
+            }
+            openPipeline(address).whenComplete((handler, error) -> {
+                if (error != null) {
+                    pipelines.remove(address, pipeline);
+                    pipeline.completeExceptionally(error);
+                } else {
+                    pipeline.complete(handler);
+                }
+            });
+            return pipeline;
+        }
+    }
+
+    /**
+     * Acquire and authenticate a channel which will be dedicated to pipelined command requests. The channel is not released back to the pool until it has been closed.
+     */
+    private CompletableFuture<SourceRconPipelineHandler> openPipeline(final InetSocketAddress address) {
+        log.debug("AUTH => Opening pipelined connection to address '{}'", address);
+        //the request is only used to authenticate the channel, it is never sent
+        final SourceRconCmdRequest request = new SourceRconCmdRequest(StringUtils.EMPTY);
+        request.setRequestId(SourceRcon.createRequestId());
+        final RequestContext details = new RequestContext(address, request, this::authenticateCmdRequest);
+        return failSafeExecute(details).handle(details::detach).thenCompose(this::promote);
+    }
+
+    private CompletableFuture<SourceRconPipelineHandler> promote(final SourceRconChannelContext context) {
+        final Channel channel = context.channel();
+        final SourceRconPipelineHandler handler = new SourceRconPipelineHandler(getOrDefault(SourceRconOptions.PIPELINE_MAX_IN_FLIGHT), getOrDefault(GeneralOptions.READ_TIMEOUT));
+        return CompletableFuture.supplyAsync(() -> {
+            //the traffic counter must remain in front to see the raw data
+            channel.pipeline().addAfter(SourceRconTrafficCounter.NAME, SourceRconPipelineHandler.NAME, handler);
+            //the handlers reporting the traffic of the connection are bypassed from now on
+            ((SourceRconTrafficCounter) channel.pipeline().get(SourceRconTrafficCounter.NAME)).setMetrics(getMetrics());
+            //release the connection once it has been closed
+            channel.closeFuture().addListener(future -> context.close());
+            log.debug("{} AUTH => Channel '{}' is now dedicated to pipelined commands", context.id(), channel);
+            return handler;
+        }, channel.eventLoop());
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Warm Pool">
+
+    /**
+     * Keep the connections of a registered address warm
+     *
+     * @see SourceRconOptions#WARM_POOL_MIN_IDLE
+     */
+    private void warm(final InetSocketAddress address) {
+        if (warmAddresses.add(address))
+            log.debug("AUTH (WARM) => Keeping {} connection(s) of address '{}' warm", warmPoolMinIdle, address);
+        startWarmPool();
+        replenish(address);
+    }
+
+    private void startWarmPool() {
+        if (warmPoolStarted)
+            return;
+        synchronized (this) {
+            if (warmPoolStarted)
+                return;
+            int interval = getOrDefault(SourceRconOptions.INACTIVE_CHECK_INTERVAL);
+            jobScheduler.scheduleAtFixedRate(WARM_POOL_TASK, interval, interval, TimeUnit.SECONDS);
+            warmPoolStarted = true;
+        }
+    }
+
+    private void replenish(final InetSocketAddress address) {
+        if (!warmAddresses.contains(address) || jobScheduler.isShutdown())
+            return;
+        try {
+            jobScheduler.execute(() -> keepWarm(address));
+        } catch (RejectedExecutionException e) {
+            log.debug("AUTH (WARM) => Unable to replenish connections of address '{}' (Reason: {})", address, e.getMessage());
+        }
+    }
+
+    /**
+     * Send keep-alive commands to the address once one of its connections has been idle for too long or is missing. Missing connections are created and authenticated by the pool while serving the keep-alive commands.
+     */
+    private void keepWarm(final InetSocketAddress address) {
+        if (getExecutor().isShuttingDown())
+            return;
+        if (!isValidAddress(address)) {
+            warmAddresses.remove(address);
+            return;
+        }
+        final CompletableFuture<Void> pending = keepAlives.get(address);
+        if (pending != null && !pending.isDone())
+            return;
+        final long keepAliveInterval = TimeUnit.SECONDS.toMillis(getOrDefault(SourceRconOptions.WARM_POOL_KEEPALIVE_INTERVAL));
+        final int required;
+        if (pipelining) {
+            CompletableFuture<SourceRconPipelineHandler> pipeline = pipelines.get(address);
+            boolean warm = pipeline != null && (!pipeline.isDone() || (!pipeline.isCompletedExceptionally() && pipeline.join().isActive() && pipeline.join().getIdleTime() < keepAliveInterval));
+            required = warm ? 0 : 1;
+        } else {
+            //the pool hands out idle connections first, so the keep-alive commands need to be sent concurrently for new connections to be created
+            required = getWarmCount(address, keepAliveInterval) < warmPoolMinIdle ? warmPoolMinIdle : 0;
+        }
+        if (required <= 0)
+            return;
+        log.debug("AUTH (WARM) => Sending {} keep-alive command(s) to address '{}'", required, address);
+        final CompletableFuture<?>[] futures = new CompletableFuture<?>[required];
+        for (int i = 0; i < required; i++) {
+            final SourceRconCmdRequest request = new SourceRconCmdRequest(getOrDefault(SourceRconOptions.WARM_POOL_KEEPALIVE_COMMAND));
+            request.setRequestId(SourceRcon.createRequestId());
+            keepAliveRequests.add(request);
+            try {
+                futures[i] = sendCommand(address, request);
+            } catch (Exception e) {
+                futures[i] = Concurrency.failedFuture(e);
+            }
+            futures[i].whenComplete((response, error) -> keepAliveRequests.remove(request));
+        }
+        final CompletableFuture<Void> keepAlive = CompletableFuture.allOf(futures);
+        keepAlives.put(address, keepAlive);
+        keepAlive.whenComplete((unused, error) -> {
+            keepAlives.remove(address, keepAlive);
+            if (error != null)
+                log.debug("AUTH (WARM) => Failed to keep connections of address '{}' warm (Reason: {})", address, Errors.unwrap(error).getMessage());
+        });
+    }
+
+    /**
+     * @return The number of idle authenticated connections of the address which have been used within the keep-alive interval. Connections currently acquired from the pool are not counted, they are not available to the next command.
+     */
+    private int getWarmCount(final InetSocketAddress address, final long keepAliveInterval) {
+        final long now = System.currentTimeMillis();
+        int count = 0;
+        for (Channel channel : registry.getChannels(address)) {
+            if (!channel.isActive() || !isAuthenticated(channel) || NettyChannelPool.isPooled(channel))
+                continue;
+            Long lastAcquired = Metadata.Stats.LAST_ACQUIRE_MILLIS.value(channel);
+            if (lastAcquired != null && now - lastAcquired < keepAliveInterval)
+                count++;
+        }
+        return count;
     }
     //</editor-fold>
 
@@ -506,6 +798,56 @@ public final class SourceRconMessenger extends NettyMessenger<SourceRconRequest,
         return statistics;
     }
 
+    /**
+     * Take a snapshot of the statistics of all servers contacted so far. The counters are maintained as requests are processed, so taking a snapshot does not access any of the connections.
+     *
+     * @return An unmodifiable {@link Map} containing the {@link SourceRconServerStats} of each server
+     */
+    public Map<InetSocketAddress, SourceRconServerStats> getServerStats() {
+        Map<InetSocketAddress, SourceRconServerStats> stats = new HashMap<>(counters.size() * 2);
+        for (Map.Entry<InetSocketAddress, SourceRconCounters> entry : counters.entrySet())
+            stats.put(entry.getKey(), entry.getValue().snapshot(entry.getKey(), registry.getCount(entry.getKey())));
+        return Collections.unmodifiableMap(stats);
+    }
+
+    /**
+     * Take a snapshot of the statistics of a single server
+     *
+     * @param address
+     *         The {@link InetSocketAddress} of the server
+     *
+     * @return The {@link SourceRconServerStats} of the server or {@code null} if the server has not been contacted yet or its statistics have expired
+     * @see SourceRconOptions#SERVER_STATS_EXPIRY
+     */
+    public SourceRconServerStats getServerStats(InetSocketAddress address) {
+        SourceRconCounters serverCounters = counters.get(address);
+        return serverCounters != null ? serverCounters.snapshot(address, registry.getCount(address)) : null;
+    }
+
+    private SourceRconCounters counters(InetSocketAddress address) {
+        SourceRconCounters serverCounters = counters.get(address);
+        if (serverCounters == null)
+            serverCounters = counters.computeIfAbsent(address, key -> new SourceRconCounters());
+        serverCounters.touch();
+        return serverCounters;
+    }
+
+    /**
+     * Discard the statistics of the servers which no longer have any open connections and have not been contacted within the expiry
+     *
+     * @see SourceRconOptions#SERVER_STATS_EXPIRY
+     */
+    private void evictServerStats() {
+        for (InetSocketAddress address : counters.keySet()) {
+            counters.computeIfPresent(address, (key, serverCounters) -> {
+                if (registry.getCount(key) > 0 || warmAddresses.contains(key) || !serverCounters.isExpired(serverStatsExpiry))
+                    return serverCounters;
+                log.debug("STATISTICS => Discarding the statistics of address '{}'", key);
+                return null;
+            });
+        }
+    }
+
     /**
      * Cleanup inactive connections
      */
@@ -543,6 +885,7 @@ public final class SourceRconMessenger extends NettyMessenger<SourceRconRequest,
         checkAddress(address);
         log.debug("AUTH => Invalidating address '{}'", address);
         if (!connectionsOnly) {
+            warmAddresses.remove(address);
             Credentials credentials = credentialsStore.get(address);
             if (credentials != null)
                 credentials.invalidate();
@@ -733,6 +1076,62 @@ public final class SourceRconMessenger extends NettyMessenger<SourceRconRequest,
     }
 
     //<editor-fold desc="Background Tasks">
+
+    /**
+     * Closes a channel once it has not been acquired for {@link SourceRconOptions#CLOSE_INACTIVE_CHANNELS} seconds. Channels that are still in use or have been acquired in the meantime are checked again once their new deadline has passed.
+     * The first check runs {@link SourceRconOptions#INACTIVE_CHECK_INTERVAL} seconds after registration, channels which have never been acquired by then are closed right away.
+     * The last channel of an address is never closed.
+     */
+    private class IdleCheck implements TimerTask {
+
+        private final Channel channel;
+
+        private final InetSocketAddress address;
+
+        private IdleCheck(Channel channel, InetSocketAddress address) {
+            this.channel = channel;
+            this.address = address;
+        }
+
+        @Override
+        public void run(Timeout timeout) {
+            if (!channel.isActive() || !registry.isRegistered(channel))
+                return;
+            final long closeDuration = TimeUnit.SECONDS.toMillis(getOrDefault(SourceRconOptions.CLOSE_INACTIVE_CHANNELS));
+            if (closeDuration < 0)
+                return;
+            final Long lastAcquired = Metadata.Stats.LAST_ACQUIRE_MILLIS.value(channel);
+            final long idle = lastAcquired != null ? System.currentTimeMillis() - lastAcquired : closeDuration;
+            if (idle < closeDuration) {
+                scheduleIdleCheck(channel, address, closeDuration - idle);
+            } else if (NettyChannelPool.isPooled(channel) || registry.getCount(address) <= 1) {
+                scheduleIdleCheck(channel, address, closeDuration);
+            } else {
+                log.debug("AUTH (CLEANUP) => Closing idle channel: ({}) (Idle: {} ms, Remaining: {})", channel, idle, registry.getCount(address) - 1);
+                registry.unregister(channel);
+                final String id = channel.id().asShortText();
+                Netty.close(channel).thenAcceptAsync(unused -> {
+                    log.debug("AUTH (CLEANUP) => Closed idle channel: {}", id);
+                    Console.colorize().blue("[CLEANUP : %s] ", Thread.currentThread().getName()).white("Channel ").cyan("'%s'", id).white(" closed").println();
+                }, channel.eventLoop());
+            }
+        }
+    }
+
+    private class WarmPoolTask implements Runnable {
+
+        @Override
+        public void run() {
+            for (InetSocketAddress address : warmAddresses) {
+                try {
+                    keepWarm(address);
+                } catch (Exception e) {
+                    log.debug("AUTH (WARM) => Error while keeping connections of address '{}' warm", address, e);
+                }
+            }
+        }
+    }
+
     private class CleanupTask implements Runnable {
 
         private final boolean force;
@@ -942,6 +1341,18 @@ public final class SourceRconMessenger extends NettyMessenger<SourceRconRequest,
             }
         }
 
+        /**
+         * Keep the authenticated context for further use instead of releasing it
+         */
+        private SourceRconChannelContext detach(SourceRconChannelContext context, Throwable error) {
+            if (error != null) {
+                //releases the context and rethrows the error
+                collectAndRelease(context, error);
+            }
+            assert context != null && context == getContext();
+            return context;
+        }
+
         private SourceRconChannelContext getContext() {
             if (this.contextRef == null)
                 return null;
@@ -959,6 +1370,8 @@ public final class SourceRconMessenger extends NettyMessenger<SourceRconRequest,
                        .text(" (Last Error: %s)", context.getLastException())
                        .println();
             }
+            if (context.isRetry() && !keepAliveRequests.contains(request))
+                getMetrics().requestRetried(request.getClass(), address, context.getAttemptCount() + 1);
             Credentials credentials = credentialsStore.get(address);
             log.debug("AUTH => Sending RCON Request '{}' to address '{}' (Valid Credentials: {}, Attempts: {}, Cancelled: {}, Last Failure: {}, Last Result: {})", request, address, credentials != null && credentials.isValid(), context.getAttemptCount(), context.isCancelled(), context.getLastException(), context.getLastResult());
             return acquire().thenCompose(method);
@@ -972,6 +1385,8 @@ public final class SourceRconMessenger extends NettyMessenger<SourceRconRequest,
         private CompletableFuture<SourceRconChannelContext> acquire() {
             CompletableFuture<Channel> channelFuture = channelFactory.create(address);
             channelFuture.thenAccept(this::updateContext);
+            final SourceRconCounters serverCounters = counters(address);
+            channelFuture.whenComplete((channel, error) -> serverCounters.acquired(error));
             return channelFuture.thenCompose(SourceRconMessenger.this::register)
                                 .handle(statistics::recordAcquire)
                                 .thenApply(SourceRconChannelContext::getContext)
@@ -89,12 +89,100 @@ public final class SourceRconOptions extends AbstractOptions {
     public static final Option<Integer> CLOSE_INACTIVE_CHANNELS = Option.create("rconClosedUnused", 30);
 
     /**
-     * Number of seconds to check for inactive {@link io.netty.channel.Channel}'s/connections (Unit: Seconds, Default Value: 1 sec)
+     * The resolution of the idle deadlines of the {@link io.netty.channel.Channel}'s/connections, an inactive connection is closed at most this many seconds after it has reached {@link #CLOSE_INACTIVE_CHANNELS}.
+     * Also the interval in which the connections of the warm pool are checked (Unit: Seconds, Default Value: 1 sec)
      *
      * @see #CLOSE_INACTIVE_CHANNELS
      */
     public static final Option<Integer> INACTIVE_CHECK_INTERVAL = Option.create("rconInactiveCheckInterval", 1);
 
+    /**
+     * <p>
+     * Enable pipelined command execution (Disabled by default).
+     * </p>
+     *
+     * <p>
+     * When enabled, all commands sent to an address share a single authenticated connection and multiple commands may be in-flight at the same time instead of acquiring (and authenticating) a connection per command.
+     * Each command is followed by a terminator packet carrying the negated request id, so the responses are correlated by their packet id and may even arrive out of order.
+     * The connection remains acquired for as long as it is open. This option has no effect if {@link #USE_TERMINATOR_PACKET} is disabled.
+     * </p>
+     *
+     * @see #PIPELINE_MAX_IN_FLIGHT
+     */
+    public static final Option<Boolean> PIPELINING = Option.create("rconPipelining", false);
+
+    /**
+     * The maximum number of commands in-flight on a pipelined connection, additional commands are queued until a response has been received (Default: 32)
+     *
+     * @see #PIPELINING
+     */
+    public static final Option<Integer> PIPELINE_MAX_IN_FLIGHT = Option.create("rconPipelineMaxInFlight", 32);
+
+    /**
+     * <p>
+     * The minimum number of idle authenticated connections kept open for each registered address (registered via {@link SourceRconClient#authenticate(InetSocketAddress, byte[])}). Set to 0 to disable (Default: 0)
+     * </p>
+     *
+     * <p>
+     * Connections are established and authenticated in the background as soon as an address has been registered and are replenished once closed, so a command does not have to pay for the connect and authentication round trips.
+     * Idle connections are kept alive by sending {@link #WARM_POOL_KEEPALIVE_COMMAND} every {@link #WARM_POOL_KEEPALIVE_INTERVAL} seconds, which also keeps them from being closed by {@link #CLOSE_INACTIVE_CHANNELS}.
+     * The value is capped by {@link com.ibasco.agql.core.util.GeneralOptions#POOL_MAX_CONNECTIONS}. If {@link #PIPELINING} is enabled, only the pipelined connection is kept warm.
+     * </p>
+     *
+     * @see #WARM_POOL_KEEPALIVE_INTERVAL
+     * @see #WARM_POOL_KEEPALIVE_COMMAND
+     */
+    public static final Option<Integer> WARM_POOL_MIN_IDLE = Option.create("rconWarmPoolMinIdle", 0);
+
+    /**
+     * The number of seconds a warm connection may stay idle before a keep-alive command is sent through it. This should be lower than {@link #CLOSE_INACTIVE_CHANNELS} and the idle timeout of the game server (Unit: Seconds, Default: 15 sec)
+     *
+     * @see #WARM_POOL_MIN_IDLE
+     */
+    public static final Option<Integer> WARM_POOL_KEEPALIVE_INTERVAL = Option.create("rconWarmPoolKeepAliveInterval", 15);
+
+    /**
+     * The no-op command sent to keep a warm connection alive. Source servers reply to an empty command with an empty response (Default: empty string)
+     *
+     * @see #WARM_POOL_MIN_IDLE
+     */
+    public static final Option<String> WARM_POOL_KEEPALIVE_COMMAND = Option.create("rconWarmPoolKeepAliveCommand", "");
+
+    /**
+     * The maximum number of servers a fleet command is executed on concurrently (Default: 16)
+     *
+     * @see SourceRconClient#execute(Iterable, String, java.util.function.Consumer)
+     */
+    public static final Option<Integer> FLEET_MAX_CONCURRENCY = Option.create("rconFleetMaxConcurrency", 16);
+
+    /**
+     * The maximum amount of time (in milliseconds) a fleet command may take on a single server, including all retry attempts. Once reached, the server is reported as failed with a {@link java.util.concurrent.TimeoutException}. Set to -1 to disable. (Default: 30000 ms)
+     *
+     * @see SourceRconClient#execute(Iterable, String, java.util.function.Consumer)
+     */
+    public static final Option<Long> FLEET_DEADLINE = Option.create("rconFleetDeadline", 30000L);
+
+    /**
+     * The maximum number of attempts to execute a fleet command on a single server. These are in addition to the retries performed by the failsafe retry policy for each attempt. (Default: 3)
+     *
+     * @see SourceRconClient#execute(Iterable, String, java.util.function.Consumer)
+     */
+    public static final Option<Integer> FLEET_MAX_ATTEMPTS = Option.create("rconFleetMaxAttempts", 3);
+
+    /**
+     * The delay (in milliseconds) before a failed server is attempted again. The server does not occupy a concurrency slot while waiting. (Default: 1000 ms)
+     *
+     * @see #FLEET_MAX_ATTEMPTS
+     */
+    public static final Option<Long> FLEET_RETRY_DELAY = Option.create("rconFleetRetryDelay", 1000L);
+
+    /**
+     * The number of seconds the statistics of a server are retained once it no longer has any open connections and has not been contacted. Expired statistics are discarded, so servers that are no longer in use do not accumulate. Set to -1 to disable. (Unit: Seconds, Default: 600 sec)
+     *
+     * @see SourceRconClient#getServerStatistics()
+     */
+    public static final Option<Integer> SERVER_STATS_EXPIRY = Option.create("rconServerStatsExpiry", 600);
+
     /**
      * <p>Create a new {@link OptionBuilder} for {@link SourceRconOptions}</p>
      *
@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.protocols.valve.source.query.rcon;
+
+import java.net.InetSocketAddress;
+
+/**
+ * An immutable snapshot of the statistics of a single server. All counters are cumulative since the server has first been contacted.
+ *
+ * <p>
+ * Command latencies are recorded in a histogram of exponentially sized buckets: bucket {@code i} contains the latencies in the range {@code [2^(i-1), 2^i)} nanoseconds, the last bucket also contains all larger latencies.
+ * The counters are read one after another, so a snapshot taken while commands are running is not guaranteed to be consistent across counters.
+ * </p>
+ *
+ * @see SourceRconClient#getServerStatistics()
+ */
+public final class SourceRconServerStats {
+
+    /**
+     * The number of buckets of the latency histogram
+     */
+    public static final int LATENCY_BUCKETS = 40;
+
+    private final InetSocketAddress address;
+
+    private final int connections;
+
+    private final long acquireCount;
+
+    private final long acquireFailures;
+
+    private final long authSuccesses;
+
+    private final long authFailures;
+
+    private final long commandCount;
+
+    private final long commandFailures;
+
+    private final long latencyTotal;
+
+    private final long[] latencies;
+
+    private final long bytesRead;
+
+    private final long bytesWritten;
+
+    SourceRconServerStats(InetSocketAddress address, int connections, long acquireCount, long acquireFailures, long authSuccesses, long authFailures, long commandCount, long commandFailures, long latencyTotal, long[] latencies, long bytesRead, long bytesWritten) {
+        this.address = address;
+        this.connections = connections;
+        this.acquireCount = acquireCount;
+        this.acquireFailures = acquireFailures;
+        this.authSuccesses = authSuccesses;
+        this.authFailures = authFailures;
+        this.commandCount = commandCount;
+        this.commandFailures = commandFailures;
+        this.latencyTotal = latencyTotal;
+        this.latencies = latencies;
+        this.bytesRead = bytesRead;
+        this.bytesWritten = bytesWritten;
+    }
+
+    /**
+     * @return The address of the server
+     */
+    public InetSocketAddress getAddress() {
+        return address;
+    }
+
+    /**
+     * @return The number of connections registered for the server at the time of the snapshot
+     */
+    public int getConnections() {
+        return connections;
+    }
+
+    /**
+     * @return The number of connections successfully acquired from the pool
+     */
+    public long getAcquireCount() {
+        return acquireCount;
+    }
+
+    /**
+     * @return The number of failed attempts to acquire a connection (e.g. connection refused)
+     */
+    public long getAcquireFailures() {
+        return acquireFailures;
+    }
+
+    /**
+     * @return The number of successful authentications of a connection
+     */
+    public long getAuthSuccesses() {
+        return authSuccesses;
+    }
+
+    /**
+     * @return The number of authentications rejected by the server or failed otherwise
+     */
+    public long getAuthFailures() {
+        return authFailures;
+    }
+
+    /**
+     * @return The number of completed commands, including failed ones
+     */
+    public long getCommandCount() {
+        return commandCount;
+    }
+
+    /**
+     * @return The number of failed commands
+     */
+    public long getCommandFailures() {
+        return commandFailures;
+    }
+
+    /**
+     * @return The mean latency (in nanoseconds) of the completed commands or 0 if no command has been completed yet
+     */
+    public long getMeanLatency() {
+        return commandCount > 0 ? latencyTotal / commandCount : 0;
+    }
+
+    /**
+     * Estimate a percentile of the command latencies
+     *
+     * @param percentile
+     *         The percentile in the range (0, 100], e.g. 99 for the p99 latency
+     *
+     * @return The upper bound (in nanoseconds) of the histogram bucket containing the percentile or 0 if no command has been completed yet
+     */
+    public long getLatencyPercentile(double percentile) {
+        if (percentile <= 0 || percentile > 100)
+            throw new IllegalArgumentException("Percentile must be in the range (0, 100]");
+        long total = 0;
+        for (long count : latencies)
+            total += count;
+        if (total == 0)
+            return 0;
+        final long rank = (long) Math.ceil(total * (percentile / 100d));
+        long seen = 0;
+        for (int i = 0; i < latencies.length; i++) {
+            seen += latencies[i];
+            if (seen >= rank)
+                return getLatencyBucketBound(i);
+        }
+        return getLatencyBucketBound(latencies.length - 1);
+    }
+
+    /**
+     * @param bucket
+     *         The index of the histogram bucket
+     *
+     * @return The number of commands whose latency falls into the bucket
+     *
+     * @see #getLatencyBucketBound(int)
+     */
+    public long getLatencyCount(int bucket) {
+        return latencies[bucket];
+    }
+
+    /**
+     * @return The number of bytes received from the server
+     */
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    /**
+     * @return The number of bytes sent to the server
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * @param bucket
+     *         The index of the histogram bucket
+     *
+     * @return The exclusive upper bound (in nanoseconds) of the latencies counted by the bucket ({@link Long#MAX_VALUE} for the last bucket)
+     */
+    public static long getLatencyBucketBound(int bucket) {
+        if (bucket < 0 || bucket >= LATENCY_BUCKETS)
+            throw new IndexOutOfBoundsException("Bucket: " + bucket + ", Buckets: " + LATENCY_BUCKETS);
+        return bucket == LATENCY_BUCKETS - 1 ? Long.MAX_VALUE : 1L << bucket;
+    }
+
+    static int getLatencyBucket(long durationNanos) {
+        if (durationNanos <= 0)
+            return 0;
+        return Math.min(LATENCY_BUCKETS - 1, 64 - Long.numberOfLeadingZeros(durationNanos));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SourceRconServerStats{address=%s, connections=%d, acquires=%d, commands=%d (failed: %d), auth=%d (failed: %d), mean=%d us, p99<=%d us, read=%d bytes, written=%d bytes}",
+                             address, connections, acquireCount, commandCount, commandFailures, authSuccesses, authFailures, getMeanLatency() / 1000, getLatencyPercentile(99) == Long.MAX_VALUE ? -1 : getLatencyPercentile(99) / 1000, bytesRead, bytesWritten);
+    }
+}
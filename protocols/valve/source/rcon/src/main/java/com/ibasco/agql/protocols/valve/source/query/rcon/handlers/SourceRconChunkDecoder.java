@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.protocols.valve.source.query.rcon.handlers;
+
+import io.netty.buffer.ByteBuf;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Decodes the bodies of the response packets of a streamed command into {@link String} chunks. A multi-byte character split across two packets is carried over to the next chunk.
+ *
+ * <p>
+ * A response rejected by the server ({@value #BAD_PASSWORD}) is detected on the first chunk and not passed to the consumer, see {@link #isBadPassword()}.
+ * </p>
+ *
+ * @see com.ibasco.agql.protocols.valve.source.query.rcon.message.SourceRconCmdRequest#isStreaming()
+ */
+final class SourceRconChunkDecoder {
+
+    /**
+     * The response of the server to a command sent on a connection which is not authenticated
+     */
+    static final String BAD_PASSWORD = "Bad Password";
+
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+    private final Consumer<String> consumer;
+
+    private ByteBuffer remaining;
+
+    private boolean first = true;
+
+    private boolean badPassword;
+
+    SourceRconChunkDecoder(Consumer<String> consumer) {
+        this.consumer = consumer;
+    }
+
+    /**
+     * Decode the body of a response packet and pass it to the consumer
+     *
+     * @param body
+     *         The packet body, excluding the null terminating byte
+     */
+    void decode(ByteBuf body) {
+        if (!body.isReadable())
+            return;
+        ByteBuffer in;
+        if (remaining != null) {
+            in = ByteBuffer.allocate(remaining.remaining() + body.readableBytes());
+            in.put(remaining);
+            body.getBytes(body.readerIndex(), in);
+            in.flip();
+        } else {
+            in = body.nioBuffer();
+        }
+        CharBuffer out = CharBuffer.allocate((int) (in.remaining() * decoder.maxCharsPerByte()) + 1);
+        decoder.decode(in, out, false);
+        if (in.hasRemaining()) {
+            remaining = ByteBuffer.allocate(in.remaining());
+            remaining.put(in);
+            remaining.flip();
+        } else {
+            remaining = null;
+        }
+        emit(out);
+    }
+
+    /**
+     * Flush the bytes of an incomplete trailing character (if any)
+     */
+    void finish() {
+        CharBuffer out = CharBuffer.allocate(8);
+        decoder.decode(remaining != null ? remaining : ByteBuffer.allocate(0), out, true);
+        decoder.flush(out);
+        remaining = null;
+        emit(out);
+    }
+
+    /**
+     * @return {@code true} if the server rejected the command with a {@value #BAD_PASSWORD} response
+     */
+    boolean isBadPassword() {
+        return badPassword;
+    }
+
+    private void emit(CharBuffer out) {
+        out.flip();
+        if (!out.hasRemaining())
+            return;
+        String chunk = out.toString();
+        if (first) {
+            first = false;
+            badPassword = chunk.contains(BAD_PASSWORD);
+        }
+        if (badPassword)
+            return;
+        consumer.accept(chunk);
+    }
+}
@@ -29,6 +29,7 @@ import io.netty.buffer.ByteBuf;
 import io.netty.buffer.CompositeByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.util.ReferenceCountUtil;
+import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
 import java.util.ArrayDeque;
 import java.util.Deque;
@@ -44,6 +45,11 @@ import java.util.stream.Collectors;
  * This implementation expects only to receive a SINGLE terminator packet, because there are cases when an unauthenticated request is sent, then the server will only send a single terminator packet (with terminator value of 0) instead of two.
  * </blockquote>
  *
+ * <p>
+ * If the output of the command is streamed (see {@link SourceRconCmdRequest#isStreaming()}), the packets are not retained. Their bodies are decoded and passed to the consumer as they arrive, and an
+ * empty packet is passed to the next handler once the end of the response has been reached.
+ * </p>
+ *
  * @author Rafael Luis Ibasco
  * @see SourceRconOptions#USE_TERMINATOR_PACKET
  */
@@ -55,6 +61,10 @@ public class SourceRconPacketAssembler extends MessageInboundDecoder {
 
     private int counter;
 
+    private SourceRconChunkDecoder chunkDecoder;
+
+    private int streamId;
+
     /** {@inheritDoc} */
     @Override
     protected boolean acceptMessage(AbstractRequest request, Object msg) {
@@ -89,7 +99,15 @@ public class SourceRconPacketAssembler extends MessageInboundDecoder {
             return null;
         } else {
             //only collect response value packets with id > 0
-            if (packet.getId() > 0) {
+            if (packet.getId() > 0 && ((SourceRconCmdRequest) request).isStreaming()) {
+                if (chunkDecoder == null) {
+                    chunkDecoder = new SourceRconChunkDecoder(((SourceRconCmdRequest) request).getChunkConsumer());
+                    streamId = packet.getId();
+                }
+                //exclude the null terminating byte
+                chunkDecoder.decode(packet.content().slice(0, packet.content().capacity() - 1));
+                debug("{}) Streamed packet: '{}'", ++counter, msg);
+            } else if (packet.getId() > 0) {
                 //make sure to call retain so the decoder does not automatically release on return
                 container().addLast(ReferenceCountUtil.retain(packet));
                 debug("{}) Added Packet to container: '{}'", ++counter, msg);
@@ -165,10 +183,19 @@ public class SourceRconPacketAssembler extends MessageInboundDecoder {
 
         //Is the container empty? Reset and return immediately
         if (container.isEmpty()) {
-            debug("decodePacket(1) : Resetting container");
-            reset();
-            counter = 0;
-            return null;
+            try {
+                //end of a streamed response, the next handlers only need to know that the response is complete (or rejected by the server)
+                if (chunkDecoder != null) {
+                    chunkDecoder.finish();
+                    debug("Streamed {} packet(s)", counter);
+                    return SourceRconPacketFactory.createResponseValue(streamId, chunkDecoder.isBadPassword() ? SourceRconChunkDecoder.BAD_PASSWORD : StringUtils.EMPTY);
+                }
+                return null;
+            } finally {
+                debug("decodePacket(1) : Resetting container");
+                reset();
+                counter = 0;
+            }
         }
 
         try {
@@ -191,6 +218,7 @@ public class SourceRconPacketAssembler extends MessageInboundDecoder {
     }
 
     private void reset() {
+        chunkDecoder = null;
         try {
             if (splitPackets == null)
                 return;
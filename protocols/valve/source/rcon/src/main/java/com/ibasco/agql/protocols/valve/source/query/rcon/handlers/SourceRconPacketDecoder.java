@@ -24,6 +24,7 @@ import com.ibasco.agql.core.transport.enums.ChannelEvent;
 import com.ibasco.agql.core.util.Netty;
 import com.ibasco.agql.protocols.valve.source.query.rcon.SourceRcon;
 import com.ibasco.agql.protocols.valve.source.query.rcon.SourceRconOptions;
+import com.ibasco.agql.protocols.valve.source.query.rcon.message.SourceRconCmdRequest;
 import com.ibasco.agql.protocols.valve.source.query.rcon.message.SourceRconRequest;
 import com.ibasco.agql.protocols.valve.source.query.rcon.packets.SourceRconPacket;
 import io.netty.buffer.ByteBuf;
@@ -219,6 +220,12 @@ public class SourceRconPacketDecoder extends ByteToMessageDecoder {
                     debug(ctx, "Collecting decoded packet '{}' (Size: {})", decoded, packets.size());
                     packets.add(decoded);
 
+                    //do not hold back the packets of a streamed response until the rest has been received
+                    if (request instanceof SourceRconCmdRequest && ((SourceRconCmdRequest) request).isStreaming()) {
+                        flush(ctx, out);
+                        return;
+                    }
+
                     //Do we have more bytes to read?
                     if (readMoreBytes || in.readableBytes() > 0) {
                         debug(ctx, "Continue reading. Found {} more bytes to read from the channel.", in.readableBytes());
@@ -232,6 +239,9 @@ public class SourceRconPacketDecoder extends ByteToMessageDecoder {
                     if (decoded.release()) {
                         debug(ctx, "Successfully released second terminator packet");
                     }
+                    //the secondary terminator may arrive within the same read as the rest of the response, so make sure we flush what we have collected so far
+                    if (!readMoreBytes && in.readableBytes() == 0)
+                        flush(ctx, out);
                 }
             } else {
                 flushExcept(decoded, out);
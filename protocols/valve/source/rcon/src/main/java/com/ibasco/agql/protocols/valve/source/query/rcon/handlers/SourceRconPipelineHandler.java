@@ -0,0 +1,410 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.protocols.valve.source.query.rcon.handlers;
+
+import com.ibasco.agql.core.PacketDecoder;
+import com.ibasco.agql.core.PacketEncoder;
+import com.ibasco.agql.core.exceptions.ChannelClosedException;
+import com.ibasco.agql.core.exceptions.PacketEncodeException;
+import com.ibasco.agql.core.exceptions.ReadTimeoutException;
+import com.ibasco.agql.core.util.Netty;
+import com.ibasco.agql.protocols.valve.source.query.rcon.SourceRcon;
+import com.ibasco.agql.protocols.valve.source.query.rcon.SourceRconChannelContext;
+import com.ibasco.agql.protocols.valve.source.query.rcon.SourceRconOptions;
+import com.ibasco.agql.protocols.valve.source.query.rcon.enums.SourceRconAuthReason;
+import com.ibasco.agql.protocols.valve.source.query.rcon.exceptions.RconException;
+import com.ibasco.agql.protocols.valve.source.query.rcon.exceptions.RconNotYetAuthException;
+import com.ibasco.agql.protocols.valve.source.query.rcon.message.SourceRconCmdRequest;
+import com.ibasco.agql.protocols.valve.source.query.rcon.message.SourceRconCmdResponse;
+import com.ibasco.agql.protocols.valve.source.query.rcon.packets.SourceRconPacket;
+import com.ibasco.agql.protocols.valve.source.query.rcon.packets.SourceRconPacketFactory;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import org.apache.commons.lang3.StringUtils;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executes multiple commands concurrently on a single authenticated connection.
+ *
+ * <p>
+ * Once installed at the head of the pipeline of an authenticated {@link io.netty.channel.Channel}, this handler takes over both directions of the connection: each command packet is followed by a
+ * terminator packet carrying the negated request id (see {@link SourceRcon#getTerminatorId(int)}). The server processes the packets in order, so all the response value packets of a command arrive
+ * before the mirrored terminator of the same command. The response value packets are collected by request id and re-assembled once the terminator packet has been received, which allows any number of
+ * commands to be in-flight at the same time. Decoded packets are never passed to the next handlers as those are bound to the single request envelope of the channel.
+ * </p>
+ *
+ * @see SourceRconOptions#PIPELINING
+ * @see SourceRconPacketAssembler
+ */
+public class SourceRconPipelineHandler extends ByteToMessageDecoder {
+
+    /** Constant <code>NAME="rconPipeline"</code> */
+    public static final String NAME = "rconPipeline";
+
+    private static final Logger log = LoggerFactory.getLogger(SourceRconPipelineHandler.class);
+
+    private static final int PACKET_SIZE_LENGTH = 4;
+
+    private final PacketEncoder<SourceRconPacket> encoder = new com.ibasco.agql.protocols.valve.source.query.rcon.packets.SourceRconPacketEncoder();
+
+    private final Map<Integer, Command> inFlight = new HashMap<>();
+
+    private final Deque<Command> queued = new ArrayDeque<>();
+
+    private final int maxInFlight;
+
+    private final int readTimeout;
+
+    private PacketDecoder<SourceRconPacket> decoder;
+
+    private volatile ChannelHandlerContext ctx;
+
+    /**
+     * The time the last command has been written
+     */
+    private volatile long lastWrite = System.nanoTime();
+
+    /**
+     * Create a new pipeline handler
+     *
+     * @param maxInFlight
+     *         The maximum number of commands in-flight, additional commands are queued
+     * @param readTimeout
+     *         The maximum number of milliseconds to wait for the response of a command
+     */
+    public SourceRconPipelineHandler(int maxInFlight, int readTimeout) {
+        if (maxInFlight < 1)
+            throw new IllegalArgumentException("Max in-flight commands must be greater than 0");
+        this.maxInFlight = maxInFlight;
+        this.readTimeout = readTimeout;
+    }
+
+    /**
+     * Send a command over the pipelined connection. This method can be called from any thread.
+     *
+     * @param request
+     *         The {@link SourceRconCmdRequest} to send
+     *
+     * @return A {@link CompletableFuture} notified once the response has been received
+     */
+    public CompletableFuture<SourceRconCmdResponse> execute(SourceRconCmdRequest request) {
+        final Command command = new Command(request);
+        final ChannelHandlerContext ctx = this.ctx;
+        if (ctx == null) {
+            command.promise.completeExceptionally(new IllegalStateException("Pipeline handler has not been installed or has already been removed"));
+        } else if (ctx.executor().inEventLoop()) {
+            enqueue(command);
+        } else {
+            ctx.executor().execute(() -> enqueue(command));
+        }
+        return command.promise;
+    }
+
+    /**
+     * @return {@code true} if the connection is still open and authenticated
+     */
+    public boolean isActive() {
+        final ChannelHandlerContext ctx = this.ctx;
+        if (ctx == null || !ctx.channel().isActive())
+            return false;
+        SourceRconChannelContext context = SourceRconChannelContext.getContext(ctx.channel());
+        return context != null && context.properties().authenticated();
+    }
+
+    /**
+     * @return The number of milliseconds elapsed since the last command has been sent over the connection
+     */
+    public long getIdleTime() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastWrite);
+    }
+
+    /**
+     * Close the pipelined connection, all pending commands will fail
+     *
+     * @return The {@link ChannelFuture} of the close operation
+     */
+    public ChannelFuture close() {
+        final ChannelHandlerContext ctx = this.ctx;
+        if (ctx == null)
+            throw new IllegalStateException("Pipeline handler has not been installed or has already been removed");
+        return ctx.channel().close();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
+        Boolean strictMode = SourceRconOptions.STRICT_MODE.attr(ctx);
+        this.decoder = new com.ibasco.agql.protocols.valve.source.query.rcon.packets.SourceRconPacketDecoder(ctx, strictMode != null ? strictMode : false);
+        this.ctx = ctx;
+        debug(ctx, "Pipelining enabled (Max in-flight: {}, Read timeout: {} ms)", maxInFlight, readTimeout);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected void handlerRemoved0(ChannelHandlerContext ctx) throws Exception {
+        this.ctx = null;
+        failAll(request -> new IllegalStateException("Pipeline handler has been removed"));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        failAll(request -> new ChannelClosedException("Pipelined connection has been closed", ctx.channel()));
+        super.channelInactive(ctx);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
+        //the stream is most likely corrupted at this point, do not attempt to recover
+        debug(ctx, "Closing pipelined connection due to error", cause);
+        failAll(request -> cause);
+        ctx.close();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
+        if (in.readableBytes() < PACKET_SIZE_LENGTH)
+            return;
+        int packetSize = in.getIntLE(in.readerIndex());
+        if (packetSize == 0) {
+            in.skipBytes(PACKET_SIZE_LENGTH);
+            return;
+        }
+        if (in.readableBytes() < packetSize + PACKET_SIZE_LENGTH)
+            return;
+        SourceRconPacket packet = decoder.decode(in);
+        if (packet == null)
+            return;
+        try {
+            receive(ctx, packet);
+        } finally {
+            packet.release();
+        }
+    }
+
+    private void receive(ChannelHandlerContext ctx, SourceRconPacket packet) {
+        //an auth response with an id of -1 means that the server no longer accepts our commands
+        if (SourceRcon.isAuthResponsePacket(packet)) {
+            if (packet.getId() == -1) {
+                debug(ctx, "Connection is no longer authenticated");
+                SourceRconChannelContext.getContext(ctx.channel()).properties().authenticated(false);
+                failAll(request -> new RconNotYetAuthException("Not yet authenticated (Reason: Re-authentication required)", request, address(), SourceRconAuthReason.INVALIDATED));
+                ctx.close();
+            }
+            return;
+        }
+        if (!SourceRcon.isResponseValuePacket(packet))
+            return;
+        final int id = packet.getId();
+        if (id > 0) {
+            Command command = inFlight.get(id);
+            if (command == null) {
+                debug(ctx, "Discarding packet of an unknown or expired command '{}'", packet);
+                return;
+            }
+            try {
+                command.append(ctx, packet.content());
+            } catch (RuntimeException e) {
+                //the consumer of a streamed response has failed, the remaining packets of the command will be discarded
+                inFlight.remove(id);
+                command.fail(e);
+                drain();
+            }
+        } else if (id != SourceRcon.RCON_TERMINATOR_RID && packet.getTerminator() == 0) {
+            //the mirrored terminator marks the end of the response, ignore the secondary terminator (terminating byte of 0x01)
+            Command command = inFlight.remove(-id);
+            if (command == null) {
+                debug(ctx, "Discarding terminator of an unknown or expired command '{}'", packet);
+                return;
+            }
+            complete(command);
+            drain();
+        }
+    }
+
+    private void enqueue(Command command) {
+        if (ctx == null || !ctx.channel().isActive()) {
+            command.fail(new ChannelClosedException("Pipelined connection has been closed", ctx != null ? ctx.channel() : null));
+            return;
+        }
+        queued.addLast(command);
+        drain();
+    }
+
+    private void drain() {
+        Command command;
+        while (inFlight.size() < maxInFlight && (command = queued.pollFirst()) != null)
+            write(command);
+    }
+
+    private void write(final Command command) {
+        final SourceRconCmdRequest request = command.request;
+        //request ids are randomly generated, make sure they are unique among the in-flight commands
+        while (inFlight.containsKey(request.getRequestId()))
+            request.setRequestId(SourceRcon.createRequestId());
+        final int id = request.getRequestId();
+        final ByteBuf packet, terminator;
+        try {
+            packet = encode(SourceRconPacketFactory.createCommand(id, request.getCommand()));
+        } catch (PacketEncodeException e) {
+            command.fail(e);
+            return;
+        }
+        try {
+            terminator = encode(SourceRconPacketFactory.createTerminator(SourceRcon.getTerminatorId(id)));
+        } catch (PacketEncodeException e) {
+            packet.release();
+            command.fail(e);
+            return;
+        }
+        inFlight.put(id, command);
+        lastWrite = System.nanoTime();
+        ctx.write(packet);
+        ctx.writeAndFlush(terminator).addListener(future -> {
+            if (!future.isSuccess() && inFlight.remove(id, command))
+                command.fail(future.cause());
+        });
+        command.timeout = ctx.executor().schedule(() -> expire(command), readTimeout, TimeUnit.MILLISECONDS);
+        debug(ctx, "Sent pipelined command '{}' (In-flight: {}, Queued: {})", request, inFlight.size(), queued.size());
+    }
+
+    private void expire(Command command) {
+        if (!inFlight.remove(command.request.getRequestId(), command))
+            return;
+        command.fail(new ReadTimeoutException(String.format("No response received within %d ms", readTimeout)));
+        drain();
+    }
+
+    private void complete(Command command) {
+        final String result;
+        try {
+            result = command.result();
+        } catch (RuntimeException e) {
+            command.fail(e);
+            return;
+        }
+        if (result.contains("Bad Password")) {
+            command.fail(new RconNotYetAuthException(String.format("Not yet authenticated (Reason: %s)", result), command.request, address(), SourceRconAuthReason.INVALID_CREDENTIALS));
+            return;
+        }
+        SourceRconCmdResponse response = new SourceRconCmdResponse(result);
+        response.setAddress(address());
+        response.setRequest(command.request);
+        command.complete(response);
+    }
+
+    private void failAll(Function<SourceRconCmdRequest, Throwable> error) {
+        List<Command> commands = new ArrayList<>(inFlight.values());
+        commands.addAll(queued);
+        inFlight.clear();
+        queued.clear();
+        for (Command command : commands)
+            command.fail(error.apply(command.request));
+    }
+
+    private ByteBuf encode(SourceRconPacket packet) throws PacketEncodeException {
+        try {
+            return encoder.encode(packet);
+        } finally {
+            packet.release();
+        }
+    }
+
+    private InetSocketAddress address() {
+        final ChannelHandlerContext ctx = this.ctx;
+        return ctx != null ? (InetSocketAddress) ctx.channel().remoteAddress() : null;
+    }
+
+    private static void debug(ChannelHandlerContext ctx, String msg, Object... args) {
+        if (log.isDebugEnabled())
+            log.debug(String.format("%s PIPELINE => %s", Netty.id(ctx), msg), args);
+    }
+
+    private final class Command {
+
+        private final SourceRconCmdRequest request;
+
+        private final CompletableFuture<SourceRconCmdResponse> promise = new CompletableFuture<>();
+
+        private CompositeByteBuf payload;
+
+        private SourceRconChunkDecoder chunkDecoder;
+
+        private ScheduledFuture<?> timeout;
+
+        private Command(SourceRconCmdRequest request) {
+            this.request = request;
+            this.chunkDecoder = request.isStreaming() ? new SourceRconChunkDecoder(request.getChunkConsumer()) : null;
+        }
+
+        private void append(ChannelHandlerContext ctx, ByteBuf content) {
+            if (chunkDecoder != null) {
+                chunkDecoder.decode(content.slice(0, Math.max(0, content.capacity() - 1)));
+                return;
+            }
+            if (payload == null)
+                payload = ctx.alloc().compositeBuffer();
+            //exclude the null terminating byte of each packet body
+            payload.addComponent(true, content.retainedSlice(0, Math.max(0, content.capacity() - 1)));
+        }
+
+        private String result() {
+            if (chunkDecoder != null) {
+                chunkDecoder.finish();
+                return chunkDecoder.isBadPassword() ? SourceRconChunkDecoder.BAD_PASSWORD : StringUtils.EMPTY;
+            }
+            return payload != null ? payload.toString(StandardCharsets.UTF_8) : StringUtils.EMPTY;
+        }
+
+        private void complete(SourceRconCmdResponse response) {
+            release();
+            promise.complete(response);
+        }
+
+        private void fail(Throwable error) {
+            release();
+            promise.completeExceptionally(error instanceof RconException ? error : new RconException(error, request, address()));
+        }
+
+        private void release() {
+            if (timeout != null)
+                timeout.cancel(false);
+            if (payload != null) {
+                payload.release();
+                payload = null;
+            }
+        }
+    }
+}
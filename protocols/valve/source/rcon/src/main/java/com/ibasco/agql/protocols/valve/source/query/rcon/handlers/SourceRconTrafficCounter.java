@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.protocols.valve.source.query.rcon.handlers;
+
+import com.ibasco.agql.core.metrics.MetricsCollector;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the raw bytes received from and sent to the server. This handler needs to be the first handler of the pipeline so that it sees the encoded data.
+ */
+public class SourceRconTrafficCounter extends ChannelDuplexHandler {
+
+    /**
+     * The name of the handler within the channel pipeline
+     */
+    public static final String NAME = "rconTrafficCounter";
+
+    private final LongAdder bytesRead;
+
+    private final LongAdder bytesWritten;
+
+    private volatile MetricsCollector metrics = MetricsCollector.NOOP;
+
+    /**
+     * Create a new traffic counter
+     *
+     * @param bytesRead
+     *         The counter to add the number of received bytes to
+     * @param bytesWritten
+     *         The counter to add the number of sent bytes to
+     */
+    public SourceRconTrafficCounter(LongAdder bytesRead, LongAdder bytesWritten) {
+        this.bytesRead = Objects.requireNonNull(bytesRead, "Read counter must not be null");
+        this.bytesWritten = Objects.requireNonNull(bytesWritten, "Write counter must not be null");
+    }
+
+    /**
+     * Also report the traffic to a {@link MetricsCollector}. This is only needed once the handlers that normally report the traffic have been bypassed (e.g. by the {@link SourceRconPipelineHandler}).
+     *
+     * @param metrics
+     *         The {@link MetricsCollector} to report the number of received and sent bytes to
+     */
+    public void setMetrics(MetricsCollector metrics) {
+        this.metrics = Objects.requireNonNull(metrics, "Metrics collector must not be null");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        if (msg instanceof ByteBuf) {
+            int bytes = ((ByteBuf) msg).readableBytes();
+            bytesRead.add(bytes);
+            if (metrics != MetricsCollector.NOOP)
+                metrics.bytesRead(bytes);
+        }
+        super.channelRead(ctx, msg);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+        if (msg instanceof ByteBuf) {
+            int bytes = ((ByteBuf) msg).readableBytes();
+            bytesWritten.add(bytes);
+            if (metrics != MetricsCollector.NOOP)
+                metrics.bytesWritten(bytes);
+        }
+        super.write(ctx, msg, promise);
+    }
+}
@@ -17,6 +17,7 @@
 package com.ibasco.agql.protocols.valve.source.query.rcon.message;
 
 import org.apache.commons.lang3.builder.ToStringBuilder;
+import java.util.function.Consumer;
 
 /**
  * <p>SourceRconCmdRequest class.</p>
@@ -27,6 +28,8 @@ public class SourceRconCmdRequest extends SourceRconRequest {
 
     private final String command;
 
+    private final Consumer<String> chunkConsumer;
+
     /**
      * <p>Constructor for SourceRconCmdRequest.</p>
      *
@@ -34,7 +37,20 @@ public class SourceRconCmdRequest extends SourceRconRequest {
      *         a {@link java.lang.String} object
      */
     public SourceRconCmdRequest(String command) {
+        this(command, null);
+    }
+
+    /**
+     * Create a command request whose output is streamed to a consumer as each response packet arrives instead of being collected into the response
+     *
+     * @param command
+     *         The command to be issued on the server
+     * @param chunkConsumer
+     *         The {@link Consumer} receiving the decoded chunks of the output or {@code null} to collect the output into the response
+     */
+    public SourceRconCmdRequest(String command, Consumer<String> chunkConsumer) {
         this.command = command;
+        this.chunkConsumer = chunkConsumer;
     }
 
     /** {@inheritDoc} */
@@ -52,4 +68,18 @@ public class SourceRconCmdRequest extends SourceRconRequest {
     public final String getCommand() {
         return command;
     }
+
+    /**
+     * @return The {@link Consumer} receiving the decoded chunks of the output or {@code null} if the output is not streamed
+     */
+    public final Consumer<String> getChunkConsumer() {
+        return chunkConsumer;
+    }
+
+    /**
+     * @return {@code true} if the output of the command is streamed to a {@link Consumer}
+     */
+    public final boolean isStreaming() {
+        return chunkConsumer != null;
+    }
 }
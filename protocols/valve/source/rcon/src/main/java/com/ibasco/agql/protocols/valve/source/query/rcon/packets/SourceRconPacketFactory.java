@@ -138,6 +138,20 @@ public final class SourceRconPacketFactory {
         return createResponseValue(SourceRcon.RCON_TERMINATOR_RID, StringUtils.EMPTY);
     }
 
+    /**
+     * Create a new terminator packet with a custom id
+     *
+     * @param id
+     *         The id of the terminator packet
+     *
+     * @return A special response value packet with the provided id wrapped in {@link com.ibasco.agql.protocols.valve.source.query.rcon.packets.SourceRconPacket}
+     *
+     * @see SourceRcon#getTerminatorId(int)
+     */
+    public static SourceRconPacket createTerminator(int id) {
+        return createResponseValue(id, StringUtils.EMPTY);
+    }
+
     /**
      * Create a response value packet
      *
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.protocols.valve.source.query.rcon;
+
+import com.ibasco.agql.core.metrics.MetricsCollector;
+import com.ibasco.agql.protocols.valve.source.query.rcon.handlers.SourceRconTrafficCounter;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SourceRconCountersTest {
+
+    private static final InetSocketAddress ADDRESS = new InetSocketAddress("127.0.0.1", 27015);
+
+    @Test
+    @DisplayName("Snapshots reflect the recorded events")
+    void testSnapshot() {
+        SourceRconCounters counters = new SourceRconCounters();
+        counters.acquired(null);
+        counters.acquired(new IllegalStateException());
+        counters.authenticated(true);
+        counters.commandCompleted(TimeUnit.MILLISECONDS.toNanos(10), null);
+        counters.commandCompleted(TimeUnit.MILLISECONDS.toNanos(30), new IllegalStateException());
+        SourceRconServerStats stats = counters.snapshot(ADDRESS, 1);
+        assertEquals(1, stats.getAcquireCount());
+        assertEquals(1, stats.getAcquireFailures());
+        assertEquals(1, stats.getAuthSuccesses());
+        assertEquals(0, stats.getAuthFailures());
+        assertEquals(2, stats.getCommandCount());
+        assertEquals(1, stats.getCommandFailures());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(20), stats.getMeanLatency());
+    }
+
+    @Test
+    @DisplayName("Counters expire once they have not been accessed within the expiry")
+    void testExpiry() throws InterruptedException {
+        SourceRconCounters counters = new SourceRconCounters();
+        long expiry = TimeUnit.MILLISECONDS.toNanos(50);
+        assertFalse(counters.isExpired(expiry));
+        Thread.sleep(100);
+        assertTrue(counters.isExpired(expiry));
+        counters.touch();
+        assertFalse(counters.isExpired(expiry));
+    }
+
+    @Test
+    @DisplayName("Traffic is only reported to the metrics collector once it has been set")
+    void testTrafficMetrics() {
+        SourceRconCounters counters = new SourceRconCounters();
+        SourceRconTrafficCounter trafficCounter = new SourceRconTrafficCounter(counters.bytesRead, counters.bytesWritten);
+        AtomicLong read = new AtomicLong(), written = new AtomicLong();
+        MetricsCollector metrics = new MetricsCollector() {
+            @Override
+            public void bytesRead(int bytes) {
+                read.addAndGet(bytes);
+            }
+
+            @Override
+            public void bytesWritten(int bytes) {
+                written.addAndGet(bytes);
+            }
+        };
+        EmbeddedChannel channel = new EmbeddedChannel(trafficCounter);
+        channel.writeInbound(Unpooled.buffer().writeZero(10));
+        channel.writeOutbound(Unpooled.buffer().writeZero(4));
+        trafficCounter.setMetrics(metrics);
+        channel.writeInbound(Unpooled.buffer().writeZero(20));
+        channel.writeOutbound(Unpooled.buffer().writeZero(8));
+        assertEquals(30, counters.bytesRead.sum());
+        assertEquals(12, counters.bytesWritten.sum());
+        assertEquals(20, read.get());
+        assertEquals(8, written.get());
+        for (Object msg; (msg = channel.readInbound()) != null; )
+            ((ByteBuf) msg).release();
+        channel.finishAndReleaseAll();
+    }
+}
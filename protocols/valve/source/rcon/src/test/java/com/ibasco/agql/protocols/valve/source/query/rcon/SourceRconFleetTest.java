@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.protocols.valve.source.query.rcon;
+
+import com.ibasco.agql.protocols.valve.source.query.rcon.message.SourceRconCmdResponse;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SourceRconFleetTest {
+
+    private static final InetSocketAddress FIRST = new InetSocketAddress("127.0.0.1", 27015);
+
+    private static final InetSocketAddress SECOND = new InetSocketAddress("127.0.0.2", 27015);
+
+    private ScheduledExecutorService scheduler;
+
+    private Map<InetSocketAddress, CompletableFuture<SourceRconCmdResponse>> requests;
+
+    private BlockingQueue<SourceRconFleetResult> results;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        requests = new ConcurrentHashMap<>();
+        results = new LinkedBlockingQueue<>();
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("An attempt that exceeded its deadline keeps its slot until the underlying request has settled")
+    void testDeadlineKeepsSlot() throws Exception {
+        SourceRconFleet fleet = fleet(Arrays.asList(FIRST, SECOND), 1, 100);
+        CompletableFuture<SourceRconFleetSummary> summary = fleet.execute();
+
+        SourceRconFleetResult first = results.poll(5, TimeUnit.SECONDS);
+        assertNotNull(first);
+        assertEquals(FIRST, first.getAddress());
+        assertInstanceOf(TimeoutException.class, first.getError());
+        //the request of the first server is still running, the second server must wait for it
+        Thread.sleep(200);
+        assertFalse(requests.containsKey(SECOND));
+        assertNull(results.peek());
+
+        requests.get(FIRST).complete(new SourceRconCmdResponse("late"));
+        assertTrue(waitFor(SECOND));
+        requests.get(SECOND).complete(new SourceRconCmdResponse("ok"));
+        SourceRconFleetSummary completed = summary.get(5, TimeUnit.SECONDS);
+        assertEquals(1, completed.getSucceeded());
+        assertEquals(1, completed.getFailed());
+        //the late response of the expired attempt is not reported
+        SourceRconFleetResult second = results.poll(5, TimeUnit.SECONDS);
+        assertNotNull(second);
+        assertEquals(SECOND, second.getAddress());
+        assertTrue(second.isSuccess());
+        assertNull(results.poll());
+    }
+
+    @Test
+    @DisplayName("Settled requests release their slots for the next servers")
+    void testConcurrencyWindow() throws Exception {
+        SourceRconFleet fleet = fleet(Arrays.asList(FIRST, SECOND), 1, 0);
+        CompletableFuture<SourceRconFleetSummary> summary = fleet.execute();
+        assertTrue(waitFor(FIRST));
+        assertFalse(requests.containsKey(SECOND));
+        requests.get(FIRST).completeExceptionally(new TimeoutException());
+        assertTrue(waitFor(SECOND));
+        requests.get(SECOND).complete(new SourceRconCmdResponse("ok"));
+        SourceRconFleetSummary completed = summary.get(5, TimeUnit.SECONDS);
+        assertEquals(2, completed.getTotal());
+        assertEquals(1, completed.getSucceeded());
+    }
+
+    private SourceRconFleet fleet(List<InetSocketAddress> addresses, int maxConcurrency, long deadline) {
+        return new SourceRconFleet(addresses.iterator(), address -> requests.computeIfAbsent(address, a -> new CompletableFuture<>()), results::add, scheduler, maxConcurrency, deadline, 1, 0);
+    }
+
+    private boolean waitFor(InetSocketAddress address) throws InterruptedException {
+        for (int i = 0; i < 500 && !requests.containsKey(address); i++)
+            Thread.sleep(10);
+        return requests.containsKey(address);
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.protocols.valve.source.query.rcon;
+
+import com.ibasco.agql.core.util.GeneralOptions;
+import com.ibasco.agql.protocols.valve.source.query.rcon.message.SourceRconCmdResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class SourceRconIdleCheckTest {
+
+    private static final String PASSWORD = "secret";
+
+    /**
+     * Commands which are answered after a short delay, so concurrent commands need their own connection
+     */
+    private static final String SLOW = "slow";
+
+    private static final String IDLE_THREAD_PREFIX = "agql-rcon-idle";
+
+    private FakeServer server;
+
+    private SourceRconClient client;
+
+    /**
+     * The idle timer threads running before the client has been created
+     */
+    private Set<Thread> threads;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new FakeServer();
+        threads = idleThreads();
+        SourceRconOptions options = SourceRconOptions.builder()
+                                                     .option(GeneralOptions.POOL_MAX_CONNECTIONS, 4)
+                                                     .option(SourceRconOptions.CLOSE_INACTIVE_CHANNELS, 1)
+                                                     .option(SourceRconOptions.INACTIVE_CHECK_INTERVAL, 1)
+                                                     .build();
+        client = new SourceRconClient(options);
+        client.authenticate(server.address(), PASSWORD.getBytes(StandardCharsets.UTF_8)).get(5, TimeUnit.SECONDS);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        client.close();
+        server.close();
+    }
+
+    @Test
+    @DisplayName("Idle connections are closed once their deadline has passed, except for the last connection of the address")
+    void testIdleExpiry() throws Exception {
+        CompletableFuture<SourceRconCmdResponse> first = client.execute(server.address(), SLOW);
+        CompletableFuture<SourceRconCmdResponse> second = client.execute(server.address(), SLOW);
+        CompletableFuture.allOf(first, second).get(5, TimeUnit.SECONDS);
+        assertEquals(2, server.getConnectionCount());
+
+        long deadline = System.currentTimeMillis() + 10000;
+        while (server.getConnectionCount() > 1 && System.currentTimeMillis() < deadline)
+            Thread.sleep(50);
+        assertEquals(1, server.getConnectionCount());
+        //the last connection is kept open
+        Thread.sleep(2500);
+        assertEquals(1, server.getConnectionCount());
+        client.execute(server.address(), "status").get(5, TimeUnit.SECONDS);
+        assertEquals(1, server.getConnectionCount());
+    }
+
+    @Test
+    @DisplayName("The idle timer is stopped once the messenger has been closed")
+    void testTimerStopped() throws Exception {
+        Set<Thread> started = idleThreads();
+        started.removeAll(threads);
+        assertFalse(started.isEmpty(), "Idle timer has not been started");
+
+        client.close();
+        for (Thread thread : started) {
+            thread.join(5000);
+            assertFalse(thread.isAlive(), "Idle timer is still running");
+        }
+    }
+
+    private static Set<Thread> idleThreads() {
+        return Thread.getAllStackTraces().keySet().stream().filter(thread -> thread.getName().startsWith(IDLE_THREAD_PREFIX)).collect(Collectors.toSet());
+    }
+
+    /**
+     * A game server accepting any password, every command is answered with an empty response
+     */
+    private static final class FakeServer implements AutoCloseable {
+
+        private final ServerSocket socket;
+
+        private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+
+        private FakeServer() throws IOException {
+            socket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            Thread thread = new Thread(() -> {
+                while (!socket.isClosed()) {
+                    try {
+                        Socket connection = socket.accept();
+                        connections.add(connection);
+                        new Thread(() -> serve(connection)).start();
+                    } catch (IOException e) {
+                        return;
+                    }
+                }
+            });
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        private void serve(Socket connection) {
+            try {
+                DataInputStream in = new DataInputStream(connection.getInputStream());
+                OutputStream out = connection.getOutputStream();
+                while (true) {
+                    byte[] data = new byte[Integer.reverseBytes(in.readInt())];
+                    in.readFully(data);
+                    ByteBuffer packet = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+                    int id = packet.getInt();
+                    int type = packet.getInt();
+                    String body = new String(data, 8, data.length - 10, StandardCharsets.UTF_8);
+                    if (type == SourceRcon.RCON_TYPE_REQUEST_AUTH) {
+                        write(out, packet(id, SourceRcon.RCON_TYPE_RESPONSE_VALUE, ""), packet(id, SourceRcon.RCON_TYPE_RESPONSE_AUTH, ""));
+                    } else {
+                        if (type == SourceRcon.RCON_TYPE_REQUEST_COMMAND && SLOW.equals(body))
+                            Thread.sleep(500);
+                        //command responses and the mirrored terminator packets are answered alike
+                        write(out, packet(id, SourceRcon.RCON_TYPE_RESPONSE_VALUE, ""));
+                    }
+                }
+            } catch (EOFException | InterruptedException e) {
+                //connection closed
+            } catch (IOException e) {
+                if (!connection.isClosed())
+                    throw new IllegalStateException(e);
+            } finally {
+                disconnect(connection);
+            }
+        }
+
+        private static byte[] packet(int id, int type, String body) {
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            ByteBuffer packet = ByteBuffer.allocate(bytes.length + 14).order(ByteOrder.LITTLE_ENDIAN);
+            packet.putInt(bytes.length + 10);
+            packet.putInt(id);
+            packet.putInt(type);
+            packet.put(bytes);
+            packet.put((byte) 0);
+            packet.put((byte) 0);
+            return packet.array();
+        }
+
+        private static void write(OutputStream out, byte[]... packets) throws IOException {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            for (byte[] packet : packets)
+                buffer.write(packet);
+            out.write(buffer.toByteArray());
+            out.flush();
+        }
+
+        private InetSocketAddress address() {
+            return (InetSocketAddress) socket.getLocalSocketAddress();
+        }
+
+        private int getConnectionCount() {
+            return connections.size();
+        }
+
+        private void disconnect(Socket connection) {
+            connections.remove(connection);
+            try {
+                connection.close();
+            } catch (IOException ignored) {
+            }
+        }
+
+        @Override
+        public void close() throws Exception {
+            socket.close();
+            for (Socket connection : connections)
+                disconnect(connection);
+        }
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.protocols.valve.source.query.rcon;
+
+import com.ibasco.agql.core.exceptions.ChannelClosedException;
+import com.ibasco.agql.core.exceptions.ReadTimeoutException;
+import com.ibasco.agql.core.transport.NettyChannelAttributes;
+import com.ibasco.agql.core.util.Platform;
+import com.ibasco.agql.protocols.valve.source.query.rcon.exceptions.RconException;
+import com.ibasco.agql.protocols.valve.source.query.rcon.exceptions.RconNotYetAuthException;
+import com.ibasco.agql.protocols.valve.source.query.rcon.handlers.SourceRconPipelineHandler;
+import com.ibasco.agql.protocols.valve.source.query.rcon.message.SourceRconCmdRequest;
+import com.ibasco.agql.protocols.valve.source.query.rcon.message.SourceRconCmdResponse;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SourceRconPipelineHandlerTest {
+
+    private static final InetSocketAddress ADDRESS = new InetSocketAddress("127.0.0.1", 27015);
+
+    private static final int READ_TIMEOUT = 1000;
+
+    private static SourceRconMessenger messenger;
+
+    private EmbeddedChannel channel;
+
+    private SourceRconChannelContext context;
+
+    private SourceRconPipelineHandler handler;
+
+    @BeforeAll
+    static void setUpAll() {
+        Platform.initialize();
+        messenger = new SourceRconMessenger(SourceRconOptions.builder().build());
+    }
+
+    @AfterAll
+    static void tearDownAll() throws Exception {
+        messenger.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        //the handler reports the remote address of the connection in its responses
+        channel = new EmbeddedChannel() {
+            @Override
+            protected SocketAddress remoteAddress0() {
+                return ADDRESS;
+            }
+        };
+        context = new SourceRconChannelContext(channel, messenger);
+        context.properties().authenticated(true);
+        channel.attr(NettyChannelAttributes.CHANNEL_CONTEXT).set(context);
+        handler = new SourceRconPipelineHandler(2, READ_TIMEOUT);
+        channel.pipeline().addFirst(SourceRconPipelineHandler.NAME, handler);
+    }
+
+    @AfterEach
+    void tearDown() {
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    @DisplayName("Responses of concurrent commands are correlated by their request id")
+    void testInterleavedResponses() {
+        CompletableFuture<SourceRconCmdResponse> first = handler.execute(command("first"));
+        CompletableFuture<SourceRconCmdResponse> second = handler.execute(command("second"));
+        int firstId = readCommand();
+        int secondId = readCommand();
+        assertNotEquals(firstId, secondId);
+
+        receive(packet(secondId, SourceRcon.RCON_TYPE_RESPONSE_VALUE, "second response", 0));
+        receive(packet(firstId, SourceRcon.RCON_TYPE_RESPONSE_VALUE, "first ", 0));
+        receive(packet(-secondId, SourceRcon.RCON_TYPE_RESPONSE_VALUE, "", 0));
+        assertFalse(first.isDone());
+        assertEquals("second response", result(second));
+
+        receive(packet(firstId, SourceRcon.RCON_TYPE_RESPONSE_VALUE, "response", 0));
+        receive(packet(-firstId, SourceRcon.RCON_TYPE_RESPONSE_VALUE, "", 0));
+        assertEquals("first response", result(first));
+    }
+
+    @Test
+    @DisplayName("Only the mirrored terminator completes a command, the secondary terminator is ignored")
+    void testTerminators() {
+        CompletableFuture<SourceRconCmdResponse> command = handler.execute(command("status"));
+        int id = readCommand();
+        receive(packet(id, SourceRcon.RCON_TYPE_RESPONSE_VALUE, "hostname", 0));
+        receive(packet(-id, SourceRcon.RCON_TYPE_RESPONSE_VALUE, "", 1));
+        assertFalse(command.isDone());
+        receive(packet(-id, SourceRcon.RCON_TYPE_RESPONSE_VALUE, "", 0));
+        assertEquals("hostname", result(command));
+        //the secondary terminator following the mirrored one is discarded
+        receive(packet(-id, SourceRcon.RCON_TYPE_RESPONSE_VALUE, "", 1));
+        assertTrue(channel.isActive());
+    }
+
+    @Test
+    @DisplayName("An auth response with an id of -1 fails all in-flight and queued commands and closes the connection")
+    void testAuthInvalidated() {
+        CompletableFuture<?>[] commands = new CompletableFuture[3];
+        for (int i = 0; i < commands.length; i++)
+            commands[i] = handler.execute(command("cmd" + i));
+        readCommand();
+        readCommand();
+        //the third command is queued until a slot becomes available
+        assertNull(channel.readOutbound());
+        receive(packet(-1, SourceRcon.RCON_TYPE_RESPONSE_AUTH, "", 0));
+        for (CompletableFuture<?> command : commands)
+            assertInstanceOf(RconNotYetAuthException.class, error(command));
+        assertFalse(context.properties().authenticated());
+        assertFalse(channel.isActive());
+    }
+
+    @Test
+    @DisplayName("Each command expires on its own and frees its slot for the queued commands")
+    void testExpiry() {
+        CompletableFuture<SourceRconCmdResponse> first = handler.execute(command("first"));
+        int firstId = readCommand();
+        channel.advanceTimeBy(READ_TIMEOUT / 2, TimeUnit.MILLISECONDS);
+        CompletableFuture<SourceRconCmdResponse> second = handler.execute(command("second"));
+        CompletableFuture<SourceRconCmdResponse> third = handler.execute(command("third"));
+        int secondId = readCommand();
+
+        channel.advanceTimeBy(READ_TIMEOUT / 2 + 1, TimeUnit.MILLISECONDS);
+        channel.runScheduledPendingTasks();
+        assertInstanceOf(ReadTimeoutException.class, error(first).getCause());
+        assertFalse(second.isDone());
+        int thirdId = readCommand();
+
+        //the late response of the expired command is discarded
+        receive(packet(firstId, SourceRcon.RCON_TYPE_RESPONSE_VALUE, "late", 0));
+        receive(packet(-firstId, SourceRcon.RCON_TYPE_RESPONSE_VALUE, "", 0));
+        receive(packet(secondId, SourceRcon.RCON_TYPE_RESPONSE_VALUE, "ok", 0));
+        receive(packet(-secondId, SourceRcon.RCON_TYPE_RESPONSE_VALUE, "", 0));
+        assertEquals("ok", result(second));
+        assertFalse(third.isDone());
+        assertNotEquals(firstId, thirdId);
+    }
+
+    @Test
+    @DisplayName("Closing the connection fails all in-flight and queued commands")
+    void testChannelInactive() {
+        CompletableFuture<?>[] commands = new CompletableFuture[3];
+        for (int i = 0; i < commands.length; i++)
+            commands[i] = handler.execute(command("cmd" + i));
+        channel.close();
+        for (CompletableFuture<?> command : commands)
+            assertInstanceOf(ChannelClosedException.class, error(command).getCause());
+        //commands sent after the connection has been closed fail immediately
+        assertTrue(handler.execute(command("late")).isCompletedExceptionally());
+    }
+
+    private static SourceRconCmdRequest command(String command) {
+        SourceRconCmdRequest request = new SourceRconCmdRequest(command);
+        request.setRequestId(SourceRcon.createRequestId());
+        return request;
+    }
+
+    /**
+     * Reads the command packet and the terminator packet of the next command written
+     *
+     * @return The request id of the command
+     */
+    private int readCommand() {
+        ByteBuf command = channel.readOutbound();
+        ByteBuf terminator = channel.readOutbound();
+        try {
+            int id = command.getIntLE(4);
+            assertEquals(-id, terminator.getIntLE(4));
+            return id;
+        } finally {
+            command.release();
+            terminator.release();
+        }
+    }
+
+    private void receive(ByteBuf packet) {
+        channel.writeInbound(packet);
+    }
+
+    private static ByteBuf packet(int id, int type, String body, int terminator) {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        ByteBuf packet = Unpooled.buffer();
+        packet.writeIntLE(bytes.length + 10);
+        packet.writeIntLE(id);
+        packet.writeIntLE(type);
+        packet.writeBytes(bytes);
+        packet.writeByte(0);
+        packet.writeByte(terminator);
+        return packet;
+    }
+
+    private static String result(CompletableFuture<SourceRconCmdResponse> future) {
+        assertTrue(future.isDone(), "Command has not been completed");
+        return future.join().getResult();
+    }
+
+    private static RconException error(CompletableFuture<?> future) {
+        assertTrue(future.isCompletedExceptionally());
+        try {
+            future.join();
+        } catch (Exception e) {
+            return assertInstanceOf(RconException.class, e.getCause());
+        }
+        throw new AssertionError("Future has not failed");
+    }
+}
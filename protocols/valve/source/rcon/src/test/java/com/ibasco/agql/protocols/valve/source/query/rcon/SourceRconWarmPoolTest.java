@@ -0,0 +1,250 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.protocols.valve.source.query.rcon;
+
+import com.ibasco.agql.core.util.GeneralOptions;
+import com.ibasco.agql.protocols.valve.source.query.rcon.message.SourceRconCmdResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SourceRconWarmPoolTest {
+
+    private static final String PASSWORD = "secret";
+
+    /**
+     * Commands which are not answered by the server until it is closed
+     */
+    private static final String BLOCK = "block";
+
+    private FakeServer server;
+
+    private SourceRconClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new FakeServer();
+        SourceRconOptions options = SourceRconOptions.builder()
+                                                     .option(GeneralOptions.POOL_MAX_CONNECTIONS, 4)
+                                                     .option(SourceRconOptions.WARM_POOL_MIN_IDLE, 2)
+                                                     .option(SourceRconOptions.INACTIVE_CHECK_INTERVAL, 1)
+                                                     .build();
+        client = new SourceRconClient(options);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        client.close();
+        server.close();
+    }
+
+    @Test
+    @DisplayName("Authenticated connections are opened up to the configured minimum once the address has been authenticated")
+    void testWarmUp() throws Exception {
+        assertTrue(client.authenticate(server.address(), PASSWORD.getBytes(StandardCharsets.UTF_8)).get(5, TimeUnit.SECONDS).isAuthenticated());
+        await(server::getAuthenticatedCount, 2);
+        //the minimum has been reached, no further connections are opened
+        Thread.sleep(2500);
+        assertEquals(2, server.getConnectionCount());
+        assertEquals(2, server.getAuthenticatedCount());
+    }
+
+    @Test
+    @DisplayName("Only idle authenticated connections are counted as warm, a busy connection is replaced")
+    void testBusyNotCounted() throws Exception {
+        client.authenticate(server.address(), PASSWORD.getBytes(StandardCharsets.UTF_8)).get(5, TimeUnit.SECONDS);
+        await(server::getAuthenticatedCount, 2);
+        CompletableFuture<SourceRconCmdResponse> blocked = client.execute(server.address(), BLOCK);
+        await(server::getBlockedCount, 1);
+        //one of the two connections is held by the command, the pool needs another one to keep two idle connections
+        await(server::getAuthenticatedCount, 3);
+        assertFalse(blocked.isDone());
+    }
+
+    @Test
+    @DisplayName("Connections closed by the server are replaced")
+    void testRefill() throws Exception {
+        client.authenticate(server.address(), PASSWORD.getBytes(StandardCharsets.UTF_8)).get(5, TimeUnit.SECONDS);
+        await(server::getAuthenticatedCount, 2);
+        server.disconnectAll();
+        await(server::getAuthenticatedCount, 2);
+        assertEquals(4, server.getAcceptedCount());
+    }
+
+    private static void await(IntSupplier actual, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (actual.getAsInt() != expected && System.currentTimeMillis() < deadline)
+            Thread.sleep(50);
+        assertEquals(expected, actual.getAsInt());
+    }
+
+    /**
+     * A game server accepting any password, every command is answered with an empty response
+     */
+    private static final class FakeServer implements AutoCloseable {
+
+        private final ServerSocket socket;
+
+        private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+
+        private final Set<Socket> authenticated = ConcurrentHashMap.newKeySet();
+
+        private final Set<Socket> blocked = ConcurrentHashMap.newKeySet();
+
+        private final CountDownLatch closed = new CountDownLatch(1);
+
+        private volatile int accepted;
+
+        private FakeServer() throws IOException {
+            socket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            Thread thread = new Thread(() -> {
+                while (!socket.isClosed()) {
+                    try {
+                        Socket connection = socket.accept();
+                        accepted++;
+                        connections.add(connection);
+                        new Thread(() -> serve(connection)).start();
+                    } catch (IOException e) {
+                        return;
+                    }
+                }
+            });
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        private void serve(Socket connection) {
+            try {
+                DataInputStream in = new DataInputStream(connection.getInputStream());
+                OutputStream out = connection.getOutputStream();
+                while (true) {
+                    byte[] data = new byte[Integer.reverseBytes(in.readInt())];
+                    in.readFully(data);
+                    ByteBuffer packet = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+                    int id = packet.getInt();
+                    int type = packet.getInt();
+                    String body = new String(data, 8, data.length - 10, StandardCharsets.UTF_8);
+                    if (type == SourceRcon.RCON_TYPE_REQUEST_AUTH) {
+                        authenticated.add(connection);
+                        write(out, packet(id, SourceRcon.RCON_TYPE_RESPONSE_VALUE, ""), packet(id, SourceRcon.RCON_TYPE_RESPONSE_AUTH, ""));
+                    } else if (type == SourceRcon.RCON_TYPE_REQUEST_COMMAND && BLOCK.equals(body)) {
+                        blocked.add(connection);
+                        closed.await();
+                        return;
+                    } else {
+                        //command responses and the mirrored terminator packets are answered alike
+                        write(out, packet(id, SourceRcon.RCON_TYPE_RESPONSE_VALUE, ""));
+                    }
+                }
+            } catch (EOFException | InterruptedException e) {
+                //connection closed
+            } catch (IOException e) {
+                if (!connection.isClosed())
+                    throw new IllegalStateException(e);
+            } finally {
+                disconnect(connection);
+            }
+        }
+
+        private static byte[] packet(int id, int type, String body) {
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            ByteBuffer packet = ByteBuffer.allocate(bytes.length + 14).order(ByteOrder.LITTLE_ENDIAN);
+            packet.putInt(bytes.length + 10);
+            packet.putInt(id);
+            packet.putInt(type);
+            packet.put(bytes);
+            packet.put((byte) 0);
+            packet.put((byte) 0);
+            return packet.array();
+        }
+
+        private static void write(OutputStream out, byte[]... packets) throws IOException {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            for (byte[] packet : packets)
+                buffer.write(packet);
+            out.write(buffer.toByteArray());
+            out.flush();
+        }
+
+        private InetSocketAddress address() {
+            return (InetSocketAddress) socket.getLocalSocketAddress();
+        }
+
+        private int getAcceptedCount() {
+            return accepted;
+        }
+
+        private int getConnectionCount() {
+            return connections.size();
+        }
+
+        /**
+         * @return The number of open connections which have been authenticated
+         */
+        private int getAuthenticatedCount() {
+            return authenticated.size();
+        }
+
+        private int getBlockedCount() {
+            return blocked.size();
+        }
+
+        private void disconnectAll() {
+            for (Socket connection : connections)
+                disconnect(connection);
+        }
+
+        private void disconnect(Socket connection) {
+            connections.remove(connection);
+            authenticated.remove(connection);
+            blocked.remove(connection);
+            try {
+                connection.close();
+            } catch (IOException ignored) {
+            }
+        }
+
+        @Override
+        public void close() throws Exception {
+            closed.countDown();
+            socket.close();
+            disconnectAll();
+        }
+    }
+}
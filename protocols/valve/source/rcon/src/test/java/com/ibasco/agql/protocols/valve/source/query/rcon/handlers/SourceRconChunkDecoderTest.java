@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.protocols.valve.source.query.rcon.handlers;
+
+import io.netty.buffer.Unpooled;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SourceRconChunkDecoderTest {
+
+    private List<String> chunks;
+
+    private SourceRconChunkDecoder decoder;
+
+    @BeforeEach
+    void setUp() {
+        chunks = new ArrayList<>();
+        decoder = new SourceRconChunkDecoder(chunks::add);
+    }
+
+    @Test
+    @DisplayName("Each packet body is passed to the consumer as a separate chunk")
+    void testChunks() {
+        decode("hostname: Test Server\n".getBytes(StandardCharsets.UTF_8));
+        decode(new byte[0]);
+        decode("map     : de_dust2\n".getBytes(StandardCharsets.UTF_8));
+        decoder.finish();
+        assertEquals(Arrays.asList("hostname: Test Server\n", "map     : de_dust2\n"), chunks);
+        assertFalse(decoder.isBadPassword());
+    }
+
+    @Test
+    @DisplayName("A multi-byte character split across two packets is carried over to the next chunk")
+    void testSplitCharacter() {
+        byte[] data = "café €".getBytes(StandardCharsets.UTF_8);
+        //split within the two-byte 'é'
+        decode(Arrays.copyOfRange(data, 0, 4));
+        decode(Arrays.copyOfRange(data, 4, data.length));
+        decoder.finish();
+        assertEquals(Arrays.asList("caf", "é €"), chunks);
+    }
+
+    @Test
+    @DisplayName("A character split across more than two packets is emitted once complete")
+    void testCharacterSplitAcrossThreePackets() {
+        byte[] data = "a😀b".getBytes(StandardCharsets.UTF_8);
+        assertEquals(6, data.length);
+        decode(Arrays.copyOfRange(data, 0, 2));
+        decode(Arrays.copyOfRange(data, 2, 3));
+        decode(Arrays.copyOfRange(data, 3, 6));
+        decoder.finish();
+        assertEquals("a😀b", String.join("", chunks));
+        assertEquals(Arrays.asList("a", "😀b"), chunks);
+    }
+
+    @Test
+    @DisplayName("An incomplete trailing character is replaced once the response is finished")
+    void testIncompleteTrailingCharacter() {
+        byte[] data = "ok€".getBytes(StandardCharsets.UTF_8);
+        decode(Arrays.copyOfRange(data, 0, data.length - 1));
+        decoder.finish();
+        assertEquals(Arrays.asList("ok", "�"), chunks);
+    }
+
+    @Test
+    @DisplayName("A rejected command is detected on the first chunk and not passed to the consumer")
+    void testBadPassword() {
+        decode("Bad Password\n".getBytes(StandardCharsets.UTF_8));
+        decode("more".getBytes(StandardCharsets.UTF_8));
+        decoder.finish();
+        assertTrue(decoder.isBadPassword());
+        assertTrue(chunks.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Later chunks containing the rejection text are regular output")
+    void testBadPasswordInLaterChunk() {
+        decode("log line 1\n".getBytes(StandardCharsets.UTF_8));
+        decode("Bad Password\n".getBytes(StandardCharsets.UTF_8));
+        decoder.finish();
+        assertFalse(decoder.isBadPassword());
+        assertEquals(Arrays.asList("log line 1\n", "Bad Password\n"), chunks);
+    }
+
+    private void decode(byte[] data) {
+        decoder.decode(Unpooled.wrappedBuffer(data));
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.protocols.valve.source.snapshot;
+
+import java.util.function.LongConsumer;
+
+/**
+ * Maps a packed server address to the file offset of its latest record. Keys and values are stored in parallel {@code long} arrays (open addressing, linear probing), entries are never removed.
+ *
+ * @see com.ibasco.agql.core.util.PackedAddressSet#pack(java.net.InetSocketAddress)
+ */
+final class AddressIndex {
+
+    private static final long EMPTY = 0;
+
+    private static final long MISSING = -1;
+
+    private long[] keys;
+
+    private long[] values;
+
+    private int size;
+
+    private boolean containsZero;
+
+    private long zeroValue;
+
+    AddressIndex() {
+        this.keys = new long[1024];
+        this.values = new long[1024];
+    }
+
+    /**
+     * @return The offset associated with the packed address or -1 if not present
+     */
+    long get(long address) {
+        if (address == EMPTY)
+            return containsZero ? zeroValue : MISSING;
+        int index = indexOf(keys, address);
+        return keys[index] == address ? values[index] : MISSING;
+    }
+
+    void put(long address, long offset) {
+        if (address == EMPTY) {
+            if (!containsZero)
+                size++;
+            containsZero = true;
+            zeroValue = offset;
+            return;
+        }
+        int index = indexOf(keys, address);
+        boolean added = keys[index] != address;
+        keys[index] = address;
+        values[index] = offset;
+        if (added && ++size > keys.length >> 1)
+            resize();
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Invoke the action with the offset of each entry
+     */
+    void forEachOffset(LongConsumer action) {
+        if (containsZero)
+            action.accept(zeroValue);
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY)
+                action.accept(values[i]);
+        }
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        this.keys = new long[oldKeys.length << 1];
+        this.values = new long[oldValues.length << 1];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == EMPTY)
+                continue;
+            int index = indexOf(keys, oldKeys[i]);
+            keys[index] = oldKeys[i];
+            values[index] = oldValues[i];
+        }
+    }
+
+    private static int indexOf(long[] keys, long address) {
+        final int mask = keys.length - 1;
+        int index = hash(address) & mask;
+        while (keys[index] != EMPTY && keys[index] != address)
+            index = (index + 1) & mask;
+        return index;
+    }
+
+    private static int hash(long packed) {
+        //murmur3 64-bit finalizer
+        packed ^= packed >>> 33;
+        packed *= 0xff51afd7ed558ccdL;
+        packed ^= packed >>> 33;
+        packed *= 0xc4ceb9fe1a85ec53L;
+        packed ^= packed >>> 33;
+        return (int) packed;
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.protocols.valve.source.snapshot;
+
+/**
+ * The binary layout of a snapshot file. All values are stored in big-endian byte order.
+ *
+ * <p>
+ * The file is divided into chunks of equal size, each chunk is mapped into memory separately and an entry never spans two chunks. The first chunk starts with the file header,
+ * followed by the entries. Each entry starts with an 8 byte header (type and payload length) and is padded to a multiple of 8 bytes. A zero type marks the unused remainder of a chunk.
+ * </p>
+ *
+ * <pre>
+ * File header (64 bytes)
+ *   0  int   magic
+ *   4  int   version
+ *   8  int   chunk size
+ *   16 long  committed length (entries beyond this offset are ignored on reload)
+ *
+ * String entry: UTF-8 bytes. Strings are numbered in the order they have been appended, starting from zero.
+ *
+ * Record entry (fixed-width columns, string columns contain the id of a dictionary string or -1 if null)
+ *   0  long  packed address
+ *   8  long  timestamp (milliseconds since epoch)
+ *   16 long  server id
+ *   24 long  game id
+ *   32 int   app id
+ *   36 int   number of players
+ *   40 int   max players
+ *   44 int   number of bots
+ *   48 int   tv port
+ *   52 int   game port
+ *   56 int   name, map name, game directory, game description, operating system, game version, tv name, server tags (8 x int)
+ *   88 int   player count (-1 if not available)
+ *   92 int   rule count (-1 if not available)
+ *   96 byte  flags
+ *   97 byte  network version
+ *   104      players (index, name, score and duration, 16 bytes each) followed by the rules (key and value, 8 bytes each)
+ * </pre>
+ */
+final class SnapshotLayout {
+
+    static final int MAGIC = 0x41475153; //AGQS
+
+    static final int VERSION = 1;
+
+    static final int FILE_HEADER_SIZE = 64;
+
+    static final int HEADER_CHUNK_SIZE = 8;
+
+    static final int HEADER_COMMITTED = 16;
+
+    static final int ENTRY_HEADER_SIZE = 8;
+
+    static final byte TYPE_NONE = 0;
+
+    static final byte TYPE_STRING = 1;
+
+    static final byte TYPE_RECORD = 2;
+
+    //<editor-fold desc="Record columns">
+    static final int ADDRESS = 0;
+
+    static final int TIMESTAMP = 8;
+
+    static final int SERVER_ID = 16;
+
+    static final int GAME_ID = 24;
+
+    static final int APP_ID = 32;
+
+    static final int NUM_OF_PLAYERS = 36;
+
+    static final int MAX_PLAYERS = 40;
+
+    static final int NUM_OF_BOTS = 44;
+
+    static final int TV_PORT = 48;
+
+    static final int GAME_PORT = 52;
+
+    static final int NAME = 56;
+
+    static final int MAP_NAME = 60;
+
+    static final int GAME_DIRECTORY = 64;
+
+    static final int GAME_DESCRIPTION = 68;
+
+    static final int OPERATING_SYSTEM = 72;
+
+    static final int GAME_VERSION = 76;
+
+    static final int TV_NAME = 80;
+
+    static final int SERVER_TAGS = 84;
+
+    static final int PLAYER_COUNT = 88;
+
+    static final int RULE_COUNT = 92;
+
+    static final int FLAGS = 96;
+
+    static final int NETWORK_VERSION = 97;
+
+    static final int RECORD_SIZE = 104;
+
+    static final int PLAYER_SIZE = 16;
+
+    static final int RULE_SIZE = 8;
+    //</editor-fold>
+
+    //<editor-fold desc="Record flags">
+    static final int FLAG_INFO = 1;
+
+    static final int FLAG_DEDICATED = 1 << 1;
+
+    static final int FLAG_SECURE = 1 << 2;
+
+    static final int FLAG_PRIVATE = 1 << 3;
+
+    static final int FLAG_SOURCETV_PROXY = 1 << 4;
+    //</editor-fold>
+
+    static final int NULL_STRING = -1;
+
+    private SnapshotLayout() {}
+
+    static int align(int size) {
+        return (size + 7) & ~7;
+    }
+}
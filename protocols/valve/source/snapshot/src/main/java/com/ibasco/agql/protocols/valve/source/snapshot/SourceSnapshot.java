@@ -0,0 +1,321 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.protocols.valve.source.snapshot;
+
+import static com.ibasco.agql.protocols.valve.source.snapshot.SnapshotLayout.*;
+import com.ibasco.agql.core.util.PackedAddressSet;
+import com.ibasco.agql.protocols.valve.source.query.SourceServerRecord;
+import com.ibasco.agql.protocols.valve.source.query.info.SourceServer;
+import com.ibasco.agql.protocols.valve.source.query.players.SourcePlayer;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * A read-only view of a record of a {@link SourceSnapshotStore}. The values are read from the mapped file on each access, nothing is copied until requested (e.g. {@link #getInfo()}).
+ *
+ * <p>
+ * A view remains valid as long as the store is open.
+ * </p>
+ *
+ * @see SourceSnapshotStore#get(InetSocketAddress)
+ */
+public final class SourceSnapshot {
+
+    private final SourceSnapshotStore store;
+
+    private final ByteBuffer chunk;
+
+    private final int base;
+
+    SourceSnapshot(SourceSnapshotStore store, ByteBuffer chunk, int base) {
+        this.store = store;
+        this.chunk = chunk;
+        this.base = base;
+    }
+
+    /**
+     * @return The address of the server
+     */
+    public InetSocketAddress getAddress() {
+        return PackedAddressSet.unpack(chunk.getLong(base + ADDRESS));
+    }
+
+    /**
+     * @return The time (in milliseconds since epoch) the record has been captured
+     */
+    public long getTimestamp() {
+        return chunk.getLong(base + TIMESTAMP);
+    }
+
+    /**
+     * @return {@code true} if the record contains the server information
+     */
+    public boolean hasInfo() {
+        return flag(FLAG_INFO);
+    }
+
+    /**
+     * @return {@code true} if the record contains the list of players
+     */
+    public boolean hasPlayers() {
+        return chunk.getInt(base + PLAYER_COUNT) >= 0;
+    }
+
+    /**
+     * @return {@code true} if the record contains the server rules
+     */
+    public boolean hasRules() {
+        return chunk.getInt(base + RULE_COUNT) >= 0;
+    }
+
+    //<editor-fold desc="Server Information">
+
+    /**
+     * @return The name of the server or {@code null} if not available
+     */
+    public String getName() {
+        return string(NAME);
+    }
+
+    /**
+     * @return The map name or {@code null} if not available
+     */
+    public String getMapName() {
+        return string(MAP_NAME);
+    }
+
+    /**
+     * @return The game directory or {@code null} if not available
+     */
+    public String getGameDirectory() {
+        return string(GAME_DIRECTORY);
+    }
+
+    /**
+     * @return The game description or {@code null} if not available
+     */
+    public String getGameDescription() {
+        return string(GAME_DESCRIPTION);
+    }
+
+    /**
+     * @return The game version or {@code null} if not available
+     */
+    public String getGameVersion() {
+        return string(GAME_VERSION);
+    }
+
+    /**
+     * @return The server tags or {@code null} if not available
+     */
+    public String getServerTags() {
+        return string(SERVER_TAGS);
+    }
+
+    /**
+     * @return The steam application id
+     */
+    public int getAppId() {
+        return chunk.getInt(base + APP_ID);
+    }
+
+    /**
+     * @return The number of players reported by the server information
+     */
+    public int getNumOfPlayers() {
+        return chunk.getInt(base + NUM_OF_PLAYERS);
+    }
+
+    /**
+     * @return The maximum number of players
+     */
+    public int getMaxPlayers() {
+        return chunk.getInt(base + MAX_PLAYERS);
+    }
+
+    /**
+     * @return The number of bots
+     */
+    public int getNumOfBots() {
+        return chunk.getInt(base + NUM_OF_BOTS);
+    }
+
+    /**
+     * @return {@code true} if the server requires a password
+     */
+    public boolean isPrivateServer() {
+        return flag(FLAG_PRIVATE);
+    }
+
+    /**
+     * @return {@code true} if the server uses VAC
+     */
+    public boolean isSecure() {
+        return flag(FLAG_SECURE);
+    }
+
+    /**
+     * Materialize the server information
+     *
+     * @return A new {@link SourceServer} instance or {@code null} if the record does not contain the server information
+     */
+    public SourceServer getInfo() {
+        if (!hasInfo())
+            return null;
+        SourceServer server = new SourceServer();
+        server.setAddress(getAddress());
+        server.setName(getName());
+        server.setMapName(getMapName());
+        server.setGameDirectory(getGameDirectory());
+        server.setGameDescription(getGameDescription());
+        server.setOperatingSystem(string(OPERATING_SYSTEM));
+        server.setGameVersion(getGameVersion());
+        server.setTvName(string(TV_NAME));
+        server.setServerTags(getServerTags());
+        server.setServerId(chunk.getLong(base + SERVER_ID));
+        server.setGameId(chunk.getLong(base + GAME_ID));
+        server.setAppId(getAppId());
+        server.setNumOfPlayers(getNumOfPlayers());
+        server.setMaxPlayers(getMaxPlayers());
+        server.setNumOfBots(getNumOfBots());
+        server.setTvPort(chunk.getInt(base + TV_PORT));
+        server.setGamePort(chunk.getInt(base + GAME_PORT));
+        server.setNetworkVersion(chunk.get(base + NETWORK_VERSION));
+        server.setDedicated(flag(FLAG_DEDICATED));
+        server.setSecure(isSecure());
+        server.setPrivateServer(isPrivateServer());
+        server.setSourceTvProxy(flag(FLAG_SOURCETV_PROXY));
+        return server;
+    }
+    //</editor-fold>
+
+    /**
+     * @return The number of players in the list or -1 if the record does not contain the list of players
+     */
+    public int getPlayerCount() {
+        return chunk.getInt(base + PLAYER_COUNT);
+    }
+
+    /**
+     * @return An unmodifiable list of players backed by the snapshot file ({@link SourcePlayer} instances are created on access) or {@code null} if the record does not contain the list of players
+     */
+    public List<SourcePlayer> getPlayers() {
+        final int count = getPlayerCount();
+        if (count < 0)
+            return null;
+        return new PlayerList(count);
+    }
+
+    /**
+     * @return The number of rules or -1 if the record does not contain the server rules
+     */
+    public int getRuleCount() {
+        return chunk.getInt(base + RULE_COUNT);
+    }
+
+    /**
+     * Lookup the value of a single rule without materializing all rules
+     *
+     * @param name
+     *         The name of the rule
+     *
+     * @return The value of the rule or {@code null} if not present
+     */
+    public String getRule(String name) {
+        final int count = getRuleCount();
+        final int offset = rulesOffset();
+        for (int i = 0; i < count; i++) {
+            int position = offset + i * RULE_SIZE;
+            if (name.equals(store.string(chunk.getInt(position))))
+                return store.string(chunk.getInt(position + 4));
+        }
+        return null;
+    }
+
+    /**
+     * Materialize the server rules
+     *
+     * @return A new {@link Map} containing the rules or {@code null} if the record does not contain the server rules
+     */
+    public Map<String, String> getRules() {
+        final int count = getRuleCount();
+        if (count < 0)
+            return null;
+        final int offset = rulesOffset();
+        Map<String, String> rules = new LinkedHashMap<>(Math.max(16, count * 2));
+        for (int i = 0; i < count; i++) {
+            int position = offset + i * RULE_SIZE;
+            rules.put(store.string(chunk.getInt(position)), store.string(chunk.getInt(position + 4)));
+        }
+        return rules;
+    }
+
+    /**
+     * Materialize the snapshot
+     *
+     * @return A new {@link SourceServerRecord} containing the values of this snapshot
+     */
+    public SourceServerRecord toRecord() {
+        List<SourcePlayer> players = getPlayers();
+        return new SourceServerRecord(getAddress(), getInfo(), players != null ? new ArrayList<>(players) : null, getRules());
+    }
+
+    private int rulesOffset() {
+        return base + RECORD_SIZE + Math.max(0, getPlayerCount()) * PLAYER_SIZE;
+    }
+
+    private boolean flag(int flag) {
+        return (chunk.get(base + FLAGS) & flag) != 0;
+    }
+
+    private String string(int column) {
+        return store.string(chunk.getInt(base + column));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SourceSnapshot{address=%s, timestamp=%d, name=%s, players=%d, rules=%d}", getAddress(), getTimestamp(), getName(), getPlayerCount(), getRuleCount());
+    }
+
+    private final class PlayerList extends AbstractList<SourcePlayer> implements RandomAccess {
+
+        private final int size;
+
+        private PlayerList(int size) {
+            this.size = size;
+        }
+
+        @Override
+        public SourcePlayer get(int index) {
+            if (index < 0 || index >= size)
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            int position = base + RECORD_SIZE + index * PLAYER_SIZE;
+            return new SourcePlayer(chunk.getInt(position), store.string(chunk.getInt(position + 4)), chunk.getInt(position + 8), chunk.getFloat(position + 12));
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,558 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.protocols.valve.source.snapshot;
+
+import static com.ibasco.agql.protocols.valve.source.snapshot.SnapshotLayout.*;
+import com.ibasco.agql.core.util.PackedAddressSet;
+import com.ibasco.agql.protocols.valve.source.query.SourceServerRecord;
+import com.ibasco.agql.protocols.valve.source.query.info.SourceServer;
+import com.ibasco.agql.protocols.valve.source.query.players.SourcePlayer;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.Inet4Address;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An append-only store of {@link SourceServerRecord}s backed by a memory-mapped file.
+ *
+ * <p>
+ * Each appended record is written as a row of fixed-width numeric columns, followed by its players and rules. Strings (server names, map names, player names, rule keys and values, etc.) are stored
+ * only once in a string dictionary and referenced by id. Appending a record for an address that is already present does not modify the previous record, the address index is updated to point to the new one.
+ * The file only grows (one chunk at a time), start a new file to discard the previous versions of the records.
+ * </p>
+ *
+ * <p>
+ * Reading a record does not copy or parse its data, {@link SourceSnapshot} reads the columns directly from the mapped file on access. Reopening an existing file only scans the entry headers to rebuild the address index
+ * and the offsets of the dictionary strings, the strings themselves are decoded on first access. Written data is only guaranteed to be persisted once {@link #flush()} or {@link #close()} has been called,
+ * entries written after the last flush may be lost on a crash but never leave the file in an inconsistent state.
+ * </p>
+ *
+ * <p>
+ * Only IPv4 server addresses are supported. This class is thread-safe.
+ * </p>
+ *
+ * <pre>
+ * try (SourceSnapshotStore store = SourceSnapshotStore.open(Paths.get("servers.snapshot"))) {
+ *     SourceSnapshot snapshot = store.get(address);
+ *     if (snapshot != null)
+ *         System.out.printf("%s: %s (%d/%d)%n", snapshot.getAddress(), snapshot.getName(), snapshot.getNumOfPlayers(), snapshot.getMaxPlayers());
+ * }
+ * </pre>
+ *
+ * @see SourceSnapshot
+ */
+public final class SourceSnapshotStore implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(SourceSnapshotStore.class);
+
+    /**
+     * The default size of a chunk of the file (64 MB). A single record (including its players and rules) must fit into a chunk.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 64 * 1024 * 1024;
+
+    private final Path file;
+
+    private final FileChannel channel;
+
+    private final int chunkSize;
+
+    private final List<MappedByteBuffer> chunks = new ArrayList<>();
+
+    private final AddressIndex index = new AddressIndex();
+
+    /**
+     * File offsets of the dictionary strings, indexed by string id
+     */
+    private long[] stringOffsets = new long[1024];
+
+    /**
+     * The decoded dictionary strings, indexed by string id (decoded on first access)
+     */
+    private String[] strings = new String[1024];
+
+    private int stringCount;
+
+    /**
+     * The ids of the dictionary strings, only built once the first record is appended
+     */
+    private Map<String, Integer> stringIds;
+
+    /**
+     * The length of the written entries. Only stored in the file header once the entries have been persisted (see {@link #flush()}).
+     */
+    private long committed;
+
+    /**
+     * The committed length as of the last flush
+     */
+    private long flushed;
+
+    private boolean closed;
+
+    private SourceSnapshotStore(Path file, FileChannel channel, int chunkSize) {
+        this.file = file;
+        this.channel = channel;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Open an existing snapshot file or create a new one using the default chunk size
+     *
+     * @param file
+     *         The {@link Path} of the snapshot file
+     *
+     * @return The {@link SourceSnapshotStore}
+     *
+     * @throws IOException
+     *         If the file can not be opened or is not a valid snapshot file
+     * @see #open(Path, int)
+     */
+    public static SourceSnapshotStore open(Path file) throws IOException {
+        return open(file, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Open an existing snapshot file or create a new one
+     *
+     * @param file
+     *         The {@link Path} of the snapshot file
+     * @param chunkSize
+     *         The size of a chunk of a new file. The chunk size of an existing file is read from its header.
+     *
+     * @return The {@link SourceSnapshotStore}
+     *
+     * @throws IOException
+     *         If the file can not be opened or is not a valid snapshot file
+     */
+    public static SourceSnapshotStore open(Path file, int chunkSize) throws IOException {
+        Objects.requireNonNull(file, "File must not be null");
+        if (chunkSize < 4096)
+            throw new IllegalArgumentException("Chunk size must be at least 4096 bytes");
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            SourceSnapshotStore store;
+            if (channel.size() == 0) {
+                store = new SourceSnapshotStore(file, channel, chunkSize);
+                store.initialize();
+            } else {
+                ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+                while (header.hasRemaining()) {
+                    if (channel.read(header, header.position()) < 0)
+                        break;
+                }
+                if (header.hasRemaining() || header.getInt(0) != MAGIC)
+                    throw new IOException("Not a snapshot file: " + file);
+                if (header.getInt(4) != VERSION)
+                    throw new IOException(String.format("Unsupported snapshot file version %d (Supported: %d)", header.getInt(4), VERSION));
+                if (header.getInt(HEADER_CHUNK_SIZE) < 4096)
+                    throw new IOException(String.format("Corrupted snapshot file '%s' (Invalid chunk size %d)", file, header.getInt(HEADER_CHUNK_SIZE)));
+                store = new SourceSnapshotStore(file, channel, header.getInt(HEADER_CHUNK_SIZE));
+                store.load(header.getLong(HEADER_COMMITTED));
+            }
+            return store;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void initialize() throws IOException {
+        MappedByteBuffer header = chunk(0);
+        header.putInt(0, MAGIC);
+        header.putInt(4, VERSION);
+        header.putInt(HEADER_CHUNK_SIZE, chunkSize);
+        header.putLong(HEADER_COMMITTED, FILE_HEADER_SIZE);
+        header.force();
+        this.committed = FILE_HEADER_SIZE;
+        this.flushed = FILE_HEADER_SIZE;
+    }
+
+    /**
+     * Rebuild the address index and the string offsets by scanning the entry headers up to the committed length
+     */
+    private void load(long committed) throws IOException {
+        long start = System.nanoTime();
+        long offset = FILE_HEADER_SIZE;
+        while (offset < committed) {
+            int chunkIndex = (int) (offset / chunkSize);
+            int position = (int) (offset % chunkSize);
+            ByteBuffer chunk = chunk(chunkIndex);
+            byte type = chunkSize - position < ENTRY_HEADER_SIZE ? TYPE_NONE : chunk.get(position);
+            if (type == TYPE_NONE) {
+                offset = (long) (chunkIndex + 1) * chunkSize;
+                continue;
+            }
+            int length = chunk.getInt(position + 4);
+            if (length < 0 || position + ENTRY_HEADER_SIZE + length > chunkSize)
+                throw new IOException(String.format("Corrupted snapshot file '%s' (Invalid entry length %d at offset %d)", file, length, offset));
+            if (type == TYPE_STRING) {
+                addString(offset, null);
+            } else if (type == TYPE_RECORD) {
+                index.put(chunk.getLong(position + ENTRY_HEADER_SIZE + ADDRESS), offset);
+            } else {
+                throw new IOException(String.format("Corrupted snapshot file '%s' (Invalid entry type %d at offset %d)", file, type, offset));
+            }
+            offset += ENTRY_HEADER_SIZE + align(length);
+        }
+        this.committed = committed;
+        this.flushed = committed;
+        log.debug("SNAPSHOT => Loaded snapshot file '{}' (Servers: {}, Strings: {}, Size: {} bytes, Time: {} ms)", file, index.size(), stringCount, committed, (System.nanoTime() - start) / 1000000L);
+    }
+
+    /**
+     * Append a record using the current time as timestamp
+     *
+     * @param record
+     *         The {@link SourceServerRecord} to append
+     *
+     * @return A {@link SourceSnapshot} of the appended record
+     *
+     * @throws IOException
+     *         If the file could not be extended
+     * @see #append(SourceServerRecord, long)
+     */
+    public SourceSnapshot append(SourceServerRecord record) throws IOException {
+        return append(record, System.currentTimeMillis());
+    }
+
+    /**
+     * Append a record. The record replaces the previous record of the same address in the index.
+     *
+     * @param record
+     *         The {@link SourceServerRecord} to append
+     * @param timestamp
+     *         The time (in milliseconds since epoch) the record has been captured
+     *
+     * @return A {@link SourceSnapshot} of the appended record
+     *
+     * @throws IOException
+     *         If the file could not be extended
+     * @throws IllegalArgumentException
+     *         If the address of the record is not an IPv4 address or if the record does not fit into a chunk
+     */
+    public synchronized SourceSnapshot append(SourceServerRecord record, long timestamp) throws IOException {
+        Objects.requireNonNull(record, "Record must not be null");
+        checkOpen();
+        final long address = PackedAddressSet.pack(record.getAddress());
+        final SourceServer info = record.getInfo();
+        final List<SourcePlayer> players = record.getPlayers();
+        final Map<String, String> rules = record.getRules();
+
+        //add the strings to the dictionary before writing the record
+        final int[] infoIds = new int[8];
+        Arrays.fill(infoIds, NULL_STRING);
+        if (info != null) {
+            infoIds[0] = intern(info.getName());
+            infoIds[1] = intern(info.getMapName());
+            infoIds[2] = intern(info.getGameDirectory());
+            infoIds[3] = intern(info.getGameDescription());
+            infoIds[4] = intern(info.getOperatingSystem());
+            infoIds[5] = intern(info.getGameVersion());
+            infoIds[6] = intern(info.getTvName());
+            infoIds[7] = intern(info.getServerTags());
+        }
+        final int playerCount = players != null ? players.size() : -1;
+        final SourcePlayer[] playerArray = players != null ? players.toArray(new SourcePlayer[0]) : new SourcePlayer[0];
+        final int[] playerNames = new int[playerArray.length];
+        for (int i = 0; i < playerArray.length; i++)
+            playerNames[i] = intern(playerArray[i].getName());
+        final int ruleCount = rules != null ? rules.size() : -1;
+        final int[] ruleIds = new int[Math.max(0, ruleCount) * 2];
+        if (rules != null) {
+            int i = 0;
+            for (Map.Entry<String, String> rule : rules.entrySet()) {
+                ruleIds[i++] = intern(rule.getKey());
+                ruleIds[i++] = intern(rule.getValue());
+            }
+        }
+
+        //write the record
+        final int length = RECORD_SIZE + playerArray.length * PLAYER_SIZE + (ruleIds.length / 2) * RULE_SIZE;
+        final long offset = allocate(TYPE_RECORD, length);
+        final ByteBuffer chunk = chunk((int) (offset / chunkSize));
+        final int base = (int) (offset % chunkSize) + ENTRY_HEADER_SIZE;
+        chunk.putLong(base + ADDRESS, address);
+        chunk.putLong(base + TIMESTAMP, timestamp);
+        int flags = 0;
+        if (info != null) {
+            flags |= FLAG_INFO;
+            if (info.isDedicated())
+                flags |= FLAG_DEDICATED;
+            if (info.isSecure())
+                flags |= FLAG_SECURE;
+            if (info.isPrivateServer())
+                flags |= FLAG_PRIVATE;
+            if (info.isSourceTvProxy())
+                flags |= FLAG_SOURCETV_PROXY;
+            chunk.putLong(base + SERVER_ID, info.getServerId());
+            chunk.putLong(base + GAME_ID, info.getGameId());
+            chunk.putInt(base + APP_ID, info.getAppId());
+            chunk.putInt(base + NUM_OF_PLAYERS, info.getNumOfPlayers());
+            chunk.putInt(base + MAX_PLAYERS, info.getMaxPlayers());
+            chunk.putInt(base + NUM_OF_BOTS, info.getNumOfBots());
+            chunk.putInt(base + TV_PORT, info.getTvPort());
+            chunk.putInt(base + GAME_PORT, info.getGamePort());
+            chunk.put(base + NETWORK_VERSION, info.getNetworkVersion());
+        }
+        for (int i = 0; i < infoIds.length; i++)
+            chunk.putInt(base + NAME + i * 4, infoIds[i]);
+        chunk.putInt(base + PLAYER_COUNT, playerCount);
+        chunk.putInt(base + RULE_COUNT, ruleCount);
+        chunk.put(base + FLAGS, (byte) flags);
+        int position = base + RECORD_SIZE;
+        for (int i = 0; i < playerArray.length; i++, position += PLAYER_SIZE) {
+            chunk.putInt(position, playerArray[i].getIndex());
+            chunk.putInt(position + 4, playerNames[i]);
+            chunk.putInt(position + 8, playerArray[i].getScore());
+            chunk.putFloat(position + 12, playerArray[i].getDuration());
+        }
+        for (int i = 0; i < ruleIds.length; i += 2, position += RULE_SIZE) {
+            chunk.putInt(position, ruleIds[i]);
+            chunk.putInt(position + 4, ruleIds[i + 1]);
+        }
+        commit(offset + ENTRY_HEADER_SIZE + align(length));
+        index.put(address, offset);
+        return new SourceSnapshot(this, chunk, base);
+    }
+
+    /**
+     * Get the latest record of a server
+     *
+     * @param address
+     *         The address of the server
+     *
+     * @return A {@link SourceSnapshot} of the latest record or {@code null} if the store does not contain a record for the address
+     */
+    public synchronized SourceSnapshot get(InetSocketAddress address) {
+        checkOpen();
+        if (address == null || !(address.getAddress() instanceof Inet4Address))
+            return null;
+        return snapshot(index.get(PackedAddressSet.pack(address)));
+    }
+
+    /**
+     * Check if the store contains a record of a server
+     *
+     * @param address
+     *         The address of the server
+     *
+     * @return {@code true} if the store contains at least one record of the server
+     */
+    public synchronized boolean contains(InetSocketAddress address) {
+        checkOpen();
+        return address != null && address.getAddress() instanceof Inet4Address && index.get(PackedAddressSet.pack(address)) >= 0;
+    }
+
+    /**
+     * Invoke the action with the latest record of each server. Records appended while iterating are not included.
+     *
+     * @param action
+     *         The action to be invoked for each {@link SourceSnapshot}
+     */
+    public void forEach(Consumer<SourceSnapshot> action) {
+        Objects.requireNonNull(action, "Action must not be null");
+        final long[] offsets;
+        synchronized (this) {
+            checkOpen();
+            offsets = new long[index.size()];
+            final int[] count = new int[1];
+            index.forEachOffset(offset -> offsets[count[0]++] = offset);
+        }
+        for (long offset : offsets) {
+            SourceSnapshot snapshot;
+            synchronized (this) {
+                checkOpen();
+                snapshot = snapshot(offset);
+            }
+            action.accept(snapshot);
+        }
+    }
+
+    /**
+     * @return The number of servers in the store
+     */
+    public synchronized int size() {
+        return index.size();
+    }
+
+    /**
+     * @return The {@link Path} of the snapshot file
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Write the entries appended since the last flush to the storage device
+     */
+    public synchronized void flush() {
+        checkOpen();
+        if (flushed == committed)
+            return;
+        //persist the entries before the header, so the committed length never points beyond the persisted entries
+        for (int i = (int) (flushed / chunkSize); i <= (int) ((committed - 1) / chunkSize); i++)
+            chunks.get(i).force();
+        MappedByteBuffer header = chunks.get(0);
+        header.putLong(HEADER_COMMITTED, committed);
+        header.force();
+        flushed = committed;
+    }
+
+    /**
+     * Flush the pending changes and close the file. The {@link SourceSnapshot}s obtained from this store must no longer be used once closed.
+     *
+     * @throws IOException
+     *         If the file could not be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed)
+            return;
+        try {
+            flush();
+        } finally {
+            closed = true;
+            chunks.clear();
+            channel.close();
+        }
+    }
+
+    /**
+     * Resolve a dictionary string
+     *
+     * @param id
+     *         The string id
+     *
+     * @return The string or {@code null} if the id is {@link SnapshotLayout#NULL_STRING}
+     */
+    synchronized String string(int id) {
+        if (id == NULL_STRING)
+            return null;
+        if (id < 0 || id >= stringCount)
+            throw new IllegalStateException("Invalid string id: " + id);
+        String value = strings[id];
+        if (value == null) {
+            long offset = stringOffsets[id];
+            ByteBuffer chunk = chunks.get((int) (offset / chunkSize));
+            int position = (int) (offset % chunkSize);
+            byte[] data = new byte[chunk.getInt(position + 4)];
+            ByteBuffer slice = chunk.duplicate();
+            slice.position(position + ENTRY_HEADER_SIZE);
+            slice.get(data);
+            value = new String(data, StandardCharsets.UTF_8);
+            strings[id] = value;
+        }
+        return value;
+    }
+
+    private SourceSnapshot snapshot(long offset) {
+        if (offset < 0)
+            return null;
+        return new SourceSnapshot(this, chunks.get((int) (offset / chunkSize)), (int) (offset % chunkSize) + ENTRY_HEADER_SIZE);
+    }
+
+    private int intern(String value) throws IOException {
+        if (value == null)
+            return NULL_STRING;
+        if (stringIds == null) {
+            stringIds = new HashMap<>(Math.max(16, stringCount * 2));
+            for (int i = 0; i < stringCount; i++)
+                stringIds.put(string(i), i);
+        }
+        Integer id = stringIds.get(value);
+        if (id != null)
+            return id;
+        byte[] data = value.getBytes(StandardCharsets.UTF_8);
+        long offset = allocate(TYPE_STRING, data.length);
+        ByteBuffer chunk = chunk((int) (offset / chunkSize)).duplicate();
+        chunk.position((int) (offset % chunkSize) + ENTRY_HEADER_SIZE);
+        chunk.put(data);
+        commit(offset + ENTRY_HEADER_SIZE + align(data.length));
+        id = addString(offset, value);
+        stringIds.put(value, id);
+        return id;
+    }
+
+    private int addString(long offset, String value) {
+        if (stringCount == stringOffsets.length) {
+            stringOffsets = Arrays.copyOf(stringOffsets, stringCount << 1);
+            strings = Arrays.copyOf(strings, stringCount << 1);
+        }
+        stringOffsets[stringCount] = offset;
+        strings[stringCount] = value;
+        return stringCount++;
+    }
+
+    /**
+     * Reserve space for a new entry at the end of the file and write its header
+     *
+     * @return The file offset of the entry
+     */
+    private long allocate(byte type, int length) throws IOException {
+        int size = ENTRY_HEADER_SIZE + align(length);
+        if (size > chunkSize - FILE_HEADER_SIZE)
+            throw new IllegalArgumentException(String.format("Entry of %d bytes exceeds the chunk size of %d bytes", size, chunkSize));
+        long offset = committed;
+        int position = (int) (offset % chunkSize);
+        if (position + size > chunkSize) {
+            //mark the remainder of the current chunk as unused, it may contain entries that have not been committed
+            if (chunkSize - position >= ENTRY_HEADER_SIZE)
+                chunk((int) (offset / chunkSize)).put(position, TYPE_NONE);
+            offset = (offset / chunkSize + 1) * chunkSize;
+            position = 0;
+        }
+        ByteBuffer chunk = chunk((int) (offset / chunkSize));
+        chunk.put(position, type);
+        chunk.putInt(position + 4, length);
+        return offset;
+    }
+
+    /**
+     * Update the committed length of the file, the entries up to this offset are visible after reopening the file once flushed
+     */
+    private void commit(long length) {
+        this.committed = length;
+    }
+
+    private MappedByteBuffer chunk(int chunkIndex) throws IOException {
+        while (chunks.size() <= chunkIndex) {
+            MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_WRITE, (long) chunks.size() * chunkSize, chunkSize);
+            chunks.add(chunk);
+        }
+        return chunks.get(chunkIndex);
+    }
+
+    private void checkOpen() {
+        if (closed)
+            throw new IllegalStateException("Snapshot store has been closed");
+    }
+}
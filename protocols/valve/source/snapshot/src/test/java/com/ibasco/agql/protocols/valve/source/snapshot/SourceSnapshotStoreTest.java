@@ -0,0 +1,256 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.protocols.valve.source.snapshot;
+
+import com.ibasco.agql.protocols.valve.source.query.SourceServerRecord;
+import com.ibasco.agql.protocols.valve.source.query.info.SourceServer;
+import com.ibasco.agql.protocols.valve.source.query.players.SourcePlayer;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SourceSnapshotStoreTest {
+
+    private static final int CHUNK_SIZE = 4096;
+
+    private Path directory;
+
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("agql-snapshot");
+        file = directory.resolve("servers.snapshot");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(directory);
+    }
+
+    @Test
+    @DisplayName("Appended records can be read back")
+    void testAppend() throws IOException {
+        try (SourceSnapshotStore store = SourceSnapshotStore.open(file, CHUNK_SIZE)) {
+            SourceServerRecord record = record(1, "de_dust2", 3);
+            SourceSnapshot appended = store.append(record, 1000L);
+            assertRecord(record, 1000L, appended);
+            assertRecord(record, 1000L, store.get(record.getAddress()));
+            assertTrue(store.contains(record.getAddress()));
+            assertEquals(1, store.size());
+            assertNull(store.get(address(2)));
+            assertFalse(store.contains(new InetSocketAddress("::1", 27015)));
+
+            //a newer record of the same server replaces the previous one
+            SourceServerRecord update = record(1, "de_inferno", 0);
+            store.append(update, 2000L);
+            assertEquals(1, store.size());
+            assertRecord(update, 2000L, store.get(update.getAddress()));
+            //a snapshot of the previous record remains valid
+            assertEquals("de_dust2", appended.getMapName());
+        }
+    }
+
+    @Test
+    @DisplayName("Records without info, players or rules are stored as absent")
+    void testPartialRecord() throws IOException {
+        try (SourceSnapshotStore store = SourceSnapshotStore.open(file, CHUNK_SIZE)) {
+            SourceSnapshot snapshot = store.append(new SourceServerRecord(address(1), null, null, null), 1000L);
+            assertFalse(snapshot.hasInfo());
+            assertFalse(snapshot.hasPlayers());
+            assertFalse(snapshot.hasRules());
+            assertNull(snapshot.getName());
+            assertThrows(IllegalArgumentException.class, () -> store.append(new SourceServerRecord(new InetSocketAddress("::1", 27015), null, null, null), 1000L));
+        }
+    }
+
+    @Test
+    @DisplayName("Reopening a file restores the latest record of each server")
+    void testReopen() throws IOException {
+        List<SourceServerRecord> records = new ArrayList<>();
+        try (SourceSnapshotStore store = SourceSnapshotStore.open(file, CHUNK_SIZE)) {
+            for (int i = 0; i < 10; i++) {
+                SourceServerRecord record = record(i, "map_" + (i % 3), i);
+                store.append(record, i);
+                records.add(record);
+            }
+            store.append(record(0, "map_updated", 1), 100L);
+        }
+        try (SourceSnapshotStore store = SourceSnapshotStore.open(file)) {
+            assertEquals(10, store.size());
+            assertRecord(record(0, "map_updated", 1), 100L, store.get(address(0)));
+            for (int i = 1; i < 10; i++)
+                assertRecord(records.get(i), i, store.get(address(i)));
+            //records appended after reopening refer to the strings of the existing dictionary
+            store.append(record(20, "map_1", 1), 200L);
+            assertEquals("map_1", store.get(address(20)).getMapName());
+            assertEquals("map_1", store.get(address(1)).getMapName());
+        }
+    }
+
+    @Test
+    @DisplayName("Records are appended to a new chunk once the current one is full")
+    void testChunkRollover() throws IOException {
+        final int count = 200;
+        try (SourceSnapshotStore store = SourceSnapshotStore.open(file, CHUNK_SIZE)) {
+            for (int i = 0; i < count; i++)
+                store.append(record(i, "map_" + i, 5), i);
+            assertTrue(Files.size(file) > CHUNK_SIZE * 2L);
+            for (int i = 0; i < count; i++)
+                assertRecord(record(i, "map_" + i, 5), i, store.get(address(i)));
+            Map<String, String> rules = new LinkedHashMap<>();
+            rules.put("large", new String(new char[CHUNK_SIZE], 0, CHUNK_SIZE).replace('\0', 'x'));
+            assertThrows(IllegalArgumentException.class, () -> store.append(new SourceServerRecord(address(count), null, null, rules), 0L));
+        }
+        try (SourceSnapshotStore store = SourceSnapshotStore.open(file, CHUNK_SIZE)) {
+            assertEquals(count, store.size());
+            for (int i = 0; i < count; i++)
+                assertRecord(record(i, "map_" + i, 5), i, store.get(address(i)));
+        }
+    }
+
+    @Test
+    @DisplayName("The committed length is only written to the file header once the entries have been flushed")
+    void testFlush() throws IOException {
+        try (SourceSnapshotStore store = SourceSnapshotStore.open(file, CHUNK_SIZE)) {
+            long initial = committedLength();
+            assertEquals(SnapshotLayout.FILE_HEADER_SIZE, initial);
+            store.append(record(1, "de_dust2", 2), 1000L);
+            assertEquals(initial, committedLength());
+            store.flush();
+            long flushed = committedLength();
+            assertTrue(flushed > initial);
+            store.append(record(2, "de_nuke", 2), 1000L);
+            assertEquals(flushed, committedLength());
+        }
+        assertTrue(committedLength() > SnapshotLayout.FILE_HEADER_SIZE);
+    }
+
+    @Test
+    @DisplayName("Iterating visits the latest record of each server")
+    void testForEach() throws IOException {
+        try (SourceSnapshotStore store = SourceSnapshotStore.open(file, CHUNK_SIZE)) {
+            for (int i = 0; i < 5; i++)
+                store.append(record(i, "map", 1), i);
+            store.append(record(0, "map", 1), 100L);
+            Set<InetSocketAddress> addresses = new HashSet<>();
+            store.forEach(snapshot -> {
+                assertTrue(addresses.add(snapshot.getAddress()));
+                if (snapshot.getAddress().equals(address(0)))
+                    assertEquals(100L, snapshot.getTimestamp());
+            });
+            assertEquals(5, addresses.size());
+        }
+    }
+
+    @Test
+    @DisplayName("Closing the store while iterating stops the iteration")
+    void testForEachClosed() throws IOException {
+        SourceSnapshotStore store = SourceSnapshotStore.open(file, CHUNK_SIZE);
+        for (int i = 0; i < 5; i++)
+            store.append(record(i, "map", 1), i);
+        int[] visited = new int[1];
+        assertThrows(IllegalStateException.class, () -> store.forEach(snapshot -> {
+            visited[0]++;
+            try {
+                store.close();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }));
+        assertEquals(1, visited[0]);
+        assertThrows(IllegalStateException.class, () -> store.forEach(snapshot -> {}));
+        assertThrows(IllegalStateException.class, () -> store.get(address(0)));
+    }
+
+    @Test
+    @DisplayName("Files with an invalid header are rejected")
+    void testInvalidFile() throws IOException {
+        Files.write(file, new byte[SnapshotLayout.FILE_HEADER_SIZE]);
+        assertThrows(IOException.class, () -> SourceSnapshotStore.open(file));
+    }
+
+    private long committedLength() throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(8);
+            channel.read(buffer, SnapshotLayout.HEADER_COMMITTED);
+            return buffer.getLong(0);
+        }
+    }
+
+    private static InetSocketAddress address(int id) {
+        return new InetSocketAddress("10.0." + (id / 256) + "." + (id % 256), 27015);
+    }
+
+    private static SourceServerRecord record(int id, String map, int playerCount) {
+        SourceServer info = new SourceServer();
+        info.setName("Server " + id);
+        info.setMapName(map);
+        info.setGameDirectory("csgo");
+        info.setAppId(730);
+        info.setNumOfPlayers(playerCount);
+        info.setMaxPlayers(32);
+        info.setSecure(id % 2 == 0);
+        List<SourcePlayer> players = new ArrayList<>();
+        for (int i = 0; i < playerCount; i++)
+            players.add(new SourcePlayer(i, "Player " + i, i * 10, i * 1.5f));
+        Map<String, String> rules = new LinkedHashMap<>();
+        rules.put("sv_gravity", "800");
+        rules.put("mp_timelimit", String.valueOf(id));
+        return new SourceServerRecord(address(id), info, players, rules);
+    }
+
+    private static void assertRecord(SourceServerRecord expected, long timestamp, SourceSnapshot snapshot) {
+        assertEquals(expected.getAddress(), snapshot.getAddress());
+        assertEquals(timestamp, snapshot.getTimestamp());
+        assertTrue(snapshot.hasInfo());
+        assertEquals(expected.getInfo().getName(), snapshot.getName());
+        assertEquals(expected.getInfo().getMapName(), snapshot.getMapName());
+        assertEquals(expected.getInfo().getGameDirectory(), snapshot.getGameDirectory());
+        assertEquals(expected.getInfo().getAppId(), snapshot.getAppId());
+        assertEquals(expected.getInfo().getMaxPlayers(), snapshot.getMaxPlayers());
+        assertEquals(expected.getInfo().isSecure(), snapshot.isSecure());
+        assertEquals(expected.getPlayers().size(), snapshot.getPlayerCount());
+        List<SourcePlayer> players = snapshot.getPlayers();
+        for (int i = 0; i < players.size(); i++) {
+            assertEquals(expected.getPlayers().get(i).getName(), players.get(i).getName());
+            assertEquals(expected.getPlayers().get(i).getScore(), players.get(i).getScore());
+        }
+        assertEquals(expected.getRules(), snapshot.getRules());
+        assertEquals(expected.getRules().get("mp_timelimit"), snapshot.getRule("mp_timelimit"));
+    }
+}
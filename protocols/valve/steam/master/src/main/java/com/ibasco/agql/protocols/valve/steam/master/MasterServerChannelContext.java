@@ -20,10 +20,9 @@ import com.ibasco.agql.core.AbstractRequest;
 import com.ibasco.agql.core.AbstractResponse;
 import com.ibasco.agql.core.NettyChannelContext;
 import com.ibasco.agql.core.NettyMessenger;
+import com.ibasco.agql.core.util.PackedAddressSet;
 import io.netty.channel.Channel;
 import java.net.InetSocketAddress;
-import java.util.HashSet;
-import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -102,21 +101,21 @@ public class MasterServerChannelContext extends NettyChannelContext {
 
     public class MasterServerProperties extends Properties {
 
-        private final Set<InetSocketAddress> addressSet;
+        private final PackedAddressSet addressSet;
 
         private AtomicReference<InetSocketAddress> lastSeedAddress = new AtomicReference<>();
 
         public MasterServerProperties() {
-            addressSet = new HashSet<>();
+            addressSet = new PackedAddressSet();
         }
 
         public MasterServerProperties(Properties properties) {
             super(properties);
             this.lastSeedAddress = ((MasterServerProperties) properties).lastSeedAddress;
-            this.addressSet = new HashSet<>(((MasterServerProperties) properties).addressSet);
+            this.addressSet = new PackedAddressSet(((MasterServerProperties) properties).addressSet);
         }
 
-        public Set<InetSocketAddress> addressSet() {
+        public PackedAddressSet addressSet() {
             return addressSet;
         }
 
@@ -25,13 +25,18 @@ import com.ibasco.agql.core.exceptions.TimeoutException;
 import com.ibasco.agql.core.transport.NettyChannelFactory;
 import com.ibasco.agql.core.transport.NettyContextChannelFactory;
 import com.ibasco.agql.core.transport.enums.TransportType;
+import com.ibasco.agql.core.transport.handlers.ReadTimeoutHandler;
+import com.ibasco.agql.core.util.AsyncRateLimiter;
+import com.ibasco.agql.core.util.Concurrency;
 import com.ibasco.agql.core.util.Console;
 import com.ibasco.agql.core.util.Errors;
 import com.ibasco.agql.core.util.FailsafeBuilder;
 import com.ibasco.agql.core.util.FailsafeOptions;
 import com.ibasco.agql.core.util.GeneralOptions;
+import com.ibasco.agql.core.util.KeyedAsyncRateLimiter;
 import com.ibasco.agql.core.util.MessengerProperties;
 import com.ibasco.agql.core.util.Options;
+import com.ibasco.agql.core.util.PackedAddressSet;
 import com.ibasco.agql.protocols.valve.steam.master.exception.MasterServerTimeoutException;
 import com.ibasco.agql.protocols.valve.steam.master.message.MasterServerPartialResponse;
 import com.ibasco.agql.protocols.valve.steam.master.message.MasterServerRequest;
@@ -40,8 +45,6 @@ import dev.failsafe.ExecutionContext;
 import dev.failsafe.Failsafe;
 import dev.failsafe.FailsafeExecutor;
 import dev.failsafe.Fallback;
-import dev.failsafe.RateLimiter;
-import dev.failsafe.RateLimiterBuilder;
 import dev.failsafe.RetryPolicy;
 import dev.failsafe.RetryPolicyBuilder;
 import dev.failsafe.event.ExecutionAttemptedEvent;
@@ -51,8 +54,6 @@ import dev.failsafe.function.ContextualSupplier;
 import org.jetbrains.annotations.NotNull;
 import java.net.InetSocketAddress;
 import java.net.SocketException;
-import java.time.Duration;
-import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
@@ -78,9 +79,13 @@ public final class MasterServerMessenger extends NettyMessenger<MasterServerRequ
 
     private FailsafeExecutor<MasterServerResponse> requestExecutor;
 
+    private FailsafeExecutor<MasterServerResponse> streamExecutor;
+
     private RetryPolicy<MasterServerResponse> retryPolicy;
 
-    private RateLimiter<MasterServerChannelContext> rateLimiter;
+    private AsyncRateLimiter rateLimiter;
+
+    private KeyedAsyncRateLimiter<InetSocketAddress> addressRateLimiter;
 
     /**
      * <p>Constructor for MasterServerMessenger.</p>
@@ -105,9 +110,9 @@ public final class MasterServerMessenger extends NettyMessenger<MasterServerRequ
         Fallback<MasterServerResponse> fallbackPolicy = Fallback.builder((CheckedFunction<ExecutionAttemptedEvent<? extends MasterServerResponse>, MasterServerResponse>) event -> {
             if (event.getLastException() instanceof MasterServerTimeoutException) {
                 MasterServerTimeoutException timeoutException = (MasterServerTimeoutException) event.getLastException();
-                return new MasterServerResponse(new HashSet<>(timeoutException.getAddresses()));
+                return new MasterServerResponse(new PackedAddressSet(timeoutException.getAddresses()));
             }
-            return new MasterServerResponse(new HashSet<>());
+            return new MasterServerResponse(new PackedAddressSet());
         }).handleIf(p -> {
             Throwable cause = Errors.unwrap(p);
             return !(cause instanceof CancellationException) && !(cause instanceof InterruptedException) && !(cause instanceof RejectedExecutionException);
@@ -117,10 +122,12 @@ public final class MasterServerMessenger extends NettyMessenger<MasterServerRequ
         if (options.getOrDefault(FailsafeOptions.FAILSAFE_RETRY_ENABLED)) {
             this.retryPolicy = buildRetryPolicy(options);
         }
-        //rate limiter
+        //rate limiters
+        //note: batch requests of an ongoing query always wait for their turn, so the max wait time does not apply here
         if (options.getOrDefault(FailsafeOptions.FAILSAFE_RATELIMIT_ENABLED)) {
-            this.rateLimiter = buildRateLimiterPolicy(options);
+            this.rateLimiter = FailsafeBuilder.buildAsyncRateLimiter(FailsafeOptions.class, options, null);
         }
+        this.addressRateLimiter = FailsafeBuilder.buildKeyedAsyncRateLimiter(FailsafeOptions.class, options, null);
         //initialize executors
         this.requestExecutor = Failsafe.with(fallbackPolicy);
         //Add retry policy (optional)
@@ -128,6 +135,8 @@ public final class MasterServerMessenger extends NettyMessenger<MasterServerRequ
             this.requestExecutor = requestExecutor.compose(retryPolicy);
         if (executor != null)
             this.requestExecutor.with(executor);
+        //streams are not using the fallback policy, errors are propagated to the subscriber instead
+        this.streamExecutor = retryPolicy != null ? Failsafe.with(retryPolicy) : Failsafe.none();
     }
     //</editor-fold>
 
@@ -142,9 +151,8 @@ public final class MasterServerMessenger extends NettyMessenger<MasterServerRequ
         return builder.build();
     }
 
-    private RateLimiter<MasterServerChannelContext> buildRateLimiterPolicy(final Options options) {
-        RateLimiterBuilder<MasterServerChannelContext> rateLimiterBuilder = FailsafeBuilder.buildRateLimiter(FailsafeOptions.class, options);
-        return rateLimiterBuilder.build();
+    private InetSocketAddress masterAddressOverride() {
+        return getOptions().getOrDefault(MasterServerOptions.MASTER_ADDRESS);
     }
 
     private static boolean handleError(Throwable e) {
@@ -160,12 +168,30 @@ public final class MasterServerMessenger extends NettyMessenger<MasterServerRequ
      * @return A {@link java.util.concurrent.CompletableFuture} which is notified once the request has been completed.
      */
     public CompletableFuture<MasterServerResponse> send(MasterServerRequest request) {
-        if (this.requestExecutor != null) {
+        return send(request, requestExecutor);
+    }
+
+    /**
+     * Sends a new streaming request to the master server. Unlike {@link #send(MasterServerRequest)}, errors are not replaced with the partial list of addresses collected so far.
+     *
+     * @param request
+     *         The {@link MasterServerRequest} containing the details of the request, usually with a batch handler assigned.
+     *
+     * @return A {@link CompletableFuture} which is notified once the request has been completed.
+     *
+     * @see MasterServerRequest#setBatchHandler(java.util.function.Function)
+     */
+    CompletableFuture<MasterServerResponse> stream(MasterServerRequest request) {
+        return send(request, streamExecutor);
+    }
+
+    private CompletableFuture<MasterServerResponse> send(MasterServerRequest request, FailsafeExecutor<MasterServerResponse> executor) {
+        if (executor != null) {
             Console.println("Sending master request: %s", request);
             MasterServerContextualSupplier supplier = new MasterServerContextualSupplier(request);
-            return requestExecutor.getStageAsync(supplier).whenComplete(supplier::onCompletion);
+            return executor.getStageAsync(supplier).whenComplete(supplier::onCompletion);
         } else
-            return super.send(request.getType().getMasterAddress(), request);
+            return super.send(masterAddressOverride() != null ? masterAddressOverride() : request.getType().getMasterAddress(), request);
     }
     //</editor-fold>
 
@@ -223,14 +249,20 @@ public final class MasterServerMessenger extends NettyMessenger<MasterServerRequ
             MasterServerPartialResponse partialResponse = (MasterServerPartialResponse) response;
             InetSocketAddress lastSeedAddress = masterContext.properties().lastSeedAddress();
             assert lastSeedAddress == partialResponse.getLastSeedAddress();
-            Set<InetSocketAddress> addressSet = masterContext.properties().addressSet();
+            PackedAddressSet addressSet = masterContext.properties().addressSet();
+            MasterServerRequest request = masterContext.properties().request();
+
+            if (request.getBatchHandler() != null) {
+                receiveBatch(masterContext, request, partialResponse);
+                return;
+            }
 
             log.debug("{} MASTER (RECEIVE) => Received Partial Response: {} (Received: {}, Total Collected: {}, Last Address Received: {})", masterContext.id(), response, partialResponse.getServerList().size(), addressSet.size(), lastSeedAddress);
 
             //have we reached the end of the response?
             if (partialResponse.isEndOfResponse()) {
                 //create a new response and notify the promise
-                masterContext.markSuccess(new MasterServerResponse(new HashSet<>(addressSet)));
+                masterContext.markSuccess(new MasterServerResponse(new PackedAddressSet(addressSet)));
                 //Clear the address set
                 addressSet.clear();
             } else {
@@ -246,6 +278,45 @@ public final class MasterServerMessenger extends NettyMessenger<MasterServerRequ
         }
     }
 
+    /**
+     * Passes a batch of addresses to the batch handler of the request. The next batch is only requested once the handler signals demand for more addresses.
+     *
+     * @param context
+     *         The {@link MasterServerChannelContext} of the query
+     * @param request
+     *         The {@link MasterServerRequest} containing the batch handler
+     * @param response
+     *         The {@link MasterServerPartialResponse} containing the batch of addresses
+     */
+    private void receiveBatch(final MasterServerChannelContext context, final MasterServerRequest request, final MasterServerPartialResponse response) {
+        final InetSocketAddress lastSeedAddress = context.properties().lastSeedAddress();
+        final boolean lastBatch = response.isEndOfResponse() || MasterServer.isTerminatingAddress(lastSeedAddress);
+        log.debug("{} MASTER (RECEIVE) => Received batch of {} addresses (Last Batch: {}, Last Address Received: {})", context.id(), response.getServerList().size(), lastBatch, lastSeedAddress);
+        //the consumer may take longer than the read timeout to request more, no response is expected until the next batch request is sent
+        if (!lastBatch && context.channel().pipeline().get(ReadTimeoutHandler.class) != null)
+            context.disableReadTimeout();
+        CompletableFuture<Void> demand;
+        try {
+            demand = request.getBatchHandler().apply(response.getServerList());
+        } catch (Throwable error) {
+            demand = Concurrency.failedFuture(error);
+        }
+        if (lastBatch) {
+            PackedAddressSet addressSet = context.properties().addressSet();
+            context.markSuccess(new MasterServerResponse(new PackedAddressSet(addressSet)));
+            addressSet.clear();
+            return;
+        }
+        demand.whenComplete((unused, error) -> context.eventLoop().execute(() -> {
+            if (error != null) {
+                log.debug("{} MASTER (RECEIVE) => Query aborted by the batch handler", context.id());
+                receive(context, null, error);
+            } else {
+                requestNewBatch(context, lastSeedAddress);
+            }
+        }));
+    }
+
     /**
      * Sends a request for a new batch of addresses to be collected. Requests are rate-limited by default unless deactivated by configuration.
      *
@@ -266,18 +337,46 @@ public final class MasterServerMessenger extends NettyMessenger<MasterServerRequ
         final MasterServerRequest request = context.properties().request();
         request.setAddress(address.getAddress().getHostAddress() + ":" + address.getPort());
 
-        if (rateLimiter != null) {
-            Duration waitDuration = rateLimiter.reservePermit();
-            long millis = waitDuration.toMillis();
-            log.debug("{} MASTER => Acquired permit (Wait time: {}ms)", context.id(), millis);
-            if (millis > 0)
-                context.eventLoop().schedule(context::send, millis, TimeUnit.MILLISECONDS);
-            else
-                context.send();
+        if (rateLimiter != null || addressRateLimiter != null) {
+            acquirePermit(context.eventLoop(), context.remoteAddress(), request).whenComplete((waitNanos, error) -> {
+                if (error != null) {
+                    receive(context, null, error);
+                    return;
+                }
+                log.debug("{} MASTER => Acquired permit (Wait time: {}ms)", context.id(), TimeUnit.NANOSECONDS.toMillis(waitNanos));
+                sendBatchRequest(context, request, true);
+            });
         } else {
-            context.send();
+            sendBatchRequest(context, request, false);
         }
-        log.debug("{} MASTER (REQUEST) => Sent next batch request with seed address '{}' to master server '{}' (Rate Limited: {})", context.id(), request.getAddress(), context.remoteAddress(), rateLimiter != null ? "Yes" : "No");
+    }
+
+    private void sendBatchRequest(final MasterServerChannelContext context, final MasterServerRequest request, final boolean rateLimited) {
+        context.send().whenComplete((ctx, error) -> {
+            if (error == null)
+                log.debug("{} MASTER (REQUEST) => Sent next batch request with seed address '{}' to master server '{}' (Rate Limited: {})", context.id(), request.getAddress(), context.remoteAddress(), rateLimited ? "Yes" : "No");
+        });
+    }
+
+    /**
+     * Acquire a permit from the global and the per-address rate limiter. Every request sent to the master server requires a permit, including the first request of a query.
+     *
+     * @param executor
+     *         The {@link ScheduledExecutorService} used to complete the returned future once the permits are available
+     * @param address
+     *         The {@link InetSocketAddress} of the master server
+     * @param request
+     *         The {@link MasterServerRequest} to be sent
+     *
+     * @return A {@link CompletableFuture} notified with the number of nanoseconds waited once the request may be sent
+     */
+    private CompletableFuture<Long> acquirePermit(final ScheduledExecutorService executor, final InetSocketAddress address, final MasterServerRequest request) {
+        if (rateLimiter == null && addressRateLimiter == null)
+            return CompletableFuture.completedFuture(0L);
+        return AsyncRateLimiter.acquire(executor, rateLimiter, addressRateLimiter != null ? addressRateLimiter.get(address) : null).thenApply(waitNanos -> {
+            getMetrics().rateLimited(request.getClass(), waitNanos);
+            return waitNanos;
+        });
     }
 
     private class MasterServerContextualSupplier implements ContextualSupplier<MasterServerResponse, CompletableFuture<MasterServerResponse>> {
@@ -298,7 +397,7 @@ public final class MasterServerMessenger extends NettyMessenger<MasterServerRequ
         @Override
         public CompletableFuture<MasterServerResponse> get(ExecutionContext<MasterServerResponse> executionContext) throws Throwable {
             String contextId = (getContext() != null) ? getContext().id() : "[N/A]";
-            int maxAttempts = retryPolicy.getConfig().getMaxAttempts();
+            int maxAttempts = retryPolicy != null ? retryPolicy.getConfig().getMaxAttempts() : 1;
 
             if (!executionContext.isFirstAttempt() && executionContext.isRetry() && executionContext.getLastException() instanceof ReadTimeoutException) {
                 log.debug("{} MASTER => Encountered a READ TIMEOUT in the last request for address '{}'. Selecting an alternative address", contextId, masterAddress);
@@ -310,8 +409,11 @@ public final class MasterServerMessenger extends NettyMessenger<MasterServerRequ
                 log.debug("{} MASTER => Selected new master server address '{}'", contextId, masterAddress);
             }
 
+            if (executionContext.isRetry())
+                getMetrics().requestRetried(request.getClass(), masterAddress, executionContext.getAttemptCount() + 1);
             log.debug("{} MASTER => Querying master server address '{}' (Attempts {} of {}, Address Index: {}, Seed Address: {}, Type: {}, Seed: {}, Delay: {})", contextId, masterAddress, executionContext.getAttemptCount() + 1, maxAttempts, index, request.getAddress(), request.getType(), request.getAddress(), request.getRequestDelay());
-            return acquire(executionContext)
+            return acquirePermit(getExecutor(), masterAddress, request)
+                    .thenCompose(waitNanos -> acquire(executionContext))
                     .thenApply(this::updateContext)
                     .thenApply(NettyChannelContext::disableAutoRelease)
                     .thenApply(ctx -> ctx.attach(request))
@@ -324,6 +426,9 @@ public final class MasterServerMessenger extends NettyMessenger<MasterServerRequ
         }
 
         private InetSocketAddress nextMasterAddress() {
+            InetSocketAddress override = masterAddressOverride();
+            if (override != null)
+                return override;
             InetSocketAddress[] addresses = MasterServer.getCachedMasterAddress(request.getType(), false);
             if (index > (addresses.length - 1))
                 this.index = 0;
@@ -368,9 +473,9 @@ public final class MasterServerMessenger extends NettyMessenger<MasterServerRequ
                 if (cause instanceof ReadTimeoutException) {
                     MasterServerChannelContext ctx = getContext();
                     if (ctx != null) {
-                        cause = new MasterServerTimeoutException(new HashSet<>(ctx.properties().addressSet()));
+                        cause = new MasterServerTimeoutException(ctx.properties().addressSet());
                     } else {
-                        cause = new MasterServerTimeoutException(new HashSet<>());
+                        cause = new MasterServerTimeoutException(new PackedAddressSet());
                     }
                 }
                 throw new CompletionException(cause);
@@ -392,7 +497,7 @@ public final class MasterServerMessenger extends NettyMessenger<MasterServerRequ
                 MasterServerChannelContext oldContext = getContext();
                 MasterServerChannelContext newContext = (MasterServerChannelContext) context;
                 log.debug("{} MASTER => Copying previously collected addresses from context '{}' to '{}' (Total addresses to copy: {})", context.id(), oldContext.id(), context.id(), oldContext.properties().addressSet().size());
-                newContext.properties().addressSet().addAll(new HashSet<>(oldContext.properties().addressSet()));
+                newContext.properties().addressSet().addAll(oldContext.properties().addressSet());
                 newContext.properties().lastSeedAddress(oldContext.properties().lastSeedAddress());
                 return newContext;
             }, context.eventLoop());
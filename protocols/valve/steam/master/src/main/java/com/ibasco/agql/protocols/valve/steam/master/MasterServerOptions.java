@@ -20,8 +20,11 @@ import com.ibasco.agql.core.util.AbstractOptions;
 import com.ibasco.agql.core.util.ConnectOptions;
 import com.ibasco.agql.core.util.FailsafeOptions;
 import com.ibasco.agql.core.util.Inherit;
+import com.ibasco.agql.core.util.Option;
 import com.ibasco.agql.core.util.OptionBuilder;
 import com.ibasco.agql.core.util.Options;
+import com.ibasco.agql.protocols.valve.steam.master.enums.MasterServerType;
+import java.net.InetSocketAddress;
 
 /**
  * Configuration options container for the Master Server query module
@@ -34,6 +37,17 @@ import com.ibasco.agql.core.util.Options;
 @Inherit(options = {FailsafeOptions.class, ConnectOptions.class})
 public final class MasterServerOptions extends AbstractOptions {
 
+    /**
+     * Query this master server address instead of the one registered for the requested {@link MasterServerType}. Useful for testing against a local master server. (Default: null)
+     */
+    public static final Option<InetSocketAddress> MASTER_ADDRESS = Option.create("masterServerAddress");
+
+    /**
+     * The maximum number of shards queried concurrently by a sharded query (e.g. {@link MasterServerQueryClient#getServers(MasterServerType, java.util.Collection, java.util.Collection)}).
+     * All shards share the rate limiters of the client, so this only controls how many queries are in-flight at any given time (Default: 4)
+     */
+    public static final Option<Integer> CRAWL_PARALLELISM = Option.create("masterCrawlParallelism", 4);
+
     /**
      * <p>Create a new {@link OptionBuilder} for {@link MasterServerOptions}</p>
      *
@@ -0,0 +1,355 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.protocols.valve.steam.master;
+
+import com.ibasco.agql.core.util.Errors;
+import com.ibasco.agql.core.util.PackedAddressSet;
+import com.ibasco.agql.protocols.valve.steam.master.enums.MasterServerRegion;
+import com.ibasco.agql.protocols.valve.steam.master.enums.MasterServerType;
+import com.ibasco.agql.protocols.valve.steam.master.message.MasterServerRequest;
+import com.ibasco.agql.protocols.valve.steam.master.message.MasterServerResponse;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link Publisher} emitting the addresses returned by the master server. The query is started once the subscriber signals demand for the first time and every subscription runs its own query.
+ *
+ * <p>
+ * The master server returns the addresses in batches, each batch requires a separate request. At most one batch per running query is buffered, the next batch is only requested from the master server once
+ * the buffered addresses have been emitted and the subscriber still has outstanding demand.
+ * </p>
+ *
+ * <p>
+ * A query can be split into shards (e.g. one per region or per filter partition). Up to {@link MasterServerOptions#CRAWL_PARALLELISM} shards are queried concurrently, sharing the rate limiters of the messenger,
+ * and their addresses are merged into a single stream. Addresses returned by more than one shard are only emitted once, which requires the packed form of every address emitted to be retained.
+ * A single shard query does not retain the addresses once emitted.
+ * </p>
+ *
+ * @see MasterServerQueryClient#streamServers(MasterServerType, MasterServerRegion, MasterServerFilter)
+ * @see MasterServerQueryClient#streamServers(MasterServerType, Collection, Collection)
+ */
+final class MasterServerPublisher implements Publisher<InetSocketAddress> {
+
+    private static final Logger log = LoggerFactory.getLogger(MasterServerPublisher.class);
+
+    /**
+     * Runs a streaming query, see {@link MasterServerMessenger#stream(MasterServerRequest)}
+     */
+    private final Function<MasterServerRequest, CompletableFuture<MasterServerResponse>> query;
+
+    private final MasterServerType type;
+
+    private final List<Shard> shards;
+
+    private final int parallelism;
+
+    MasterServerPublisher(MasterServerMessenger messenger, MasterServerType type, MasterServerRegion region, MasterServerFilter filter) {
+        this(messenger, type, Collections.singletonList(region), Collections.singletonList(filter), 1);
+    }
+
+    MasterServerPublisher(MasterServerMessenger messenger, MasterServerType type, Collection<MasterServerRegion> regions, Collection<MasterServerFilter> filters, int parallelism) {
+        this(messenger::stream, type, regions, filters, parallelism);
+    }
+
+    MasterServerPublisher(Function<MasterServerRequest, CompletableFuture<MasterServerResponse>> query, MasterServerType type, Collection<MasterServerRegion> regions, Collection<MasterServerFilter> filters, int parallelism) {
+        if (regions == null || regions.isEmpty())
+            throw new IllegalArgumentException("At least one region must be specified");
+        if (filters == null || filters.isEmpty())
+            throw new IllegalArgumentException("At least one filter must be specified");
+        this.query = Objects.requireNonNull(query, "Query function must not be null");
+        this.type = type;
+        this.shards = new ArrayList<>(regions.size() * filters.size());
+        for (MasterServerRegion region : regions) {
+            for (MasterServerFilter filter : filters)
+                shards.add(new Shard(region, filter));
+        }
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void subscribe(Subscriber<? super InetSocketAddress> subscriber) {
+        Objects.requireNonNull(subscriber, "Subscriber must not be null");
+        subscriber.onSubscribe(new MasterServerSubscription(subscriber));
+    }
+
+    /**
+     * Run the query with unbounded demand and collect all addresses
+     *
+     * @return A {@link CompletableFuture} notified with the addresses of all shards once the query has completed
+     */
+    CompletableFuture<MasterServerResponse> collect() {
+        final CompletableFuture<MasterServerResponse> promise = new CompletableFuture<>();
+        final PackedAddressSet addresses = new PackedAddressSet();
+        subscribe(new Subscriber<InetSocketAddress>() {
+            @Override
+            public void onSubscribe(Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(InetSocketAddress address) {
+                addresses.add(address);
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                promise.completeExceptionally(error);
+            }
+
+            @Override
+            public void onComplete() {
+                promise.complete(new MasterServerResponse(addresses));
+            }
+        });
+        return promise;
+    }
+
+    private static final class Shard {
+
+        private final MasterServerRegion region;
+
+        private final MasterServerFilter filter;
+
+        private Shard(MasterServerRegion region, MasterServerFilter filter) {
+            this.region = region;
+            this.filter = filter;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Shard{region=%s, filter=%s}", region, filter);
+        }
+    }
+
+    private final class MasterServerSubscription implements Subscription {
+
+        private final Subscriber<? super InetSocketAddress> subscriber;
+
+        private final Queue<InetSocketAddress> queue = new ConcurrentLinkedQueue<>();
+
+        private final AtomicLong requested = new AtomicLong();
+
+        private final AtomicInteger wip = new AtomicInteger();
+
+        private final AtomicBoolean started = new AtomicBoolean();
+
+        /**
+         * The shards that have not yet been started
+         */
+        private final Queue<Shard> pending = new ConcurrentLinkedQueue<>(shards);
+
+        /**
+         * The number of shards that have not yet completed
+         */
+        private final AtomicInteger remaining = new AtomicInteger(shards.size());
+
+        /**
+         * Futures of the running queries which are completed once the next batch should be requested from the master server
+         */
+        private final Queue<CompletableFuture<Void>> demand = new ConcurrentLinkedQueue<>();
+
+        /**
+         * The addresses emitted so far, used to filter the duplicates between shards ({@code null} for a single shard)
+         */
+        private final PackedAddressSet emitted;
+
+        private volatile boolean done;
+
+        private volatile boolean cancelled;
+
+        private volatile Throwable error;
+
+        private MasterServerSubscription(Subscriber<? super InetSocketAddress> subscriber) {
+            this.subscriber = subscriber;
+            this.emitted = shards.size() > 1 ? new PackedAddressSet() : null;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                //rule 3.9
+                error = new IllegalArgumentException("Number of requested elements must be greater than zero (Requested: " + n + ")");
+                done = true;
+                abort();
+            } else {
+                add(n);
+                if (started.compareAndSet(false, true)) {
+                    for (int i = 0; i < parallelism; i++)
+                        startNext();
+                }
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            abort();
+        }
+
+        private void startNext() {
+            if (cancelled || done)
+                return;
+            final Shard shard = pending.poll();
+            if (shard == null)
+                return;
+            log.debug("MASTER STREAM => Starting query (Type: {}, Shard: {}, Remaining: {})", type, shard, remaining.get());
+            MasterServerRequest request = new MasterServerRequest();
+            request.setType(type);
+            request.setRegion(shard.region);
+            request.setFilter(shard.filter);
+            request.setRetainAddresses(false);
+            request.setBatchHandler(this::onBatch);
+            CompletableFuture<MasterServerResponse> future;
+            try {
+                future = query.apply(request);
+            } catch (Throwable e) {
+                onShardDone(shard, e);
+                return;
+            }
+            future.whenComplete((response, e) -> onShardDone(shard, e));
+        }
+
+        private void onShardDone(Shard shard, Throwable e) {
+            if (e != null) {
+                if (!cancelled && error == null)
+                    error = Errors.unwrap(e);
+                done = true;
+                abort();
+            } else {
+                log.debug("MASTER STREAM => Query completed (Type: {}, Shard: {}, Remaining: {})", type, shard, remaining.get() - 1);
+                if (remaining.decrementAndGet() == 0)
+                    done = true;
+                else
+                    startNext();
+            }
+            drain();
+        }
+
+        private CompletableFuture<Void> onBatch(Set<InetSocketAddress> batch) {
+            CompletableFuture<Void> next = new CompletableFuture<>();
+            if (cancelled || done) {
+                next.completeExceptionally(new CancellationException("Subscription has been cancelled"));
+                return next;
+            }
+            if (emitted == null) {
+                queue.addAll(batch);
+            } else {
+                //batches of concurrent shards may arrive on different event loops
+                synchronized (emitted) {
+                    for (InetSocketAddress address : batch) {
+                        if (emitted.add(address))
+                            queue.add(address);
+                    }
+                }
+            }
+            demand.add(next);
+            //the subscription may have been terminated after the first check, in which case the demand queue has already been drained by abort()
+            if (cancelled || done)
+                abort();
+            drain();
+            return next;
+        }
+
+        private void abort() {
+            CompletableFuture<Void> next;
+            while ((next = demand.poll()) != null)
+                next.completeExceptionally(new CancellationException("Subscription has been cancelled"));
+        }
+
+        private void add(long n) {
+            long current, next;
+            do {
+                current = requested.get();
+                if (current == Long.MAX_VALUE)
+                    return;
+                next = current + n;
+                if (next < 0)
+                    next = Long.MAX_VALUE;
+            } while (!requested.compareAndSet(current, next));
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() != 0)
+                return;
+            int missed = 1;
+            while (true) {
+                long r = requested.get();
+                long e = 0;
+                while (e != r && !cancelled) {
+                    InetSocketAddress address = queue.poll();
+                    if (address == null)
+                        break;
+                    try {
+                        subscriber.onNext(address);
+                    } catch (Throwable t) {
+                        //rule 2.13, treat the subscription as cancelled
+                        log.error("MASTER STREAM => Subscriber threw an exception on onNext", t);
+                        cancel();
+                    }
+                    e++;
+                }
+                if (cancelled) {
+                    queue.clear();
+                    return;
+                }
+                if (done) {
+                    Throwable t = error;
+                    if (t != null || queue.isEmpty()) {
+                        cancelled = true;
+                        queue.clear();
+                        if (t != null)
+                            subscriber.onError(t);
+                        else
+                            subscriber.onComplete();
+                        return;
+                    }
+                }
+                if (e != 0 && r != Long.MAX_VALUE)
+                    r = requested.addAndGet(-e);
+                //buffer drained and the subscriber still wants more, request the next batch of each running query
+                if (r > 0 && queue.isEmpty()) {
+                    CompletableFuture<Void> next;
+                    while ((next = demand.poll()) != null)
+                        next.complete(null);
+                }
+                missed = wip.addAndGet(-missed);
+                if (missed == 0)
+                    break;
+            }
+        }
+    }
+}
@@ -25,7 +25,9 @@ import com.ibasco.agql.protocols.valve.steam.master.enums.MasterServerType;
 import com.ibasco.agql.protocols.valve.steam.master.message.MasterServerRequest;
 import com.ibasco.agql.protocols.valve.steam.master.message.MasterServerResponse;
 import java.net.InetSocketAddress;
+import java.util.Collection;
 import java.util.concurrent.CompletableFuture;
+import org.reactivestreams.Publisher;
 
 /**
  * <p>Queries Valve Master Server to retrieve a list of game servers. Note that the master servers are rate-limited by default.</p>
@@ -98,6 +100,67 @@ public final class MasterServerQueryClient extends NettySocketClient<MasterServe
         return getMessenger().send(request);
     }
 
+    /**
+     * <p>Streams the list of servers from the Steam Master Server. The returned {@link Publisher} honors the demand of its subscriber: the next batch of addresses is only requested from the master server
+     * once the previous batch has been consumed and the subscriber requested more. Unlike {@link #getServers(MasterServerType, MasterServerRegion, MasterServerFilter)}, the addresses are not collected,
+     * so large queries (e.g. all regions) can be processed without keeping every address on the heap.</p>
+     *
+     * <p>Each subscription runs a separate query, which is started once the subscriber signals demand for the first time. Duplicate addresses are only filtered within a single batch.</p>
+     *
+     * @param type
+     *         The {@link com.ibasco.agql.protocols.valve.steam.master.enums.MasterServerType} describing the type of master server to query
+     * @param region
+     *         A {@link com.ibasco.agql.protocols.valve.steam.master.enums.MasterServerRegion} value that specifies which server region the master server should return
+     * @param filter
+     *         A {@link com.ibasco.agql.protocols.valve.steam.master.MasterServerFilter} containing the filters to be applied in the query
+     *
+     * @return A {@link Publisher} emitting the {@link InetSocketAddress} of each server
+     */
+    public Publisher<InetSocketAddress> streamServers(MasterServerType type, MasterServerRegion region, MasterServerFilter filter) {
+        return new MasterServerPublisher(getMessenger(), type, region, filter);
+    }
+
+    /**
+     * <p>Retrieves a list of servers from the Steam Master Server by splitting the query into shards, one for each combination of the provided regions and filters.
+     * Up to {@link MasterServerOptions#CRAWL_PARALLELISM} shards are queried concurrently within the rate limits of this client and their results are merged into a single de-duplicated list.</p>
+     *
+     * <p>The shards should be disjoint to avoid querying the same servers more than once (e.g. one filter per {@code appId}, or one filter per set of {@code gametype} tags combined with a filter excluding them with {@code napp}/{@code nor}).</p>
+     *
+     * @param type
+     *         The {@link com.ibasco.agql.protocols.valve.steam.master.enums.MasterServerType} describing the type of master server to query
+     * @param regions
+     *         The {@link com.ibasco.agql.protocols.valve.steam.master.enums.MasterServerRegion}s to query
+     * @param filters
+     *         The {@link com.ibasco.agql.protocols.valve.steam.master.MasterServerFilter}s partitioning the query
+     *
+     * @return A {@link java.util.concurrent.CompletableFuture} which is notified once all shards have been completed. Completed exceptionally if one of the shards failed.
+     *
+     * @see #streamServers(MasterServerType, Collection, Collection)
+     */
+    public CompletableFuture<MasterServerResponse> getServers(MasterServerType type, Collection<MasterServerRegion> regions, Collection<MasterServerFilter> filters) {
+        return new MasterServerPublisher(getMessenger(), type, regions, filters, getMessenger().getOptions().getOrDefault(MasterServerOptions.CRAWL_PARALLELISM)).collect();
+    }
+
+    /**
+     * <p>Streams the list of servers from the Steam Master Server by splitting the query into shards, one for each combination of the provided regions and filters.
+     * Up to {@link MasterServerOptions#CRAWL_PARALLELISM} shards are queried concurrently within the rate limits of this client. The addresses of all shards are merged into a single stream,
+     * addresses returned by more than one shard are only emitted once.</p>
+     *
+     * @param type
+     *         The {@link com.ibasco.agql.protocols.valve.steam.master.enums.MasterServerType} describing the type of master server to query
+     * @param regions
+     *         The {@link com.ibasco.agql.protocols.valve.steam.master.enums.MasterServerRegion}s to query
+     * @param filters
+     *         The {@link com.ibasco.agql.protocols.valve.steam.master.MasterServerFilter}s partitioning the query
+     *
+     * @return A {@link Publisher} emitting the {@link InetSocketAddress} of each server
+     *
+     * @see #streamServers(MasterServerType, MasterServerRegion, MasterServerFilter)
+     */
+    public Publisher<InetSocketAddress> streamServers(MasterServerType type, Collection<MasterServerRegion> regions, Collection<MasterServerFilter> filters) {
+        return new MasterServerPublisher(getMessenger(), type, regions, filters, getMessenger().getOptions().getOrDefault(MasterServerOptions.CRAWL_PARALLELISM));
+    }
+
     /** {@inheritDoc} */
     @Override
     protected MasterServerMessenger createMessenger(Options options) {
@@ -17,6 +17,7 @@
 package com.ibasco.agql.protocols.valve.steam.master.exception;
 
 import com.ibasco.agql.core.exceptions.ReadTimeoutException;
+import com.ibasco.agql.core.util.PackedAddressSet;
 import java.net.InetSocketAddress;
 import java.util.Collection;
 import java.util.HashSet;
@@ -38,7 +39,7 @@ public class MasterServerTimeoutException extends ReadTimeoutException {
      *         a {@link java.util.Collection} object
      */
     public MasterServerTimeoutException(Collection<InetSocketAddress> addresses) {
-        this.addresses = new HashSet<>(addresses);
+        this.addresses = copyOf(addresses);
     }
 
     /**
@@ -51,7 +52,7 @@ public class MasterServerTimeoutException extends ReadTimeoutException {
      */
     public MasterServerTimeoutException(String message, Collection<InetSocketAddress> addresses) {
         super(message);
-        this.addresses = new HashSet<>(addresses);
+        this.addresses = copyOf(addresses);
     }
 
     /**
@@ -66,7 +67,20 @@ public class MasterServerTimeoutException extends ReadTimeoutException {
      */
     public MasterServerTimeoutException(String message, Throwable cause, Collection<InetSocketAddress> addresses) {
         super(message, cause);
-        this.addresses = new HashSet<>(addresses);
+        this.addresses = copyOf(addresses);
+    }
+
+    /**
+     * Copy the addresses into a {@link PackedAddressSet}, or into a regular {@link Set} if the collection contains addresses which can not be packed (e.g. IPv6 or unresolved addresses)
+     */
+    private static Set<InetSocketAddress> copyOf(Collection<InetSocketAddress> addresses) {
+        if (addresses instanceof PackedAddressSet)
+            return new PackedAddressSet(addresses);
+        for (InetSocketAddress address : addresses) {
+            if (!PackedAddressSet.isSupported(address))
+                return new HashSet<>(addresses);
+        }
+        return new PackedAddressSet(addresses);
     }
 
     /**
@@ -20,6 +20,7 @@ import com.ibasco.agql.core.AbstractRequest;
 import com.ibasco.agql.core.Envelope;
 import com.ibasco.agql.core.NettyChannelContext;
 import com.ibasco.agql.core.transport.handlers.MessageInboundDecoder;
+import com.ibasco.agql.core.util.PackedAddressSet;
 import com.ibasco.agql.protocols.valve.steam.master.MasterServer;
 import com.ibasco.agql.protocols.valve.steam.master.MasterServerChannelContext;
 import com.ibasco.agql.protocols.valve.steam.master.message.MasterServerPartialResponse;
@@ -27,9 +28,6 @@ import com.ibasco.agql.protocols.valve.steam.master.message.MasterServerRequest;
 import com.ibasco.agql.protocols.valve.steam.master.packets.MasterServerAddressPacket;
 import io.netty.channel.ChannelHandlerContext;
 import org.jetbrains.annotations.NotNull;
-import java.net.InetSocketAddress;
-import java.util.HashSet;
-import java.util.Set;
 
 /**
  * <p>MasterServerAddressDecoder class.</p>
@@ -38,9 +36,9 @@ import java.util.Set;
  */
 public class MasterServerAddressDecoder extends MessageInboundDecoder {
 
-    private Set<InetSocketAddress> fullSet;
+    private PackedAddressSet fullSet;
 
-    private Set<InetSocketAddress> partialSet;
+    private PackedAddressSet partialSet;
 
     private boolean terminatorReceived;
 
@@ -67,15 +65,19 @@ public class MasterServerAddressDecoder extends MessageInboundDecoder {
             return null;
         }
 
-        InetSocketAddress address = addressPacket.getAddress();
-        if (masterRequest.getCallback() != null && fullSet.add(address)) {
+        long address = addressPacket.getPackedAddress();
+        //note: if the addresses are not retained, duplicates are only filtered within the same batch
+        boolean added = masterRequest.isRetainAddresses() ? fullSet.add(address) : !partialSet.contains(address);
+        if (added) {
             partialSet.add(address);
-            try {
-                if (context.isValid())
-                    masterRequest.getCallback().accept(address, envelope.recipient(), null);
-            } catch (Exception e) {
-                error("Error thrown by the callback", e);
-                throw e;
+            if (masterRequest.getCallback() != null) {
+                try {
+                    if (context.isValid())
+                        masterRequest.getCallback().accept(PackedAddressSet.unpack(address), envelope.recipient(), null);
+                } catch (Exception e) {
+                    error("Error thrown by the callback", e);
+                    throw e;
+                }
             }
         }
         return null;
@@ -85,8 +87,8 @@ public class MasterServerAddressDecoder extends MessageInboundDecoder {
     @Override
     public void channelActive(@NotNull ChannelHandlerContext ctx) throws Exception {
         debug("MASTER => Initializing Address Set");
-        partialSet = new HashSet<>();
-        fullSet = new HashSet<>();
+        partialSet = new PackedAddressSet();
+        fullSet = new PackedAddressSet();
         terminatorReceived = false;
     }
 
@@ -102,8 +104,10 @@ public class MasterServerAddressDecoder extends MessageInboundDecoder {
         debug("MASTER => CHANNEL READ COMPLETE (Terminator received: {}, Last Seed Address: {})", terminatorReceived);
         if (!partialSet.isEmpty()) {
             MasterServerChannelContext context = MasterServerChannelContext.getContext(ctx.channel());
-            context.properties().addressSet().addAll(partialSet);
-            ctx.fireChannelRead(new MasterServerPartialResponse(new HashSet<>(partialSet), terminatorReceived, context.properties().lastSeedAddress()));
+            MasterServerRequest request = context.properties().request();
+            if (request == null || request.isRetainAddresses())
+                context.properties().addressSet().addAll(partialSet);
+            ctx.fireChannelRead(new MasterServerPartialResponse(new PackedAddressSet(partialSet), terminatorReceived, context.properties().lastSeedAddress()));
             partialSet.clear();
         }
         super.channelReadComplete(ctx);
@@ -22,6 +22,9 @@ import com.ibasco.agql.protocols.valve.steam.master.MasterServerFilter;
 import com.ibasco.agql.protocols.valve.steam.master.enums.MasterServerRegion;
 import com.ibasco.agql.protocols.valve.steam.master.enums.MasterServerType;
 import java.net.InetSocketAddress;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 /**
  * <p>MasterServerRequest class.</p>
@@ -42,6 +45,10 @@ public class MasterServerRequest extends AbstractRequest {
 
     private Integer requestDelay = null;
 
+    private boolean retainAddresses = true;
+
+    private Function<Set<InetSocketAddress>, CompletableFuture<Void>> batchHandler;
+
     /**
      * <p>Constructor for MasterServerRequest.</p>
      */
@@ -172,4 +179,45 @@ public class MasterServerRequest extends AbstractRequest {
     public void setRequestDelay(Integer requestDelay) {
         this.requestDelay = requestDelay;
     }
+
+    /**
+     * Specifies whether all addresses received are collected and returned in the final {@link MasterServerResponse}
+     *
+     * @return {@code true} if the addresses are collected (default), {@code false} if they are only passed to the callback and/or the batch handler
+     */
+    public boolean isRetainAddresses() {
+        return retainAddresses;
+    }
+
+    /**
+     * <p>Setter for the field <code>retainAddresses</code>. Disabling this allows a large query to be processed without keeping every address on the heap until the query has completed.</p>
+     *
+     * @param retainAddresses
+     *         {@code true} to collect all addresses received
+     */
+    public void setRetainAddresses(boolean retainAddresses) {
+        this.retainAddresses = retainAddresses;
+    }
+
+    /**
+     * <p>Getter for the field <code>batchHandler</code>.</p>
+     *
+     * @return The batch handler or {@code null} if not set
+     *
+     * @see #setBatchHandler(Function)
+     */
+    public Function<Set<InetSocketAddress>, CompletableFuture<Void>> getBatchHandler() {
+        return batchHandler;
+    }
+
+    /**
+     * Set a handler which is notified with each batch of addresses received from the master server. The next batch is only requested once the future returned by the handler completes,
+     * allowing the consumer to control the pace of the query. Completing the future exceptionally aborts the query.
+     *
+     * @param batchHandler
+     *         The handler accepting a batch of addresses or {@code null} to request the next batch immediately
+     */
+    public void setBatchHandler(Function<Set<InetSocketAddress>, CompletableFuture<Void>> batchHandler) {
+        this.batchHandler = batchHandler;
+    }
 }
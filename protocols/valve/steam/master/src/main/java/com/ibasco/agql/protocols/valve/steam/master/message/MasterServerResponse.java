@@ -17,7 +17,10 @@
 package com.ibasco.agql.protocols.valve.steam.master.message;
 
 import com.ibasco.agql.core.AbstractResponse;
+import com.ibasco.agql.core.util.PackedAddressSet;
 import java.net.InetSocketAddress;
+import java.util.Iterator;
+import java.util.PrimitiveIterator;
 import java.util.Set;
 
 /**
@@ -40,9 +43,34 @@ public class MasterServerResponse extends AbstractResponse<Set<InetSocketAddress
     /**
      * <p>getServerList.</p>
      *
-     * @return a {@link java.util.Set} object
+     * @return a {@link java.util.Set} object. The addresses are usually stored in a {@link PackedAddressSet}, in which case the {@link InetSocketAddress} instances are created lazily while iterating.
      */
     public final Set<InetSocketAddress> getServerList() {
         return super.getResult();
     }
+
+    /**
+     * Iterate over the addresses in their packed form, without creating an {@link InetSocketAddress} for each entry
+     *
+     * @return A {@link PrimitiveIterator.OfLong} over the packed addresses
+     *
+     * @see PackedAddressSet#unpack(long)
+     */
+    public final PrimitiveIterator.OfLong packedIterator() {
+        Set<InetSocketAddress> serverList = getServerList();
+        if (serverList instanceof PackedAddressSet)
+            return ((PackedAddressSet) serverList).packedIterator();
+        final Iterator<InetSocketAddress> it = serverList.iterator();
+        return new PrimitiveIterator.OfLong() {
+            @Override
+            public long nextLong() {
+                return PackedAddressSet.pack(it.next());
+            }
+
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+        };
+    }
 }
@@ -17,6 +17,7 @@
 package com.ibasco.agql.protocols.valve.steam.master.packets;
 
 import com.ibasco.agql.core.AbstractPacket;
+import com.ibasco.agql.core.util.PackedAddressSet;
 import io.netty.buffer.ByteBuf;
 import java.net.InetSocketAddress;
 
@@ -48,6 +49,17 @@ public class MasterServerAddressPacket extends AbstractPacket {
         return new InetSocketAddress(getAddressString(false), getPort());
     }
 
+    /**
+     * The address and port packed into a single {@code long}, without creating an {@link InetSocketAddress}
+     *
+     * @return The packed address
+     *
+     * @see com.ibasco.agql.core.util.PackedAddressSet#pack(int, int)
+     */
+    public final long getPackedAddress() {
+        return PackedAddressSet.pack(content().getInt(0), getPort());
+    }
+
     /**
      * <p>getAddressString.</p>
      *
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.protocols.valve.steam.master;
+
+import com.ibasco.agql.core.enums.RateLimitType;
+import com.ibasco.agql.core.util.FailsafeOptions;
+import com.ibasco.agql.core.util.Option;
+import com.ibasco.agql.core.util.Platform;
+import com.ibasco.agql.protocols.valve.steam.master.enums.MasterServerRegion;
+import com.ibasco.agql.protocols.valve.steam.master.enums.MasterServerType;
+import com.ibasco.agql.protocols.valve.steam.master.message.MasterServerRequest;
+import com.ibasco.agql.protocols.valve.steam.master.message.MasterServerResponse;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MasterServerMessengerTest {
+
+    private static final MasterServerRegion[] SHARDS = {MasterServerRegion.REGION_EUROPE, MasterServerRegion.REGION_ASIA, MasterServerRegion.REGION_AUSTRALIA, MasterServerRegion.REGION_AFRICA};
+
+    /**
+     * Header, a single server address and the terminating address
+     */
+    private static final byte[] RESPONSE = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x66, 0x0A, 10, 0, 0, 1, 0x69, (byte) 0x87, 0, 0, 0, 0, 0, 0};
+
+    private DatagramSocket server;
+
+    private Thread serverThread;
+
+    private List<Long> received;
+
+    @BeforeAll
+    static void setUpAll() {
+        Platform.initialize();
+        Option.initialize(MasterServerOptions.class);
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        received = new CopyOnWriteArrayList<>();
+        server = new DatagramSocket(0, InetAddress.getLoopbackAddress());
+        serverThread = new Thread(() -> {
+            byte[] buffer = new byte[1024];
+            while (!server.isClosed()) {
+                try {
+                    DatagramPacket request = new DatagramPacket(buffer, buffer.length);
+                    server.receive(request);
+                    received.add(System.nanoTime());
+                    server.send(new DatagramPacket(RESPONSE, RESPONSE.length, request.getSocketAddress()));
+                } catch (SocketException e) {
+                    return;
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        });
+        serverThread.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        server.close();
+        serverThread.join();
+    }
+
+    @Test
+    @DisplayName("The first request of each shard requires a permit of the global rate limiter")
+    void testGlobalRateLimit() throws Exception {
+        MasterServerOptions options = MasterServerOptions.builder()
+                                                         .option(MasterServerOptions.MASTER_ADDRESS, (InetSocketAddress) server.getLocalSocketAddress())
+                                                         .option(FailsafeOptions.FAILSAFE_RATELIMIT_TYPE, RateLimitType.SMOOTH)
+                                                         .option(FailsafeOptions.FAILSAFE_RATELIMIT_MAX_EXEC, 5L)
+                                                         .option(FailsafeOptions.FAILSAFE_RATELIMIT_PERIOD, 1000L)
+                                                         .build();
+        assertRateLimited(options);
+    }
+
+    @Test
+    @DisplayName("The first request of each shard requires a permit of the per-address rate limiter")
+    void testAddressRateLimit() throws Exception {
+        MasterServerOptions options = MasterServerOptions.builder()
+                                                         .option(MasterServerOptions.MASTER_ADDRESS, (InetSocketAddress) server.getLocalSocketAddress())
+                                                         .option(FailsafeOptions.FAILSAFE_RATELIMIT_ENABLED, false)
+                                                         .option(FailsafeOptions.FAILSAFE_RATELIMIT_TYPE, RateLimitType.SMOOTH)
+                                                         .option(FailsafeOptions.FAILSAFE_RATELIMIT_ADDRESS_MAX_EXEC, 5L)
+                                                         .option(FailsafeOptions.FAILSAFE_RATELIMIT_ADDRESS_PERIOD, 1000L)
+                                                         .build();
+        assertRateLimited(options);
+    }
+
+    /**
+     * Runs a single batch query per shard concurrently, with 5 permits per second the requests must arrive at least 200ms apart
+     */
+    private void assertRateLimited(MasterServerOptions options) throws Exception {
+        try (MasterServerMessenger messenger = new MasterServerMessenger(options)) {
+            //the first query pays for the initialization of the transport, which would skew the measured intervals
+            messenger.stream(request(MasterServerRegion.REGION_ALL)).get(10, TimeUnit.SECONDS);
+            received.clear();
+            List<CompletableFuture<MasterServerResponse>> futures = new ArrayList<>();
+            for (MasterServerRegion region : SHARDS)
+                futures.add(messenger.stream(request(region)));
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+        }
+        assertEquals(SHARDS.length, received.size());
+        for (int i = 1; i < received.size(); i++) {
+            long gap = TimeUnit.NANOSECONDS.toMillis(received.get(i) - received.get(i - 1));
+            assertTrue(gap >= 150, String.format("Request %d was sent %d ms after the previous one", i + 1, gap));
+        }
+    }
+
+    private static MasterServerRequest request(MasterServerRegion region) {
+        MasterServerRequest request = new MasterServerRequest();
+        request.setType(MasterServerType.SOURCE);
+        request.setRegion(region);
+        request.setFilter(MasterServerFilter.create());
+        request.setBatchHandler(batch -> CompletableFuture.completedFuture(null));
+        return request;
+    }
+}
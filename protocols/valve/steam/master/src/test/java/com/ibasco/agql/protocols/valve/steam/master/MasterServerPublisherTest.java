@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.protocols.valve.steam.master;
+
+import com.ibasco.agql.core.util.PackedAddressSet;
+import com.ibasco.agql.protocols.valve.steam.master.enums.MasterServerRegion;
+import com.ibasco.agql.protocols.valve.steam.master.enums.MasterServerType;
+import com.ibasco.agql.protocols.valve.steam.master.message.MasterServerRequest;
+import com.ibasco.agql.protocols.valve.steam.master.message.MasterServerResponse;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Function;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MasterServerPublisherTest {
+
+    private static final MasterServerFilter FILTER = MasterServerFilter.create();
+
+    @Test
+    @DisplayName("The next batch is only requested once the buffered addresses have been emitted and more are requested")
+    void testBackpressure() {
+        FakeQuery query = new FakeQuery(batch(1, 3), batch(4, 3));
+        MasterServerPublisher publisher = new MasterServerPublisher(query, MasterServerType.SOURCE, Collections.singletonList(MasterServerRegion.REGION_ALL), Collections.singletonList(FILTER), 1);
+        TestSubscriber subscriber = new TestSubscriber();
+        publisher.subscribe(subscriber);
+
+        subscriber.subscription.request(2);
+        assertEquals(2, subscriber.received.size());
+        assertEquals(1, query.requested.size());
+        assertFalse(query.pendingDemand().isDone());
+
+        //the buffer is drained, but there is no demand left
+        subscriber.subscription.request(1);
+        assertEquals(3, subscriber.received.size());
+        assertFalse(query.pendingDemand().isDone());
+
+        subscriber.subscription.request(10);
+        assertEquals(6, subscriber.received.size());
+        assertTrue(subscriber.completed);
+        assertNull(subscriber.error);
+        assertEquals(addresses(1, 6), new LinkedHashSet<>(subscriber.received));
+    }
+
+    @Test
+    @DisplayName("Addresses returned by more than one shard are only emitted once")
+    void testShardDuplicates() {
+        Map<MasterServerRegion, FakeQuery> queries = new ConcurrentHashMap<>();
+        queries.put(MasterServerRegion.REGION_EUROPE, new FakeQuery(batch(1, 3)));
+        queries.put(MasterServerRegion.REGION_ASIA, new FakeQuery(batch(2, 3)));
+        MasterServerPublisher publisher = new MasterServerPublisher(request -> queries.get(request.getRegion()).apply(request), MasterServerType.SOURCE, queries.keySet(), Collections.singletonList(FILTER), 2);
+        MasterServerResponse response = publisher.collect().join();
+        assertEquals(addresses(1, 4), new LinkedHashSet<>(response.getServerList()));
+    }
+
+    @Test
+    @DisplayName("Pending demand is failed once the subscription is cancelled, so the query does not wait forever")
+    void testCancelDuringBatch() throws Exception {
+        for (int i = 0; i < 2000; i++) {
+            FakeQuery query = new FakeQuery(batch(1, 3), batch(4, 3));
+            MasterServerPublisher publisher = new MasterServerPublisher(query, MasterServerType.SOURCE, Collections.singletonList(MasterServerRegion.REGION_ALL), Collections.singletonList(FILTER), 1);
+            TestSubscriber subscriber = new TestSubscriber();
+            publisher.subscribe(subscriber);
+            CountDownLatch start = new CountDownLatch(1);
+            Thread canceller = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                subscriber.subscription.cancel();
+            });
+            canceller.start();
+            query.beforeBatch = start::countDown;
+            subscriber.subscription.request(1);
+            canceller.join();
+            CompletableFuture<Void> demand = query.pendingDemand();
+            assertTrue(demand.isDone(), "Demand of the batch has not been completed");
+            assertTrue(query.promise.isDone(), "Query has not been completed");
+        }
+    }
+
+    @Test
+    @DisplayName("A failed shard aborts the pending demand of the other shards and reports the error")
+    void testAbortWithPendingDemand() {
+        FakeQuery healthy = new FakeQuery(batch(1, 3), batch(4, 3));
+        CompletableFuture<MasterServerResponse> failing = new CompletableFuture<>();
+        Function<MasterServerRequest, CompletableFuture<MasterServerResponse>> query = request -> request.getRegion() == MasterServerRegion.REGION_EUROPE ? healthy.apply(request) : failing;
+        MasterServerPublisher publisher = new MasterServerPublisher(query, MasterServerType.SOURCE, Arrays.asList(MasterServerRegion.REGION_EUROPE, MasterServerRegion.REGION_ASIA), Collections.singletonList(FILTER), 2);
+        TestSubscriber subscriber = new TestSubscriber();
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(1);
+        CompletableFuture<Void> demand = healthy.pendingDemand();
+        assertFalse(demand.isDone());
+
+        IllegalStateException error = new IllegalStateException("Shard failed");
+        failing.completeExceptionally(error);
+        assertTrue(demand.isCompletedExceptionally());
+        assertTrue(healthy.promise.isCompletedExceptionally());
+        assertSame(error, subscriber.error);
+        assertFalse(subscriber.completed);
+    }
+
+    @Test
+    @DisplayName("Non-positive requests are reported as an error")
+    void testInvalidRequest() {
+        FakeQuery query = new FakeQuery(batch(1, 3));
+        MasterServerPublisher publisher = new MasterServerPublisher(query, MasterServerType.SOURCE, Collections.singletonList(MasterServerRegion.REGION_ALL), Collections.singletonList(FILTER), 1);
+        TestSubscriber subscriber = new TestSubscriber();
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(0);
+        assertInstanceOf(IllegalArgumentException.class, subscriber.error);
+        assertTrue(query.requested.isEmpty());
+    }
+
+    private static List<InetSocketAddress> batch(int first, int count) {
+        return new ArrayList<>(addresses(first, count));
+    }
+
+    private static Set<InetSocketAddress> addresses(int first, int count) {
+        Set<InetSocketAddress> addresses = new LinkedHashSet<>();
+        for (int i = first; i < first + count; i++)
+            addresses.add(new InetSocketAddress("10.0.0." + i, 27015));
+        return addresses;
+    }
+
+    /**
+     * Emulates a streaming master server query, the next batch is only passed to the handler once the demand of the previous one has been completed
+     */
+    private static final class FakeQuery implements Function<MasterServerRequest, CompletableFuture<MasterServerResponse>> {
+
+        private final List<List<InetSocketAddress>> batches;
+
+        private final List<MasterServerRequest> requested = new CopyOnWriteArrayList<>();
+
+        private final List<CompletableFuture<Void>> demands = new CopyOnWriteArrayList<>();
+
+        private final CompletableFuture<MasterServerResponse> promise = new CompletableFuture<>();
+
+        private volatile Runnable beforeBatch;
+
+        private int index;
+
+        @SafeVarargs
+        private FakeQuery(List<InetSocketAddress>... batches) {
+            this.batches = Arrays.asList(batches);
+        }
+
+        @Override
+        public CompletableFuture<MasterServerResponse> apply(MasterServerRequest request) {
+            requested.add(request);
+            next(request);
+            return promise;
+        }
+
+        private CompletableFuture<Void> pendingDemand() {
+            return demands.get(demands.size() - 1);
+        }
+
+        private void next(MasterServerRequest request) {
+            List<InetSocketAddress> batch = batches.get(index++);
+            Runnable hook = beforeBatch;
+            if (hook != null)
+                hook.run();
+            CompletableFuture<Void> demand = request.getBatchHandler().apply(new PackedAddressSet(batch));
+            demands.add(demand);
+            if (index == batches.size()) {
+                promise.complete(new MasterServerResponse(new PackedAddressSet()));
+                return;
+            }
+            demand.whenComplete((unused, error) -> {
+                if (error != null)
+                    promise.completeExceptionally(error);
+                else
+                    next(request);
+            });
+        }
+    }
+
+    private static final class TestSubscriber implements Subscriber<InetSocketAddress> {
+
+        private final List<InetSocketAddress> received = new CopyOnWriteArrayList<>();
+
+        private volatile Subscription subscription;
+
+        private volatile Throwable error;
+
+        private volatile boolean completed;
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(InetSocketAddress address) {
+            received.add(address);
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            this.error = error;
+        }
+
+        @Override
+        public void onComplete() {
+            this.completed = true;
+        }
+    }
+}
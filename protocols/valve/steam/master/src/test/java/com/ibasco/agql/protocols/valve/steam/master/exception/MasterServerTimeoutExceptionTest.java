@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2022 Asynchronous Game Query Library
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibasco.agql.protocols.valve.steam.master.exception;
+
+import com.ibasco.agql.core.util.PackedAddressSet;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+class MasterServerTimeoutExceptionTest {
+
+    @Test
+    @DisplayName("IPv4 addresses are stored in a packed set")
+    void testIpv4Addresses() {
+        List<InetSocketAddress> addresses = Arrays.asList(new InetSocketAddress("10.0.0.1", 27015), new InetSocketAddress("10.0.0.2", 27016));
+        MasterServerTimeoutException exception = new MasterServerTimeoutException("Timeout", addresses);
+        assertInstanceOf(PackedAddressSet.class, exception.getAddresses());
+        assertEquals(new HashSet<>(addresses), exception.getAddresses());
+    }
+
+    @Test
+    @DisplayName("Addresses which can not be packed fall back to a regular set")
+    void testUnsupportedAddresses() {
+        List<InetSocketAddress> addresses = Arrays.asList(new InetSocketAddress("10.0.0.1", 27015), new InetSocketAddress("::1", 27015), InetSocketAddress.createUnresolved("example.invalid", 27015));
+        MasterServerTimeoutException exception = new MasterServerTimeoutException(addresses);
+        assertEquals(new HashSet<>(addresses), exception.getAddresses());
+        exception = new MasterServerTimeoutException("Timeout", new IllegalStateException(), addresses);
+        assertEquals(new HashSet<>(addresses), exception.getAddresses());
+    }
+}